@@ -1,15 +1,19 @@
 package com.horarios.SGH.Config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuración para el envío asíncrono de notificaciones
  */
+@Slf4j
 @Configuration
 @EnableAsync
 public class AsyncConfig {
@@ -43,4 +47,158 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Executor pool para los manejadores de eventos de dominio (post-commit).
+     * Cola acotada: si se llena, el hilo que publica procesa el evento (backpressure).
+     */
+    @Bean(name = "notificationEventExecutor")
+    public Executor notificationEventExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("Event-");
+        executor.setKeepAliveSeconds(60);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Executor pool para el worker de reintentos de correo.
+     * El tamaño fijo limita cuántos envíos simultáneos recibe el servidor SMTP.
+     */
+    @Bean(name = "notificationRetryExecutor")
+    public Executor notificationRetryExecutor(@Value("${app.notification.retry.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("Retry-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Executor pool para el trabajo largo de las tareas programadas (reintentos SMTP, retención).
+     * Cada tarea evita ejecuciones solapadas, así que si la cola se llena la nueva ejecución se descarta:
+     * la siguiente pasada del planificador la vuelve a intentar.
+     */
+    @Bean(name = "maintenanceExecutor")
+    public Executor maintenanceExecutor(@Value("${app.scheduling.maintenance-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("Maintenance-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+            log.warn("Executor de mantenimiento saturado, se descarta una ejecución programada"));
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Executor pool para la escritura en sesiones WebSocket.
+     * Cada sesión drena su propia cola en orden; la cola del pool solo guarda sesiones pendientes,
+     * así que un cliente lento ocupa a lo sumo un hilo y nunca frena al que publica.
+     * Un cliente atascado retiene su hilo hasta app.websocket.send-time-limit: writer-threads debe
+     * superar el número de clientes que pueden atascarse a la vez dentro de ese plazo.
+     */
+    @Bean(name = "webSocketWriterExecutor")
+    public Executor webSocketWriterExecutor(@Value("${app.websocket.writer-threads:8}") int writerThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(writerThreads);
+        executor.setMaxPoolSize(writerThreads);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("WsWriter-");
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Executor pool para la escritura en conexiones SSE, separado del de WebSocket
+     * para que clientes SSE atascados no retengan los hilos que entregan a las sesiones WebSocket.
+     */
+    @Bean(name = "sseWriterExecutor")
+    public Executor sseWriterExecutor(@Value("${app.sse.writer-threads:4}") int writerThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(writerThreads);
+        executor.setMaxPoolSize(writerThreads);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("SseWriter-");
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Executor pool para cerrar sesiones WebSocket y conexiones SSE atascadas o saturadas.
+     * Cerrar un socket que no lee puede bloquear; hacerlo aquí evita frenar al planificador,
+     * a quien publica o a los hilos de escritura.
+     */
+    @Bean(name = "connectionCloseExecutor")
+    public Executor connectionCloseExecutor(@Value("${app.websocket.close-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("WsClose-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Executor pool para precalentar la caché de exportaciones tras cambios de horarios.
+     * Precalentar es opcional (la descarga genera el documento si falta), así que con la cola llena
+     * la tarea se descarta con un aviso en lugar de fallar o de correr en el hilo que publicó el evento.
+     */
+    @Bean(name = "exportPrewarmExecutor")
+    public Executor exportPrewarmExecutor(@Value("${app.export.cache.prewarm-threads:1}") int threads,
+                                          @Value("${app.export.cache.prewarm-queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ExportPrewarm-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+            log.warn("Cola de precalentamiento de exportaciones llena ({} pendientes), se omite un precalentamiento",
+                pool.getQueue().size()));
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Executor pool para renderizar en paralelo las secciones de las exportaciones masivas.
+     * Si la cola se llena, el hilo que exporta renderiza la sección él mismo.
+     */
+    @Bean(name = "exportRenderExecutor")
+    public Executor exportRenderExecutor(@Value("${app.export.render-threads:0}") int renderThreads) {
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("ExportRender-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Executor pool dedicado a los trabajos de exportación en segundo plano.
+     * Tamaño y cola acotados: si se llena, el trabajo se rechaza en lugar de ocupar hilos de Tomcat.
+     */
+    @Bean(name = "exportJobExecutor")
+    public Executor exportJobExecutor(@Value("${app.export.jobs.threads:2}") int threads,
+                                      @Value("${app.export.jobs.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ExportJob-");
+        executor.initialize();
+        return executor;
+    }
+}
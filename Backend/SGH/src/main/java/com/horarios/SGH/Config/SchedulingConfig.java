@@ -0,0 +1,32 @@
+package com.horarios.SGH.Config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Habilita las tareas programadas (reintentos de notificaciones, mantenimiento, etc.)
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Planificador compartido por todos los @Scheduled. Con varios hilos, una tarea lenta
+     * (refresco de la instantánea, sondeo del relay) no retrasa los latidos ni la detección de sesiones atascadas.
+     * Las tareas que bloquean mucho tiempo (reintentos SMTP, retención) solo encolan su trabajo en maintenanceExecutor.
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${app.scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("Scheduler-");
+        scheduler.setErrorHandler(e -> log.error("Error en tarea programada: {}", e.getMessage(), e));
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        return scheduler;
+    }
+}
@@ -92,10 +92,13 @@ public class SecurityConfig {
                     "/schedules-crud/by-teacher/**",
                     "/availability/**",
                     "/users/*/photo",
+                    "/export-jobs/*/download", // el token de un solo uso es la credencial
+                    "/calendar/feed/**", // la firma de la URL identifica al usuario
                     "/swagger-ui/**",
                     "/swagger-ui.html",
                     "/v3/api-docs/**",
                     "/api-docs/**",
+                    "/ws/**", // el handshake WebSocket se autentica con JwtHandshakeInterceptor
                     "/actuator/**" // ✅ acceso público para health checks
                 ).permitAll()
                 .requestMatchers("/courses/*/students").hasAuthority("ROLE_COORDINADOR")
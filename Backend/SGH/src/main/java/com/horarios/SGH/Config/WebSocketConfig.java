@@ -0,0 +1,36 @@
+package com.horarios.SGH.Config;
+
+import com.horarios.SGH.WebSocket.JwtHandshakeInterceptor;
+import com.horarios.SGH.WebSocket.NotificationWebSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registro del endpoint WebSocket de notificaciones en tiempo real
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final NotificationWebSocketHandler notificationWebSocketHandler;
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+
+    @Value("${app.websocket.allowed-origins:http://localhost:*,http://127.0.0.1:*}")
+    private String[] allowedOrigins;
+
+    public WebSocketConfig(NotificationWebSocketHandler notificationWebSocketHandler,
+                           JwtHandshakeInterceptor jwtHandshakeInterceptor) {
+        this.notificationWebSocketHandler = notificationWebSocketHandler;
+        this.jwtHandshakeInterceptor = jwtHandshakeInterceptor;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(notificationWebSocketHandler, "/ws/notifications")
+            .addInterceptors(jwtHandshakeInterceptor)
+            .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
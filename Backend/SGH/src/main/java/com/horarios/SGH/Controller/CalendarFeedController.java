@@ -0,0 +1,97 @@
+package com.horarios.SGH.Controller;
+
+import com.horarios.SGH.DTO.responseDTO;
+import com.horarios.SGH.Service.CalendarFeedService;
+import com.horarios.SGH.Service.ExportArtifact;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/calendar")
+@RequiredArgsConstructor
+@Tag(name = "Calendario", description = "Feed iCalendar del horario para suscribirse desde Google Calendar, Outlook, etc.")
+public class CalendarFeedController {
+
+    // Los clientes de calendario refrescan cada pocas horas; entre medias revalidan con ETag/Last-Modified
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate();
+
+    private final CalendarFeedService calendarFeedService;
+
+    @GetMapping("/feed-url")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+        summary = "Obtener la URL de suscripción del usuario",
+        description = "Estudiantes: horario de su curso. Maestros: su horario. La URL deja de valer al cambiar la contraseña"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "URL del feed"),
+        @ApiResponse(responseCode = "404", description = "El usuario no tiene horario que publicar")
+    })
+    public ResponseEntity<?> getFeedUrl(Authentication auth) {
+        try {
+            String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path(calendarFeedService.feedPath(auth.getName()))
+                .toUriString();
+            return ResponseEntity.ok(Map.of("url", url));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new responseDTO("ERROR", e.getMessage()));
+        }
+    }
+
+    /**
+     * Público a nivel de seguridad: la firma de la URL identifica al usuario
+     */
+    @GetMapping("/feed/{userId}/{signature}.ics")
+    @Operation(
+        summary = "Feed iCalendar del usuario",
+        description = "Eventos semanales recurrentes (RFC 5545). Con If-None-Match o If-Modified-Since vigentes responde 304"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Calendario"),
+        @ApiResponse(responseCode = "304", description = "El calendario no cambió"),
+        @ApiResponse(responseCode = "404", description = "URL inválida o revocada")
+    })
+    public ResponseEntity<byte[]> getFeed(@PathVariable int userId, @PathVariable String signature,
+                                          WebRequest request) {
+        ExportArtifact artifact;
+        try {
+            artifact = calendarFeedService.loadFeed(userId, signature);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        if (artifact == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        long lastModified = artifact.getGeneratedAt().toEpochMilli();
+        if (request.checkNotModified(artifact.getEtag(), lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(artifact.getEtag())
+                .lastModified(lastModified)
+                .cacheControl(CACHE_CONTROL)
+                .build();
+        }
+        return ResponseEntity.ok()
+            .eTag(artifact.getEtag())
+            .lastModified(lastModified)
+            .cacheControl(CACHE_CONTROL)
+            .contentType(MediaType.parseMediaType(artifact.getContentType()))
+            .contentLength(artifact.getContent().length)
+            .body(artifact.getContent());
+    }
+}
@@ -0,0 +1,183 @@
+package com.horarios.SGH.Controller;
+
+import com.horarios.SGH.DTO.ExportJobDTO;
+import com.horarios.SGH.DTO.ExportJobRequestDTO;
+import com.horarios.SGH.DTO.responseDTO;
+import com.horarios.SGH.Service.ExportFormat;
+import com.horarios.SGH.Service.ExportJob;
+import com.horarios.SGH.Service.ExportJob.Scope;
+import com.horarios.SGH.Service.ExportJob.Status;
+import com.horarios.SGH.Service.ExportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/export-jobs")
+@RequiredArgsConstructor
+@Tag(name = "Exportaciones en segundo plano", description = "Cola de exportaciones con progreso y descarga de un solo uso")
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+        summary = "Encolar una exportación",
+        description = "Devuelve el ID del trabajo de inmediato. El progreso llega por WebSocket/SSE (evento export_job) o consultando GET /export-jobs/{jobId}"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Trabajo encolado"),
+        @ApiResponse(responseCode = "400", description = "Alcance, formato o ID inválidos"),
+        @ApiResponse(responseCode = "403", description = "Las exportaciones generales requieren rol COORDINADOR"),
+        @ApiResponse(responseCode = "429", description = "El usuario ya tiene el máximo de exportaciones en curso"),
+        @ApiResponse(responseCode = "503", description = "La cola de exportaciones está llena")
+    })
+    public ResponseEntity<?> submit(@Valid @RequestBody ExportJobRequestDTO request, Authentication auth) {
+        Scope scope;
+        ExportFormat format;
+        try {
+            scope = Scope.valueOf(request.getScope().trim().toUpperCase());
+            format = ExportFormat.fromString(request.getFormat());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new responseDTO("ERROR", "Alcance o formato de exportación no soportado"));
+        }
+
+        if (!scope.requiresTarget() && !isCoordinator(auth)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new responseDTO("ERROR", "Solo un coordinador puede exportar el horario general"));
+        }
+
+        try {
+            ExportJob job = exportJobService.submit(auth.getName(), scope, request.getTargetId(), format);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(toDTO(job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new responseDTO("ERROR", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new responseDTO("ERROR", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            // Incluye TaskRejectedException del ejecutor de Spring
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new responseDTO("ERROR", "La cola de exportaciones está llena, intenta más tarde"));
+        }
+    }
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Listar mis exportaciones", description = "Del más reciente al más antiguo; los terminados se conservan hasta que expiran")
+    public ResponseEntity<List<ExportJobDTO>> list(Authentication auth) {
+        return ResponseEntity.ok(exportJobService.listFor(auth.getName()).stream()
+            .map(this::toDTO)
+            .collect(Collectors.toList()));
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Consultar el estado de una exportación")
+    public ResponseEntity<?> get(@PathVariable String jobId, Authentication auth) {
+        ExportJob job = exportJobService.get(jobId, auth.getName());
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new responseDTO("ERROR", "Exportación no encontrada"));
+        }
+        return ResponseEntity.ok(toDTO(job));
+    }
+
+    @DeleteMapping("/{jobId}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Cancelar una exportación pendiente o en curso")
+    public ResponseEntity<responseDTO> cancel(@PathVariable String jobId, Authentication auth) {
+        if (!exportJobService.cancel(jobId, auth.getName())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new responseDTO("ERROR", "Exportación no encontrada o ya terminada"));
+        }
+        return ResponseEntity.ok(new responseDTO("OK", "Exportación cancelada"));
+    }
+
+    /**
+     * Público a nivel de seguridad: el token de un solo uso es la credencial,
+     * así el enlace puede abrirse directamente en el navegador.
+     */
+    @GetMapping("/{jobId}/download")
+    @Operation(summary = "Descargar el resultado", description = "El token solo sirve una vez; el archivo se borra tras enviarse")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Documento generado"),
+        @ApiResponse(responseCode = "410", description = "Token inválido, ya usado o exportación expirada")
+    })
+    public ResponseEntity<StreamingResponseBody> download(
+            @PathVariable String jobId,
+            @Parameter(description = "Token de descarga recibido al completarse el trabajo") @RequestParam String token) {
+        ExportJob job = exportJobService.consumeDownload(jobId, token);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+
+        long size;
+        try {
+            size = Files.size(job.getFile());
+        } catch (IOException e) {
+            exportJobService.release(job);
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(job.getFile(), out);
+                out.flush();
+            } finally {
+                exportJobService.release(job);
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(job.getContentType()))
+            .contentLength(size)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(job.getFileName())
+                .build()
+                .toString())
+            .body(body);
+    }
+
+    private static boolean isCoordinator(Authentication auth) {
+        return auth.getAuthorities().stream()
+            .anyMatch(a -> "ROLE_COORDINADOR".equals(a.getAuthority()));
+    }
+
+    private ExportJobDTO toDTO(ExportJob job) {
+        ExportJobDTO dto = new ExportJobDTO();
+        dto.setJobId(job.getId());
+        dto.setScope(job.getScope().name());
+        dto.setTargetId(job.getTargetId());
+        dto.setFormat(job.getFormat().name());
+        dto.setStatus(job.getStatus().name());
+        dto.setProgress(job.getProgress());
+        dto.setBytesWritten(job.getBytesWritten());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setError(job.getError());
+        String token = job.getDownloadToken();
+        if (job.getStatus() == Status.COMPLETED && token != null) {
+            dto.setDownloadUrl("/export-jobs/" + job.getId() + "/download?token=" + token);
+        }
+        return dto;
+    }
+}
@@ -1,21 +1,31 @@
 package com.horarios.SGH.Controller;
 
 import com.horarios.SGH.DTO.InAppNotificationDTO;
+import com.horarios.SGH.DTO.InAppNotificationFilterDTO;
 import com.horarios.SGH.DTO.InAppNotificationResponseDTO;
+import com.horarios.SGH.DTO.NotificationFeedCursor;
+import com.horarios.SGH.Model.BroadcastNotification;
 import com.horarios.SGH.Model.InAppNotification;
+import com.horarios.SGH.Model.NotificationPriority;
+import com.horarios.SGH.Model.NotificationType;
 import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Service.BroadcastNotificationService;
 import com.horarios.SGH.Service.InAppNotificationService;
+import com.horarios.SGH.WebSocket.SseNotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -30,12 +40,17 @@ import java.util.stream.Collectors;
 @Tag(name = "Notificaciones In-App", description = "API para gestión de notificaciones dentro de la aplicación")
 public class InAppNotificationController {
 
+    private static final int MAX_FEED_SIZE = 100;
+
     @Autowired
     private InAppNotificationService inAppNotificationService;
 
     @Autowired
     private com.horarios.SGH.Service.usersService usersService;
 
+    @Autowired
+    private SseNotificationService sseNotificationService;
+
     /**
      * Obtiene todas las notificaciones activas del usuario actual
      */
@@ -88,6 +103,91 @@ public class InAppNotificationController {
         }
     }
 
+    /**
+     * Feed del usuario paginado por cursor
+     */
+    @GetMapping("/feed")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Obtener feed de notificaciones por cursor",
+               description = "Devuelve las notificaciones activas anteriores al cursor 'before' (createdAt,id). " +
+                             "Para la siguiente página se envía el 'nextCursor' de la respuesta")
+    public ResponseEntity<?> getFeed(
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Integer userId = getCurrentUserId();
+            int pageSize = clampFeedSize(size);
+            List<InAppNotification> items = inAppNotificationService.getNotificationFeed(
+                userId, NotificationFeedCursor.parse(before), pageSize + 1);
+            return ResponseEntity.ok(feedResponse(items, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error obteniendo feed de notificaciones: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Error interno del servidor"));
+        }
+    }
+
+    /**
+     * Búsqueda filtrada de notificaciones del usuario, paginada por cursor
+     */
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Buscar notificaciones",
+               description = "Filtra las notificaciones del usuario por tipo, prioridad, categoría y estado; " +
+                             "solo los filtros enviados se aplican a la consulta")
+    public ResponseEntity<?> searchNotifications(
+            @RequestParam(required = false) NotificationType type,
+            @RequestParam(required = false) NotificationPriority priority,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Boolean read,
+            @RequestParam(defaultValue = "false") Boolean archived,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            InAppNotificationFilterDTO filter = new InAppNotificationFilterDTO();
+            filter.setUserId(getCurrentUserId());
+            filter.setNotificationType(type);
+            filter.setPriority(priority);
+            filter.setCategory(category);
+            filter.setRead(read);
+            filter.setArchived(archived);
+
+            int pageSize = clampFeedSize(size);
+            List<InAppNotification> items = inAppNotificationService.searchNotifications(
+                filter, NotificationFeedCursor.parse(before), pageSize + 1);
+            return ResponseEntity.ok(feedResponse(items, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error buscando notificaciones: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Error interno del servidor"));
+        }
+    }
+
+    /**
+     * Canal Server-Sent Events con las mismas actualizaciones que el WebSocket
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Suscribirse a notificaciones por SSE",
+               description = "Envía nuevas notificaciones, cambios de lectura y el conteo de no leídas en tiempo real. " +
+                             "Al reconectar con Last-Event-ID se reenvían los eventos perdidos, o un evento 'resync' " +
+                             "si ya no están disponibles")
+    public SseEmitter streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Integer userId = getCurrentUserId();
+        users user = usersService.findById(userId)
+            .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado: " + userId));
+
+        return sseNotificationService.open(
+            String.valueOf(userId),
+            user.getRole() != null ? user.getRole().getRoleName() : null,
+            user.getCourse() != null ? user.getCourse().getId() : null,
+            lastEventId,
+            inAppNotificationService.getUnreadCount(userId));
+    }
+
     /**
      * Marca una notificación específica como leída
      */
@@ -99,6 +199,12 @@ public class InAppNotificationController {
         try {
             Integer userId = getCurrentUserId();
 
+            // Las difusiones usan ID negativo; la visibilidad se comprueba contra el rol y curso del usuario
+            if (BroadcastNotificationService.isBroadcastFeedId(notificationId)) {
+                inAppNotificationService.markBroadcastAsRead(notificationId, userId);
+                return ResponseEntity.ok(Map.of("message", "Notificación marcada como leída"));
+            }
+
             // Verificar que la notificación pertenece al usuario
             InAppNotification notification = inAppNotificationService.getNotificationById(notificationId);
             if (!notification.getUserId().equals(userId)) {
@@ -157,6 +263,49 @@ public class InAppNotificationController {
         }
     }
 
+    /**
+     * Envía la misma notificación In-App a todos los usuarios de un rol
+     */
+    @PostMapping("/send/role/{role}")
+    @PreAuthorize("hasRole('COORDINADOR')")
+    @Operation(summary = "Enviar notificación In-App por rol",
+                description = "Crea la notificación para todos los usuarios del rol con inserción por lotes")
+    public ResponseEntity<?> sendToRole(@PathVariable String role, @RequestBody InAppNotificationDTO notification) {
+        try {
+            int created = inAppNotificationService.sendInAppNotificationToRole(role, notification);
+            return ResponseEntity.ok(Map.of("role", role, "created", created));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error enviando notificación In-App al rol {}: {}", role, e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Error interno del servidor"));
+        }
+    }
+
+    /**
+     * Difunde una notificación a un rol, a un curso o a todos los usuarios
+     */
+    @PostMapping("/broadcast")
+    @PreAuthorize("hasRole('COORDINADOR')")
+    @Operation(summary = "Difundir notificación In-App",
+                description = "Guarda una sola notificación para el rol y/o curso indicados (o todos si se omiten); " +
+                              "cada usuario la ve en su feed sin crear una fila por destinatario")
+    public ResponseEntity<?> broadcast(@RequestParam(required = false) String role,
+                                       @RequestParam(required = false) Integer courseId,
+                                       @RequestBody InAppNotificationDTO notification) {
+        try {
+            String createdBy = SecurityContextHolder.getContext().getAuthentication().getName();
+            BroadcastNotification broadcast =
+                inAppNotificationService.sendBroadcastNotification(notification, role, courseId, createdBy);
+            return ResponseEntity.ok(Map.of("notificationId", -broadcast.getBroadcastId(), "createdAt", broadcast.getCreatedAt()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error difundiendo notificación In-App: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Error interno del servidor"));
+        }
+    }
+
     /**
      * Endpoint de prueba para crear una notificación manual
      */
@@ -195,6 +344,29 @@ public class InAppNotificationController {
 
 
 
+    private static int clampFeedSize(int size) {
+        return Math.max(1, Math.min(size, MAX_FEED_SIZE));
+    }
+
+    /**
+     * Respuesta de una página por cursor; se recibe un elemento de más para saber si hay otra página
+     */
+    private Map<String, Object> feedResponse(List<InAppNotification> items, int pageSize) {
+        boolean hasMore = items.size() > pageSize;
+        List<InAppNotification> page = hasMore ? items.subList(0, pageSize) : items;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("notifications", page.stream().map(this::convertToDTO).collect(Collectors.toList()));
+        response.put("hasMore", hasMore);
+        if (hasMore) {
+            InAppNotification last = page.get(page.size() - 1);
+            response.put("nextCursor", NotificationFeedCursor.of(last.getCreatedAt(), last.getNotificationId()));
+        } else {
+            response.put("nextCursor", null);
+        }
+        return response;
+    }
+
     /**
      * Convierte InAppNotification a DTO de respuesta
      */
@@ -205,6 +377,7 @@ public class InAppNotificationController {
         dto.setMessage(notification.getMessage());
         dto.setNotificationType(notification.getNotificationType().name());
         dto.setRead(notification.isRead());
+        dto.setBroadcast(BroadcastNotificationService.isBroadcastFeedId(notification.getNotificationId()));
         dto.setCreatedAt(notification.getCreatedAt());
         dto.setPriority(notification.getPriority().name());
         dto.setCategory(notification.getCategory());
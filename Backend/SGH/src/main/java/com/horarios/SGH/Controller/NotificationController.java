@@ -131,7 +131,8 @@ public class NotificationController {
     @PostMapping("/retry-failed")
     @PreAuthorize("hasRole('COORDINADOR')")
     @Operation(summary = "Reintentar notificaciones fallidas",
-               description = "Reintenta el envío de todas las notificaciones que fallaron anteriormente")
+               description = "Reintenta ahora las notificaciones fallidas cuyo próximo intento ya venció. " +
+                             "El mismo proceso se ejecuta periódicamente de forma automática")
     public ResponseEntity<?> retryFailedNotifications() {
         try {
             log.info("Solicitud de reintento de notificaciones fallidas");
@@ -3,6 +3,7 @@ package com.horarios.SGH.Controller;
 import com.horarios.SGH.DTO.ScheduleDTO;
 import com.horarios.SGH.DTO.responseDTO;
 import com.horarios.SGH.Service.ScheduleService;
+import com.horarios.SGH.Service.TimetableSnapshotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,6 +11,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -24,9 +26,11 @@ import java.util.List;
 public class ScheduleCrudController {
 
     private final ScheduleService scheduleService;
+    private final TimetableSnapshotService timetableSnapshot;
 
-    public ScheduleCrudController(ScheduleService scheduleService) {
+    public ScheduleCrudController(ScheduleService scheduleService, TimetableSnapshotService timetableSnapshot) {
         this.scheduleService = scheduleService;
+        this.timetableSnapshot = timetableSnapshot;
     }
 
     @PostMapping
@@ -83,10 +87,10 @@ public class ScheduleCrudController {
         @ApiResponse(responseCode = "200", description = "Horarios del curso obtenidos"),
         @ApiResponse(responseCode = "404", description = "Curso no encontrado")
     })
-    public List<ScheduleDTO> getByCourse(
+    public ResponseEntity<byte[]> getByCourse(
             @Parameter(description = "ID del curso", example = "1")
             @PathVariable Integer id) {
-        return scheduleService.getByCourse(id);
+        return json(timetableSnapshot.courseJson(id));
     }
 
     @GetMapping("/by-teacher/{id}")
@@ -98,10 +102,10 @@ public class ScheduleCrudController {
         @ApiResponse(responseCode = "200", description = "Horarios del profesor obtenidos"),
         @ApiResponse(responseCode = "404", description = "Profesor no encontrado")
     })
-    public List<ScheduleDTO> getByTeacher(
+    public ResponseEntity<byte[]> getByTeacher(
             @Parameter(description = "ID del profesor", example = "5")
             @PathVariable Integer id) {
-        return scheduleService.getByTeacher(id);
+        return json(timetableSnapshot.teacherJson(id));
     }
 
     @GetMapping("/my-schedule")
@@ -115,8 +119,8 @@ public class ScheduleCrudController {
         @ApiResponse(responseCode = "403", description = "No autorizado - solo para estudiantes"),
         @ApiResponse(responseCode = "404", description = "Estudiante no tiene curso asignado")
     })
-    public List<ScheduleDTO> getMySchedule(Authentication auth) {
-        return scheduleService.getByStudentEmail(auth.getName());
+    public ResponseEntity<byte[]> getMySchedule(Authentication auth) {
+        return json(timetableSnapshot.courseJson(scheduleService.getCourseIdByStudentEmail(auth.getName())));
     }
 
     @GetMapping
@@ -129,20 +133,16 @@ public class ScheduleCrudController {
         @ApiResponse(responseCode = "200", description = "Horarios obtenidos según permisos"),
         @ApiResponse(responseCode = "403", description = "No autorizado")
     })
-    public List<ScheduleDTO> getAll(Authentication auth) {
-        // Obtener el usuario autenticado
-        com.horarios.SGH.Model.users currentUser = scheduleService.getUserByEmail(auth.getName());
-
-        // Si es estudiante, filtrar por su curso
-        if ("ESTUDIANTE".equals(currentUser.getRole().getRoleName())) {
-            if (currentUser.getCourse() == null) {
-                throw new RuntimeException("Estudiante no tiene curso asignado");
-            }
-            return scheduleService.getByCourse(currentUser.getCourse().getId());
+    public ResponseEntity<byte[]> getAll(Authentication auth) {
+        // Si es estudiante, filtrar por su curso (el rol ya está en la autenticación: no hace falta cargar el usuario)
+        boolean isStudent = auth.getAuthorities().stream()
+            .anyMatch(a -> "ROLE_ESTUDIANTE".equals(a.getAuthority()));
+        if (isStudent) {
+            return json(timetableSnapshot.courseJson(scheduleService.getCourseIdByStudentEmail(auth.getName())));
         }
 
         // Para coordinadores y otros roles con permisos, mostrar todos
-        return scheduleService.getAll();
+        return json(timetableSnapshot.allJson());
     }
 
     @PutMapping("/{id}")
@@ -231,4 +231,11 @@ public class ScheduleCrudController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Las consultas de lectura devuelven el JSON ya serializado en la instantánea de horarios
+     */
+    private static ResponseEntity<byte[]> json(byte[] body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.horarios.SGH.Controller;
+
+import com.horarios.SGH.Service.ExportArtifact;
+import com.horarios.SGH.Service.ExportFormat;
+import com.horarios.SGH.Service.ExportStrategy;
+import com.horarios.SGH.Service.ScheduleExportCache.Scope;
+import com.horarios.SGH.Service.ScheduleExportServiceRefactored;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/schedules-export")
+@Tag(name = "Exportación de horarios", description = "Descarga de horarios en PDF, Excel o imagen")
+public class ScheduleExportController {
+
+    // El navegador puede guardar el documento pero debe revalidarlo con el ETag en cada descarga
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private final ScheduleExportServiceRefactored exportService;
+
+    public ScheduleExportController(ScheduleExportServiceRefactored exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/course/{id}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+        summary = "Exportar horario de un curso",
+        description = "Sirve el documento desde la caché de exportaciones. Con If-None-Match igual al ETag vigente responde 304"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Documento generado"),
+        @ApiResponse(responseCode = "304", description = "El documento no cambió desde la última descarga"),
+        @ApiResponse(responseCode = "400", description = "Formato no soportado")
+    })
+    public ResponseEntity<byte[]> exportByCourse(
+            @Parameter(description = "ID del curso", example = "1") @PathVariable Integer id,
+            @Parameter(description = "pdf, excel, image o ics", example = "pdf") @RequestParam(defaultValue = "pdf") String format,
+            WebRequest request) {
+        return cached(Scope.COURSE, id, format, "horario_curso_" + id, request);
+    }
+
+    @GetMapping("/teacher/{id}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(
+        summary = "Exportar horario de un profesor",
+        description = "Sirve el documento desde la caché de exportaciones. Con If-None-Match igual al ETag vigente responde 304"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Documento generado"),
+        @ApiResponse(responseCode = "304", description = "El documento no cambió desde la última descarga"),
+        @ApiResponse(responseCode = "400", description = "Formato no soportado")
+    })
+    public ResponseEntity<byte[]> exportByTeacher(
+            @Parameter(description = "ID del profesor", example = "5") @PathVariable Integer id,
+            @Parameter(description = "pdf, excel, image o ics", example = "pdf") @RequestParam(defaultValue = "pdf") String format,
+            WebRequest request) {
+        return cached(Scope.TEACHER, id, format, "horario_profesor_" + id, request);
+    }
+
+    @GetMapping("/all/courses")
+    @PreAuthorize("hasRole('COORDINADOR')")
+    @Operation(summary = "Exportar horario general de todos los cursos")
+    public ResponseEntity<StreamingResponseBody> exportAllSchedules(
+            @Parameter(description = "pdf, excel, image o ics", example = "pdf") @RequestParam(defaultValue = "pdf") String format) {
+        return stream(format, "horario_general_cursos", exportService::exportAllSchedules);
+    }
+
+    @GetMapping("/all/teachers")
+    @PreAuthorize("hasRole('COORDINADOR')")
+    @Operation(summary = "Exportar horario general de todos los profesores")
+    public ResponseEntity<StreamingResponseBody> exportAllTeachersSchedules(
+            @Parameter(description = "pdf, excel, image o ics", example = "pdf") @RequestParam(defaultValue = "pdf") String format) {
+        return stream(format, "horario_general_profesores", exportService::exportAllTeachersSchedules);
+    }
+
+    @GetMapping("/bundle")
+    @PreAuthorize("hasRole('COORDINADOR')")
+    @Operation(
+        summary = "Exportar un ZIP con el horario de cada curso y cada profesor",
+        description = "Un archivo por curso (carpeta cursos/) y por profesor (carpeta profesores/) en cada formato pedido. "
+            + "El ZIP se escribe a medida que se renderizan los archivos"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "ZIP generado"),
+        @ApiResponse(responseCode = "400", description = "Formato o contenido no soportado")
+    })
+    public ResponseEntity<StreamingResponseBody> exportBundle(
+            @Parameter(description = "Formatos separados por coma: pdf, excel, image, ics", example = "pdf,excel")
+            @RequestParam(defaultValue = "pdf") List<String> formats,
+            @Parameter(description = "Qué incluir: courses, teachers", example = "courses,teachers")
+            @RequestParam(defaultValue = "courses,teachers") List<String> include) {
+        Set<ExportFormat> exportFormats = new LinkedHashSet<>();
+        try {
+            for (String format : formats) {
+                exportFormats.add(ExportFormat.fromString(format));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean courses = include.stream().anyMatch(value -> "courses".equalsIgnoreCase(value.trim()));
+        boolean teachers = include.stream().anyMatch(value -> "teachers".equalsIgnoreCase(value.trim()));
+        if (exportFormats.isEmpty() || (!courses && !teachers)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                exportService.exportBundle(exportFormats, courses, teachers, out);
+                out.flush();
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Error generando la exportación: " + e.getMessage(), e);
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("horarios_colegio.zip")
+                .build()
+                .toString())
+            .body(body);
+    }
+
+    /**
+     * Respuesta desde la caché de exportaciones. El ETag se compara antes de generar nada:
+     * un cliente con el documento vigente recibe 304 sin tocar la base de datos.
+     */
+    private ResponseEntity<byte[]> cached(Scope scope, Integer id, String format, String fileName, WebRequest request) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromString(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String etag = exportService.currentEtag(scope, id, exportFormat);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+
+        ExportArtifact artifact;
+        try {
+            artifact = scope == Scope.COURSE
+                ? exportService.exportCourseArtifact(id, exportFormat)
+                : exportService.exportTeacherArtifact(id, exportFormat);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+
+        return ResponseEntity.ok()
+            .eTag(artifact.getEtag())
+            .cacheControl(CACHE_CONTROL)
+            .contentType(MediaType.parseMediaType(artifact.getContentType()))
+            .contentLength(artifact.getContent().length)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName + "." + artifact.getFileExtension())
+                .build()
+                .toString())
+            .body(artifact.getContent());
+    }
+
+    /**
+     * Respuesta que escribe el documento a medida que se genera, en un hilo de MVC asíncrono.
+     * Sin Content-Length el contenedor usa transferencia por chunks y el archivo nunca se arma completo en memoria.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(String format, String fileName, ExportWriter writer) {
+        ExportStrategy strategy;
+        try {
+            strategy = exportService.newStrategy(ExportFormat.fromString(format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                writer.write(strategy, out);
+                out.flush();
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Error generando la exportación: " + e.getMessage(), e);
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(strategy.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName + "." + strategy.getFileExtension())
+                .build()
+                .toString())
+            .body(body);
+    }
+
+    @FunctionalInterface
+    private interface ExportWriter {
+        void write(ExportStrategy strategy, OutputStream out) throws Exception;
+    }
+}
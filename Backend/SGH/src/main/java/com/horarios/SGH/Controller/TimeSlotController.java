@@ -0,0 +1,55 @@
+package com.horarios.SGH.Controller;
+
+import com.horarios.SGH.DTO.TimeSlotDTO;
+import com.horarios.SGH.DTO.responseDTO;
+import com.horarios.SGH.Service.TimeSlotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/time-slots")
+@RequiredArgsConstructor
+@Tag(name = "Jornada escolar", description = "Franjas horarias (timbre) usadas en las exportaciones de horarios")
+public class TimeSlotController {
+
+    private final TimeSlotService timeSlotService;
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Listar las franjas de la jornada", description = "Ordenadas por hora de inicio")
+    public ResponseEntity<List<TimeSlotDTO>> getAll() {
+        return ResponseEntity.ok(timeSlotService.getAll());
+    }
+
+    @PutMapping
+    @PreAuthorize("hasRole('COORDINADOR')")
+    @Operation(
+        summary = "Reemplazar la jornada escolar",
+        description = "Sustituye todas las franjas. Las franjas con breakLabel se muestran como descanso en las exportaciones"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Jornada actualizada"),
+        @ApiResponse(responseCode = "400", description = "Hora inválida o franjas solapadas")
+    })
+    public ResponseEntity<?> replaceAll(@RequestBody List<TimeSlotDTO> slots) {
+        if (slots == null || slots.isEmpty()) {
+            return ResponseEntity.badRequest().body(new responseDTO("ERROR", "Debe enviar al menos una franja"));
+        }
+        try {
+            return ResponseEntity.ok(timeSlotService.replaceAll(slots));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(new responseDTO("ERROR", "Las horas deben tener formato HH:mm"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new responseDTO("ERROR", e.getMessage()));
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.security.core.Authentication;
 
 import com.horarios.SGH.DTO.responseDTO;
 import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Service.StudentCourseCache;
 import com.horarios.SGH.Service.usersService;
 import com.horarios.SGH.Repository.Iusers;
 
@@ -28,6 +29,9 @@ public class usersController {
     @Autowired
     private Iusers usersRepository;
 
+    @Autowired
+    private StudentCourseCache studentCourses;
+
     @Value("${app.master.username}")
     private String masterUsername;
 
@@ -74,6 +78,7 @@ public class usersController {
             }
 
             usersRepository.delete(usuario.get());
+            studentCourses.evict(username);
             return ResponseEntity.ok(new responseDTO("OK", "Usuario eliminado correctamente"));
 
         } catch (Exception e) {
@@ -177,6 +182,7 @@ public class usersController {
             }
 
             usersRepository.deleteById(id);
+            studentCourses.evict(usuario.get().getPerson().getEmail());
             return ResponseEntity.ok(new responseDTO("OK", "Usuario eliminado correctamente"));
 
         } catch (Exception e) {
@@ -0,0 +1,41 @@
+package com.horarios.SGH.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Schema(description = "Estado de un trabajo de exportación en segundo plano")
+public class ExportJobDTO {
+
+    @Schema(description = "ID del trabajo", example = "3f0c2a8e-5b7d-4c1e-9a62-0d4b8f1e7c55")
+    private String jobId;
+
+    @Schema(description = "Qué se exporta", example = "ALL_COURSES")
+    private String scope;
+
+    @Schema(description = "ID del curso o profesor", example = "1")
+    private Integer targetId;
+
+    @Schema(description = "Formato", example = "PDF")
+    private String format;
+
+    @Schema(description = "QUEUED, RUNNING, COMPLETED, FAILED o CANCELLED", example = "RUNNING")
+    private String status;
+
+    @Schema(description = "Avance aproximado (0-100)", example = "30")
+    private int progress;
+
+    @Schema(description = "Bytes del documento escritos hasta ahora", example = "524288")
+    private long bytesWritten;
+
+    private Instant createdAt;
+    private Instant finishedAt;
+
+    @Schema(description = "Mensaje de error si el trabajo falló")
+    private String error;
+
+    @Schema(description = "URL de descarga de un solo uso; presente solo si el trabajo terminó y no se descargó")
+    private String downloadUrl;
+}
@@ -0,0 +1,21 @@
+package com.horarios.SGH.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+@Schema(description = "Solicitud de exportación en segundo plano")
+public class ExportJobRequestDTO {
+
+    @NotBlank(message = "El alcance es obligatorio")
+    @Schema(description = "Qué exportar", allowableValues = {"COURSE", "TEACHER", "ALL_COURSES", "ALL_TEACHERS"},
+            example = "ALL_COURSES", required = true)
+    private String scope;
+
+    @Schema(description = "ID del curso o profesor (solo para COURSE y TEACHER)", example = "1")
+    private Integer targetId;
+
+    @Schema(description = "pdf, excel, image o ics", example = "pdf")
+    private String format = "pdf";
+}
@@ -0,0 +1,23 @@
+package com.horarios.SGH.DTO;
+
+import com.horarios.SGH.Model.NotificationPriority;
+import com.horarios.SGH.Model.NotificationType;
+import lombok.Data;
+
+/**
+ * Criterios de búsqueda de notificaciones In-App.
+ * Solo los campos no nulos se traducen en condiciones de la consulta.
+ */
+@Data
+public class InAppNotificationFilterDTO {
+
+    private Integer userId;
+    private NotificationType notificationType;
+    private NotificationPriority priority;
+    private String category;
+    private Boolean read;
+    private Boolean archived;
+
+    // Excluye las expiradas
+    private boolean activeOnly = true;
+}
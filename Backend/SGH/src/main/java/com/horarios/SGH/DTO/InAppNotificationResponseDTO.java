@@ -59,6 +59,9 @@ public class InAppNotificationResponseDTO {
     @Schema(description = "Indica si la notificación está archivada", example = "false")
     private boolean archived;
 
+    @Schema(description = "Indica si es una difusión a un rol o curso (ID negativo)", example = "false")
+    private boolean broadcast;
+
     @Schema(description = "Fecha de expiración (opcional)")
     private LocalDateTime expiresAt;
 
@@ -0,0 +1,55 @@
+package com.horarios.SGH.DTO;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Cursor de paginación por clave (keyset) para el feed de notificaciones.
+ * Se expone como "createdAt,id" y apunta a la última notificación recibida:
+ * la siguiente página empieza estrictamente después de ella en orden (createdAt DESC, id DESC).
+ */
+@Data
+public class NotificationFeedCursor {
+
+    private final LocalDateTime createdAt;
+    private final Long notificationId;
+
+    /**
+     * Interpreta un cursor "2025-11-12T21:15:00.123,456"; null o vacío significa primera página
+     */
+    public static NotificationFeedCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int separator = value.lastIndexOf(',');
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Cursor inválido: " + value);
+        }
+        try {
+            return new NotificationFeedCursor(
+                LocalDateTime.parse(value.substring(0, separator).trim()),
+                Long.valueOf(value.substring(separator + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + value);
+        }
+    }
+
+    public static String of(LocalDateTime createdAt, Long notificationId) {
+        return createdAt + "," + notificationId;
+    }
+
+    /**
+     * Indica si un elemento con esa clave va después del cursor en el orden del feed
+     */
+    public boolean isAfter(LocalDateTime otherCreatedAt, Long otherId) {
+        int byDate = otherCreatedAt.compareTo(createdAt);
+        return byDate < 0 || (byDate == 0 && otherId < notificationId);
+    }
+
+    @Override
+    public String toString() {
+        return of(createdAt, notificationId);
+    }
+}
@@ -0,0 +1,63 @@
+package com.horarios.SGH.DTO;
+
+import com.horarios.SGH.Model.courses;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Model.subjects;
+import com.horarios.SGH.Model.teachers;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalTime;
+
+/**
+ * Fila de horario de solo lectura para listados y exportaciones. Se llena con una expresión
+ * constructora (un solo SELECT con los nombres ya unidos), sin hidratar entidades ni disparar
+ * las relaciones EAGER de courses (teacherSubject, gradeDirector) ni cargar la foto de teachers.
+ */
+@Getter
+@AllArgsConstructor
+public class ScheduleRowDTO {
+
+    private final Integer id;
+    private final String day;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final String scheduleName;
+    private final int courseId;
+    private final String courseName;
+    private final int teacherId;
+    private final String teacherName;
+    private final int subjectId;
+    private final String subjectName;
+
+    public ScheduleDTO toScheduleDTO() {
+        ScheduleDTO dto = new ScheduleDTO();
+        dto.setId(id);
+        dto.setCourseId(courseId);
+        dto.setTeacherId(teacherId);
+        dto.setSubjectId(subjectId);
+        dto.setDay(day);
+        dto.setStartTimeFromLocalTime(startTime);
+        dto.setEndTimeFromLocalTime(endTime);
+        dto.setScheduleName(scheduleName);
+        dto.setTeacherName(teacherName);
+        dto.setSubjectName(subjectName);
+        return dto;
+    }
+
+    /**
+     * Entidad desconectada con lo que usan las estrategias de exportación; no debe persistirse
+     */
+    public schedule toSchedule() {
+        schedule s = new schedule();
+        s.setId(id);
+        s.setCourseId(new courses(courseId, courseName));
+        s.setTeacherId(new teachers(teacherId, teacherName));
+        s.setSubjectId(new subjects(subjectId, subjectName));
+        s.setDay(day);
+        s.setStartTime(startTime);
+        s.setEndTime(endTime);
+        s.setScheduleName(scheduleName);
+        return s;
+    }
+}
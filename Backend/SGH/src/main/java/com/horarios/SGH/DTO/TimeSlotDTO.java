@@ -0,0 +1,30 @@
+package com.horarios.SGH.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Franja horaria de la jornada escolar")
+public class TimeSlotDTO {
+
+    @NotBlank(message = "La hora de inicio es obligatoria")
+    @Pattern(regexp = "^([01]?[0-9]|2[0-3]):[0-5][0-9]$", message = "La hora de inicio debe tener formato HH:mm válido")
+    @Schema(description = "Hora de inicio (formato HH:mm)", example = "07:00", required = true)
+    private String startTime;
+
+    @NotBlank(message = "La hora de fin es obligatoria")
+    @Pattern(regexp = "^([01]?[0-9]|2[0-3]):[0-5][0-9]$", message = "La hora de fin debe tener formato HH:mm válido")
+    @Schema(description = "Hora de fin (formato HH:mm)", example = "08:00", required = true)
+    private String endTime;
+
+    @Size(max = 50, message = "La etiqueta del descanso no puede superar 50 caracteres")
+    @Schema(description = "Etiqueta si la franja es de descanso (vacío si es de clase)", example = "Descanso")
+    private String breakLabel;
+}
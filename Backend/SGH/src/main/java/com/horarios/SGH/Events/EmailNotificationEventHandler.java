@@ -0,0 +1,85 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.DTO.NotificationDTO;
+import com.horarios.SGH.Model.NotificationType;
+import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Service.AuthService;
+import com.horarios.SGH.Service.NotificationService;
+import com.horarios.SGH.Service.usersService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Canal email: envía los correos asociados a eventos de dominio una vez confirmada la transacción
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailNotificationEventHandler {
+
+    private final NotificationService notificationService;
+    private final AuthService authService;
+    private final usersService userService;
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!event.isNotifiable()) {
+            return;
+        }
+
+        List<users> coordinators = userService.findUsersByRole("COORDINADOR");
+
+        for (ScheduleSnapshot s : event.getSchedules()) {
+            // Placeholder - debería ser el email real del profesor
+            send("profesor" + s.getTeacherId() + "@sgh.edu", s.getTeacherName(), "MAESTRO",
+                NotificationType.TEACHER_SCHEDULE_ASSIGNED,
+                ScheduleNotificationMessages.teacherTitle(event.getAction()),
+                ScheduleNotificationMessages.teacherMessage(event.getAction(), s));
+
+            for (users coordinator : coordinators) {
+                send(coordinator.getPerson().getEmail(), coordinator.getPerson().getFullName(), "COORDINADOR",
+                    NotificationType.SYSTEM_NOTIFICATION,
+                    ScheduleNotificationMessages.coordinatorTitle(event.getAction()),
+                    ScheduleNotificationMessages.coordinatorMessage(event.getAction(), s));
+            }
+        }
+    }
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserApproved(UserApprovedEvent event) {
+        authService.sendApprovalEmail(event.getEmail(), event.getFullName());
+    }
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserRejected(UserRejectedEvent event) {
+        authService.sendRejectionEmail(event.getEmail(), event.getFullName(), event.getReason());
+    }
+
+    private void send(String email, String name, String role, NotificationType type, String subject, String content) {
+        try {
+            NotificationDTO notification = new NotificationDTO();
+            notification.setRecipientEmail(email);
+            notification.setRecipientName(name);
+            notification.setRecipientRole(role);
+            notification.setNotificationType(type.name());
+            notification.setSubject(subject);
+            notification.setContent(content);
+            notification.setSenderName("Sistema SGH");
+            notification.setIsHtml(true);
+
+            notificationService.validateAndPrepareNotification(notification);
+            notificationService.sendNotificationAsync(notification);
+        } catch (Exception e) {
+            log.error("Error enviando notificación por email a {}: {}", email, e.getMessage());
+        }
+    }
+}
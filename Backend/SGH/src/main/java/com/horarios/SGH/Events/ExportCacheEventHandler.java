@@ -0,0 +1,49 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.Service.ScheduleExportServiceRefactored;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Precalienta la caché de exportaciones: tras un cambio de horarios genera en segundo plano
+ * los documentos de los cursos y profesores afectados, antes de que los pidan los usuarios.
+ * La invalidación ya la hizo ScheduleService; aquí solo se regeneran las versiones nuevas.
+ * Corre en su propio executor acotado: si se satura, el precalentamiento se omite y se registra.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExportCacheEventHandler {
+
+    private final ScheduleExportServiceRefactored exportService;
+
+    @Value("${app.export.cache.prewarm-enabled:true}")
+    private boolean prewarmEnabled;
+
+    @Async("exportPrewarmExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!prewarmEnabled || event.getSchedules().isEmpty()) {
+            return;
+        }
+
+        Set<Integer> courseIds = event.getSchedules().stream()
+            .map(ScheduleSnapshot::getCourseId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Integer> teacherIds = event.getSchedules().stream()
+            .map(ScheduleSnapshot::getTeacherId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        exportService.prewarm(courseIds, teacherIds);
+    }
+}
@@ -0,0 +1,132 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.DTO.InAppNotificationDTO;
+import com.horarios.SGH.Model.NotificationPriority;
+import com.horarios.SGH.Model.NotificationType;
+import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Service.InAppNotificationService;
+import com.horarios.SGH.Service.usersService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Canal in-app: crea las notificaciones dentro de la aplicación una vez confirmada la transacción
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InAppNotificationEventHandler {
+
+    private final InAppNotificationService inAppNotificationService;
+    private final usersService userService;
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!event.isNotifiable()) {
+            return;
+        }
+
+        List<users> coordinators = userService.findUsersByRole("COORDINADOR");
+        if (coordinators.isEmpty()) {
+            log.warn("No se encontraron coordinadores para enviar notificación de horario");
+        }
+
+        for (ScheduleSnapshot s : event.getSchedules()) {
+            // Asumir que teacherId es el userId del profesor
+            send(s.getTeacherId(), NotificationType.TEACHER_SCHEDULE_ASSIGNED, NotificationPriority.MEDIUM,
+                ScheduleNotificationMessages.teacherTitle(event.getAction()),
+                ScheduleNotificationMessages.teacherMessage(event.getAction(), s),
+                "SCHEDULE", "📚", null, null);
+
+            sendToAll(coordinators, build(null, NotificationType.SYSTEM_NOTIFICATION, NotificationPriority.MEDIUM,
+                ScheduleNotificationMessages.coordinatorTitle(event.getAction()),
+                ScheduleNotificationMessages.coordinatorMessage(event.getAction(), s),
+                "SCHEDULE", "⚙️", null, null));
+        }
+    }
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        List<users> coordinators = userService.findUsersByRole("COORDINADOR");
+        String message = ScheduleNotificationMessages.registrationPendingMessage(event);
+
+        if (coordinators.isEmpty()) {
+            // Sin coordinadores: notificar al usuario 1 (admin por defecto)
+            log.warn("No se encontraron coordinadores, notificando al usuario 1 por defecto");
+            send(1, NotificationType.COORDINATOR_USER_REGISTRATION_PENDING, NotificationPriority.HIGH,
+                "Nuevo usuario pendiente de aprobación", message,
+                "user_registration", null, "/dashboard/users/pending", "Revisar solicitudes");
+            return;
+        }
+
+        sendToAll(coordinators, build(null, NotificationType.COORDINATOR_USER_REGISTRATION_PENDING, NotificationPriority.HIGH,
+            "Nuevo usuario pendiente de aprobación", message,
+            "user_registration", null, "/dashboard/users/pending", "Revisar solicitudes"));
+    }
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserApproved(UserApprovedEvent event) {
+        send(event.getUserId(), NotificationType.USER_REGISTRATION_APPROVED, NotificationPriority.HIGH,
+            "¡Registro aprobado!",
+            "Su solicitud de registro ha sido aprobada. Ya puede iniciar sesión en el sistema.",
+            "user_registration", null, null, null);
+    }
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserRejected(UserRejectedEvent event) {
+        String reason = event.getReason();
+        send(event.getUserId(), NotificationType.USER_REGISTRATION_REJECTED, NotificationPriority.MEDIUM,
+            "Registro rechazado",
+            String.format("Su solicitud de registro ha sido rechazada.%s",
+                reason != null && !reason.trim().isEmpty() ? " Motivo: " + reason : ""),
+            "user_registration", null, null, null);
+    }
+
+    private void send(Integer userId, NotificationType type, NotificationPriority priority, String title,
+                      String message, String category, String icon, String actionUrl, String actionText) {
+        try {
+            inAppNotificationService.sendInAppNotification(
+                build(userId, type, priority, title, message, category, icon, actionUrl, actionText));
+        } catch (Exception e) {
+            log.error("Error enviando notificación in-app a usuario {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Misma notificación para varios destinatarios: un lote en lugar de un insert por usuario
+     */
+    private void sendToAll(List<users> recipients, InAppNotificationDTO template) {
+        try {
+            inAppNotificationService.sendInAppNotificationToUsers(recipients, template);
+        } catch (Exception e) {
+            log.error("Error enviando notificación in-app masiva a {} usuarios: {}", recipients.size(), e.getMessage());
+        }
+    }
+
+    private InAppNotificationDTO build(Integer userId, NotificationType type, NotificationPriority priority, String title,
+                                       String message, String category, String icon, String actionUrl, String actionText) {
+        InAppNotificationDTO notification = new InAppNotificationDTO();
+        notification.setUserId(userId);
+        notification.setNotificationType(type.name());
+        notification.setPriority(priority.name());
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setCategory(category);
+        if (icon != null) {
+            notification.setIcon(icon);
+        }
+        notification.setActionUrl(actionUrl);
+        notification.setActionText(actionText);
+        return notification;
+    }
+}
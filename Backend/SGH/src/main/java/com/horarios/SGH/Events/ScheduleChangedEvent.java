@@ -0,0 +1,50 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.Model.schedule;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Evento de dominio publicado por ScheduleService cuando cambian horarios.
+ * Los manejadores lo reciben solo después de que la transacción hace commit.
+ */
+@Getter
+public class ScheduleChangedEvent {
+
+    public enum Action {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /** Borrado masivo (por día o total): no se conocen los horarios afectados */
+        BULK_DELETED
+    }
+
+    private final Action action;
+    private final List<ScheduleSnapshot> schedules;
+    private final String executedBy;
+
+    public ScheduleChangedEvent(Action action, List<ScheduleSnapshot> schedules, String executedBy) {
+        this.action = action;
+        this.schedules = List.copyOf(schedules);
+        this.executedBy = executedBy;
+    }
+
+    public static ScheduleChangedEvent of(Action action, List<schedule> schedules, String executedBy) {
+        return new ScheduleChangedEvent(action,
+            schedules.stream().map(ScheduleSnapshot::from).collect(Collectors.toList()),
+            executedBy);
+    }
+
+    public static ScheduleChangedEvent bulkDeleted(String executedBy) {
+        return new ScheduleChangedEvent(Action.BULK_DELETED, List.of(), executedBy);
+    }
+
+    /**
+     * Indica si el evento debe generar notificaciones (email / in-app)
+     */
+    public boolean isNotifiable() {
+        return action == Action.CREATED || action == Action.UPDATED;
+    }
+}
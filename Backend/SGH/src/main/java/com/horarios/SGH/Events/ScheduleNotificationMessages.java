@@ -0,0 +1,64 @@
+package com.horarios.SGH.Events;
+
+/**
+ * Textos de las notificaciones de horarios, compartidos por los canales email e in-app
+ */
+final class ScheduleNotificationMessages {
+
+    private ScheduleNotificationMessages() {}
+
+    static String teacherTitle(ScheduleChangedEvent.Action action) {
+        return action == ScheduleChangedEvent.Action.CREATED ? "Nuevo Horario Asignado" : "Horario Modificado";
+    }
+
+    static String teacherMessage(ScheduleChangedEvent.Action action, ScheduleSnapshot s) {
+        String intro = action == ScheduleChangedEvent.Action.CREATED
+            ? "Se te ha asignado un horario de clase.\n\n"
+            : "Se ha modificado tu horario de clase.\n\n";
+        return String.format(
+            intro +
+            "Materia: %s\n" +
+            "Curso: %s\n" +
+            "Día: %s\n" +
+            "Horario: %s - %s",
+            s.getSubjectName(),
+            s.getCourseName(),
+            s.getDay(),
+            s.getStartTime().toString(),
+            s.getEndTime().toString()
+        );
+    }
+
+    static String coordinatorTitle(ScheduleChangedEvent.Action action) {
+        return action == ScheduleChangedEvent.Action.CREATED ? "Nuevo Horario Registrado" : "Horario Modificado";
+    }
+
+    static String coordinatorMessage(ScheduleChangedEvent.Action action, ScheduleSnapshot s) {
+        String intro = action == ScheduleChangedEvent.Action.CREATED
+            ? "Se ha registrado un nuevo horario en el sistema.\n\n"
+            : "Se ha modificado un horario en el sistema.\n\n";
+        return String.format(
+            intro +
+            "Profesor: %s\n" +
+            "Materia: %s\n" +
+            "Curso: %s\n" +
+            "Día: %s\n" +
+            "Horario: %s - %s",
+            s.getTeacherName(),
+            s.getSubjectName(),
+            s.getCourseName(),
+            s.getDay(),
+            s.getStartTime().toString(),
+            s.getEndTime().toString()
+        );
+    }
+
+    static String registrationPendingMessage(UserAccountEvent event) {
+        return String.format(
+            "El usuario %s (%s) con rol %s solicita registro en el sistema.",
+            event.getFullName() != null ? event.getFullName() : "N/A",
+            event.getEmail() != null ? event.getEmail() : "N/A",
+            event.getRoleName() != null ? event.getRoleName() : "N/A"
+        );
+    }
+}
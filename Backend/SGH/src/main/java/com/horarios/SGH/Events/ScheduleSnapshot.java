@@ -0,0 +1,42 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.Model.schedule;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalTime;
+
+/**
+ * Copia inmutable de un horario tomada dentro de la transacción.
+ * Permite que los manejadores post-commit no dependan de entidades JPA desconectadas.
+ */
+@Getter
+@AllArgsConstructor
+public class ScheduleSnapshot {
+
+    private final Integer scheduleId;
+    private final Integer courseId;
+    private final String courseName;
+    private final Integer teacherId;
+    private final String teacherName;
+    private final Integer subjectId;
+    private final String subjectName;
+    private final String day;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+
+    public static ScheduleSnapshot from(schedule s) {
+        return new ScheduleSnapshot(
+            s.getId(),
+            s.getCourseId() != null ? s.getCourseId().getId() : null,
+            s.getCourseId() != null ? s.getCourseId().getCourseName() : null,
+            s.getTeacherId() != null ? s.getTeacherId().getId() : null,
+            s.getTeacherId() != null ? s.getTeacherId().getTeacherName() : null,
+            s.getSubjectId() != null ? s.getSubjectId().getId() : null,
+            s.getSubjectId() != null ? s.getSubjectId().getSubjectName() : null,
+            s.getDay(),
+            s.getStartTime(),
+            s.getEndTime()
+        );
+    }
+}
@@ -0,0 +1,24 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.Model.users;
+import lombok.Getter;
+
+/**
+ * Base de los eventos del ciclo de vida de cuentas de usuario (registro, aprobación, rechazo).
+ * Guarda los datos necesarios para notificar sin volver a cargar la entidad.
+ */
+@Getter
+public abstract class UserAccountEvent {
+
+    private final int userId;
+    private final String email;
+    private final String fullName;
+    private final String roleName;
+
+    protected UserAccountEvent(users user) {
+        this.userId = user.getUserId();
+        this.email = user.getPerson() != null ? user.getPerson().getEmail() : null;
+        this.fullName = user.getPerson() != null ? user.getPerson().getFullName() : null;
+        this.roleName = user.getRole() != null ? user.getRole().getRoleName() : null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.Model.users;
+
+/**
+ * Publicado cuando un coordinador aprueba un registro pendiente
+ */
+public class UserApprovedEvent extends UserAccountEvent {
+
+    public UserApprovedEvent(users user) {
+        super(user);
+    }
+}
@@ -0,0 +1,13 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.Model.users;
+
+/**
+ * Publicado cuando un usuario se registra y queda pendiente de aprobación
+ */
+public class UserRegisteredEvent extends UserAccountEvent {
+
+    public UserRegisteredEvent(users user) {
+        super(user);
+    }
+}
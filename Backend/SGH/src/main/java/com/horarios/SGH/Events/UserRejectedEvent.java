@@ -0,0 +1,18 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.Model.users;
+import lombok.Getter;
+
+/**
+ * Publicado cuando un coordinador rechaza un registro pendiente
+ */
+@Getter
+public class UserRejectedEvent extends UserAccountEvent {
+
+    private final String reason;
+
+    public UserRejectedEvent(users user, String reason) {
+        super(user);
+        this.reason = reason;
+    }
+}
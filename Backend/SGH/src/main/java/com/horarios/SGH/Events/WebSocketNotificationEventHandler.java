@@ -0,0 +1,65 @@
+package com.horarios.SGH.Events;
+
+import com.horarios.SGH.WebSocket.NotificationWebSocketService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Canal WebSocket: avisa a los clientes conectados que deben refrescar sus vistas.
+ * No persiste nada ni consulta la base de datos: la audiencia se resuelve con los datos de cada sesión.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketNotificationEventHandler {
+
+    private final NotificationWebSocketService webSocketService;
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (webSocketService.getConnectedUsersCount() == 0) {
+            return;
+        }
+
+        Set<Integer> courseIds = event.getSchedules().stream()
+            .map(ScheduleSnapshot::getCourseId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<String, Object> payload = Map.of(
+            "action", event.getAction().name(),
+            "courseIds", courseIds
+        );
+
+        // Docente, estudiantes de los cursos y coordinadores: una sola serialización,
+        // filtrando por los datos de cada sesión sin consultar la base de datos
+        Set<String> teacherIds = event.getSchedules().stream()
+            .map(ScheduleSnapshot::getTeacherId)
+            .filter(Objects::nonNull)
+            .map(String::valueOf)
+            .collect(Collectors.toSet());
+
+        webSocketService.broadcastToAudience(teacherIds, Set.of("COORDINADOR"), courseIds, "schedule_changed", payload);
+    }
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        if (webSocketService.getConnectedUsersCount() == 0) {
+            return;
+        }
+
+        webSocketService.broadcastToRole("COORDINADOR", "pending_users_changed", Map.of("userId", event.getUserId()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.horarios.SGH.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Notificación difundida a un rol, a un curso o a todos los usuarios.
+ * Se guarda una sola fila por difusión; el estado de lectura de cada usuario
+ * vive en BroadcastReceipt y solo se crea cuando el usuario la lee o archiva.
+ */
+@Entity(name = "broadcast_notifications")
+@Table(name = "broadcast_notifications", indexes = {
+    @Index(name = "idx_broadcast_created", columnList = "created_at"),
+    @Index(name = "idx_broadcast_expires", columnList = "expires_at")
+})
+@Data
+public class BroadcastNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "broadcast_id")
+    private Long broadcastId;
+
+    @Column(name = "target_role", length = 50)
+    private String targetRole; // null: todos los roles
+
+    @Column(name = "target_course_id")
+    private Integer targetCourseId; // null: todos los cursos
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "notification_type", nullable = false)
+    private NotificationType notificationType;
+
+    @Column(name = "title", nullable = false, length = 255)
+    private String title;
+
+    @Column(name = "message", nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "action_url", length = 500)
+    private String actionUrl;
+
+    @Column(name = "action_text", length = 100)
+    private String actionText;
+
+    @Column(name = "icon", length = 100)
+    private String icon;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", nullable = false)
+    private NotificationPriority priority = NotificationPriority.MEDIUM;
+
+    @Column(name = "category", length = 50)
+    private String category;
+
+    @Column(name = "created_by", length = 255)
+    private String createdBy;
+
+    @Column(name = "expires_at", columnDefinition = "TIMESTAMP(6)")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public BroadcastNotification() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Verifica si la difusión aplica a un usuario con el rol y curso indicados
+     */
+    public boolean targets(String roleName, Integer courseId) {
+        boolean roleMatches = targetRole == null || targetRole.equals(roleName);
+        boolean courseMatches = targetCourseId == null || targetCourseId.equals(courseId);
+        return roleMatches && courseMatches;
+    }
+
+    /**
+     * Verifica si la difusión sigue vigente
+     */
+    public boolean isActive(LocalDateTime now) {
+        return expiresAt == null || expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,49 @@
+package com.horarios.SGH.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Estado de lectura de una difusión para un usuario.
+ * La ausencia de fila significa "no leída y no archivada".
+ */
+@Entity(name = "broadcast_receipts")
+@Table(name = "broadcast_receipts",
+    uniqueConstraints = @UniqueConstraint(name = "uk_broadcast_receipt_user", columnNames = {"user_id", "broadcast_id"}))
+@Data
+public class BroadcastReceipt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "receipt_id")
+    private Long receiptId;
+
+    @Column(name = "broadcast_id", nullable = false)
+    private Long broadcastId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "is_read", nullable = false)
+    private boolean isRead = false;
+
+    @Column(name = "is_archived", nullable = false)
+    private boolean isArchived = false;
+
+    @Column(name = "read_at", columnDefinition = "TIMESTAMP(6)")
+    private LocalDateTime readAt;
+
+    public BroadcastReceipt() {
+    }
+
+    public BroadcastReceipt(Long broadcastId, Integer userId) {
+        this.broadcastId = broadcastId;
+        this.userId = userId;
+    }
+
+    public void markAsRead(LocalDateTime now) {
+        this.isRead = true;
+        this.readAt = now;
+    }
+}
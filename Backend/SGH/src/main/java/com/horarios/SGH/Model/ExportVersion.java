@@ -0,0 +1,22 @@
+package com.horarios.SGH.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Versión persistida de las exportaciones de un curso o profesor (o global, clave "all").
+ * Sube en la misma transacción que modifica los horarios, así todos los nodos calculan
+ * el mismo ETag y ninguno responde 304 con un documento que cambió en otro nodo.
+ */
+@Entity(name = "export_versions")
+@Table(name = "export_versions")
+@Data
+public class ExportVersion {
+
+    @Id
+    @Column(name = "scope_key", length = 40)
+    private String scopeKey;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+}
@@ -9,6 +9,19 @@ import java.time.LocalDateTime;
  * Estas notificaciones se muestran en tiempo real en las interfaces web y móvil
  */
 @Entity(name = "in_app_notifications")
+@Table(name = "in_app_notifications", indexes = {
+    // Conteo de no leídas resuelto solo con el índice (countUnreadByUserId)
+    @Index(name = "idx_in_app_user_unread", columnList = "user_id, is_read, is_archived, expires_at"),
+    // Feed por cursor (createdAt, id): igualdad en usuario y archivado, rango y orden sobre la fecha
+    @Index(name = "idx_in_app_user_feed", columnList = "user_id, is_archived, created_at, notification_id"),
+    // Vistas filtradas del feed
+    @Index(name = "idx_in_app_user_type_feed", columnList = "user_id, notification_type, created_at"),
+    @Index(name = "idx_in_app_user_priority_feed", columnList = "user_id, priority, created_at"),
+    @Index(name = "idx_in_app_user_category_feed", columnList = "user_id, category, created_at"),
+    // Archivado y borrado por rangos de fecha en la retención
+    @Index(name = "idx_in_app_created", columnList = "created_at"),
+    @Index(name = "idx_in_app_expires", columnList = "expires_at")
+})
 @Data
 public class InAppNotification {
     
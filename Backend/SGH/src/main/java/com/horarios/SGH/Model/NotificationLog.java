@@ -11,6 +11,14 @@ import java.util.List;
  * Registra el estado de cada envío de notificación en el sistema SGH
  */
 @Entity(name = "notification_logs")
+@Table(name = "notification_logs", indexes = {
+    // Historial por destinatario y rango de fechas (findRecentByRecipientEmail)
+    @Index(name = "idx_notification_logs_recipient_created", columnList = "recipient_email, created_at"),
+    // Borrado por rangos de fecha en la retención
+    @Index(name = "idx_notification_logs_created", columnList = "created_at"),
+    // Worker de reintentos
+    @Index(name = "idx_notification_logs_status_next_attempt", columnList = "status, next_attempt_at")
+})
 @Data
 public class NotificationLog {
     
@@ -38,6 +46,9 @@ public class NotificationLog {
     @Column(name = "content", columnDefinition = "TEXT", nullable = false)
     private String content;
     
+    @Column(name = "content_compressed", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean contentCompressed = false; // content guardado como GZIP + Base64 por la retención
+    
     @Column(name = "template_path", length = 500)
     private String templatePath;
     
@@ -57,6 +68,9 @@ public class NotificationLog {
     @Column(name = "last_attempt", columnDefinition = "TIMESTAMP(6)")
     private LocalDateTime lastAttempt;
     
+    @Column(name = "next_attempt_at", columnDefinition = "TIMESTAMP(6)")
+    private LocalDateTime nextAttemptAt; // Próximo reintento programado (backoff con jitter)
+    
     @Column(name = "sent_at", columnDefinition = "TIMESTAMP(6)")
     private LocalDateTime sentAt;
     
@@ -107,6 +121,7 @@ public class NotificationLog {
         this.sentAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
         this.errorMessage = null;
+        this.nextAttemptAt = null;
     }
     
     /**
@@ -118,6 +133,13 @@ public class NotificationLog {
         this.updatedAt = LocalDateTime.now();
     }
     
+    /**
+     * Programa el próximo reintento, o lo anula si ya no quedan intentos
+     */
+    public void scheduleNextAttempt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = this.attemptsCount < this.maxAttempts ? nextAttemptAt : null;
+    }
+    
     /**
      * Verifica si se puede intentar enviar nuevamente
      */
@@ -0,0 +1,34 @@
+package com.horarios.SGH.Model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalTime;
+
+/**
+ * Franja de la jornada escolar (timbre). El conjunto de franjas define las filas
+ * de los horarios exportados; las de descanso llevan una etiqueta en lugar de clase.
+ */
+@Entity(name = "time_slots")
+@Table(name = "time_slots", uniqueConstraints = @UniqueConstraint(columnNames = { "start_time" }))
+@Data
+@Schema(description = "Franja horaria de la jornada escolar")
+public class TimeSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "time_slot_id")
+    private Integer id;
+
+    @Column(name = "start_time", nullable = false, columnDefinition = "TIME")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false, columnDefinition = "TIME")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime endTime;
+
+    @Column(name = "break_label", length = 50)
+    private String breakLabel; // null: franja de clase
+}
@@ -0,0 +1,46 @@
+package com.horarios.SGH.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Registro de presencia: qué nodo mantiene sesiones WebSocket de qué usuario
+ */
+@Entity(name = "websocket_presence")
+@Table(name = "websocket_presence",
+    uniqueConstraints = @UniqueConstraint(name = "uk_ws_presence_node_user", columnNames = {"node_id", "user_id"}),
+    indexes = {
+        @Index(name = "idx_ws_presence_user", columnList = "user_id"),
+        @Index(name = "idx_ws_presence_last_seen", columnList = "last_seen")
+    })
+@Data
+public class WebSocketPresence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "presence_id")
+    private Long presenceId;
+
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+
+    @Column(name = "user_id", nullable = false, length = 50)
+    private String userId;
+
+    @Column(name = "session_count", nullable = false)
+    private int sessionCount;
+
+    @Column(name = "last_seen", nullable = false)
+    private LocalDateTime lastSeen;
+
+    public WebSocketPresence() {
+    }
+
+    public WebSocketPresence(String nodeId, String userId, int sessionCount, LocalDateTime lastSeen) {
+        this.nodeId = nodeId;
+        this.userId = userId;
+        this.sessionCount = sessionCount;
+        this.lastSeen = lastSeen;
+    }
+}
@@ -0,0 +1,41 @@
+package com.horarios.SGH.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Mensaje WebSocket publicado por un nodo para que los demás nodos lo entreguen
+ * a sus sesiones locales (relay por base de datos)
+ */
+@Entity(name = "websocket_relay_messages")
+@Table(name = "websocket_relay_messages", indexes = {
+    @Index(name = "idx_ws_relay_created", columnList = "created_at")
+})
+@Data
+public class WebSocketRelayMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "message_id")
+    private Long messageId;
+
+    @Column(name = "origin_node", nullable = false, length = 100)
+    private String originNode;
+
+    @Column(name = "envelope", columnDefinition = "TEXT", nullable = false)
+    private String envelope; // RelayEnvelope serializado en JSON
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public WebSocketRelayMessage() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public WebSocketRelayMessage(String originNode, String envelope) {
+        this();
+        this.originNode = originNode;
+        this.envelope = envelope;
+    }
+}
@@ -0,0 +1,36 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.Model.BroadcastNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de notificaciones difundidas por rol, curso o a todos
+ */
+@Repository
+public interface IBroadcastNotificationRepository extends JpaRepository<BroadcastNotification, Long> {
+
+    /**
+     * Difusiones vigentes creadas desde la fecha indicada, de la más reciente a la más antigua
+     */
+    @Query("SELECT b FROM broadcast_notifications b WHERE b.createdAt >= :since " +
+           "AND (b.expiresAt IS NULL OR b.expiresAt > :now) ORDER BY b.createdAt DESC, b.broadcastId DESC")
+    List<BroadcastNotification> findActive(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    /**
+     * IDs de difusiones expiradas o fuera de la ventana de retención
+     */
+    @Query("SELECT b.broadcastId FROM broadcast_notifications b WHERE b.createdAt < :cutoffDate " +
+           "OR (b.expiresAt IS NOT NULL AND b.expiresAt < :now)")
+    List<Long> findIdsToPurge(@Param("cutoffDate") LocalDateTime cutoffDate, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM broadcast_notifications b WHERE b.broadcastId IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
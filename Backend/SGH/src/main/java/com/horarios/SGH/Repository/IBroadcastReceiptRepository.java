@@ -0,0 +1,39 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.Model.BroadcastReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de estados de lectura de difusiones por usuario
+ */
+@Repository
+public interface IBroadcastReceiptRepository extends JpaRepository<BroadcastReceipt, Long> {
+
+    Optional<BroadcastReceipt> findByBroadcastIdAndUserId(Long broadcastId, Integer userId);
+
+    /**
+     * Estados de un usuario para un conjunto de difusiones
+     */
+    @Query("SELECT r FROM broadcast_receipts r WHERE r.userId = :userId AND r.broadcastId IN :broadcastIds")
+    List<BroadcastReceipt> findByUserIdAndBroadcastIds(@Param("userId") Integer userId,
+                                                       @Param("broadcastIds") Collection<Long> broadcastIds);
+
+    /**
+     * Estados de varios usuarios para un conjunto de difusiones (reconciliación de contadores)
+     */
+    @Query("SELECT r FROM broadcast_receipts r WHERE r.userId IN :userIds AND r.broadcastId IN :broadcastIds")
+    List<BroadcastReceipt> findByUserIdsAndBroadcastIds(@Param("userIds") Collection<Integer> userIds,
+                                                        @Param("broadcastIds") Collection<Long> broadcastIds);
+
+    @Modifying
+    @Query("DELETE FROM broadcast_receipts r WHERE r.broadcastId IN :broadcastIds")
+    int deleteByBroadcastIds(@Param("broadcastIds") Collection<Long> broadcastIds);
+}
@@ -0,0 +1,32 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.Model.ExportVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IExportVersionRepository extends JpaRepository<ExportVersion, String> {
+
+    /**
+     * Sube la versión de una clave (la crea en 1 si no existe) de forma atómica, dentro de la transacción en curso
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO export_versions (scope_key, version) VALUES (:scopeKey, 1) "
+        + "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+    int bump(@Param("scopeKey") String scopeKey);
+
+    /**
+     * Versión de una clave leída de la tabla (no del contexto de persistencia), o null si nunca subió
+     */
+    @Query(value = "SELECT version FROM export_versions WHERE scope_key = :scopeKey", nativeQuery = true)
+    Long findVersion(@Param("scopeKey") String scopeKey);
+
+    @Query("SELECT v FROM export_versions v WHERE v.scopeKey IN :scopeKeys")
+    List<ExportVersion> findByScopeKeys(@Param("scopeKeys") Collection<String> scopeKeys);
+}
@@ -0,0 +1,24 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.DTO.InAppNotificationFilterDTO;
+import com.horarios.SGH.DTO.NotificationFeedCursor;
+import com.horarios.SGH.Model.InAppNotification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas del feed de notificaciones In-App construidas dinámicamente
+ */
+public interface IInAppNotificationFeedRepository {
+
+    /**
+     * Página del feed en orden (createdAt DESC, id DESC) posterior al cursor, sin consulta COUNT.
+     * Solo agrega condiciones para los filtros presentes, de modo que MySQL pueda usar
+     * el índice compuesto que corresponde en lugar de evaluar predicados ":x IS NULL OR ...".
+     *
+     * @param before cursor de la última notificación recibida, o null para la primera página
+     */
+    List<InAppNotification> findFeed(InAppNotificationFilterDTO filter, NotificationFeedCursor before,
+                                     LocalDateTime now, int limit);
+}
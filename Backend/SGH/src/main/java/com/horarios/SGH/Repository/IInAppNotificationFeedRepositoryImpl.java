@@ -0,0 +1,71 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.DTO.InAppNotificationFilterDTO;
+import com.horarios.SGH.DTO.NotificationFeedCursor;
+import com.horarios.SGH.Model.InAppNotification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación con Criteria API de las consultas dinámicas del feed
+ */
+public class IInAppNotificationFeedRepositoryImpl implements IInAppNotificationFeedRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<InAppNotification> findFeed(InAppNotificationFilterDTO filter, NotificationFeedCursor before,
+                                            LocalDateTime now, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<InAppNotification> query = cb.createQuery(InAppNotification.class);
+        Root<InAppNotification> n = query.from(InAppNotification.class);
+        Path<LocalDateTime> createdAt = n.get("createdAt");
+        Path<Long> notificationId = n.get("notificationId");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getUserId() != null) {
+            predicates.add(cb.equal(n.get("userId"), filter.getUserId()));
+        }
+        if (filter.getNotificationType() != null) {
+            predicates.add(cb.equal(n.get("notificationType"), filter.getNotificationType()));
+        }
+        if (filter.getPriority() != null) {
+            predicates.add(cb.equal(n.get("priority"), filter.getPriority()));
+        }
+        if (filter.getCategory() != null) {
+            predicates.add(cb.equal(n.get("category"), filter.getCategory()));
+        }
+        if (filter.getRead() != null) {
+            predicates.add(cb.equal(n.get("isRead"), filter.getRead()));
+        }
+        if (filter.getArchived() != null) {
+            predicates.add(cb.equal(n.get("isArchived"), filter.getArchived()));
+        }
+        if (filter.isActiveOnly()) {
+            Path<LocalDateTime> expiresAt = n.get("expiresAt");
+            predicates.add(cb.or(cb.isNull(expiresAt), cb.greaterThan(expiresAt, now)));
+        }
+        if (before != null) {
+            // (createdAt, id) < (cursor.createdAt, cursor.id) escrito de forma que use el índice por rango
+            predicates.add(cb.or(
+                cb.lessThan(createdAt, before.getCreatedAt()),
+                cb.and(cb.equal(createdAt, before.getCreatedAt()),
+                       cb.lessThan(notificationId, before.getNotificationId()))));
+        }
+
+        query.select(n)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(cb.desc(createdAt), cb.desc(notificationId));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -20,7 +20,16 @@ import java.util.List;
  * Proporciona acceso a la base de datos para operaciones CRUD sobre InAppNotification
  */
 @Repository
-public interface IInAppNotificationRepository extends JpaRepository<InAppNotification, Long> {
+public interface IInAppNotificationRepository extends JpaRepository<InAppNotification, Long>, IInAppNotificationFeedRepository {
+    
+    /**
+     * Resumen de no leídas de un usuario: conteo y próxima expiración entre ellas
+     */
+    interface UnreadSummary {
+        Integer getUserId();
+        Long getUnreadCount();
+        LocalDateTime getNextExpiry();
+    }
     
     /**
      * Busca notificaciones por usuario activo (no archivadas y no expiradas)
@@ -47,6 +56,15 @@ public interface IInAppNotificationRepository extends JpaRepository<InAppNotific
            "AND n.isArchived = false AND (n.expiresAt IS NULL OR n.expiresAt > :now)")
     Long countUnreadByUserId(@Param("userId") Integer userId, @Param("now") LocalDateTime now);
     
+    /**
+     * Resumen de no leídas por usuario para un conjunto de usuarios (contadores en memoria)
+     */
+    @Query("SELECT n.userId AS userId, COUNT(n) AS unreadCount, MIN(n.expiresAt) AS nextExpiry " +
+           "FROM in_app_notifications n WHERE n.userId IN :userIds AND n.isRead = false " +
+           "AND n.isArchived = false AND (n.expiresAt IS NULL OR n.expiresAt > :now) GROUP BY n.userId")
+    List<UnreadSummary> summarizeUnreadByUserIds(@Param("userIds") List<Integer> userIds,
+                                                 @Param("now") LocalDateTime now);
+    
     /**
      * Busca notificaciones por tipo y usuario
      */
@@ -135,23 +153,45 @@ public interface IInAppNotificationRepository extends JpaRepository<InAppNotific
     List<Object[]> getPriorityStatsByUserId(@Param("userId") Integer userId);
     
     /**
-     * Busca notificaciones por múltiples criterios
+     * Lote de IDs de notificaciones expiradas (retención)
      */
-    @Query("SELECT n FROM in_app_notifications n WHERE " +
-           "(:userId IS NULL OR n.userId = :userId) AND " +
-           "(:type IS NULL OR n.notificationType = :type) AND " +
-           "(:priority IS NULL OR n.priority = :priority) AND " +
-           "(:category IS NULL OR n.category = :category) AND " +
-           "(:isRead IS NULL OR n.isRead = :isRead) AND " +
-           "(:isArchived IS NULL OR n.isArchived = :isArchived) AND " +
-           "(n.expiresAt IS NULL OR n.expiresAt > :now) " +
-           "ORDER BY n.priority DESC, n.createdAt DESC")
-    Page<InAppNotification> findWithFilters(@Param("userId") Integer userId,
-                                           @Param("type") NotificationType type,
-                                           @Param("priority") NotificationPriority priority,
-                                           @Param("category") String category,
-                                           @Param("isRead") Boolean isRead,
-                                           @Param("isArchived") Boolean isArchived,
-                                           @Param("now") LocalDateTime now,
-                                           Pageable pageable);
-}
\ No newline at end of file
+    @Query("SELECT n.notificationId FROM in_app_notifications n WHERE n.expiresAt IS NOT NULL AND n.expiresAt < :now " +
+           "ORDER BY n.notificationId ASC")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    /**
+     * Lote de IDs de notificaciones sin archivar anteriores a la fecha de corte
+     */
+    @Query("SELECT n.notificationId FROM in_app_notifications n WHERE n.isArchived = false AND n.createdAt < :cutoffDate " +
+           "ORDER BY n.notificationId ASC")
+    List<Long> findIdsToArchive(@Param("cutoffDate") LocalDateTime cutoffDate, Pageable pageable);
+    
+    /**
+     * Usuarios con alguna notificación sin leer dentro del lote (contadores a descartar al archivarlo)
+     */
+    @Query("SELECT DISTINCT n.userId FROM in_app_notifications n WHERE n.notificationId IN :ids AND n.isRead = false")
+    List<Integer> findUnreadUserIdsByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * Lote de IDs de notificaciones archivadas anteriores a la fecha de corte
+     */
+    @Query("SELECT n.notificationId FROM in_app_notifications n WHERE n.isArchived = true AND n.createdAt < :cutoffDate " +
+           "ORDER BY n.notificationId ASC")
+    List<Long> findArchivedIdsBefore(@Param("cutoffDate") LocalDateTime cutoffDate, Pageable pageable);
+    
+    /**
+     * Archiva un lote de notificaciones por ID
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE in_app_notifications n SET n.isArchived = true WHERE n.notificationId IN :ids")
+    int archiveByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * Elimina un lote de notificaciones por ID
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM in_app_notifications n WHERE n.notificationId IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
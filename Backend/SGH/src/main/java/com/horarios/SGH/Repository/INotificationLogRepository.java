@@ -6,6 +6,7 @@ import com.horarios.SGH.Model.NotificationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -94,4 +95,42 @@ public interface INotificationLogRepository extends JpaRepository<NotificationLo
      */
     @Query("SELECT nl FROM notification_logs nl WHERE nl.status = :status AND nl.attemptsCount < nl.maxAttempts AND nl.lastAttempt <= :retryAfter ORDER BY nl.lastAttempt ASC")
     List<NotificationLog> findNotificationsReadyForRetry(@Param("status") NotificationStatus status, @Param("retryAfter") LocalDateTime retryAfter);
-}
\ No newline at end of file
+    
+    /**
+     * Lote de notificaciones fallidas cuyo próximo reintento ya venció (worker de reintentos)
+     */
+    @Query("SELECT nl FROM notification_logs nl WHERE nl.status = :status AND nl.attemptsCount < nl.maxAttempts " +
+           "AND (nl.nextAttemptAt IS NULL OR nl.nextAttemptAt <= :now) ORDER BY nl.nextAttemptAt ASC")
+    List<NotificationLog> findDueForRetry(@Param("status") NotificationStatus status,
+                                          @Param("now") LocalDateTime now,
+                                          Pageable pageable);
+    
+    /**
+     * Lote de IDs de logs anteriores a la fecha de corte (retención)
+     */
+    @Query("SELECT nl.logId FROM notification_logs nl WHERE nl.createdAt < :cutoffDate ORDER BY nl.logId ASC")
+    List<Long> findIdsCreatedBefore(@Param("cutoffDate") LocalDateTime cutoffDate, Pageable pageable);
+    
+    /**
+     * Elimina las variables de plantilla de un lote de logs (la colección no se borra en cascada con JPQL)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM notification_log_variables WHERE log_id IN (:ids)", nativeQuery = true)
+    int deleteTemplateVariablesByLogIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * Elimina un lote de logs por ID
+     */
+    @Modifying
+    @Query("DELETE FROM notification_logs nl WHERE nl.logId IN :ids")
+    int deleteByLogIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * Lote de logs ya resueltos cuyo contenido aún no está comprimido
+     */
+    @Query("SELECT nl FROM notification_logs nl WHERE nl.status = :status AND nl.contentCompressed = false " +
+           "AND nl.createdAt < :cutoffDate ORDER BY nl.logId ASC")
+    List<NotificationLog> findUncompressedBefore(@Param("status") NotificationStatus status,
+                                                 @Param("cutoffDate") LocalDateTime cutoffDate,
+                                                 Pageable pageable);
+}
@@ -1,5 +1,6 @@
 package com.horarios.SGH.Repository;
 
+import com.horarios.SGH.DTO.ScheduleRowDTO;
 import com.horarios.SGH.Model.schedule;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +9,13 @@ import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface IScheduleRepository extends JpaRepository<schedule, Integer> {
+
+    // Proyección de solo lectura: un SELECT por consulta, sin importar cuántos cursos o profesores haya
+    String SCHEDULE_ROW = "SELECT new com.horarios.SGH.DTO.ScheduleRowDTO(" +
+           "s.id, s.day, s.startTime, s.endTime, s.scheduleName, " +
+           "c.id, c.courseName, t.id, t.teacherName, sub.id, sub.subjectName) " +
+           "FROM schedule s JOIN s.courseId c JOIN s.teacherId t JOIN s.subjectId sub ";
+
     List<schedule> findByScheduleName(String scheduleName);
     boolean existsBySubjectId_Id(Integer subjectId);
 
@@ -25,6 +33,18 @@ public interface IScheduleRepository extends JpaRepository<schedule, Integer> {
            "WHERE s.teacherId.id = :teacherId")
     List<schedule> findByTeacherId(@Param("teacherId") Integer teacherId);
 
+    @Query(SCHEDULE_ROW + "ORDER BY s.id")
+    List<ScheduleRowDTO> findAllRows();
+
+    @Query(SCHEDULE_ROW + "WHERE c.id = :courseId ORDER BY s.id")
+    List<ScheduleRowDTO> findRowsByCourseId(@Param("courseId") Integer courseId);
+
+    @Query(SCHEDULE_ROW + "WHERE t.id = :teacherId ORDER BY s.id")
+    List<ScheduleRowDTO> findRowsByTeacherId(@Param("teacherId") Integer teacherId);
+
+    @Query(SCHEDULE_ROW + "WHERE s.scheduleName = :scheduleName ORDER BY s.id")
+    List<ScheduleRowDTO> findRowsByScheduleName(@Param("scheduleName") String scheduleName);
+
     @Query("DELETE FROM schedule s WHERE s.day = :day")
     void deleteByDay(@Param("day") String day);
 }
\ No newline at end of file
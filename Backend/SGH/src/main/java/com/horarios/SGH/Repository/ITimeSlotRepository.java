@@ -0,0 +1,16 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.Model.TimeSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio de las franjas de la jornada escolar
+ */
+@Repository
+public interface ITimeSlotRepository extends JpaRepository<TimeSlot, Integer> {
+
+    List<TimeSlot> findAllByOrderByStartTimeAsc();
+}
@@ -0,0 +1,38 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.Model.WebSocketPresence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio del registro de presencia WebSocket por nodo
+ */
+@Repository
+public interface IWebSocketPresenceRepository extends JpaRepository<WebSocketPresence, Long> {
+
+    /**
+     * Presencia vigente (vista después de la fecha indicada)
+     */
+    @Query("SELECT p FROM websocket_presence p WHERE p.lastSeen >= :since")
+    List<WebSocketPresence> findAliveSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Elimina toda la presencia publicada por un nodo
+     */
+    @Modifying
+    @Query("DELETE FROM websocket_presence p WHERE p.nodeId = :nodeId")
+    int deleteByNodeId(@Param("nodeId") String nodeId);
+
+    /**
+     * Elimina presencia de nodos que dejaron de reportar
+     */
+    @Modifying
+    @Query("DELETE FROM websocket_presence p WHERE p.lastSeen < :cutoffDate")
+    int deleteStale(@Param("cutoffDate") LocalDateTime cutoffDate);
+}
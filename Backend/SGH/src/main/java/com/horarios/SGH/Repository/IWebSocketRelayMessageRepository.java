@@ -0,0 +1,40 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.Model.WebSocketRelayMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de mensajes del relay WebSocket entre nodos
+ */
+@Repository
+public interface IWebSocketRelayMessageRepository extends JpaRepository<WebSocketRelayMessage, Long> {
+
+    /**
+     * Mensajes de todos los nodos con ID mayor al indicado, en orden de ID
+     */
+    @Query("SELECT m FROM websocket_relay_messages m WHERE m.messageId > :afterId ORDER BY m.messageId ASC")
+    List<WebSocketRelayMessage> findAfterId(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Mayor ID publicado, o null si la tabla está vacía
+     */
+    @Query("SELECT MAX(m.messageId) FROM websocket_relay_messages m")
+    Long findMaxMessageId();
+
+    /**
+     * Elimina mensajes ya vencidos
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM websocket_relay_messages m WHERE m.createdAt < :cutoffDate")
+    int deleteOlderThan(@Param("cutoffDate") LocalDateTime cutoffDate);
+}
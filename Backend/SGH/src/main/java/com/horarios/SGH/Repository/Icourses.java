@@ -1,9 +1,18 @@
 package com.horarios.SGH.Repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import com.horarios.SGH.Model.courses;
 import java.util.List;
 
 public interface Icourses extends JpaRepository<courses, Integer> {
     List<courses> findByGradeDirector_Id(Integer teacherId);
+
+    // Las relaciones EAGER de courses se traen en el mismo SELECT en vez de una consulta por curso
+    @Query("SELECT c FROM courses c " +
+           "LEFT JOIN FETCH c.teacherSubject ts " +
+           "LEFT JOIN FETCH ts.teacher " +
+           "LEFT JOIN FETCH ts.subject " +
+           "LEFT JOIN FETCH c.gradeDirector")
+    List<courses> findAllWithDetails();
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.horarios.SGH.Repository;
 
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.horarios.SGH.Model.teachers;
 
 public interface Iteachers extends JpaRepository<teachers, Integer> {
+
+    // Un usuario MAESTRO se enlaza con su profesor por el nombre completo (ver AuthService.register)
+    Optional<teachers> findFirstByTeacherNameOrderByIdAsc(String teacherName);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.horarios.SGH.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -24,6 +25,18 @@ public interface Iusers extends JpaRepository<users, Integer> {
     @Query("SELECT u FROM users u LEFT JOIN FETCH u.person p LEFT JOIN FETCH u.role r WHERE u.course.id = :courseId")
     List<users> findByCourseIdWithDetails(@Param("courseId") int courseId);
 
+    @Query("SELECT u FROM users u LEFT JOIN FETCH u.person p LEFT JOIN FETCH u.role r WHERE u.userId IN :userIds")
+    List<users> findAllByIdWithDetails(@Param("userIds") Collection<Integer> userIds);
+
+    // IDs de la audiencia de una difusión (mismo criterio que BroadcastNotification.targets)
+    @Query("SELECT u.userId FROM users u JOIN u.role r LEFT JOIN u.course c " +
+           "WHERE (:roleName IS NULL OR r.roleName = :roleName) AND (:courseId IS NULL OR c.id = :courseId)")
+    List<Integer> findIdsByAudience(@Param("roleName") String roleName, @Param("courseId") Integer courseId);
+
+    // Solo el id del curso, sin cargar persona, rol ni curso (ver StudentCourseCache)
+    @Query("SELECT u.course.id FROM users u WHERE u.person.email = :email AND u.course IS NOT NULL")
+    Optional<Integer> findCourseIdByEmail(@Param("email") String email);
+
     // Para compatibilidad con autenticación
     default Optional<users> findByUserName(String userName) {
         return findByPerson_Email(userName);
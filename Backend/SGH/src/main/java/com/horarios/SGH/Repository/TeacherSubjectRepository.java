@@ -2,6 +2,7 @@ package com.horarios.SGH.Repository;
 
 import com.horarios.SGH.Model.TeacherSubject;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +12,7 @@ public interface TeacherSubjectRepository extends JpaRepository<TeacherSubject,
     List<TeacherSubject> findByTeacher_Id(Integer teacherId);
     Optional<TeacherSubject> findByTeacher_IdAndSubject_Id(Integer teacherId, Integer subjectId);
     boolean existsByTeacher_IdAndSubject_Id(Integer teacherId, Integer subjectId);
+
+    @Query("SELECT ts FROM TeacherSubject ts JOIN FETCH ts.teacher JOIN FETCH ts.subject ORDER BY ts.id")
+    List<TeacherSubject> findAllWithDetails();
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.horarios.SGH.Service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import jakarta.mail.internet.MimeMessage;
@@ -10,6 +11,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.horarios.SGH.Model.Role;
 import com.horarios.SGH.Model.Roles;
@@ -20,7 +22,6 @@ import com.horarios.SGH.Model.teachers;
 import com.horarios.SGH.Model.users;
 import com.horarios.SGH.Model.People;
 import com.horarios.SGH.Model.AccountStatus;
-import com.horarios.SGH.Model.NotificationType;
 import com.horarios.SGH.Repository.Iusers;
 import com.horarios.SGH.Repository.IPeopleRepository;
 import com.horarios.SGH.Repository.IRolesRepository;
@@ -30,7 +31,9 @@ import com.horarios.SGH.Repository.Isubjects;
 import com.horarios.SGH.Repository.TeacherSubjectRepository;
 import com.horarios.SGH.DTO.LoginRequestDTO;
 import com.horarios.SGH.DTO.LoginResponseDTO;
-import com.horarios.SGH.DTO.InAppNotificationDTO;
+import com.horarios.SGH.Events.UserApprovedEvent;
+import com.horarios.SGH.Events.UserRegisteredEvent;
+import com.horarios.SGH.Events.UserRejectedEvent;
 import com.horarios.SGH.jwt.JwtTokenProvider;
 import com.horarios.SGH.Service.ValidationUtils;
 
@@ -52,7 +55,6 @@ public class AuthService {
     private final PasswordEncoder encoder;
     private final AuthenticationManager authManager;
     private final JwtTokenProvider jwtTokenProvider;
-    private final InAppNotificationService inAppNotificationService;
 
     @Autowired
     private JavaMailSender mailSender;
@@ -60,6 +62,12 @@ public class AuthService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StudentCourseCache studentCourses;
+
     public AuthService(Iusers repo,
                               IPeopleRepository peopleRepo,
                               IRolesRepository rolesRepo,
@@ -69,8 +77,7 @@ public class AuthService {
                               TeacherSubjectRepository teacherSubjectRepo,
                               PasswordEncoder encoder,
                               AuthenticationManager authManager,
-                              JwtTokenProvider jwtTokenProvider,
-                              InAppNotificationService inAppNotificationService) {
+                              JwtTokenProvider jwtTokenProvider) {
         this.repo = repo;
         this.peopleRepo = peopleRepo;
         this.rolesRepo = rolesRepo;
@@ -81,9 +88,9 @@ public class AuthService {
         this.encoder = encoder;
         this.authManager = authManager;
         this.jwtTokenProvider = jwtTokenProvider;
-        this.inAppNotificationService = inAppNotificationService;
     }
 
+    @Transactional
     public String register(String name, String email, String rawPassword, Role role, Integer subjectId, Integer courseId) {
         try {
             // Validar entradas usando ValidationUtils
@@ -164,12 +171,8 @@ public class AuthService {
 
             System.out.println("Usuario registrado exitosamente: " + savedUser.getUserId());
 
-            // Enviar notificación a todos los coordinadores (no bloquear el registro si falla)
-            try {
-                notifyCoordinatorsOfNewUser(savedUser);
-            } catch (Exception e) {
-                System.err.println("Error notificando coordinadores, pero registro exitoso: " + e.getMessage());
-            }
+            // Notificar a los coordinadores una vez confirmado el registro
+            eventPublisher.publishEvent(new UserRegisteredEvent(savedUser));
 
             return "Usuario registrado correctamente. Pendiente de aprobación por el coordinador.";
         } catch (Exception e) {
@@ -442,6 +445,8 @@ public class AuthService {
 
         user.getPerson().setEmail(newEmail.trim().toLowerCase());
         peopleRepo.save(user.getPerson());
+        // El curso cacheado queda bajo el correo anterior
+        studentCourses.evict(currentEmail);
     }
 
     /**
@@ -472,93 +477,10 @@ public class AuthService {
         }
     }
 
-    /**
-     * Notifica a todos los coordinadores sobre un nuevo usuario pendiente de aprobación
-     */
-    private void notifyCoordinatorsOfNewUser(users newUser) {
-        try {
-            System.out.println("=== NOTIFICANDO COORDINADORES ===");
-            System.out.println("Nuevo usuario: " + newUser.getUserId() + " - " +
-                             (newUser.getPerson() != null ? newUser.getPerson().getFullName() : "Sin nombre"));
-
-            // Buscar coordinadores
-            System.out.println("Buscando coordinadores en la base de datos...");
-            java.util.List<users> coordinators = repo.findByRoleNameWithDetails("COORDINADOR");
-            System.out.println("Encontrados " + coordinators.size() + " coordinadores");
-
-            if (coordinators.isEmpty()) {
-                System.out.println("⚠️ No se encontraron coordinadores en la base de datos");
-                System.out.println("Creando notificación de prueba para usuario ID 1 (admin por defecto)");
-                // Crear notificación de prueba para el usuario 1 (admin por defecto)
-                InAppNotificationDTO testNotification = new InAppNotificationDTO();
-                testNotification.setUserId(1); // ID por defecto para testing
-                testNotification.setNotificationType(NotificationType.COORDINATOR_USER_REGISTRATION_PENDING.name());
-                testNotification.setTitle("Nuevo usuario pendiente de aprobación");
-                testNotification.setMessage(String.format(
-                    "El usuario %s (%s) con rol %s solicita registro en el sistema.",
-                    newUser.getPerson() != null ? newUser.getPerson().getFullName() : "N/A",
-                    newUser.getPerson() != null ? newUser.getPerson().getEmail() : "N/A",
-                    newUser.getRole() != null ? newUser.getRole().getRoleName() : "N/A"
-                ));
-                testNotification.setPriority("HIGH");
-                testNotification.setCategory("user_registration");
-                testNotification.setActionUrl("/dashboard/users/pending");
-                testNotification.setActionText("Revisar solicitudes");
-
-                inAppNotificationService.sendInAppNotificationAsync(testNotification)
-                    .thenAccept(notification -> {
-                        System.out.println("✅ Notificación de prueba creada exitosamente para admin");
-                    })
-                    .exceptionally(ex -> {
-                        System.err.println("❌ Error creando notificación de prueba: " + ex.getMessage());
-                        return null;
-                    });
-                return;
-            }
-
-            // Enviar notificación a cada coordinador encontrado
-            for (users coordinator : coordinators) {
-                System.out.println("Enviando notificación al coordinador: " + coordinator.getUserId() +
-                                 " - " + (coordinator.getPerson() != null ? coordinator.getPerson().getFullName() : "Sin nombre"));
-
-                InAppNotificationDTO notification = new InAppNotificationDTO();
-                notification.setUserId(coordinator.getUserId());
-                notification.setNotificationType(NotificationType.COORDINATOR_USER_REGISTRATION_PENDING.name());
-                notification.setTitle("Nuevo usuario pendiente de aprobación");
-                notification.setMessage(String.format(
-                    "El usuario %s (%s) con rol %s solicita registro en el sistema.",
-                    newUser.getPerson() != null ? newUser.getPerson().getFullName() : "N/A",
-                    newUser.getPerson() != null ? newUser.getPerson().getEmail() : "N/A",
-                    newUser.getRole() != null ? newUser.getRole().getRoleName() : "N/A"
-                ));
-                notification.setPriority("HIGH");
-                notification.setCategory("user_registration");
-                notification.setActionUrl("/dashboard/users/pending");
-                notification.setActionText("Revisar solicitudes");
-
-                // Enviar notificación usando el servicio
-                final int coordinatorId = coordinator.getUserId();
-                inAppNotificationService.sendInAppNotificationAsync(notification)
-                    .thenAccept(savedNotification -> {
-                        System.out.println("✅ Notificación enviada exitosamente al coordinador " + coordinatorId);
-                    })
-                    .exceptionally(ex -> {
-                        System.err.println("❌ Error enviando notificación al coordinador " + coordinatorId + ": " + ex.getMessage());
-                        return null;
-                    });
-            }
-
-            System.out.println("=== FIN NOTIFICACIÓN COORDINADORES ===");
-
-        } catch (Exception e) {
-            System.err.println("❌ Error notificando coordinadores: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     /**
      * Aprueba un usuario pendiente de aprobación
      */
+    @Transactional
     public String approveUser(int userId) {
         users user = repo.findById(userId)
             .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
@@ -570,8 +492,8 @@ public class AuthService {
         user.setAccountStatus(AccountStatus.ACTIVE);
         repo.save(user);
 
-        // Notificar al usuario
-        notifyUserApproval(user);
+        // Notificar al usuario (in-app y email) después del commit
+        eventPublisher.publishEvent(new UserApprovedEvent(user));
 
         return "Usuario aprobado exitosamente";
     }
@@ -579,6 +501,7 @@ public class AuthService {
     /**
      * Rechaza un usuario pendiente de aprobación
      */
+    @Transactional
     public String rejectUser(int userId, String reason) {
         users user = repo.findById(userId)
             .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
@@ -590,71 +513,12 @@ public class AuthService {
         user.setAccountStatus(AccountStatus.INACTIVE);
         repo.save(user);
 
-        // Notificar al usuario
-        notifyUserRejection(user, reason);
+        // Notificar al usuario (in-app y email) después del commit
+        eventPublisher.publishEvent(new UserRejectedEvent(user, reason));
 
         return "Usuario rechazado";
     }
 
-    /**
-     * Notifica al usuario que su registro fue aprobado
-     */
-    private void notifyUserApproval(users user) {
-        try {
-            // Notificación in-app
-            InAppNotificationDTO notification = new InAppNotificationDTO();
-            notification.setUserId(user.getUserId());
-            notification.setNotificationType(NotificationType.USER_REGISTRATION_APPROVED.name());
-            notification.setTitle("¡Registro aprobado!");
-            notification.setMessage("Su solicitud de registro ha sido aprobada. Ya puede iniciar sesión en el sistema.");
-            notification.setPriority("HIGH");
-            notification.setCategory("user_registration");
-
-            inAppNotificationService.sendInAppNotificationAsync(notification)
-                .exceptionally(ex -> {
-                    System.err.println("Error notificando aprobación al usuario " + user.getUserId() + ": " + ex.getMessage());
-                    return null;
-                });
-
-            // Enviar email de aprobación
-            sendApprovalEmail(user.getPerson().getEmail(), user.getPerson().getFullName());
-
-        } catch (Exception e) {
-            System.err.println("Error notificando aprobación al usuario: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Notifica al usuario que su registro fue rechazado
-     */
-    private void notifyUserRejection(users user, String reason) {
-        try {
-            // Notificación in-app
-            InAppNotificationDTO notification = new InAppNotificationDTO();
-            notification.setUserId(user.getUserId());
-            notification.setNotificationType(NotificationType.USER_REGISTRATION_REJECTED.name());
-            notification.setTitle("Registro rechazado");
-            notification.setMessage(String.format(
-                "Su solicitud de registro ha sido rechazada.%s",
-                reason != null && !reason.trim().isEmpty() ? " Motivo: " + reason : ""
-            ));
-            notification.setPriority("MEDIUM");
-            notification.setCategory("user_registration");
-
-            inAppNotificationService.sendInAppNotificationAsync(notification)
-                .exceptionally(ex -> {
-                    System.err.println("Error notificando rechazo al usuario " + user.getUserId() + ": " + ex.getMessage());
-                    return null;
-                });
-
-            // Enviar email de rechazo
-            sendRejectionEmail(user.getPerson().getEmail(), user.getPerson().getFullName(), reason);
-
-        } catch (Exception e) {
-            System.err.println("Error notificando rechazo al usuario: " + e.getMessage());
-        }
-    }
-
     /**
      * Solicita el restablecimiento de contraseña enviando un código de verificación por email
      *
@@ -887,7 +751,7 @@ public class AuthService {
      * @param email Email del destinatario
      * @param userName Nombre del usuario
      */
-    private void sendApprovalEmail(String email, String userName) {
+    public void sendApprovalEmail(String email, String userName) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -1002,7 +866,7 @@ public class AuthService {
      * @param userName Nombre del usuario
      * @param reason Motivo del rechazo (opcional)
      */
-    private void sendRejectionEmail(String email, String userName, String reason) {
+    public void sendRejectionEmail(String email, String userName, String reason) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
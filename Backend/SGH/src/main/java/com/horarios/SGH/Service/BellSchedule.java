@@ -0,0 +1,172 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.schedule;
+import lombok.Getter;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Jornada escolar: franjas ordenadas y sin solaparse, con un índice precalculado
+ * minuto del día → franja. Ubicar una hora es una lectura de arreglo, sin parsear cadenas.
+ * Es inmutable, así que una misma instancia se comparte entre hilos y exportaciones.
+ */
+public final class BellSchedule {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Inmutable y seguro entre hilos; Locale fijo para que AM/PM no dependa del idioma del servidor
+    public static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH);
+
+    /**
+     * Jornada usada mientras no haya franjas configuradas
+     */
+    public static final BellSchedule DEFAULT = new BellSchedule(List.of(
+        Slot.breakSlot(LocalTime.of(9, 0), LocalTime.of(9, 30), "Descanso"),
+        Slot.classSlot(LocalTime.of(9, 30), LocalTime.of(10, 30)),
+        Slot.classSlot(LocalTime.of(10, 30), LocalTime.of(11, 30)),
+        Slot.classSlot(LocalTime.of(11, 30), LocalTime.of(12, 0)),
+        Slot.breakSlot(LocalTime.of(12, 0), LocalTime.of(13, 0), "Almuerzo"),
+        Slot.classSlot(LocalTime.of(13, 0), LocalTime.of(14, 0)),
+        Slot.classSlot(LocalTime.of(14, 0), LocalTime.of(15, 0)),
+        Slot.classSlot(LocalTime.of(15, 0), LocalTime.of(16, 0)),
+        Slot.classSlot(LocalTime.of(16, 0), LocalTime.of(17, 0))
+    ));
+
+    @Getter
+    private final List<Slot> slots;
+    private final short[] slotByMinute;
+
+    /**
+     * @throws IllegalArgumentException si alguna franja termina antes de empezar o se solapa con otra
+     */
+    public BellSchedule(List<Slot> slots) {
+        List<Slot> sorted = new ArrayList<>(slots);
+        sorted.sort(Comparator.comparing(Slot::getStart));
+
+        short[] index = new short[MINUTES_PER_DAY];
+        Arrays.fill(index, (short) -1);
+        for (int i = 0; i < sorted.size(); i++) {
+            Slot slot = sorted.get(i);
+            int from = minuteOf(slot.getStart());
+            int to = endMinuteOf(slot.getEnd());
+            if (to <= from) {
+                throw new IllegalArgumentException("La franja " + slot.getLabel() + " termina antes de empezar");
+            }
+            for (int minute = from; minute < to; minute++) {
+                if (index[minute] >= 0) {
+                    throw new IllegalArgumentException("La franja " + slot.getLabel() + " se solapa con "
+                        + sorted.get(index[minute]).getLabel());
+                }
+                index[minute] = (short) i;
+            }
+        }
+        this.slots = List.copyOf(sorted);
+        this.slotByMinute = index;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public Slot getSlot(int slot) {
+        return slots.get(slot);
+    }
+
+    /**
+     * Posición de la franja que contiene la hora, o -1 si cae fuera de la jornada
+     */
+    public int indexOf(LocalTime time) {
+        return time != null ? slotByMinute[minuteOf(time)] : -1;
+    }
+
+    /**
+     * Jornada ampliada con una franja de clase por cada hora de inicio que no cae en ninguna franja,
+     * para que las exportaciones muestren los datos reales en vez de descartarlos.
+     * Cada franja añadida llega hasta el fin del horario, recortado al inicio de la franja siguiente.
+     * Si todos los horarios caben, devuelve la misma instancia.
+     */
+    public BellSchedule coveringAll(List<schedule> schedules) {
+        TreeMap<LocalTime, LocalTime> extra = new TreeMap<>();
+        for (schedule s : schedules) {
+            LocalTime start = s.getStartTime();
+            if (start == null || indexOf(start) >= 0) {
+                continue;
+            }
+            // Franjas a minuto completo, como el índice
+            start = start.withSecond(0).withNano(0);
+            LocalTime end = s.getEndTime() != null && s.getEndTime().isAfter(start) ? s.getEndTime() : LocalTime.MAX;
+            extra.merge(start, end, (a, b) -> a.isAfter(b) ? a : b);
+        }
+        if (extra.isEmpty()) {
+            return this;
+        }
+
+        List<Slot> merged = new ArrayList<>(slots);
+        for (Map.Entry<LocalTime, LocalTime> entry : extra.entrySet()) {
+            LocalTime start = entry.getKey();
+            LocalTime end = entry.getValue();
+            LocalTime nextExtra = extra.higherKey(start);
+            if (nextExtra != null && nextExtra.isBefore(end)) {
+                end = nextExtra;
+            }
+            for (Slot slot : slots) {
+                if (slot.getStart().isAfter(start) && slot.getStart().isBefore(end)) {
+                    end = slot.getStart();
+                    break;
+                }
+            }
+            merged.add(Slot.classSlot(start, end));
+        }
+        return new BellSchedule(merged);
+    }
+
+    private static int minuteOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * El fin es exclusivo; una franja que termina a las 23:59:59 cubre hasta el último minuto
+     */
+    private static int endMinuteOf(LocalTime time) {
+        return (time.toSecondOfDay() + 59) / 60;
+    }
+
+    /**
+     * Franja de la jornada con su etiqueta ya formateada ("9:30 AM - 10:30 AM")
+     */
+    @Getter
+    public static final class Slot {
+        private final LocalTime start;
+        private final LocalTime end;
+        private final String label;
+        /** Texto de la franja de descanso ("Descanso", "Almuerzo"); null si es de clase */
+        private final String breakLabel;
+
+        private Slot(LocalTime start, LocalTime end, String breakLabel) {
+            this.start = start;
+            this.end = end;
+            this.label = TIME_FORMAT.format(start) + " - " + TIME_FORMAT.format(end);
+            this.breakLabel = breakLabel;
+        }
+
+        public static Slot classSlot(LocalTime start, LocalTime end) {
+            return new Slot(start, end, null);
+        }
+
+        public static Slot breakSlot(LocalTime start, LocalTime end, String breakLabel) {
+            return new Slot(start, end, breakLabel);
+        }
+
+        public boolean isBreak() {
+            return breakLabel != null;
+        }
+    }
+}
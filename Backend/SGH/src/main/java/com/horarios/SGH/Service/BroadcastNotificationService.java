@@ -0,0 +1,310 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.DTO.InAppNotificationDTO;
+import com.horarios.SGH.Model.BroadcastNotification;
+import com.horarios.SGH.Model.BroadcastReceipt;
+import com.horarios.SGH.Model.InAppNotification;
+import com.horarios.SGH.Model.NotificationPriority;
+import com.horarios.SGH.Model.NotificationType;
+import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Repository.IBroadcastNotificationRepository;
+import com.horarios.SGH.Repository.IBroadcastReceiptRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Notificaciones difundidas con fan-out en lectura: una fila por difusión y un estado
+ * de lectura por usuario que solo existe cuando el usuario la lee o archiva.
+ * Las difusiones vigentes son pocas, así que se mantienen en una caché en memoria que se
+ * refresca al crear una nueva o cada cierto tiempo; por usuario solo se consultan sus estados.
+ * En el feed se exponen como InAppNotification transitorias con ID negativo (-broadcastId).
+ */
+@Slf4j
+@Service
+public class BroadcastNotificationService {
+
+    @Autowired
+    private IBroadcastNotificationRepository broadcastRepository;
+
+    @Autowired
+    private IBroadcastReceiptRepository receiptRepository;
+
+    @Value("${app.notification.broadcast.max-age-days:90}")
+    private int maxAgeDays;
+
+    @Value("${app.notification.broadcast.cache-ttl:60000}")
+    private long cacheTtlMillis;
+
+    private volatile List<BroadcastNotification> activeCache;
+    private volatile long cacheLoadedAt;
+
+    /**
+     * Indica si un ID del feed corresponde a una difusión
+     */
+    public static boolean isBroadcastFeedId(Long feedId) {
+        return feedId != null && feedId < 0;
+    }
+
+    public static long toBroadcastId(Long feedId) {
+        return -feedId;
+    }
+
+    /**
+     * Crea una difusión para un rol, un curso o todos (ambos null)
+     */
+    @Transactional
+    public BroadcastNotification create(InAppNotificationDTO notificationDTO, String targetRole,
+                                        Integer targetCourseId, String createdBy) {
+        BroadcastNotification broadcast = new BroadcastNotification();
+        broadcast.setTargetRole(targetRole);
+        broadcast.setTargetCourseId(targetCourseId);
+        broadcast.setNotificationType(NotificationType.valueOf(notificationDTO.getNotificationType()));
+        broadcast.setPriority(NotificationPriority.valueOf(notificationDTO.getPriority()));
+        broadcast.setTitle(notificationDTO.getTitle());
+        broadcast.setMessage(notificationDTO.getMessage());
+        broadcast.setCategory(notificationDTO.getCategory());
+        broadcast.setActionUrl(notificationDTO.getActionUrl());
+        broadcast.setActionText(notificationDTO.getActionText());
+        broadcast.setIcon(notificationDTO.getIcon());
+        broadcast.setCreatedBy(createdBy);
+
+        BroadcastNotification saved = broadcastRepository.save(broadcast);
+        TransactionHooks.afterCommit(this::invalidateCache);
+        log.info("Difusión {} creada (rol: {}, curso: {}): {}", saved.getBroadcastId(), targetRole,
+                 targetCourseId, saved.getTitle());
+        return saved;
+    }
+
+    /**
+     * Difusiones visibles para el usuario, como notificaciones transitorias, de la más reciente a la más antigua
+     */
+    @Transactional(readOnly = true)
+    public List<InAppNotification> visibleFor(users user, boolean unreadOnly) {
+        List<BroadcastNotification> targeted = targetedTo(user, LocalDateTime.now());
+        if (targeted.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, BroadcastReceipt> receipts = receiptsOf(user.getUserId(), targeted);
+
+        List<InAppNotification> result = new ArrayList<>();
+        for (BroadcastNotification broadcast : targeted) {
+            BroadcastReceipt receipt = receipts.get(broadcast.getBroadcastId());
+            if (receipt != null && (receipt.isArchived() || (unreadOnly && receipt.isRead()))) {
+                continue;
+            }
+            result.add(toNotification(broadcast, user, receipt));
+        }
+        return result;
+    }
+
+    /**
+     * Difusiones no leídas del usuario: conteo y próxima expiración entre ellas
+     */
+    @Transactional(readOnly = true)
+    public UnreadBroadcasts unreadFor(users user) {
+        return unreadFor(List.of(user)).getOrDefault(user.getUserId(), UnreadBroadcasts.NONE);
+    }
+
+    /**
+     * Difusiones no leídas de varios usuarios con una sola consulta de estados
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, UnreadBroadcasts> unreadFor(List<users> recipients) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BroadcastNotification> active = activeBroadcasts(now);
+        if (active.isEmpty() || recipients.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Long> broadcastIds = active.stream().map(BroadcastNotification::getBroadcastId).collect(Collectors.toList());
+        List<Integer> userIds = recipients.stream().map(users::getUserId).collect(Collectors.toList());
+        Map<String, BroadcastReceipt> seen = new HashMap<>();
+        for (BroadcastReceipt receipt : receiptRepository.findByUserIdsAndBroadcastIds(userIds, broadcastIds)) {
+            seen.put(receipt.getUserId() + ":" + receipt.getBroadcastId(), receipt);
+        }
+
+        Map<Integer, UnreadBroadcasts> result = new HashMap<>();
+        for (users user : recipients) {
+            long count = 0;
+            LocalDateTime nextExpiry = null;
+            for (BroadcastNotification broadcast : active) {
+                if (!broadcast.targets(roleOf(user), courseOf(user))) {
+                    continue;
+                }
+                BroadcastReceipt receipt = seen.get(user.getUserId() + ":" + broadcast.getBroadcastId());
+                if (receipt != null && (receipt.isRead() || receipt.isArchived())) {
+                    continue;
+                }
+                count++;
+                if (broadcast.getExpiresAt() != null && (nextExpiry == null || broadcast.getExpiresAt().isBefore(nextExpiry))) {
+                    nextExpiry = broadcast.getExpiresAt();
+                }
+            }
+            result.put(user.getUserId(), new UnreadBroadcasts(count, nextExpiry));
+        }
+        return result;
+    }
+
+    /**
+     * Marca una difusión como leída para el usuario
+     *
+     * @return true si estaba sin leer (y por tanto descuenta del badge)
+     */
+    @Transactional
+    public boolean markAsRead(Long broadcastId, users user) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean visible = targetedTo(user, now).stream().anyMatch(b -> b.getBroadcastId().equals(broadcastId));
+        if (!visible) {
+            throw new IllegalArgumentException("Notificación no encontrada: " + (-broadcastId));
+        }
+
+        BroadcastReceipt receipt = receiptRepository.findByBroadcastIdAndUserId(broadcastId, user.getUserId())
+            .orElseGet(() -> new BroadcastReceipt(broadcastId, user.getUserId()));
+        if (receipt.isRead()) {
+            return false;
+        }
+        receipt.markAsRead(now);
+        receiptRepository.save(receipt);
+        return !receipt.isArchived();
+    }
+
+    /**
+     * Marca como leídas todas las difusiones visibles del usuario
+     *
+     * @return número de difusiones que estaban sin leer
+     */
+    @Transactional
+    public int markAllAsRead(users user) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BroadcastNotification> targeted = targetedTo(user, now);
+        if (targeted.isEmpty()) {
+            return 0;
+        }
+        Map<Long, BroadcastReceipt> receipts = receiptsOf(user.getUserId(), targeted);
+
+        List<BroadcastReceipt> changed = new ArrayList<>();
+        for (BroadcastNotification broadcast : targeted) {
+            BroadcastReceipt receipt = receipts.get(broadcast.getBroadcastId());
+            if (receipt == null) {
+                receipt = new BroadcastReceipt(broadcast.getBroadcastId(), user.getUserId());
+            } else if (receipt.isRead()) {
+                continue;
+            }
+            receipt.markAsRead(now);
+            changed.add(receipt);
+        }
+        receiptRepository.saveAll(changed);
+        return changed.size();
+    }
+
+    /**
+     * Elimina difusiones expiradas o fuera de la ventana de retención, junto con sus estados
+     */
+    @Transactional
+    public int purge(LocalDateTime now) {
+        List<Long> ids = broadcastRepository.findIdsToPurge(now.minusDays(maxAgeDays), now);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        receiptRepository.deleteByBroadcastIds(ids);
+        int deleted = broadcastRepository.deleteByIds(ids);
+        TransactionHooks.afterCommit(this::invalidateCache);
+        return deleted;
+    }
+
+    public void invalidateCache() {
+        activeCache = null;
+    }
+
+    private List<BroadcastNotification> targetedTo(users user, LocalDateTime now) {
+        String role = roleOf(user);
+        Integer courseId = courseOf(user);
+        return activeBroadcasts(now).stream()
+            .filter(b -> b.targets(role, courseId))
+            .collect(Collectors.toList());
+    }
+
+    private List<BroadcastNotification> activeBroadcasts(LocalDateTime now) {
+        List<BroadcastNotification> cached = activeCache;
+        if (cached == null || System.currentTimeMillis() - cacheLoadedAt > cacheTtlMillis) {
+            cached = Collections.unmodifiableList(broadcastRepository.findActive(now.minusDays(maxAgeDays), now));
+            activeCache = cached;
+            cacheLoadedAt = System.currentTimeMillis();
+        }
+        return cached.stream().filter(b -> b.isActive(now)).collect(Collectors.toList());
+    }
+
+    private Map<Long, BroadcastReceipt> receiptsOf(Integer userId, List<BroadcastNotification> broadcasts) {
+        List<Long> ids = broadcasts.stream().map(BroadcastNotification::getBroadcastId).collect(Collectors.toList());
+        return receiptRepository.findByUserIdAndBroadcastIds(userId, ids).stream()
+            .collect(Collectors.toMap(BroadcastReceipt::getBroadcastId, Function.identity()));
+    }
+
+    private InAppNotification toNotification(BroadcastNotification broadcast, users user, BroadcastReceipt receipt) {
+        InAppNotification notification = new InAppNotification(
+            user.getUserId(),
+            user.getPerson() != null ? user.getPerson().getEmail() : null,
+            user.getPerson() != null ? user.getPerson().getFullName() : null,
+            roleOf(user),
+            broadcast.getNotificationType(),
+            broadcast.getTitle(),
+            broadcast.getMessage()
+        );
+        notification.setNotificationId(-broadcast.getBroadcastId());
+        notification.setPriority(broadcast.getPriority());
+        notification.setCategory(broadcast.getCategory());
+        notification.setActionUrl(broadcast.getActionUrl());
+        notification.setActionText(broadcast.getActionText());
+        notification.setIcon(broadcast.getIcon());
+        notification.setExpiresAt(broadcast.getExpiresAt());
+        notification.setCreatedAt(broadcast.getCreatedAt());
+        if (receipt != null) {
+            notification.setRead(receipt.isRead());
+            notification.setReadAt(receipt.getReadAt());
+        }
+        return notification;
+    }
+
+    private static String roleOf(users user) {
+        return user.getRole() != null ? user.getRole().getRoleName() : null;
+    }
+
+    private static Integer courseOf(users user) {
+        return user.getCourse() != null ? user.getCourse().getId() : null;
+    }
+
+    /**
+     * Conteo de difusiones no leídas y próxima expiración entre ellas
+     */
+    public static final class UnreadBroadcasts {
+        public static final UnreadBroadcasts NONE = new UnreadBroadcasts(0, null);
+
+        private final long count;
+        private final LocalDateTime nextExpiry;
+
+        public UnreadBroadcasts(long count, LocalDateTime nextExpiry) {
+            this.count = count;
+            this.nextExpiry = nextExpiry;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public LocalDateTime getNextExpiry() {
+            return nextExpiry;
+        }
+    }
+}
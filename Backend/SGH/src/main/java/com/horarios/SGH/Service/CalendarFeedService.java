@@ -0,0 +1,106 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.AccountStatus;
+import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Repository.Iteachers;
+import com.horarios.SGH.Repository.Iusers;
+import com.horarios.SGH.Service.ScheduleExportCache.Scope;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Feed iCalendar por usuario: los estudiantes reciben el horario de su curso y los maestros el suyo.
+ * Los clientes de calendario no envían el JWT, así que la URL lleva una firma HMAC del usuario
+ * y de su hash de contraseña: cambiar la contraseña invalida las suscripciones anteriores.
+ * El documento sale de la caché de exportaciones, con el mismo ETag que la descarga en formato ics.
+ */
+@Service
+public class CalendarFeedService {
+
+    @Autowired
+    private Iusers usersRepository;
+
+    @Autowired
+    private Iteachers teacherRepository;
+
+    @Autowired
+    private ScheduleExportServiceRefactored exportService;
+
+    @Value("${app.calendar.feed-secret:${jwt.secret}}")
+    private String feedSecret;
+
+    /**
+     * Ruta del feed del usuario, relativa al contexto de la aplicación
+     *
+     * @throws IllegalStateException si el usuario no tiene un horario que publicar
+     */
+    public String feedPath(String email) {
+        users user = usersRepository.findByUserName(email)
+            .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
+        if (resolveTarget(user) == null) {
+            throw new IllegalStateException("El usuario no tiene un horario de curso o profesor asignado");
+        }
+        return "/calendar/feed/" + user.getUserId() + "/" + sign(user) + ".ics";
+    }
+
+    /**
+     * Documento del feed; null si la firma no es válida, la cuenta no está activa o no hay horario
+     */
+    public ExportArtifact loadFeed(int userId, String signature) throws Exception {
+        users user = usersRepository.findById(userId).orElse(null);
+        if (user == null || user.getAccountStatus() != AccountStatus.ACTIVE
+                || !MessageDigest.isEqual(sign(user).getBytes(StandardCharsets.US_ASCII),
+                    signature.getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        FeedTarget target = resolveTarget(user);
+        if (target == null) {
+            return null;
+        }
+        return target.scope == Scope.COURSE
+            ? exportService.exportCourseArtifact(target.id, ExportFormat.ICS)
+            : exportService.exportTeacherArtifact(target.id, ExportFormat.ICS);
+    }
+
+    private FeedTarget resolveTarget(users user) {
+        String role = user.getRole() != null ? user.getRole().getRoleName() : null;
+        if ("ESTUDIANTE".equals(role) && user.getCourse() != null) {
+            return new FeedTarget(Scope.COURSE, user.getCourse().getId());
+        }
+        if ("MAESTRO".equals(role) && user.getPerson() != null) {
+            return teacherRepository.findFirstByTeacherNameOrderByIdAsc(user.getPerson().getFullName())
+                .map(teacher -> new FeedTarget(Scope.TEACHER, teacher.getId()))
+                .orElse(null);
+        }
+        return null;
+    }
+
+    private String sign(users user) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(feedSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] signature = mac.doFinal((user.getUserId() + ":" + user.getPasswordHash())
+                .getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException("Error firmando el feed de calendario", e);
+        }
+    }
+
+    private static final class FeedTarget {
+        private final Scope scope;
+        private final Integer id;
+
+        private FeedTarget(Scope scope, Integer id) {
+            this.scope = scope;
+            this.id = id;
+        }
+    }
+}
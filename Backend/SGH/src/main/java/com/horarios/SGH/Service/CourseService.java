@@ -24,6 +24,9 @@ public class CourseService {
     private final Iteachers teacherRepo;
     private final Iusers userRepo;
     private final TeacherSubjectRepository teacherSubjectRepo;
+    private final ScheduleExportCache exportCache;
+    private final TimetableSnapshotService timetableSnapshot;
+    private final StudentCourseCache studentCourses;
 
     private static Comparator<CourseDTO> naturalOrderComparator() {
         return Comparator.comparing(dto -> Pattern.compile("(\\d+)").splitAsStream(dto.getCourseName())
@@ -47,7 +50,7 @@ public class CourseService {
     }
 
     public List<CourseDTO> getAll() {
-        return courseRepo.findAll().stream().map(c -> {
+        return courseRepo.findAllWithDetails().stream().map(c -> {
             CourseDTO dto = new CourseDTO();
             dto.setCourseId(c.getId());
             dto.setCourseName(c.getCourseName());
@@ -80,12 +83,16 @@ public class CourseService {
         }
 
         courses updated = courseRepo.save(entity);
+        // El nombre aparece en los documentos exportados y en la instantánea de horarios
+        exportCache.invalidateAll();
+        timetableSnapshot.refreshAll();
         dto.setCourseId(updated.getId());
         return dto;
     }
 
     public void delete(int id) {
         courseRepo.deleteById(id);
+        studentCourses.clear();
     }
 
     public List<CourseStudentDTO> getStudentsByCourseId(int courseId) {
@@ -1,128 +1,175 @@
 package com.horarios.SGH.Service;
 
 import com.horarios.SGH.Model.schedule;
+import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
-import java.io.ByteArrayOutputStream;
-import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Estrategia de exportación a Excel.
  * Implementa la interfaz ExportStrategy para exportar horarios en formato Excel.
+ * Usa SXSSFWorkbook: solo una ventana de filas vive en memoria y el resto se vuelca a disco,
+ * así que un libro con una hoja por curso o profesor se genera con memoria constante.
  */
+@RequiredArgsConstructor
 public class ExcelExportStrategy implements ExportStrategy {
 
-    @Override
-    public byte[] export(List<schedule> schedules, String title) throws Exception {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Horario");
+    private static final int ROW_WINDOW = 100;
+    private static final int MAX_SHEET_NAME = 31;
+    private static final String[] DAYS = TimetableGrid.DAYS;
 
-        // Estilos
-        CellStyle headerStyle = createHeaderStyle(workbook);
+    // Anchos fijos (en 1/256 de carácter): evitan autoSizeColumn, que recorre toda la hoja
+    private static final int TIME_COLUMN_WIDTH = 22 * 256;
+    private static final int DAY_COLUMN_WIDTH = 34 * 256;
 
-        // Agregar título
-        addTitle(sheet, title, headerStyle);
+    private final BellSchedule bellSchedule;
 
-        // Crear tabla de horarios
-        createScheduleTable(sheet, schedules, headerStyle);
+    /**
+     * Usa la jornada predeterminada
+     */
+    public ExcelExportStrategy() {
+        this(BellSchedule.DEFAULT);
+    }
 
-        // Auto-ajustar columnas
-        autoSizeColumns(sheet);
+    @Override
+    public void export(List<schedule> schedules, String title, OutputStream outputStream) throws Exception {
+        exportSections(List.of(new ScheduleSection(null, schedules)), title, outputStream);
+    }
 
-        // Convertir a bytes
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
+    /**
+     * Una hoja por sección (curso o profesor), todas con los mismos estilos compartidos
+     */
+    @Override
+    public void exportSections(List<ScheduleSection> sections, String title, OutputStream outputStream) throws Exception {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Styles styles = new Styles(workbook);
+            Set<String> usedNames = new HashSet<>();
+            for (ScheduleSection section : sections) {
+                Sheet sheet = workbook.createSheet(uniqueSheetName(section.getTitle(), usedNames));
+                writeSheet(sheet, section, title, styles);
+            }
+            if (sections.isEmpty()) {
+                writeSheet(workbook.createSheet("Horario"), new ScheduleSection(null, List.of()), title, styles);
+            }
+            workbook.write(outputStream);
+        } finally {
+            // Elimina los archivos temporales de las filas ya volcadas
+            workbook.dispose();
+            workbook.close();
+        }
+    }
 
-        return outputStream.toByteArray();
+    @Override
+    public String getContentType() {
+        return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
     }
 
-    private CellStyle createHeaderStyle(Workbook workbook) {
-        CellStyle headerStyle = workbook.createCellStyle();
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerStyle.setFont(headerFont);
-        return headerStyle;
+    @Override
+    public String getFileExtension() {
+        return "xlsx";
     }
 
-    private void addTitle(Sheet sheet, String title, CellStyle headerStyle) {
-        Row titleRow = sheet.createRow(0);
+    private void writeSheet(Sheet sheet, ScheduleSection section, String title, Styles styles) {
+        sheet.setColumnWidth(0, TIME_COLUMN_WIDTH);
+        for (int i = 1; i <= DAYS.length; i++) {
+            sheet.setColumnWidth(i, DAY_COLUMN_WIDTH);
+        }
+
+        // Agregar título
+        int rowIdx = 0;
+        Row titleRow = sheet.createRow(rowIdx++);
         Cell titleCell = titleRow.createCell(0);
         titleCell.setCellValue(title);
-        titleCell.setCellStyle(headerStyle);
-        sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, 5));
+        titleCell.setCellStyle(styles.header);
+        sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, DAYS.length));
+        if (section.getTitle() != null) {
+            Row sectionRow = sheet.createRow(rowIdx++);
+            Cell sectionCell = sectionRow.createCell(0);
+            sectionCell.setCellValue(section.getTitle());
+            sectionCell.setCellStyle(styles.header);
+            sheet.addMergedRegion(new CellRangeAddress(1, 1, 0, DAYS.length));
+        }
+        rowIdx++;
+
+        createScheduleTable(sheet, section.getSchedules(), rowIdx, styles);
     }
 
-    private void createScheduleTable(Sheet sheet, List<schedule> schedules, CellStyle headerStyle) {
-        String[] days = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes"};
-        List<String> times = generateTimes(schedules);
+    private void createScheduleTable(Sheet sheet, List<schedule> schedules, int firstRow, Styles styles) {
+        TimetableGrid grid = TimetableGrid.of(schedules, bellSchedule);
 
         // Header
-        Row headerRow = sheet.createRow(2);
-        headerRow.createCell(0).setCellValue("Tiempo");
-        for (int i = 0; i < days.length; i++) {
+        Row headerRow = sheet.createRow(firstRow);
+        Cell timeHeader = headerRow.createCell(0);
+        timeHeader.setCellValue("Tiempo");
+        timeHeader.setCellStyle(styles.header);
+        for (int i = 0; i < DAYS.length; i++) {
             Cell cell = headerRow.createCell(i + 1);
-            cell.setCellValue(days[i]);
-            cell.setCellStyle(headerStyle);
+            cell.setCellValue(DAYS[i]);
+            cell.setCellStyle(styles.header);
         }
 
         // Contenido
-        int rowIdx = 3;
-        for (String time : times) {
+        int rowIdx = firstRow + 1;
+        for (int slot = 0; slot < grid.getSlotCount(); slot++) {
             Row row = sheet.createRow(rowIdx++);
-            row.createCell(0).setCellValue(time);
-
-            for (int i = 0; i < days.length; i++) {
-                String day = days[i];
-                schedule s = getScheduleForTimeAndDay(schedules, time, day);
-                String content = getScheduleContent(s, time);
-                row.createCell(i + 1).setCellValue(content);
+            CellStyle style = grid.isBreak(slot) ? styles.breakCell : styles.cell;
+            Cell timeCell = row.createCell(0);
+            timeCell.setCellValue(grid.getSlot(slot).getLabel());
+            timeCell.setCellStyle(style);
+
+            for (int i = 0; i < DAYS.length; i++) {
+                Cell cell = row.createCell(i + 1);
+                cell.setCellValue(grid.cellText(slot, i));
+                cell.setCellStyle(style);
             }
         }
     }
 
-    private void autoSizeColumns(Sheet sheet) {
-        for (int i = 0; i <= 6; i++) { // 0=Tiempo + 5 días + 1 extra
-            sheet.autoSizeColumn(i);
+    /**
+     * Nombre de hoja válido para Excel (máx. 31 caracteres, sin caracteres especiales) y único en el libro
+     */
+    private static String uniqueSheetName(String title, Set<String> usedNames) {
+        String base = WorkbookUtil.createSafeSheetName(title == null || title.isBlank() ? "Horario" : title);
+        String name = base;
+        for (int suffix = 2; !usedNames.add(name.toLowerCase()); suffix++) {
+            String tail = " (" + suffix + ")";
+            name = base.substring(0, Math.min(base.length(), MAX_SHEET_NAME - tail.length())) + tail;
         }
+        return name;
     }
 
-    private List<String> generateTimes(List<schedule> schedules) {
-        // Lógica simplificada para generar tiempos únicos
-        return List.of(
-            "9:00 AM - 9:30 AM",
-            "9:30 AM - 10:30 AM",
-            "10:30 AM - 11:30 AM",
-            "11:30 AM - 12:00 PM",
-            "12:00 PM - 1:00 PM",
-            "1:00 PM - 2:00 PM",
-            "2:00 PM - 3:00 PM",
-            "3:00 PM - 4:00 PM",
-            "4:00 PM - 5:00 PM"
-        );
-    }
-
-    private schedule getScheduleForTimeAndDay(List<schedule> schedules, String time, String day) {
-        // Lógica simplificada para encontrar horario
-        return schedules.stream()
-            .filter(s -> s.getDay().equals(day) &&
-                    time.contains(s.getStartTime().format(DateTimeFormatter.ofPattern("h:mm a"))))
-            .findFirst()
-            .orElse(null);
-    }
-
-    private String getScheduleContent(schedule s, String time) {
-        if (time.equals("9:00 AM - 9:30 AM")) {
-            return "Descanso";
-        } else if (time.equals("12:00 PM - 1:00 PM")) {
-            return "Almuerzo";
-        } else if (s != null) {
-            String docente = s.getTeacherId() != null ? s.getTeacherId().getTeacherName() : "";
-            String materia = s.getSubjectId() != null ? s.getSubjectId().getSubjectName() : "";
-            return docente + "/" + materia;
+    /**
+     * Estilos creados una vez por libro y compartidos por todas las celdas de todas las hojas
+     * (Excel admite un número limitado de estilos por archivo)
+     */
+    private static final class Styles {
+        private final CellStyle header;
+        private final CellStyle cell;
+        private final CellStyle breakCell;
+
+        private Styles(Workbook workbook) {
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            header = workbook.createCellStyle();
+            header.setFont(headerFont);
+
+            cell = workbook.createCellStyle();
+            cell.setWrapText(true);
+            cell.setVerticalAlignment(VerticalAlignment.CENTER);
+
+            breakCell = workbook.createCellStyle();
+            breakCell.cloneStyleFrom(cell);
+            breakCell.setFillForegroundColor(IndexedColors.LIGHT_YELLOW.getIndex());
+            breakCell.setFillPattern(FillPatternType.SOLID_FOREGROUND);
         }
-        return "";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.horarios.SGH.Service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Documento exportado ya generado, listo para servirse desde la caché con su ETag
+ */
+@Getter
+@AllArgsConstructor
+public class ExportArtifact {
+
+    private final String etag;
+    private final String contentType;
+    private final String fileExtension;
+    private final byte[] content;
+    private final Instant generatedAt;
+}
@@ -0,0 +1,58 @@
+package com.horarios.SGH.Service;
+
+/**
+ * Formatos de exportación de horarios disponibles y su estrategia asociada
+ */
+public enum ExportFormat {
+    PDF,
+    EXCEL,
+    IMAGE,
+    ICS;
+
+    /**
+     * Crea la estrategia de exportación del formato con la jornada predeterminada
+     */
+    public ExportStrategy newStrategy() {
+        return newStrategy(BellSchedule.DEFAULT);
+    }
+
+    /**
+     * Crea la estrategia de exportación del formato con las franjas de la jornada dada
+     */
+    public ExportStrategy newStrategy(BellSchedule bellSchedule) {
+        return newStrategy(bellSchedule, ImageRenderOptions.DEFAULT);
+    }
+
+    /**
+     * Igual que newStrategy(BellSchedule), con la codificación configurada para las imágenes
+     */
+    public ExportStrategy newStrategy(BellSchedule bellSchedule, ImageRenderOptions imageOptions) {
+        switch (this) {
+            case PDF: return new PdfExportStrategy(bellSchedule);
+            case EXCEL: return new ExcelExportStrategy(bellSchedule);
+            case IMAGE: return new ImageExportStrategy(bellSchedule, imageOptions);
+            // Los eventos llevan la hora real de cada clase: no depende de las franjas
+            case ICS: return new IcsExportStrategy();
+            default: throw new IllegalStateException("Formato sin estrategia: " + this);
+        }
+    }
+
+    /**
+     * Interpreta el formato recibido en la petición (pdf, excel/xlsx, image/png, ics/ical)
+     */
+    public static ExportFormat fromString(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("El formato de exportación es obligatorio");
+        }
+        switch (value.trim().toLowerCase()) {
+            case "pdf": return PDF;
+            case "excel":
+            case "xlsx": return EXCEL;
+            case "image":
+            case "png": return IMAGE;
+            case "ics":
+            case "ical": return ICS;
+            default: throw new IllegalArgumentException("Formato de exportación no soportado: " + value);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.horarios.SGH.Service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Trabajo de exportación en segundo plano. Vive solo en memoria del nodo que lo recibió;
+ * el resultado se guarda en el directorio temporal de trabajos hasta que se descarga o expira.
+ */
+@Getter
+public class ExportJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    /**
+     * Qué se exporta: un curso, un profesor o el colegio completo
+     */
+    public enum Scope {
+        COURSE,
+        TEACHER,
+        ALL_COURSES,
+        ALL_TEACHERS;
+
+        public boolean requiresTarget() {
+            return this == COURSE || this == TEACHER;
+        }
+    }
+
+    private final String id;
+    private final String owner;
+    private final Integer ownerUserId;
+    private final Scope scope;
+    private final Integer targetId;
+    private final ExportFormat format;
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile int progress;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile Path file;
+    private volatile String fileName;
+    private volatile String contentType;
+    private volatile boolean downloaded;
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong bytesWritten = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<String> downloadToken = new AtomicReference<>();
+    @Getter(AccessLevel.NONE)
+    private volatile Future<?> future;
+
+    ExportJob(String id, String owner, Integer ownerUserId, Scope scope, Integer targetId, ExportFormat format) {
+        this.id = id;
+        this.owner = owner;
+        this.ownerUserId = ownerUserId;
+        this.scope = scope;
+        this.targetId = targetId;
+        this.format = format;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Token de descarga vigente; null si el trabajo no terminó o ya se descargó
+     */
+    public String getDownloadToken() {
+        return downloadToken.get();
+    }
+
+    public boolean isActive() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+
+    void addBytes(long count) {
+        bytesWritten.addAndGet(count);
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * Pasa a en curso; false si se canceló mientras esperaba en la cola
+     */
+    synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        progress = 10;
+        return true;
+    }
+
+    void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Registra el resultado; false si el trabajo se canceló mientras se generaba
+     */
+    synchronized boolean complete(Path file, String fileName, String contentType, String token) {
+        if (status != Status.RUNNING) {
+            return false;
+        }
+        this.file = file;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.downloadToken.set(token);
+        this.progress = 100;
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+        return true;
+    }
+
+    synchronized boolean fail(String error) {
+        if (status != Status.RUNNING) {
+            return false;
+        }
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+        return true;
+    }
+
+    synchronized boolean cancel() {
+        if (!isActive()) {
+            return false;
+        }
+        this.finishedAt = Instant.now();
+        this.status = Status.CANCELLED;
+        this.downloadToken.set(null);
+        Future<?> running = future;
+        if (running != null) {
+            running.cancel(true);
+        }
+        return true;
+    }
+
+    /**
+     * Consume el token: solo la primera llamada con el token correcto obtiene true
+     */
+    boolean consumeToken(String token) {
+        String current = downloadToken.get();
+        if (current == null || token == null || !constantTimeEquals(current, token)) {
+            return false;
+        }
+        if (downloadToken.compareAndSet(current, null)) {
+            downloaded = true;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean constantTimeEquals(String a, String b) {
+        return MessageDigest.isEqual(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+    }
+}
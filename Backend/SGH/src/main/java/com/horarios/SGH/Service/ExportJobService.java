@@ -0,0 +1,301 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Repository.Iusers;
+import com.horarios.SGH.Service.ExportJob.Scope;
+import com.horarios.SGH.Service.ExportJob.Status;
+import com.horarios.SGH.WebSocket.NotificationWebSocketService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Cola de exportaciones en segundo plano: el cliente envía el trabajo, recibe un ID,
+ * consulta (o recibe por WebSocket/SSE) el progreso y descarga el resultado con un token de un solo uso.
+ * Los trabajos corren en exportJobExecutor (acotado) con un límite de trabajos activos por usuario,
+ * así que los renders pesados de PDF o PNG nunca ocupan hilos de Tomcat.
+ * Los resultados se guardan en un directorio temporal y se borran al descargarse o al expirar.
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private ScheduleExportServiceRefactored exportService;
+
+    @Autowired
+    private NotificationWebSocketService webSocketService;
+
+    @Autowired
+    private Iusers usersRepository;
+
+    @Autowired
+    @Qualifier("exportJobExecutor")
+    private Executor jobExecutor;
+
+    @Value("${app.export.jobs.dir:${java.io.tmpdir}/sgh-export-jobs}")
+    private String jobsDir;
+
+    @Value("${app.export.jobs.max-active-per-user:2}")
+    private int maxActivePerUser;
+
+    @Value("${app.export.jobs.result-ttl:900000}")
+    private long resultTtlMillis;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    private Path jobsPath;
+
+    @PostConstruct
+    void init() throws IOException {
+        jobsPath = Files.createDirectories(Paths.get(jobsDir));
+        // Los trabajos no sobreviven a un reinicio: sus archivos tampoco
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(jobsPath)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Encola un trabajo de exportación
+     *
+     * @throws IllegalStateException si el usuario ya tiene el máximo de trabajos activos
+     * @throws RejectedExecutionException si la cola de exportaciones está llena
+     */
+    public ExportJob submit(String owner, Scope scope, Integer targetId, ExportFormat format) {
+        if (scope.requiresTarget() && targetId == null) {
+            throw new IllegalArgumentException("El ID del curso o profesor es obligatorio para " + scope);
+        }
+        Integer ownerUserId = usersRepository.findByUserName(owner).map(u -> u.getUserId()).orElse(null);
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), owner, ownerUserId, scope,
+            scope.requiresTarget() ? targetId : null, format);
+
+        // Comprobar y registrar bajo el mismo monitor para que dos envíos simultáneos no superen el límite
+        synchronized (this) {
+            long active = jobs.values().stream()
+                .filter(j -> j.getOwner().equals(owner) && j.isActive())
+                .count();
+            if (active >= maxActivePerUser) {
+                throw new IllegalStateException("Ya tienes " + active + " exportaciones en curso; espera a que terminen");
+            }
+            jobs.put(job.getId(), job);
+        }
+
+        try {
+            job.setFuture(CompletableFuture.runAsync(() -> run(job), jobExecutor));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        log.info("Exportación {} encolada: {} {} {} para {}", job.getId(), scope, targetId, format, owner);
+        return job;
+    }
+
+    /**
+     * Trabajo del usuario; null si no existe o es de otro usuario
+     */
+    public ExportJob get(String jobId, String owner) {
+        ExportJob job = jobs.get(jobId);
+        return job != null && job.getOwner().equals(owner) ? job : null;
+    }
+
+    /**
+     * Trabajos del usuario, del más reciente al más antiguo
+     */
+    public List<ExportJob> listFor(String owner) {
+        return jobs.values().stream()
+            .filter(j -> j.getOwner().equals(owner))
+            .sorted(Comparator.comparing(ExportJob::getCreatedAt).reversed())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Cancela un trabajo pendiente o en curso del usuario
+     */
+    public boolean cancel(String jobId, String owner) {
+        ExportJob job = get(jobId, owner);
+        if (job == null || !job.cancel()) {
+            return false;
+        }
+        notifyOwner(job);
+        return true;
+    }
+
+    /**
+     * Valida y consume el token de descarga. Devuelve el trabajo solo la primera vez;
+     * quien lo recibe debe llamar a {@link #release(ExportJob)} al terminar de enviar el archivo.
+     */
+    public ExportJob consumeDownload(String jobId, String token) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null || job.getStatus() != Status.COMPLETED || !job.consumeToken(token)) {
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * Borra el archivo del trabajo una vez descargado
+     */
+    public void release(ExportJob job) {
+        deleteQuietly(job.getFile());
+    }
+
+    /**
+     * Elimina los trabajos terminados cuyo resultado superó el TTL, junto con sus archivos
+     */
+    @Scheduled(fixedDelayString = "${app.export.jobs.cleanup-interval:60000}")
+    public void cleanup() {
+        Instant cutoff = Instant.now().minusMillis(resultTtlMillis);
+        int removed = 0;
+        for (ExportJob job : new ArrayList<>(jobs.values())) {
+            if (job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff)) {
+                jobs.remove(job.getId());
+                deleteQuietly(job.getFile());
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Limpieza de exportaciones: {} trabajos expirados eliminados", removed);
+        }
+    }
+
+    private void run(ExportJob job) {
+        if (!job.start()) {
+            return; // cancelado mientras esperaba en la cola
+        }
+        notifyOwner(job);
+
+        ExportStrategy strategy = exportService.newStrategy(job.getFormat());
+        Path part = jobsPath.resolve(job.getId() + ".part");
+        try {
+            try (OutputStream out = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(part)), job)) {
+                job.setProgress(30);
+                switch (job.getScope()) {
+                    case COURSE:
+                        out.write(exportService.exportCourseArtifact(job.getTargetId(), job.getFormat()).getContent());
+                        break;
+                    case TEACHER:
+                        out.write(exportService.exportTeacherArtifact(job.getTargetId(), job.getFormat()).getContent());
+                        break;
+                    case ALL_COURSES:
+                        exportService.exportAllSchedules(strategy, out);
+                        break;
+                    case ALL_TEACHERS:
+                        exportService.exportAllTeachersSchedules(strategy, out);
+                        break;
+                }
+            }
+            job.setProgress(90);
+
+            Path result = Files.move(part, jobsPath.resolve(job.getId() + "." + strategy.getFileExtension()),
+                StandardCopyOption.REPLACE_EXISTING);
+            if (!job.complete(result, fileNameOf(job) + "." + strategy.getFileExtension(),
+                    strategy.getContentType(), newToken())) {
+                deleteQuietly(result); // cancelado mientras se generaba
+                return;
+            }
+            log.info("Exportación {} completada ({} bytes)", job.getId(), job.getBytesWritten());
+        } catch (Exception e) {
+            deleteQuietly(part);
+            if (!job.fail("Error generando la exportación")) {
+                return;
+            }
+            log.error("Exportación {} fallida: {}", job.getId(), e.getMessage(), e);
+        }
+        notifyOwner(job);
+    }
+
+    private void notifyOwner(ExportJob job) {
+        if (job.getOwnerUserId() == null) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("jobId", job.getId());
+        payload.put("status", job.getStatus().name());
+        payload.put("progress", job.getProgress());
+        payload.put("bytesWritten", job.getBytesWritten());
+        webSocketService.sendEventToUser(String.valueOf(job.getOwnerUserId()), "export_job", payload);
+    }
+
+    private static String fileNameOf(ExportJob job) {
+        switch (job.getScope()) {
+            case COURSE: return "horario_curso_" + job.getTargetId();
+            case TEACHER: return "horario_profesor_" + job.getTargetId();
+            case ALL_COURSES: return "horario_general_cursos";
+            default: return "horario_general_profesores";
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el archivo de exportación {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Cuenta los bytes escritos para informar el avance del trabajo
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final ExportJob job;
+
+        private CountingOutputStream(OutputStream out, ExportJob job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.addBytes(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            // FilterOutputStream escribiría byte a byte
+            out.write(b, off, len);
+            job.addBytes(len);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.horarios.SGH.Service;
 
 import com.horarios.SGH.Model.schedule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Interfaz para estrategias de exportación.
@@ -9,6 +14,17 @@ import java.util.List;
  */
 public interface ExportStrategy {
 
+    /**
+     * Exporta los horarios escribiendo directamente en el stream de salida,
+     * sin materializar el documento completo en memoria. No cierra el stream.
+     *
+     * @param schedules Lista de horarios a exportar
+     * @param title Título del documento
+     * @param out Stream de salida (por ejemplo el de la respuesta HTTP)
+     * @throws Exception si ocurre un error durante la exportación
+     */
+    void export(List<schedule> schedules, String title, OutputStream out) throws Exception;
+
     /**
      * Exporta los horarios a un formato específico.
      *
@@ -17,5 +33,44 @@ public interface ExportStrategy {
      * @return Array de bytes con el contenido exportado
      * @throws Exception si ocurre un error durante la exportación
      */
-    byte[] export(List<schedule> schedules, String title) throws Exception;
-}
\ No newline at end of file
+    default byte[] export(List<schedule> schedules, String title) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        export(schedules, title, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Exporta varias secciones (una por curso o profesor) en un solo documento.
+     * Por defecto las combina en una sola tabla; los formatos que pueden separarlas lo sobrescriben.
+     *
+     * @param sections Secciones en el orden en que deben aparecer
+     * @param title Título del documento
+     * @param out Stream de salida; no se cierra
+     */
+    default void exportSections(List<ScheduleSection> sections, String title, OutputStream out) throws Exception {
+        List<schedule> all = new ArrayList<>();
+        for (ScheduleSection section : sections) {
+            all.addAll(section.getSchedules());
+        }
+        export(all, title, out);
+    }
+
+    /**
+     * Igual que exportSections, pero permite renderizar las secciones en paralelo sobre el executor dado.
+     * Las secciones siempre se escriben en su orden original.
+     */
+    default void exportSections(List<ScheduleSection> sections, String title, OutputStream out,
+                                Executor executor) throws Exception {
+        exportSections(sections, title, out);
+    }
+
+    /**
+     * Tipo MIME del documento generado
+     */
+    String getContentType();
+
+    /**
+     * Extensión de archivo del documento generado (sin punto)
+     */
+    String getFileExtension();
+}
@@ -0,0 +1,153 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.schedule;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estrategia de exportación a iCalendar (RFC 5545): un evento semanal recurrente por horario.
+ * Las horas van sin zona ("hora flotante"), así el calendario las muestra tal cual en la zona del colegio.
+ * Los eventos se repiten desde la semana del 1 de enero del año en curso, una fecha estable
+ * para que el documento no cambie entre refrescos del cliente.
+ */
+public class IcsExportStrategy implements ExportStrategy {
+
+    private static final String CRLF = "\r\n";
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private static final Map<String, DayOfWeek> DAYS = Map.of(
+        "Lunes", DayOfWeek.MONDAY,
+        "Martes", DayOfWeek.TUESDAY,
+        "Miércoles", DayOfWeek.WEDNESDAY,
+        "Jueves", DayOfWeek.THURSDAY,
+        "Viernes", DayOfWeek.FRIDAY,
+        "Sábado", DayOfWeek.SATURDAY,
+        "Domingo", DayOfWeek.SUNDAY
+    );
+
+    private final LocalDate firstWeek;
+
+    public IcsExportStrategy() {
+        this(LocalDate.now().with(TemporalAdjusters.firstDayOfYear()));
+    }
+
+    /**
+     * @param from fecha desde la que se repiten los eventos (se usa el lunes de esa semana)
+     */
+    public IcsExportStrategy(LocalDate from) {
+        this.firstWeek = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    @Override
+    public void export(List<schedule> schedules, String title, OutputStream outputStream) throws Exception {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        String stamp = ZonedDateTime.now(ZoneOffset.UTC).format(UTC_DATE_TIME);
+
+        line(writer, "BEGIN:VCALENDAR");
+        line(writer, "VERSION:2.0");
+        line(writer, "PRODID:-//SGH//Horarios//ES");
+        line(writer, "CALSCALE:GREGORIAN");
+        line(writer, "METHOD:PUBLISH");
+        line(writer, "X-WR-CALNAME:" + escape(title));
+        for (schedule s : schedules) {
+            DayOfWeek day = DAYS.get(s.getDay());
+            if (day == null || s.getStartTime() == null || s.getEndTime() == null) {
+                continue;
+            }
+            LocalDate date = firstWeek.with(TemporalAdjusters.nextOrSame(day));
+            line(writer, "BEGIN:VEVENT");
+            line(writer, "UID:schedule-" + s.getId() + "@sgh");
+            line(writer, "DTSTAMP:" + stamp);
+            line(writer, "DTSTART:" + date.atTime(s.getStartTime()).format(LOCAL_DATE_TIME));
+            line(writer, "DTEND:" + date.atTime(endOf(s)).format(LOCAL_DATE_TIME));
+            line(writer, "RRULE:FREQ=WEEKLY;BYDAY=" + day.name().substring(0, 2));
+            line(writer, "SUMMARY:" + escape(s.getSubjectId() != null ? s.getSubjectId().getSubjectName() : "Clase"));
+            line(writer, "DESCRIPTION:" + escape(description(s)));
+            line(writer, "END:VEVENT");
+        }
+        line(writer, "END:VCALENDAR");
+        // Vacía el buffer sin cerrar el stream del llamador
+        writer.flush();
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/calendar; charset=utf-8";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "ics";
+    }
+
+    /**
+     * Un horario que termina antes de empezar se recorta a su hora de inicio en vez de producir un evento inválido
+     */
+    private static LocalTime endOf(schedule s) {
+        return s.getEndTime().isAfter(s.getStartTime()) ? s.getEndTime() : s.getStartTime();
+    }
+
+    private static String description(schedule s) {
+        StringBuilder text = new StringBuilder();
+        if (s.getTeacherId() != null) {
+            text.append("Docente: ").append(s.getTeacherId().getTeacherName());
+        }
+        if (s.getCourseId() != null) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append("Curso: ").append(s.getCourseId().getCourseName());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Escapa un valor TEXT (RFC 5545, 3.3.11)
+     */
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\")
+            .replace(";", "\\;")
+            .replace(",", "\\,")
+            .replace("\r\n", "\\n")
+            .replace("\n", "\\n");
+    }
+
+    /**
+     * Escribe una línea plegada a 75 octetos (RFC 5545, 3.1) sin partir caracteres UTF-8
+     */
+    private static void line(Writer writer, String content) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int size = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (octets + size > MAX_LINE_OCTETS) {
+                writer.write(CRLF);
+                writer.write(' ');
+                octets = 1;
+            }
+            writer.write(Character.toChars(codePoint));
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        writer.write(CRLF);
+    }
+}
@@ -1,125 +1,325 @@
 package com.horarios.SGH.Service;
 
 import com.horarios.SGH.Model.schedule;
+import lombok.RequiredArgsConstructor;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.*;
+import java.awt.font.FontRenderContext;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 
 /**
- * Estrategia de exportación a imagen PNG.
+ * Estrategia de exportación a imagen (PNG por defecto; JPEG o WebP según ImageRenderOptions).
  * Implementa la interfaz ExportStrategy para exportar horarios en formato de imagen.
+ *
+ * El lienzo se dimensiona a la cuadrícula (columnas medidas con FontRenderContext, sin Toolkit,
+ * así funciona en modo headless), las fuentes y colores son constantes y la franja de encabezado
+ * se dibuja una vez por ancho de columna. Los renders simultáneos están acotados por un semáforo
+ * global para que un pico de descargas no reserve un lienzo por hilo de Tomcat.
  */
+@RequiredArgsConstructor
 public class ImageExportStrategy implements ExportStrategy {
 
+    private static final int MARGIN = 20;
+    private static final int TITLE_HEIGHT = 40;
+    private static final int ROW_HEIGHT = 25;
+    private static final int CELL_PADDING = 8;
+    private static final int COLUMN_STEP = 20;
+    private static final int MIN_DAY_WIDTH = 100;
+    private static final int MAX_DAY_WIDTH = 280;
+    private static final int SECTIONS_PER_THREAD = 2;
+    private static final int MAX_HEADER_STRIPS = 64;
+
+    private static final Font TITLE_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 18);
+    private static final Font HEADER_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 12);
+    private static final Font CELL_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 11);
+    private static final Color TEXT = new Color(30, 30, 30);
+    private static final Color HEADER_BG = new Color(60, 120, 180);
+    private static final Color BREAK_BG = new Color(255, 255, 204);
+    private static final Color GRID_LINE = new Color(210, 210, 210);
+    private static final FontRenderContext FRC = new FontRenderContext(null, true, true);
+
+    private static final Semaphore RENDER_PERMITS = new Semaphore(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    // Clave: ancho de la columna de horas y de las de días (ambos redondeados a COLUMN_STEP)
+    private static final Map<Long, BufferedImage> HEADER_STRIPS = new ConcurrentHashMap<>();
+
+    private final BellSchedule bellSchedule;
+    private final ImageRenderOptions options;
+
+    /**
+     * Usa la jornada predeterminada
+     */
+    public ImageExportStrategy() {
+        this(BellSchedule.DEFAULT);
+    }
+
+    public ImageExportStrategy(BellSchedule bellSchedule) {
+        this(bellSchedule, ImageRenderOptions.DEFAULT);
+    }
+
+    @Override
+    public void export(List<schedule> schedules, String title, OutputStream outputStream) throws Exception {
+        write(renderImage(layout(schedules, title)), outputStream);
+    }
+
+    @Override
+    public void exportSections(List<ScheduleSection> sections, String title, OutputStream out) throws Exception {
+        exportSections(sections, title, out, Runnable::run);
+    }
+
+    /**
+     * Una imagen con las secciones apiladas verticalmente bajo el título.
+     * Cada sección se dibuja en paralelo en su propia imagen y se copia en su posición.
+     */
     @Override
-    public byte[] export(List<schedule> schedules, String title) throws Exception {
-        List<String> times = generateTimes(schedules);
-        String[] days = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes"};
-
-        // Dimensiones de la imagen
-        int width = 1400;
-        int rowHeight = 25;
-        int padding = 40;
-        int height = padding + (times.size() + 2) * rowHeight;
-
-        // Crear imagen
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    public void exportSections(List<ScheduleSection> sections, String title, OutputStream out,
+                               Executor executor) throws Exception {
+        Map<ScheduleSection, Layout> layouts = new IdentityHashMap<>();
+        int totalHeight = TITLE_HEIGHT;
+        int width = textWidth(title, TITLE_FONT) + 2 * MARGIN;
+        int[] offsets = new int[sections.size()];
+        for (int i = 0; i < sections.size(); i++) {
+            Layout layout = layout(sections.get(i).getSchedules(), sections.get(i).getTitle());
+            layouts.put(sections.get(i), layout);
+            offsets[i] = totalHeight;
+            totalHeight += layout.height;
+            width = Math.max(width, layout.width);
+        }
+
+        BufferedImage image = new BufferedImage(width, totalHeight, BufferedImage.TYPE_INT_RGB);
         Graphics2D g = image.createGraphics();
+        setupGraphics(g, width, totalHeight);
+        drawTitle(g, title);
 
-        // Configurar fondo y colores
-        setupGraphics(g, width, height);
+        int[] next = {0};
+        try {
+            OrderedSectionRenderer.render(sections, executor, Runtime.getRuntime().availableProcessors() * SECTIONS_PER_THREAD,
+                section -> renderImage(layouts.get(section)),
+                (section, part) -> g.drawImage(part, 0, offsets[next[0]++], null));
+        } finally {
+            g.dispose();
+        }
+        write(image, out);
+    }
+
+    @Override
+    public String getContentType() {
+        return options.getContentType();
+    }
 
-        // Dibujar título
-        drawTitle(g, title, padding);
+    @Override
+    public String getFileExtension() {
+        return options.getFileExtension();
+    }
 
-        // Dibujar tabla
-        drawTable(g, schedules, times, days, padding, rowHeight);
+    /**
+     * Mide las columnas antes de reservar el lienzo: la imagen tiene exactamente el tamaño de la tabla
+     */
+    private Layout layout(List<schedule> schedules, String title) {
+        TimetableGrid grid = TimetableGrid.of(schedules, bellSchedule);
 
-        g.dispose();
+        int timeWidth = textWidth("Tiempo", HEADER_FONT);
+        int dayWidth = MIN_DAY_WIDTH - 2 * CELL_PADDING;
+        for (String day : TimetableGrid.DAYS) {
+            dayWidth = Math.max(dayWidth, textWidth(day, HEADER_FONT));
+        }
+        for (int slot = 0; slot < grid.getSlotCount(); slot++) {
+            timeWidth = Math.max(timeWidth, textWidth(grid.getSlot(slot).getLabel(), CELL_FONT));
+            if (grid.isBreak(slot)) {
+                continue; // el descanso ocupa toda la fila
+            }
+            for (int day = 0; day < TimetableGrid.DAYS.length; day++) {
+                dayWidth = Math.max(dayWidth, textWidth(grid.cellText(slot, day), CELL_FONT));
+            }
+        }
+        timeWidth = roundUp(timeWidth + 2 * CELL_PADDING);
+        dayWidth = Math.min(MAX_DAY_WIDTH, roundUp(dayWidth + 2 * CELL_PADDING));
 
-        // Convertir a bytes
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ImageIO.write(image, "png", outputStream);
-        return outputStream.toByteArray();
+        int tableWidth = timeWidth + dayWidth * TimetableGrid.DAYS.length;
+        int width = Math.max(tableWidth, textWidth(title, TITLE_FONT)) + 2 * MARGIN;
+        int height = TITLE_HEIGHT + (grid.getSlotCount() + 1) * ROW_HEIGHT + MARGIN;
+        return new Layout(grid, title, timeWidth, dayWidth, width, height);
+    }
+
+    private BufferedImage renderImage(Layout layout) throws InterruptedException {
+        RENDER_PERMITS.acquire();
+        try {
+            BufferedImage image = new BufferedImage(layout.width, layout.height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            try {
+                setupGraphics(g, layout.width, layout.height);
+                drawTitle(g, layout.title);
+                g.drawImage(headerStrip(layout.timeWidth, layout.dayWidth), MARGIN, TITLE_HEIGHT, null);
+                drawRows(g, layout);
+            } finally {
+                g.dispose();
+            }
+            return image;
+        } finally {
+            RENDER_PERMITS.release();
+        }
     }
 
     private void setupGraphics(Graphics2D g, int width, int height) {
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
         g.setColor(Color.WHITE);
         g.fillRect(0, 0, width, height);
-        g.setColor(new Color(30, 30, 30));
+        g.setColor(TEXT);
     }
 
-    private void drawTitle(Graphics2D g, String title, int padding) {
-        g.setFont(new Font("Arial", Font.BOLD, 18));
-        g.drawString(title, 20, padding);
+    private void drawTitle(Graphics2D g, String title) {
+        g.setFont(TITLE_FONT);
+        g.setColor(TEXT);
+        g.drawString(title, MARGIN, TITLE_HEIGHT - 14);
     }
 
-    private void drawTable(Graphics2D g, List<schedule> schedules, List<String> times, String[] days, int padding, int rowHeight) {
-        int y = padding + rowHeight;
+    private void drawRows(Graphics2D g, Layout layout) {
+        TimetableGrid grid = layout.grid;
+        int tableWidth = layout.timeWidth + layout.dayWidth * TimetableGrid.DAYS.length;
+        int textWidth = layout.dayWidth - 2 * CELL_PADDING;
+        int y = TITLE_HEIGHT + ROW_HEIGHT;
 
-        // Headers
-        g.setFont(new Font("Arial", Font.BOLD, 12));
-        int[] xPositions = {20, 150, 350, 550, 650, 750, 850, 950};
-        g.drawString("Tiempo", xPositions[0], y);
-        for (int i = 0; i < days.length; i++) {
-            g.drawString(days[i], xPositions[i + 1], y);
-        }
+        g.setFont(CELL_FONT);
+        for (int slot = 0; slot < grid.getSlotCount(); slot++) {
+            if (grid.isBreak(slot)) {
+                g.setColor(BREAK_BG);
+                g.fillRect(MARGIN, y, tableWidth, ROW_HEIGHT);
+            }
+            g.setColor(GRID_LINE);
+            g.drawLine(MARGIN, y + ROW_HEIGHT - 1, MARGIN + tableWidth, y + ROW_HEIGHT - 1);
 
-        y += rowHeight;
-        g.setFont(new Font("Arial", Font.PLAIN, 11));
+            int baseline = y + ROW_HEIGHT - CELL_PADDING;
+            g.setColor(TEXT);
+            g.drawString(grid.getSlot(slot).getLabel(), MARGIN + CELL_PADDING, baseline);
+            if (grid.isBreak(slot)) {
+                g.drawString(grid.cellText(slot, 0), MARGIN + layout.timeWidth + CELL_PADDING, baseline);
+            } else {
+                for (int day = 0; day < TimetableGrid.DAYS.length; day++) {
+                    int x = MARGIN + layout.timeWidth + day * layout.dayWidth + CELL_PADDING;
+                    g.drawString(fit(grid.cellText(slot, day), textWidth), x, baseline);
+                }
+            }
+            y += ROW_HEIGHT;
+        }
+    }
 
-        // Contenido
-        for (String time : times) {
-            g.drawString(time, xPositions[0], y);
+    /**
+     * Franja de encabezado (Tiempo + días) ya dibujada; se reutiliza entre renders con los mismos anchos
+     */
+    private static BufferedImage headerStrip(int timeWidth, int dayWidth) {
+        long key = ((long) timeWidth << 32) | dayWidth;
+        BufferedImage strip = HEADER_STRIPS.get(key);
+        if (strip != null) {
+            return strip;
+        }
+        if (HEADER_STRIPS.size() >= MAX_HEADER_STRIPS) {
+            HEADER_STRIPS.clear();
+        }
 
-            for (int i = 0; i < days.length; i++) {
-                String day = days[i];
-                schedule s = getScheduleForTimeAndDay(schedules, time, day);
-                String content = getScheduleContent(s, time);
-                g.drawString(content, xPositions[i + 1], y);
+        strip = new BufferedImage(timeWidth + dayWidth * TimetableGrid.DAYS.length, ROW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = strip.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            g.setColor(HEADER_BG);
+            g.fillRect(0, 0, strip.getWidth(), ROW_HEIGHT);
+            g.setColor(Color.WHITE);
+            g.setFont(HEADER_FONT);
+            int baseline = ROW_HEIGHT - CELL_PADDING;
+            g.drawString("Tiempo", CELL_PADDING, baseline);
+            for (int day = 0; day < TimetableGrid.DAYS.length; day++) {
+                g.drawString(TimetableGrid.DAYS[day], timeWidth + day * dayWidth + CELL_PADDING, baseline);
             }
-            y += rowHeight;
+        } finally {
+            g.dispose();
+        }
+        // Dos hilos pueden dibujar la misma franja a la vez; se queda la primera
+        BufferedImage previous = HEADER_STRIPS.putIfAbsent(key, strip);
+        return previous != null ? previous : strip;
+    }
+
+    /**
+     * Codifica con el escritor de ImageIO del formato configurado. MemoryCacheImageOutputStream evita
+     * el archivo temporal que ImageIO.write crea por defecto para cada imagen.
+     */
+    private void write(BufferedImage image, OutputStream out) throws Exception {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(options.getFormat()).next();
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), writeParam(writer));
+        } finally {
+            writer.dispose();
         }
     }
 
-    private List<String> generateTimes(List<schedule> schedules) {
-        // Lógica simplificada para generar tiempos únicos
-        return List.of(
-            "9:00 AM - 9:30 AM",
-            "9:30 AM - 10:30 AM",
-            "10:30 AM - 11:30 AM",
-            "11:30 AM - 12:00 PM",
-            "12:00 PM - 1:00 PM",
-            "1:00 PM - 2:00 PM",
-            "2:00 PM - 3:00 PM",
-            "3:00 PM - 4:00 PM",
-            "4:00 PM - 5:00 PM"
-        );
-    }
-
-    private schedule getScheduleForTimeAndDay(List<schedule> schedules, String time, String day) {
-        // Lógica simplificada para encontrar horario
-        return schedules.stream()
-            .filter(s -> s.getDay().equals(day) &&
-                    time.contains(s.getStartTime().format(DateTimeFormatter.ofPattern("h:mm a"))))
-            .findFirst()
-            .orElse(null);
-    }
-
-    private String getScheduleContent(schedule s, String time) {
-        if (time.equals("9:00 AM - 9:30 AM")) {
-            return "Descanso";
-        } else if (time.equals("12:00 PM - 1:00 PM")) {
-            return "Almuerzo";
-        } else if (s != null) {
-            String docente = s.getTeacherId() != null ? s.getTeacherId().getTeacherName() : "";
-            String materia = s.getSubjectId() != null ? s.getSubjectId().getSubjectName() : "";
-            return docente + "/" + materia;
+    private ImageWriteParam writeParam(ImageWriter writer) {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (!param.canWriteCompressed()) {
+            return param;
+        }
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        String[] types = param.getCompressionTypes();
+        if (param.getCompressionType() == null && types != null && types.length > 0) {
+            param.setCompressionType(types[0]);
+        }
+        // El escritor PNG del JDK traduce la calidad a nivel de deflate: 1.0 = nivel 0, 0.0 = nivel 9
+        param.setCompressionQuality("png".equals(options.getFormat())
+            ? (9 - options.getPngCompressionLevel()) / 9f
+            : options.getQuality());
+        return param;
+    }
+
+    private static int textWidth(String text, Font font) {
+        return (int) Math.ceil(font.getStringBounds(text, FRC).getWidth());
+    }
+
+    private static int roundUp(int width) {
+        return (width + COLUMN_STEP - 1) / COLUMN_STEP * COLUMN_STEP;
+    }
+
+    /**
+     * Recorta el texto con "…" si no cabe en la columna (solo pasa con nombres muy largos)
+     */
+    private static String fit(String text, int maxWidth) {
+        if (text.isEmpty() || textWidth(text, CELL_FONT) <= maxWidth) {
+            return text;
+        }
+        int end = text.length();
+        while (end > 0 && textWidth(text.substring(0, end) + "…", CELL_FONT) > maxWidth) {
+            end--;
+        }
+        return text.substring(0, end) + "…";
+    }
+
+    private static final class Layout {
+        private final TimetableGrid grid;
+        private final String title;
+        private final int timeWidth;
+        private final int dayWidth;
+        private final int width;
+        private final int height;
+
+        private Layout(TimetableGrid grid, String title, int timeWidth, int dayWidth, int width, int height) {
+            this.grid = grid;
+            this.title = title;
+            this.timeWidth = timeWidth;
+            this.dayWidth = dayWidth;
+            this.width = width;
+            this.height = height;
         }
-        return "";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.horarios.SGH.Service;
+
+import lombok.Getter;
+
+import javax.imageio.ImageIO;
+import java.util.Locale;
+
+/**
+ * Codificación de las exportaciones en imagen: formato de salida, nivel de compresión PNG (0-9)
+ * y calidad JPEG/WebP (0-1). WebP solo está disponible si hay un plugin de ImageIO que lo escriba;
+ * si el formato pedido no tiene escritor se usa PNG.
+ */
+@Getter
+public class ImageRenderOptions {
+
+    public static final ImageRenderOptions DEFAULT = new ImageRenderOptions("png", 4, 0.85f);
+
+    private final String format;
+    private final int pngCompressionLevel;
+    private final float quality;
+    // true si el formato pedido no tenía escritor y se usa PNG
+    private final boolean fallback;
+
+    public ImageRenderOptions(String requestedFormat, int pngCompressionLevel, float quality) {
+        String requested = requestedFormat == null ? "png" : requestedFormat.trim().toLowerCase(Locale.ROOT);
+        if ("jpg".equals(requested)) {
+            requested = "jpeg";
+        }
+        this.format = ImageIO.getImageWritersByFormatName(requested).hasNext() ? requested : "png";
+        this.fallback = !format.equals(requested);
+        this.pngCompressionLevel = Math.max(0, Math.min(9, pngCompressionLevel));
+        this.quality = Math.max(0f, Math.min(1f, quality));
+    }
+
+    public String getContentType() {
+        return "image/" + format;
+    }
+
+    public String getFileExtension() {
+        return "jpeg".equals(format) ? "jpg" : format;
+    }
+}
@@ -0,0 +1,78 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.InAppNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Inserción masiva de notificaciones In-App por JDBC batch.
+ * Con GenerationType.IDENTITY Hibernate desactiva el batching de inserts, así que los envíos
+ * a muchos destinatarios (anuncios por rol o curso) se escriben aquí en lotes, un viaje por lote.
+ * Con MySQL conviene agregar rewriteBatchedStatements=true a la URL para que cada lote
+ * viaje como un único INSERT de varias filas.
+ */
+@Component
+public class InAppNotificationBatchInserter {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO in_app_notifications (user_id, user_email, user_name, user_role, notification_type, " +
+        "title, message, action_url, action_text, icon, priority, is_read, is_archived, category, " +
+        "expires_at, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.notification.bulk.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Inserta las notificaciones en lotes. No asigna los IDs generados a las entidades.
+     *
+     * @return número de filas insertadas
+     */
+    public int insertAll(List<InAppNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, notifications, batchSize, (ps, n) -> {
+            Timestamp createdAt = Timestamp.valueOf(n.getCreatedAt());
+            ps.setInt(1, n.getUserId());
+            ps.setString(2, n.getUserEmail());
+            ps.setString(3, n.getUserName());
+            ps.setString(4, n.getUserRole());
+            ps.setString(5, n.getNotificationType().name());
+            ps.setString(6, n.getTitle());
+            ps.setString(7, n.getMessage());
+            ps.setString(8, n.getActionUrl());
+            ps.setString(9, n.getActionText());
+            ps.setString(10, n.getIcon());
+            // priority se mapea sin @Enumerated, es decir por ordinal
+            ps.setInt(11, n.getPriority().ordinal());
+            ps.setBoolean(12, n.isRead());
+            ps.setBoolean(13, n.isArchived());
+            ps.setString(14, n.getCategory());
+            if (n.getExpiresAt() != null) {
+                ps.setTimestamp(15, Timestamp.valueOf(n.getExpiresAt()));
+            } else {
+                ps.setNull(15, Types.TIMESTAMP);
+            }
+            ps.setTimestamp(16, createdAt);
+            ps.setTimestamp(17, createdAt);
+        });
+
+        int inserted = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO (-2) cuando el driver reescribe el lote
+                inserted += count >= 0 ? count : 1;
+            }
+        }
+        return inserted;
+    }
+}
@@ -1,15 +1,21 @@
 package com.horarios.SGH.Service;
 
 import com.horarios.SGH.DTO.InAppNotificationDTO;
+import com.horarios.SGH.DTO.InAppNotificationFilterDTO;
 import com.horarios.SGH.DTO.InAppNotificationResponseDTO;
+import com.horarios.SGH.DTO.NotificationFeedCursor;
+import com.horarios.SGH.Model.BroadcastNotification;
 import com.horarios.SGH.Model.InAppNotification;
 import com.horarios.SGH.Model.NotificationPriority;
 import com.horarios.SGH.Model.NotificationType;
 import com.horarios.SGH.Model.users;
 import com.horarios.SGH.Repository.IInAppNotificationRepository;
+import com.horarios.SGH.Repository.Iusers;
+import com.horarios.SGH.WebSocket.NotificationWebSocketService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
@@ -17,9 +23,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Servicio para el manejo de notificaciones In-App en tiempo real
@@ -29,58 +42,42 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class InAppNotificationService {
     
+    private static final int BULK_LOOKUP_SIZE = 1000;
+    
+    // Orden del feed: (createdAt DESC, id DESC), el mismo que usa el cursor
+    private static final Comparator<InAppNotification> FEED_ORDER = Comparator
+        .comparing(InAppNotification::getCreatedAt)
+        .thenComparing(InAppNotification::getNotificationId)
+        .reversed();
+    
     @Autowired
     private IInAppNotificationRepository inAppNotificationRepository;
     
     @Autowired
     private usersService userService;
     
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+    
+    @Autowired
+    private NotificationWebSocketService webSocketService;
+    
+    @Autowired
+    private Iusers usersRepository;
+    
+    @Autowired
+    private InAppNotificationBatchInserter batchInserter;
+    
+    @Autowired
+    private BroadcastNotificationService broadcastService;
+    
     /**
      * Envía notificación In-App y la distribuye en tiempo real vía WebSocket
      */
     @Async
     public CompletableFuture<InAppNotification> sendInAppNotificationAsync(InAppNotificationDTO notificationDTO) {
-        log.info("Enviando notificación In-App a usuario {}: {}", notificationDTO.getUserId(), notificationDTO.getTitle());
-        
         try {
-            // Buscar información del usuario
-            users user = userService.findById(notificationDTO.getUserId())
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado: " + notificationDTO.getUserId()));
-            
-            // Convertir tipos de datos
-            NotificationType type = NotificationType.valueOf(notificationDTO.getNotificationType());
-            NotificationPriority priority = NotificationPriority.valueOf(notificationDTO.getPriority());
-
-            // Crear notificación
-            InAppNotification notification = new InAppNotification(
-                user.getUserId(),
-                user.getPerson().getEmail(),
-                user.getPerson().getFullName(),
-                user.getRole().getRoleName(),
-                type,
-                notificationDTO.getTitle(),
-                notificationDTO.getMessage()
-            );
-
-            // Configurar campos adicionales
-            notification.setPriority(priority);
-            notification.setCategory(notificationDTO.getCategory());
-            notification.setActionUrl(notificationDTO.getActionUrl());
-            notification.setActionText(notificationDTO.getActionText());
-            notification.setIcon(notificationDTO.getIcon());
-            
-            // Guardar en base de datos
-            InAppNotification savedNotification = inAppNotificationRepository.save(notification);
-            
-            // Enviar vía WebSocket en tiempo real (comentado hasta que WebSocket esté compilado)
-            // InAppNotificationDTO dto = convertToDTO(savedNotification);
-            // webSocketService.sendNotificationToUser(String.valueOf(user.getUserId()), dto);
-            
-            log.info("Notificación In-App guardada exitosamente para usuario {}: {}",
-                    notificationDTO.getUserId(), notificationDTO.getTitle());
-            
-            return CompletableFuture.completedFuture(savedNotification);
-            
+            return CompletableFuture.completedFuture(sendInAppNotification(notificationDTO));
         } catch (Exception e) {
             log.error("Error al enviar notificación In-App a usuario {}: {}",
                      notificationDTO.getUserId(), e.getMessage());
@@ -89,34 +86,227 @@ public class InAppNotificationService {
     }
     
     /**
-     * Obtiene notificaciones activas de un usuario
+     * Versión síncrona del envío, para llamadores que ya corren en un hilo de fondo
+     * (por ejemplo los manejadores de eventos post-commit)
+     */
+    public InAppNotification sendInAppNotification(InAppNotificationDTO notificationDTO) {
+        log.info("Enviando notificación In-App a usuario {}: {}", notificationDTO.getUserId(), notificationDTO.getTitle());
+        
+        // Buscar información del usuario
+        users user = userService.findById(notificationDTO.getUserId())
+            .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado: " + notificationDTO.getUserId()));
+        
+        InAppNotification notification = buildNotification(user, notificationDTO);
+        
+        // Guardar en base de datos
+        InAppNotification savedNotification = inAppNotificationRepository.save(notification);
+        unreadCounter.increment(savedNotification.getUserId(), savedNotification.getExpiresAt());
+        
+        // Enviar vía WebSocket en tiempo real a todas las sesiones del usuario
+        InAppNotificationResponseDTO dto = convertToDTO(savedNotification);
+        pushAfterCommit(savedNotification.getUserId(), wsUserId -> {
+            webSocketService.sendNotificationToUser(wsUserId, dto);
+            webSocketService.sendUnreadCountToUser(wsUserId, unreadCounter.get(savedNotification.getUserId()));
+        });
+        
+        log.info("Notificación In-App guardada exitosamente para usuario {}: {}",
+                notificationDTO.getUserId(), notificationDTO.getTitle());
+        
+        return savedNotification;
+    }
+    
+    /**
+     * Envía la misma notificación In-App a muchos usuarios (anuncios por rol o curso).
+     * Resuelve los usuarios con una sola consulta con fetch join por lote e inserta por JDBC batch,
+     * en lugar de una búsqueda, dos cargas perezosas y un insert por destinatario.
+     *
+     * @return número de notificaciones creadas
+     */
+    @Transactional
+    public int sendBulkInAppNotification(Collection<Integer> userIds, InAppNotificationDTO template) {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        int created = 0;
+        for (int from = 0; from < ids.size(); from += BULK_LOOKUP_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + BULK_LOOKUP_SIZE, ids.size()));
+            created += sendInAppNotificationToUsers(usersRepository.findAllByIdWithDetails(chunk), template);
+        }
+        return created;
+    }
+    
+    /**
+     * Envía la misma notificación In-App a todos los usuarios de un rol
+     */
+    @Transactional
+    public int sendInAppNotificationToRole(String roleName, InAppNotificationDTO template) {
+        return sendInAppNotificationToUsers(usersRepository.findByRoleNameWithDetails(roleName), template);
+    }
+    
+    /**
+     * Envía la misma notificación In-App a usuarios ya cargados con persona y rol
+     */
+    @Transactional
+    public int sendInAppNotificationToUsers(List<users> recipients, InAppNotificationDTO template) {
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+        log.info("Enviando notificación In-App masiva a {} usuarios: {}", recipients.size(), template.getTitle());
+        
+        List<InAppNotification> notifications = new ArrayList<>(recipients.size());
+        for (users user : recipients) {
+            notifications.add(buildNotification(user, template));
+        }
+        int created = batchInserter.insertAll(notifications);
+        
+        // Badge y aviso en tiempo real: un único mensaje serializado para todos los destinatarios alcanzables
+        Set<String> reachable = new HashSet<>();
+        for (InAppNotification notification : notifications) {
+            unreadCounter.increment(notification.getUserId(), notification.getExpiresAt());
+            String wsUserId = String.valueOf(notification.getUserId());
+            if (webSocketService.mayReachUser(wsUserId)) {
+                reachable.add(wsUserId);
+            }
+        }
+        if (!reachable.isEmpty()) {
+            Map<String, Object> payload = Map.of(
+                "title", template.getTitle(),
+                "notificationType", template.getNotificationType());
+            TransactionHooks.afterCommit(() -> {
+                webSocketService.broadcastToUsers(reachable, "notifications_changed", payload);
+                reachable.forEach(wsUserId ->
+                    webSocketService.sendUnreadCountToUser(wsUserId, unreadCounter.get(Integer.valueOf(wsUserId))));
+            });
+        }
+        return created;
+    }
+    
+    /**
+     * Crea una difusión para un rol, un curso o todos (ambos null): una sola fila en lugar
+     * de una por destinatario. Cada usuario la ve al leer su feed y su estado de lectura
+     * solo se guarda cuando la lee.
+     */
+    @Transactional
+    public BroadcastNotification sendBroadcastNotification(InAppNotificationDTO template, String targetRole,
+                                                           Integer targetCourseId, String createdBy) {
+        BroadcastNotification broadcast = broadcastService.create(template, targetRole, targetCourseId, createdBy);
+        unreadCounter.incrementAudience(targetRole, targetCourseId, broadcast.getExpiresAt());
+        
+        // Aviso en tiempo real a la audiencia conectada; el cliente recarga feed y badge
+        Map<String, Object> payload = Map.of(
+            "notificationId", -broadcast.getBroadcastId(),
+            "title", broadcast.getTitle(),
+            "notificationType", broadcast.getNotificationType().name(),
+            "broadcast", true);
+        TransactionHooks.afterCommit(() -> {
+            if (targetRole == null && targetCourseId == null) {
+                webSocketService.broadcastToAll("notifications_changed", payload);
+            } else if (targetCourseId != null) {
+                // Con rol y curso se avisa al curso completo: es solo una señal para recargar
+                webSocketService.broadcastToCourse(targetCourseId, "notifications_changed", payload);
+            } else {
+                webSocketService.broadcastToRole(targetRole, "notifications_changed", payload);
+            }
+        });
+        return broadcast;
+    }
+    
+    /**
+     * Obtiene notificaciones activas de un usuario, incluyendo las difusiones a su rol o curso
      */
     @Transactional(readOnly = true)
     public Page<InAppNotification> getActiveNotificationsByUserId(Integer userId, int page, int size) {
         log.info("Buscando notificaciones activas para usuario {} (página: {}, tamaño: {})", userId, page, size);
         LocalDateTime now = LocalDateTime.now();
         Pageable pageable = PageRequest.of(page, size);
-        Page<InAppNotification> result = inAppNotificationRepository.findActiveByUserId(userId, now, pageable);
-        log.info("Encontradas {} notificaciones activas para usuario {}", result.getTotalElements(), userId);
-        return result;
+        List<InAppNotification> broadcasts = usersRepository.findById(userId)
+            .map(user -> broadcastService.visibleFor(user, false))
+            .orElse(List.of());
+        if (broadcasts.isEmpty()) {
+            Page<InAppNotification> result = inAppNotificationRepository.findActiveByUserId(userId, now, pageable);
+            log.info("Encontradas {} notificaciones activas para usuario {}", result.getTotalElements(), userId);
+            return result;
+        }
+        
+        // Mezcla por fecha: basta con las primeras (page + 1) * size de cada fuente
+        int window = (page + 1) * size;
+        Page<InAppNotification> personal = inAppNotificationRepository.findActiveByUserId(userId, now, PageRequest.of(0, window));
+        List<InAppNotification> merged = new ArrayList<>(personal.getContent());
+        merged.addAll(broadcasts.subList(0, Math.min(window, broadcasts.size())));
+        merged.sort(FEED_ORDER);
+        
+        int from = Math.min(page * size, merged.size());
+        int to = Math.min(window, merged.size());
+        long total = personal.getTotalElements() + broadcasts.size();
+        log.info("Encontradas {} notificaciones activas para usuario {} ({} difusiones)", total, userId, broadcasts.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+    }
+    
+    /**
+     * Página del feed por cursor, con las notificaciones propias y las difusiones del usuario.
+     * No ejecuta COUNT y el costo no crece con la profundidad: cada página es un rango del índice.
+     *
+     * @param before cursor de la última notificación recibida, o null para la primera página
+     * @param limit máximo de elementos; el llamador pide uno de más para saber si hay otra página
+     */
+    @Transactional(readOnly = true)
+    public List<InAppNotification> getNotificationFeed(Integer userId, NotificationFeedCursor before, int limit) {
+        InAppNotificationFilterDTO filter = new InAppNotificationFilterDTO();
+        filter.setUserId(userId);
+        filter.setArchived(false);
+        List<InAppNotification> personal = inAppNotificationRepository.findFeed(filter, before, LocalDateTime.now(), limit);
+        
+        List<InAppNotification> broadcasts = usersRepository.findById(userId)
+            .map(user -> broadcastService.visibleFor(user, false))
+            .orElse(List.of());
+        if (broadcasts.isEmpty()) {
+            return personal;
+        }
+        
+        // Las difusiones llevan ID negativo, así que el mismo cursor las ordena de forma consistente
+        List<InAppNotification> merged = new ArrayList<>(personal);
+        for (InAppNotification broadcast : broadcasts) {
+            if (before == null || before.isAfter(broadcast.getCreatedAt(), broadcast.getNotificationId())) {
+                merged.add(broadcast);
+            }
+        }
+        merged.sort(FEED_ORDER);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
     }
     
     /**
-     * Obtiene notificaciones no leídas de un usuario
+     * Búsqueda filtrada por cursor; solo los criterios presentes llegan a la consulta
+     */
+    @Transactional(readOnly = true)
+    public List<InAppNotification> searchNotifications(InAppNotificationFilterDTO filter, NotificationFeedCursor before, int limit) {
+        return inAppNotificationRepository.findFeed(filter, before, LocalDateTime.now(), limit);
+    }
+    
+    /**
+     * Obtiene notificaciones no leídas de un usuario, incluyendo las difusiones sin leer
      */
     @Transactional(readOnly = true)
     public List<InAppNotification> getUnreadNotificationsByUserId(Integer userId) {
         LocalDateTime now = LocalDateTime.now();
-        return inAppNotificationRepository.findUnreadByUserId(userId, now);
+        List<InAppNotification> unread = inAppNotificationRepository.findUnreadByUserId(userId, now);
+        List<InAppNotification> broadcasts = usersRepository.findById(userId)
+            .map(user -> broadcastService.visibleFor(user, true))
+            .orElse(List.of());
+        if (broadcasts.isEmpty()) {
+            return unread;
+        }
+        
+        // Mismo orden que la consulta: prioridad descendente y luego fecha descendente
+        List<InAppNotification> merged = new ArrayList<>(unread);
+        merged.addAll(broadcasts);
+        merged.sort(Comparator.comparing(InAppNotification::getPriority).reversed()
+            .thenComparing(Comparator.comparing(InAppNotification::getCreatedAt).reversed()));
+        return merged;
     }
     
     /**
      * Cuenta notificaciones no leídas de un usuario
      */
-    @Transactional(readOnly = true)
     public Long countUnreadNotificationsByUserId(Integer userId) {
-        LocalDateTime now = LocalDateTime.now();
-        return inAppNotificationRepository.countUnreadByUserId(userId, now);
+        return unreadCounter.get(userId);
     }
     
     /**
@@ -126,20 +316,74 @@ public class InAppNotificationService {
     public void markAsRead(Long notificationId) {
         LocalDateTime now = LocalDateTime.now();
         log.info("Marcando notificación {} como leída", notificationId);
+        InAppNotification notification = inAppNotificationRepository.findById(notificationId).orElse(null);
         inAppNotificationRepository.markAsRead(notificationId, now);
+        
+        // Solo descuenta si la notificación estaba sumando en el contador de no leídas
+        if (notification != null && !notification.isRead() && notification.isActive()) {
+            unreadCounter.decrement(notification.getUserId());
+        }
+        
+        if (notification != null) {
+            Integer userId = notification.getUserId();
+            pushAfterCommit(userId, wsUserId -> {
+                webSocketService.sendReadStatusToUser(wsUserId, notificationId, true);
+                webSocketService.sendUnreadCountToUser(wsUserId, unreadCounter.get(userId));
+            });
+        }
         log.info("Notificación {} marcada como leída exitosamente", notificationId);
     }
     
     /**
-     * Marca todas las notificaciones de un usuario como leídas
+     * Marca una difusión como leída para el usuario (ID de feed negativo)
+     */
+    @Transactional
+    public void markBroadcastAsRead(Long feedId, Integer userId) {
+        users user = usersRepository.findById(userId)
+            .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado: " + userId));
+        if (broadcastService.markAsRead(BroadcastNotificationService.toBroadcastId(feedId), user)) {
+            unreadCounter.decrement(userId);
+        }
+        
+        pushAfterCommit(userId, wsUserId -> {
+            webSocketService.sendReadStatusToUser(wsUserId, feedId, true);
+            webSocketService.sendUnreadCountToUser(wsUserId, unreadCounter.get(userId));
+        });
+    }
+    
+    /**
+     * Marca todas las notificaciones de un usuario como leídas, incluidas sus difusiones
      */
     @Transactional
     public void markAllAsRead(Integer userId) {
         LocalDateTime now = LocalDateTime.now();
         inAppNotificationRepository.markAllAsReadByUserId(userId, now);
+        usersRepository.findById(userId).ifPresent(user -> broadcastService.markAllAsRead(user));
+        unreadCounter.reset(userId);
 
-        // Enviar confirmación vía WebSocket (comentado hasta que WebSocket esté compilado)
-        // webSocketService.sendBulkReadStatusToUser(String.valueOf(userId));
+        // Enviar confirmación vía WebSocket a todas las sesiones del usuario
+        pushAfterCommit(userId, wsUserId -> {
+            webSocketService.sendBulkReadStatusToUser(wsUserId);
+            webSocketService.sendUnreadCountToUser(wsUserId, 0);
+        });
+    }
+    
+    /**
+     * Envía por WebSocket tras el commit, para que el cliente nunca vea un cambio que luego se revierte.
+     * Un fallo de envío no afecta la operación: el cliente se resincroniza al reconectar.
+     */
+    private void pushAfterCommit(Integer userId, Consumer<String> push) {
+        TransactionHooks.afterCommit(() -> {
+            String wsUserId = String.valueOf(userId);
+            if (!webSocketService.mayReachUser(wsUserId)) {
+                return;
+            }
+            try {
+                push.accept(wsUserId);
+            } catch (Exception e) {
+                log.warn("Error enviando actualización WebSocket a usuario {}: {}", userId, e.getMessage());
+            }
+        });
     }
 
     /**
@@ -152,12 +396,10 @@ public class InAppNotificationService {
     }
 
     /**
-     * Obtiene el conteo de notificaciones no leídas de un usuario
+     * Obtiene el conteo de notificaciones no leídas de un usuario (contador en memoria, O(1))
      */
-    @Transactional(readOnly = true)
     public long getUnreadCount(Integer userId) {
-        LocalDateTime now = LocalDateTime.now();
-        return inAppNotificationRepository.countUnreadByUserId(userId, now);
+        return unreadCounter.get(userId);
     }
     
     /**
@@ -178,6 +420,27 @@ public class InAppNotificationService {
         return inAppNotificationRepository.findByUserIdAndPriority(userId, priority, pageable);
     }
     
+    /**
+     * Crea la entidad de notificación para un usuario a partir del DTO
+     */
+    private InAppNotification buildNotification(users user, InAppNotificationDTO notificationDTO) {
+        InAppNotification notification = new InAppNotification(
+            user.getUserId(),
+            user.getPerson().getEmail(),
+            user.getPerson().getFullName(),
+            user.getRole().getRoleName(),
+            NotificationType.valueOf(notificationDTO.getNotificationType()),
+            notificationDTO.getTitle(),
+            notificationDTO.getMessage()
+        );
+        notification.setPriority(NotificationPriority.valueOf(notificationDTO.getPriority()));
+        notification.setCategory(notificationDTO.getCategory());
+        notification.setActionUrl(notificationDTO.getActionUrl());
+        notification.setActionText(notificationDTO.getActionText());
+        notification.setIcon(notificationDTO.getIcon());
+        return notification;
+    }
+    
     /**
      * Convierte InAppNotification a InAppNotificationResponseDTO
      */
@@ -199,6 +462,7 @@ public class InAppNotificationService {
         dto.setCategory(notification.getCategory());
         dto.setRead(notification.isRead());
         dto.setArchived(notification.isArchived());
+        dto.setBroadcast(BroadcastNotificationService.isBroadcastFeedId(notification.getNotificationId()));
         dto.setCreatedAt(notification.getCreatedAt());
         dto.setReadAt(notification.getReadAt());
         dto.setExpiresAt(notification.getExpiresAt());
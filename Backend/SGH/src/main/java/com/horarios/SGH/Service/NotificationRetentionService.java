@@ -0,0 +1,249 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.NotificationLog;
+import com.horarios.SGH.Model.NotificationStatus;
+import com.horarios.SGH.Repository.IInAppNotificationRepository;
+import com.horarios.SGH.Repository.INotificationLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retención de notificaciones: purga y archiva por lotes acotados los logs de correo
+ * y las notificaciones In-App, y opcionalmente comprime el contenido de los correos antiguos.
+ * Cada lote se ejecuta en su propia transacción para no mantener bloqueos largos.
+ */
+@Slf4j
+@Service
+public class NotificationRetentionService {
+
+    @Autowired
+    private INotificationLogRepository notificationLogRepository;
+
+    @Autowired
+    private IInAppNotificationRepository inAppNotificationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    @Autowired
+    private BroadcastNotificationService broadcastService;
+
+    @Autowired
+    @Qualifier("maintenanceExecutor")
+    private Executor maintenanceExecutor;
+
+    @Value("${app.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.retention.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.retention.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    @Value("${app.retention.notification-logs.days:90}")
+    private int notificationLogDays;
+
+    @Value("${app.retention.notification-logs.compress-enabled:true}")
+    private boolean compressEnabled;
+
+    @Value("${app.retention.notification-logs.compress-after-days:14}")
+    private int compressAfterDays;
+
+    @Value("${app.retention.in-app.archive-after-days:30}")
+    private int archiveAfterDays;
+
+    @Value("${app.retention.in-app.delete-archived-after-days:180}")
+    private int deleteArchivedAfterDays;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Scheduled(cron = "${app.retention.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        // Puede tardar minutos: se ejecuta fuera del hilo del planificador
+        maintenanceExecutor.execute(this::runRetention);
+    }
+
+    /**
+     * Ejecuta todas las tareas de retención. Si ya hay una ejecución en curso no hace nada.
+     */
+    public void runRetention() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Ya hay una ejecución de retención en curso");
+            return;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+
+            int expired = purgeExpiredInApp(now);
+            int archived = archiveOldInApp(now.minusDays(archiveAfterDays));
+            int deletedInApp = deleteArchivedInApp(now.minusDays(deleteArchivedAfterDays));
+            int deletedLogs = purgeNotificationLogs(now.minusDays(notificationLogDays));
+            int compressed = compressEnabled ? compressOldContent(now.minusDays(compressAfterDays)) : 0;
+            int broadcasts = broadcastService.purge(now);
+
+            log.info("Retención completada: {} In-App expiradas, {} archivadas, {} archivadas eliminadas, " +
+                     "{} logs eliminados, {} logs comprimidos, {} difusiones eliminadas",
+                     expired, archived, deletedInApp, deletedLogs, compressed, broadcasts);
+        } catch (Exception e) {
+            log.error("Error ejecutando la retención de notificaciones: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Elimina las notificaciones In-App cuya fecha de expiración ya pasó
+     */
+    public int purgeExpiredInApp(LocalDateTime now) {
+        return processInChunks(
+            page -> inAppNotificationRepository.findExpiredIds(now, page),
+            inAppNotificationRepository::deleteByIds);
+    }
+
+    /**
+     * Archiva las notificaciones In-App anteriores a la fecha de corte.
+     * Las archivadas dejan de contar como no leídas: solo se descartan los contadores
+     * de los usuarios que tenían alguna sin leer en el lote.
+     */
+    public int archiveOldInApp(LocalDateTime cutoffDate) {
+        return processInChunks(
+            page -> inAppNotificationRepository.findIdsToArchive(cutoffDate, page),
+            ids -> {
+                unreadCounter.invalidate(inAppNotificationRepository.findUnreadUserIdsByIds(ids));
+                return inAppNotificationRepository.archiveByIds(ids);
+            });
+    }
+
+    /**
+     * Elimina las notificaciones In-App archivadas anteriores a la fecha de corte
+     */
+    public int deleteArchivedInApp(LocalDateTime cutoffDate) {
+        return processInChunks(
+            page -> inAppNotificationRepository.findArchivedIdsBefore(cutoffDate, page),
+            inAppNotificationRepository::deleteByIds);
+    }
+
+    /**
+     * Elimina los logs de correo anteriores a la fecha de corte junto con sus variables de plantilla
+     */
+    public int purgeNotificationLogs(LocalDateTime cutoffDate) {
+        return processInChunks(
+            page -> notificationLogRepository.findIdsCreatedBefore(cutoffDate, page),
+            ids -> {
+                notificationLogRepository.deleteTemplateVariablesByLogIds(ids);
+                return notificationLogRepository.deleteByLogIds(ids);
+            });
+    }
+
+    /**
+     * Comprime el contenido de los correos enviados anteriores a la fecha de corte.
+     * Solo se comprimen logs en estado SENT, que nunca vuelven a leerse para reenviar.
+     */
+    public int compressOldContent(LocalDateTime cutoffDate) {
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            Integer processed = transactionTemplate.execute(status -> {
+                List<NotificationLog> logs = notificationLogRepository.findUncompressedBefore(
+                    NotificationStatus.SENT, cutoffDate, PageRequest.of(0, chunkSize));
+                for (NotificationLog logEntry : logs) {
+                    logEntry.setContent(compress(logEntry.getContent()));
+                    logEntry.setContentCompressed(true);
+                }
+                return logs.size();
+            });
+            if (processed == null || processed == 0) {
+                break;
+            }
+            total += processed;
+            if (processed < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Devuelve el contenido legible de un log, descomprimiéndolo si la retención lo comprimió
+     */
+    public static String readContent(NotificationLog logEntry) {
+        return logEntry.isContentCompressed() ? decompress(logEntry.getContent()) : logEntry.getContent();
+    }
+
+    /**
+     * Procesa lotes de IDs hasta agotarlos o alcanzar el límite por ejecución.
+     * Como cada lote elimina o archiva lo que seleccionó, siempre se lee la primera página.
+     */
+    private int processInChunks(Function<PageRequest, List<Long>> idFinder, Function<List<Long>, Integer> action) {
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            Integer processed = transactionTemplate.execute(status -> {
+                List<Long> ids = idFinder.apply(PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                action.apply(ids);
+                return ids.size();
+            });
+            if (processed == null || processed == 0) {
+                break;
+            }
+            total += processed;
+            if (processed < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    static String compress(String content) {
+        if (content == null || content.isEmpty()) {
+            return content;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Error comprimiendo contenido de notificación", e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    static String decompress(String content) {
+        if (content == null || content.isEmpty()) {
+            return content;
+        }
+        byte[] compressed = Base64.getDecoder().decode(content);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Error descomprimiendo contenido de notificación", e);
+        }
+    }
+}
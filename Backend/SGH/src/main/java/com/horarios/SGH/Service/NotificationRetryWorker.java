@@ -0,0 +1,117 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.NotificationLog;
+import com.horarios.SGH.Model.NotificationStatus;
+import com.horarios.SGH.Repository.INotificationLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker programado que reintenta los correos fallidos cuyo próximo intento ya venció.
+ * Procesa por lotes, con paralelismo acotado, y se detiene si el circuit breaker SMTP se abre.
+ */
+@Slf4j
+@Component
+public class NotificationRetryWorker {
+
+    @Autowired
+    private INotificationLogRepository notificationLogRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private SmtpCircuitBreaker circuitBreaker;
+
+    @Autowired
+    @Qualifier("notificationRetryExecutor")
+    private Executor retryExecutor;
+
+    @Autowired
+    @Qualifier("maintenanceExecutor")
+    private Executor maintenanceExecutor;
+
+    @Value("${app.notification.retry.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${app.notification.retry.max-chunks-per-run:20}")
+    private int maxChunksPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Scheduled(fixedDelayString = "${app.notification.retry.poll-interval:60000}",
+               initialDelayString = "${app.notification.retry.initial-delay:30000}")
+    public void scheduledRun() {
+        // Los envíos bloquean hasta que responde el SMTP: se hacen fuera del hilo del planificador
+        maintenanceExecutor.execute(this::processDueRetries);
+    }
+
+    /**
+     * Reintenta los correos vencidos. Si ya hay una ejecución en curso no hace nada.
+     *
+     * @return número de correos reenviados con éxito
+     */
+    public int processDueRetries() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Ya hay una ejecución de reintentos en curso");
+            return 0;
+        }
+
+        AtomicInteger sent = new AtomicInteger();
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                if (!circuitBreaker.allowRequest()) {
+                    log.info("Reintentos pausados: circuit breaker SMTP {}", circuitBreaker.getState());
+                    break;
+                }
+
+                // En HALF_OPEN solo se envía un correo de prueba
+                int size = circuitBreaker.getState() == SmtpCircuitBreaker.State.HALF_OPEN ? 1 : chunkSize;
+
+                // Siempre la primera página: los procesados dejan de estar vencidos
+                List<NotificationLog> due = notificationLogRepository.findDueForRetry(
+                    NotificationStatus.FAILED, LocalDateTime.now(), PageRequest.of(0, size));
+                if (due.isEmpty()) {
+                    // La prueba de HALF_OPEN no se usó: queda libre para la próxima ejecución
+                    circuitBreaker.releaseProbe();
+                    break;
+                }
+
+                CompletableFuture<?>[] futures = due.stream()
+                    .map(logEntry -> CompletableFuture.runAsync(() -> {
+                        if (circuitBreaker.getState() != SmtpCircuitBreaker.State.OPEN
+                                && notificationService.retryOnce(logEntry)) {
+                            sent.incrementAndGet();
+                        }
+                    }, retryExecutor))
+                    .toArray(CompletableFuture[]::new);
+                CompletableFuture.allOf(futures).join();
+
+                if (due.size() < size) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error procesando reintentos de notificaciones: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+
+        if (sent.get() > 0) {
+            log.info("Completados {} reintentos de notificaciones fallidas", sent.get());
+        }
+        return sent.get();
+    }
+}
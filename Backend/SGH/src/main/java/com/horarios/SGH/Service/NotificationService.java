@@ -10,6 +10,7 @@ import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -20,9 +21,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Servicio principal para el envío de notificaciones por correo electrónico
@@ -42,6 +45,13 @@ public class NotificationService {
     @Autowired
     private usersService userService;
     
+    @Autowired
+    private SmtpCircuitBreaker circuitBreaker;
+    
+    @Autowired
+    @Lazy
+    private NotificationRetryWorker retryWorker;
+    
     @Value("${spring.mail.username}")
     private String fromEmail;
     
@@ -51,6 +61,9 @@ public class NotificationService {
     @Value("${app.notification.retry-delay:30000}")
     private long retryDelay; // 30 segundos por defecto
     
+    @Value("${app.notification.retry.max-delay:1800000}")
+    private long maxRetryDelay; // 30 minutos por defecto
+    
     private final ExecutorService emailExecutor = Executors.newFixedThreadPool(5);
     
     /**
@@ -70,6 +83,7 @@ public class NotificationService {
             notification.getSubject(),
             notification.getContent()
         );
+        logEntry.setMaxAttempts(maxRetries);
 
         notificationLogRepository.save(logEntry);
         log.info("Notificación validada y preparada para envío a: {}", notification.getRecipientEmail());
@@ -145,80 +159,91 @@ public class NotificationService {
     }
     
     /**
-     * Reintenta notificaciones fallidas
+     * Reintenta notificaciones fallidas vencidas (disparo manual del worker programado)
      */
     @Async
     public CompletableFuture<Void> retryFailedNotifications() {
         log.info("Iniciando reintento de notificaciones fallidas");
-        
-        List<NotificationLog> failedNotifications = notificationLogRepository
-            .findFailedNotificationsToRetry(NotificationStatus.FAILED);
-        
-        int retryCount = 0;
-        for (NotificationLog failedLog : failedNotifications) {
-            if (failedLog.canRetry()) {
-                try {
-                    Thread.sleep(retryDelay);
-                    NotificationDTO notification = new NotificationDTO();
-                    notification.setRecipientEmail(failedLog.getRecipientEmail());
-                    notification.setRecipientName(failedLog.getRecipientName());
-                    notification.setRecipientRole(failedLog.getRecipientRole());
-                    notification.setNotificationType(failedLog.getNotificationType().name());
-                    notification.setSubject(failedLog.getSubject());
-                    notification.setContent(failedLog.getContent());
-                    
-                    sendWithRetry(failedLog, notification);
-                    retryCount++;
-                } catch (Exception e) {
-                    log.error("Error al reintentar notificación a {}: {}", failedLog.getRecipientEmail(), e.getMessage());
-                }
-            }
-        }
-        
-        log.info("Completados {} reintentos de notificaciones fallidas", retryCount);
+        retryWorker.processDueRetries();
         return CompletableFuture.completedFuture(null);
     }
     
     /**
-     * Proceso principal de envío con reintentos automáticos
+     * Realiza un único intento de reenvío de una notificación fallida.
+     * Si falla, programa el siguiente intento con backoff exponencial y jitter.
+     *
+     * @return true si el correo se envió
+     */
+    public boolean retryOnce(NotificationLog logEntry) {
+        NotificationDTO notification = new NotificationDTO();
+        notification.setRecipientEmail(logEntry.getRecipientEmail());
+        notification.setRecipientName(logEntry.getRecipientName());
+        notification.setRecipientRole(logEntry.getRecipientRole());
+        notification.setNotificationType(logEntry.getNotificationType().name());
+        notification.setSubject(logEntry.getSubject());
+        notification.setContent(NotificationRetentionService.readContent(logEntry));
+        
+        return attemptSend(logEntry, notification);
+    }
+    
+    /**
+     * Proceso principal de envío. Un fallo no bloquea el hilo esperando:
+     * el reintento queda programado y lo toma NotificationRetryWorker.
      */
     private void sendWithRetry(NotificationLog logEntry, NotificationDTO notification) {
-        while (logEntry.canRetry()) {
-            try {
-                logEntry.incrementAttempts();
-                log.info("Intento {} de {} para enviar notificación a: {}", 
-                        logEntry.getAttemptsCount(), maxRetries, notification.getRecipientEmail());
-                
-                sendEmail(notification);
-                logEntry.markAsSent();
-                notificationLogRepository.save(logEntry);
-                
-                log.info("Notificación enviada exitosamente después de {} intentos", logEntry.getAttemptsCount());
-                return;
-                
-            } catch (Exception e) {
-                String errorMessage = String.format("Error en intento %d: %s", logEntry.getAttemptsCount(), e.getMessage());
-                log.error("Error al enviar notificación a {}: {}", notification.getRecipientEmail(), e.getMessage());
-                
-                logEntry.markAsFailed(errorMessage);
-                notificationLogRepository.save(logEntry);
-                
-                if (logEntry.canRetry()) {
-                    try {
-                        Thread.sleep(retryDelay * logEntry.getAttemptsCount());
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                } else {
-                    log.error("Se agotaron los {} intentos para enviar notificación a: {}", 
-                             maxRetries, notification.getRecipientEmail());
-                    break;
-                }
+        if (logEntry.canRetry()) {
+            attemptSend(logEntry, notification);
+        }
+    }
+    
+    private boolean attemptSend(NotificationLog logEntry, NotificationDTO notification) {
+        try {
+            logEntry.incrementAttempts();
+            log.info("Intento {} de {} para enviar notificación a: {}", 
+                    logEntry.getAttemptsCount(), logEntry.getMaxAttempts(), notification.getRecipientEmail());
+            
+            sendEmail(notification);
+            circuitBreaker.recordSuccess();
+            logEntry.markAsSent();
+            notificationLogRepository.save(logEntry);
+            
+            log.info("Notificación enviada exitosamente después de {} intentos", logEntry.getAttemptsCount());
+            return true;
+            
+        } catch (Exception e) {
+            String errorMessage = String.format("Error en intento %d: %s", logEntry.getAttemptsCount(), e.getMessage());
+            log.error("Error al enviar notificación a {}: {}", notification.getRecipientEmail(), e.getMessage());
+            circuitBreaker.recordFailure();
+            
+            logEntry.markAsFailed(errorMessage);
+            logEntry.scheduleNextAttempt(nextRetryTime(logEntry.getAttemptsCount()));
+            notificationLogRepository.save(logEntry);
+            
+            if (logEntry.getNextAttemptAt() == null) {
+                log.error("Se agotaron los {} intentos para enviar notificación a: {}", 
+                         logEntry.getMaxAttempts(), notification.getRecipientEmail());
             }
+            return false;
         }
     }
     
+    /**
+     * Backoff exponencial con "equal jitter": la mitad del retardo es fija y la otra mitad aleatoria,
+     * para que los correos que fallaron juntos no se reintenten todos en el mismo instante.
+     */
+    private LocalDateTime nextRetryTime(int attempts) {
+        long delay = retryDelayMillis(attempts, retryDelay, maxRetryDelay, ThreadLocalRandom.current());
+        return LocalDateTime.now().plusNanos(delay * 1_000_000L);
+    }
+
+    // Retardo en ms del reintento tras `attempts` intentos fallidos
+    static long retryDelayMillis(int attempts, long baseDelay, long maxDelay, Random random) {
+        long exponential = baseDelay * (1L << Math.min(Math.max(attempts - 1, 0), 16));
+        long capped = Math.min(exponential, maxDelay);
+        long half = capped / 2;
+        return half + random.nextLong(half + 1);
+    }
+    
     /**
      * Envía correo electrónico usando plantillas HTML optimizadas para Gmail
      */
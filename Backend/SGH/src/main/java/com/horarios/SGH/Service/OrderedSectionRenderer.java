@@ -0,0 +1,70 @@
+package com.horarios.SGH.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Renderiza secciones de una exportación en paralelo y entrega las partes en su orden original.
+ * Solo hay una ventana acotada de secciones en curso, así que la memoria no crece con el total:
+ * mientras se escribe la parte i, se están renderizando como máximo las siguientes window - 1.
+ */
+final class OrderedSectionRenderer {
+
+    @FunctionalInterface
+    interface PartRenderer<T> {
+        T render(ScheduleSection section) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface PartWriter<T> {
+        void write(ScheduleSection section, T part) throws Exception;
+    }
+
+    private OrderedSectionRenderer() {
+    }
+
+    static <T> void render(List<ScheduleSection> sections, Executor executor, int window,
+                           PartRenderer<T> renderer, PartWriter<T> writer) throws Exception {
+        Deque<ScheduleSection> pendingSections = new ArrayDeque<>();
+        Deque<CompletableFuture<T>> inFlight = new ArrayDeque<>();
+        Iterator<ScheduleSection> it = sections.iterator();
+        int maxInFlight = Math.max(1, window);
+        try {
+            while (it.hasNext() || !inFlight.isEmpty()) {
+                while (it.hasNext() && inFlight.size() < maxInFlight) {
+                    ScheduleSection section = it.next();
+                    pendingSections.addLast(section);
+                    inFlight.addLast(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return renderer.render(section);
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    }, executor));
+                }
+                writer.write(pendingSections.pollFirst(), await(inFlight.pollFirst()));
+            }
+        } finally {
+            // Si algo falló, las secciones restantes ya no se necesitan
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
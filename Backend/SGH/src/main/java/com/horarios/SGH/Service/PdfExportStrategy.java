@@ -6,8 +6,9 @@ import com.itextpdf.text.pdf.*;
 import lombok.RequiredArgsConstructor;
 
 import java.io.ByteArrayOutputStream;
-import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Estrategia de exportación a PDF.
@@ -16,11 +17,77 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PdfExportStrategy implements ExportStrategy {
 
+    // Secciones renderizadas por adelantado por cada hilo de render disponible
+    private static final int SECTIONS_PER_THREAD = 2;
+
+    private static final BaseColor HEADER_BG = new BaseColor(60, 120, 180);
+    private static final BaseColor BREAK_BG = new BaseColor(255, 255, 204);
+
+    private final BellSchedule bellSchedule;
+
+    /**
+     * Usa la jornada predeterminada
+     */
+    public PdfExportStrategy() {
+        this(BellSchedule.DEFAULT);
+    }
+
     @Override
-    public byte[] export(List<schedule> schedules, String title) throws Exception {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    public void export(List<schedule> schedules, String title, OutputStream outputStream) throws Exception {
+        writeDocument(schedules, title, null, outputStream);
+    }
+
+    @Override
+    public void exportSections(List<ScheduleSection> sections, String title, OutputStream out) throws Exception {
+        exportSections(sections, title, out, Runnable::run);
+    }
+
+    /**
+     * Una página (o más, si no cabe) por sección. Cada sección se renderiza como un PDF independiente
+     * en el executor y luego sus páginas se copian en orden al documento final, que se escribe en el stream.
+     */
+    @Override
+    public void exportSections(List<ScheduleSection> sections, String title, OutputStream out,
+                               Executor executor) throws Exception {
+        if (sections.isEmpty()) {
+            export(List.of(), title, out);
+            return;
+        }
+
         Document document = new Document(PageSize.A4.rotate());
-        PdfWriter.getInstance(document, outputStream);
+        PdfCopy copy = new PdfCopy(document, out);
+        copy.setCloseStream(false);
+        document.open();
+        try {
+            int window = Runtime.getRuntime().availableProcessors() * SECTIONS_PER_THREAD;
+            OrderedSectionRenderer.render(sections, executor, window,
+                section -> {
+                    ByteArrayOutputStream part = new ByteArrayOutputStream();
+                    writeDocument(section.getSchedules(), title, section.getTitle(), part);
+                    return part.toByteArray();
+                },
+                (section, part) -> {
+                    PdfReader reader = new PdfReader(part);
+                    try {
+                        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                            copy.addPage(copy.getImportedPage(reader, page));
+                        }
+                        copy.freeReader(reader);
+                    } finally {
+                        reader.close();
+                    }
+                });
+        } finally {
+            document.close();
+        }
+    }
+
+    private void writeDocument(List<schedule> schedules, String title, String subtitle,
+                               OutputStream outputStream) throws Exception {
+        Document document = new Document(PageSize.A4.rotate());
+        PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+        // El stream pertenece al llamador (p. ej. la respuesta HTTP)
+        writer.setCloseStream(false);
         document.open();
 
         // Configurar fuentes
@@ -30,6 +97,9 @@ public class PdfExportStrategy implements ExportStrategy {
 
         // Agregar título
         document.add(new Paragraph(title, titleFont));
+        if (subtitle != null) {
+            document.add(new Paragraph(subtitle, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 13, BaseColor.DARK_GRAY)));
+        }
         document.add(Chunk.NEWLINE);
 
         // Crear tabla
@@ -37,12 +107,21 @@ public class PdfExportStrategy implements ExportStrategy {
         document.add(table);
 
         document.close();
-        return outputStream.toByteArray();
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/pdf";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "pdf";
     }
 
     private PdfPTable createScheduleTable(List<schedule> schedules, Font headerFont, Font cellFont) throws DocumentException {
-        String[] days = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes"};
-        List<String> times = generateTimes(schedules);
+        String[] days = TimetableGrid.DAYS;
+        TimetableGrid grid = TimetableGrid.of(schedules, bellSchedule);
 
         PdfPTable table = new PdfPTable(days.length + 1);
         table.setWidthPercentage(100);
@@ -55,13 +134,11 @@ public class PdfExportStrategy implements ExportStrategy {
         }
         table.setWidths(columnWidths);
 
-        BaseColor headerBg = new BaseColor(60, 120, 180);
-
         // Header: Tiempo + días
-        addTableHeader(table, days, headerFont, headerBg);
+        addTableHeader(table, days, headerFont, HEADER_BG);
 
         // Contenido de la tabla
-        addTableContent(table, schedules, times, days, cellFont);
+        addTableContent(table, grid, cellFont);
 
         return table;
     }
@@ -80,64 +157,25 @@ public class PdfExportStrategy implements ExportStrategy {
         }
     }
 
-    private void addTableContent(PdfPTable table, List<schedule> schedules, List<String> times, String[] days, Font cellFont) {
-        for (String time : times) {
+    private void addTableContent(PdfPTable table, TimetableGrid grid, Font cellFont) {
+        for (int slot = 0; slot < grid.getSlotCount(); slot++) {
             // Celda de tiempo
-            PdfPCell timeCell = new PdfPCell(new Phrase(time, cellFont));
+            PdfPCell timeCell = new PdfPCell(new Phrase(grid.getSlot(slot).getLabel(), cellFont));
             timeCell.setHorizontalAlignment(Element.ALIGN_CENTER);
             table.addCell(timeCell);
 
             // Celdas de contenido por día
-            for (String day : days) {
-                schedule s = getScheduleForTimeAndDay(schedules, time, day);
-                String content = getScheduleContent(s, time);
-                PdfPCell contentCell = new PdfPCell(new Phrase(content, cellFont));
+            for (int day = 0; day < TimetableGrid.DAYS.length; day++) {
+                PdfPCell contentCell = new PdfPCell(new Phrase(grid.cellText(slot, day), cellFont));
                 contentCell.setHorizontalAlignment(Element.ALIGN_CENTER);
 
                 // Colores especiales para descansos
-                if (time.equals("9:00 AM - 9:30 AM") || time.equals("12:00 PM - 1:00 PM")) {
-                    contentCell.setBackgroundColor(new BaseColor(255, 255, 204));
+                if (grid.isBreak(slot)) {
+                    contentCell.setBackgroundColor(BREAK_BG);
                 }
 
                 table.addCell(contentCell);
             }
         }
     }
-
-    private List<String> generateTimes(List<schedule> schedules) {
-        // Lógica simplificada para generar tiempos únicos
-        return List.of(
-            "9:00 AM - 9:30 AM",
-            "9:30 AM - 10:30 AM",
-            "10:30 AM - 11:30 AM",
-            "11:30 AM - 12:00 PM",
-            "12:00 PM - 1:00 PM",
-            "1:00 PM - 2:00 PM",
-            "2:00 PM - 3:00 PM",
-            "3:00 PM - 4:00 PM",
-            "4:00 PM - 5:00 PM"
-        );
-    }
-
-    private schedule getScheduleForTimeAndDay(List<schedule> schedules, String time, String day) {
-        // Lógica simplificada para encontrar horario
-        return schedules.stream()
-            .filter(s -> s.getDay().equals(day) &&
-                    time.contains(s.getStartTime().format(DateTimeFormatter.ofPattern("h:mm a"))))
-            .findFirst()
-            .orElse(null);
-    }
-
-    private String getScheduleContent(schedule s, String time) {
-        if (time.equals("9:00 AM - 9:30 AM")) {
-            return "Descanso";
-        } else if (time.equals("12:00 PM - 1:00 PM")) {
-            return "Almuerzo";
-        } else if (s != null) {
-            String docente = s.getTeacherId() != null ? s.getTeacherId().getTeacherName() : "";
-            String materia = s.getSubjectId() != null ? s.getSubjectId().getSubjectName() : "";
-            return docente + "/" + materia;
-        }
-        return "";
-    }
 }
\ No newline at end of file
@@ -0,0 +1,338 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.ExportVersion;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Repository.IExportVersionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Caché de documentos exportados por curso o profesor, con clave (ámbito, id, formato, versión).
+ * La versión de cada curso/profesor sube cuando ScheduleService modifica sus horarios, así que
+ * una entrada nunca se invalida: simplemente deja de pedirse y sale por LRU.
+ * Nivel en memoria acotado por bytes y nivel opcional en disco (app.export.cache.dir).
+ * Las versiones se guardan en export_versions y suben en la misma transacción que la escritura,
+ * así el ETag es el mismo en todos los nodos y tras un reinicio: un nodo que no vio el cambio
+ * calcula igualmente la versión nueva y no responde 304 ni sirve el documento anterior.
+ */
+@Slf4j
+@Component
+public class ScheduleExportCache {
+
+    /**
+     * Ámbito del documento exportado
+     */
+    public enum Scope {
+        COURSE,
+        TEACHER
+    }
+
+    /**
+     * Genera el contenido del documento
+     */
+    @FunctionalInterface
+    public interface ArtifactRenderer {
+        byte[] render() throws Exception;
+    }
+
+    private static final String DISK_SUFFIX = ".bin";
+    private static final String GLOBAL_KEY = "all";
+
+    @Autowired
+    private IExportVersionRepository versionRepository;
+
+    @Value("${app.export.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${app.export.cache.max-age:1800000}")
+    private long maxAgeMillis;
+
+    @Value("${app.export.cache.dir:}")
+    private String diskDir;
+
+    // LRU por orden de acceso; protegido por su propio monitor
+    private final LinkedHashMap<String, ExportArtifact> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+
+    // Una sola generación por clave: en el pico de inicio de periodo los demás esperan el mismo resultado
+    private final Map<String, CompletableFuture<ExportArtifact>> inFlight = new ConcurrentHashMap<>();
+
+    private Path diskPath;
+
+    @PostConstruct
+    void init() {
+        if (diskDir == null || diskDir.isBlank()) {
+            return;
+        }
+        try {
+            diskPath = Files.createDirectories(Paths.get(diskDir));
+            deleteDiskEntries("");
+            log.info("Caché de exportaciones en disco: {}", diskPath.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("No se pudo preparar la caché de exportaciones en disco ({}): {}", diskDir, e.getMessage());
+            diskPath = null;
+        }
+    }
+
+    /**
+     * ETag que tendría hoy el documento; permite responder 304 sin generarlo
+     */
+    public String currentEtag(Scope scope, Integer id, ExportFormat format) {
+        return etagOf(key(scope, id, format));
+    }
+
+    /**
+     * Versión global persistida; sube con invalidateAll (p. ej. al cambiar la jornada escolar)
+     */
+    public long currentGlobalVersion() {
+        Long version = versionRepository.findVersion(GLOBAL_KEY);
+        return version != null ? version : 0;
+    }
+
+    /**
+     * Devuelve el documento desde memoria o disco, o lo genera y lo guarda en ambos niveles.
+     * La estrategia aporta el tipo de contenido y la extensión (la imagen depende de la configuración).
+     */
+    public ExportArtifact getOrRender(Scope scope, Integer id, ExportFormat format, ExportStrategy strategy,
+                                      ArtifactRenderer renderer) throws Exception {
+        // La clave se toma antes de leer la base de datos: si la versión sube mientras se genera,
+        // el resultado queda bajo la versión anterior y no vuelve a servirse
+        String key = key(scope, id, format);
+        ExportArtifact cached = lookup(key, strategy);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<ExportArtifact> mine = new CompletableFuture<>();
+        CompletableFuture<ExportArtifact> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw new IllegalStateException("Error generando la exportación", cause);
+            }
+        }
+
+        try {
+            ExportArtifact artifact = new ExportArtifact(etagOf(key), strategy.getContentType(),
+                strategy.getFileExtension(), renderer.render(), Instant.now());
+            putInMemory(key, artifact);
+            writeToDisk(key, artifact);
+            mine.complete(artifact);
+            return artifact;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!mine.isDone()) {
+                mine.completeExceptionally(new IllegalStateException("Generación interrumpida"));
+            }
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Sube la versión de los cursos y profesores de los horarios dentro de la transacción actual
+     * y descarta sus documentos locales tras el commit.
+     * Los IDs se leen de inmediato, así que puede llamarse antes de modificar las entidades.
+     */
+    public void invalidateSchedules(Collection<schedule> schedules) {
+        Set<Integer> courseIds = new HashSet<>();
+        Set<Integer> teacherIds = new HashSet<>();
+        for (schedule s : schedules) {
+            if (s.getCourseId() != null) {
+                courseIds.add(s.getCourseId().getId());
+            }
+            if (s.getTeacherId() != null) {
+                teacherIds.add(s.getTeacherId().getId());
+            }
+        }
+        courseIds.forEach(id -> versionRepository.bump(scopeKey(Scope.COURSE, id)));
+        teacherIds.forEach(id -> versionRepository.bump(scopeKey(Scope.TEACHER, id)));
+        TransactionHooks.afterCommit(() -> {
+            courseIds.forEach(id -> evict(Scope.COURSE, id));
+            teacherIds.forEach(id -> evict(Scope.TEACHER, id));
+        });
+    }
+
+    /**
+     * Invalida todos los documentos (borrados masivos, cambios de nombres): sube la versión global
+     * en la transacción actual y vacía la caché local tras el commit
+     */
+    public void invalidateAll() {
+        versionRepository.bump(GLOBAL_KEY);
+        TransactionHooks.afterCommit(() -> {
+            synchronized (memory) {
+                memory.clear();
+                memoryBytes = 0;
+            }
+            deleteDiskEntries("");
+        });
+    }
+
+    private void evict(Scope scope, Integer id) {
+        String prefix = prefix(scope, id);
+        synchronized (memory) {
+            Iterator<Map.Entry<String, ExportArtifact>> it = memory.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, ExportArtifact> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    memoryBytes -= entry.getValue().getContent().length;
+                    it.remove();
+                }
+            }
+        }
+        deleteDiskEntries(prefix);
+    }
+
+    private ExportArtifact lookup(String key, ExportStrategy strategy) {
+        synchronized (memory) {
+            ExportArtifact artifact = memory.get(key);
+            if (artifact != null) {
+                if (!isExpired(artifact.getGeneratedAt())) {
+                    return artifact;
+                }
+                memory.remove(key);
+                memoryBytes -= artifact.getContent().length;
+            }
+        }
+
+        ExportArtifact fromDisk = readFromDisk(key, strategy);
+        if (fromDisk != null) {
+            putInMemory(key, fromDisk);
+        }
+        return fromDisk;
+    }
+
+    private void putInMemory(String key, ExportArtifact artifact) {
+        long size = artifact.getContent().length;
+        // Un documento enorme (exportación masiva) desalojaría todo lo demás: solo va a disco
+        if (size > maxBytes / 4) {
+            return;
+        }
+        synchronized (memory) {
+            ExportArtifact previous = memory.put(key, artifact);
+            if (previous != null) {
+                memoryBytes -= previous.getContent().length;
+            }
+            memoryBytes += size;
+            Iterator<ExportArtifact> eldest = memory.values().iterator();
+            while (memoryBytes > maxBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().getContent().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private ExportArtifact readFromDisk(String key, ExportStrategy strategy) {
+        if (diskPath == null) {
+            return null;
+        }
+        Path file = diskPath.resolve(key + DISK_SUFFIX);
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            Instant generatedAt = Files.getLastModifiedTime(file).toInstant();
+            if (isExpired(generatedAt)) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return new ExportArtifact(etagOf(key), strategy.getContentType(), strategy.getFileExtension(),
+                Files.readAllBytes(file), generatedAt);
+        } catch (IOException e) {
+            log.warn("No se pudo leer la exportación {} del disco: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, ExportArtifact artifact) {
+        if (diskPath == null) {
+            return;
+        }
+        try {
+            // Escritura atómica: un lector concurrente nunca ve un archivo a medias
+            Path tmp = Files.createTempFile(diskPath, key, ".tmp");
+            Files.write(tmp, artifact.getContent());
+            Files.move(tmp, diskPath.resolve(key + DISK_SUFFIX),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar la exportación {} en disco: {}", key, e.getMessage());
+        }
+    }
+
+    private void deleteDiskEntries(String prefix) {
+        if (diskPath == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(diskPath, prefix + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("No se pudieron borrar exportaciones en disco ({}*): {}", prefix, e.getMessage());
+        }
+    }
+
+    private boolean isExpired(Instant generatedAt) {
+        return maxAgeMillis > 0 && generatedAt.plusMillis(maxAgeMillis).isBefore(Instant.now());
+    }
+
+    /**
+     * Clave con las versiones persistidas (global y del curso/profesor) leídas en una sola consulta
+     */
+    private String key(Scope scope, Integer id, ExportFormat format) {
+        String scopeKey = scopeKey(scope, id);
+        long globalVersion = 0;
+        long scopeVersion = 0;
+        for (ExportVersion version : versionRepository.findByScopeKeys(List.of(GLOBAL_KEY, scopeKey))) {
+            if (GLOBAL_KEY.equals(version.getScopeKey())) {
+                globalVersion = version.getVersion();
+            } else {
+                scopeVersion = version.getVersion();
+            }
+        }
+        return prefix(scope, id) + format.name().toLowerCase() + "-" + globalVersion + "-" + scopeVersion;
+    }
+
+    private static String scopeKey(Scope scope, Integer id) {
+        return scope.name().toLowerCase() + "-" + id;
+    }
+
+    /**
+     * Prefijo común de todas las claves de un curso o profesor; el guion final evita que
+     * "course-1-" coincida con "course-12-"
+     */
+    private static String prefix(Scope scope, Integer id) {
+        return scope.name().toLowerCase() + "-" + id + "-";
+    }
+
+    private static String etagOf(String key) {
+        return "\"" + key + "\"";
+    }
+}
@@ -1,11 +1,29 @@
 package com.horarios.SGH.Service;
 
+import com.horarios.SGH.DTO.ScheduleRowDTO;
 import com.horarios.SGH.Model.schedule;
 import com.horarios.SGH.Repository.IScheduleRepository;
+import com.horarios.SGH.Service.ScheduleExportCache.Scope;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Servicio refactorizado para exportación de horarios aplicando principios SOLID.
@@ -18,11 +36,47 @@ import java.util.List;
  * - ISP: Interfaces específicas y pequeñas
  * - DIP: Depende de abstracciones, no de implementaciones concretas
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ScheduleExportServiceRefactored {
 
+    private static final String COURSE_TITLE = "📘 Horario del Curso";
+    private static final String ALL_COURSES_TITLE = "📚 HORARIO GENERAL - TODOS LOS CURSOS";
+    private static final String ALL_TEACHERS_TITLE = "👨‍🏫 HORARIO GENERAL - TODOS LOS PROFESORES";
+    private static final int BUNDLE_ENTRIES_PER_THREAD = 2;
+
     private final IScheduleRepository scheduleRepository;
+    private final ScheduleExportCache exportCache;
+    private final TimeSlotService timeSlotService;
+
+    @Value("${app.export.cache.prewarm-formats:pdf}")
+    private List<String> prewarmFormats;
+
+    @Autowired
+    @Qualifier("exportRenderExecutor")
+    private Executor renderExecutor;
+
+    private ImageRenderOptions imageOptions = ImageRenderOptions.DEFAULT;
+
+    @Autowired
+    void configureImages(@Value("${app.export.image.format:png}") String format,
+                         @Value("${app.export.image.png-compression-level:4}") int pngCompressionLevel,
+                         @Value("${app.export.image.quality:0.85}") float quality) {
+        imageOptions = new ImageRenderOptions(format, pngCompressionLevel, quality);
+        if (imageOptions.isFallback()) {
+            log.warn("No hay escritor de imágenes para '{}'; las exportaciones en imagen usarán {}",
+                format, imageOptions.getFormat());
+        }
+    }
+
+    /**
+     * Estrategia del formato con la jornada escolar vigente.
+     * La jornada se recarga si otro nodo la cambió (subió la versión global), sin esperar a que expire su caché.
+     */
+    public ExportStrategy newStrategy(ExportFormat format) {
+        return format.newStrategy(timeSlotService.getBellSchedule(exportCache.currentGlobalVersion()), imageOptions);
+    }
 
     /**
      * Exporta horarios por curso en el formato especificado.
@@ -32,9 +86,14 @@ public class ScheduleExportServiceRefactored {
      * @return Array de bytes con el contenido exportado
      */
     public byte[] exportByCourse(Integer courseId, ExportStrategy strategy) throws Exception {
-        List<schedule> schedules = scheduleRepository.findByCourseId(courseId);
-        String title = "📘 Horario del Curso";
-        return strategy.export(schedules, title);
+        return strategy.export(courseSchedules(courseId), COURSE_TITLE);
+    }
+
+    /**
+     * Exporta horarios por curso escribiendo directamente en el stream de salida.
+     */
+    public void exportByCourse(Integer courseId, ExportStrategy strategy, OutputStream out) throws Exception {
+        strategy.export(courseSchedules(courseId), COURSE_TITLE, out);
     }
 
     /**
@@ -45,17 +104,73 @@ public class ScheduleExportServiceRefactored {
      * @return Array de bytes con el contenido exportado
      */
     public byte[] exportByTeacher(Integer teacherId, ExportStrategy strategy) throws Exception {
-        List<schedule> schedules = scheduleRepository.findByTeacherId(teacherId);
+        List<schedule> schedules = teacherSchedules(teacherId);
+        return strategy.export(schedules, teacherTitle(schedules));
+    }
 
-        // Obtener nombre del profesor para el título
-        String teacherName = schedules.stream()
-            .filter(s -> s.getTeacherId() != null)
-            .map(s -> s.getTeacherId().getTeacherName())
-            .findFirst()
-            .orElse("Profesor");
+    /**
+     * Exporta horarios por profesor escribiendo directamente en el stream de salida.
+     */
+    public void exportByTeacher(Integer teacherId, ExportStrategy strategy, OutputStream out) throws Exception {
+        List<schedule> schedules = teacherSchedules(teacherId);
+        strategy.export(schedules, teacherTitle(schedules), out);
+    }
+
+    /**
+     * Documento del curso desde la caché de exportaciones; solo se genera si cambió su versión
+     */
+    public ExportArtifact exportCourseArtifact(Integer courseId, ExportFormat format) throws Exception {
+        // La clave se calcula antes de generar: la estrategia que genera se crea dentro del renderer,
+        // así su jornada es al menos tan nueva como la versión global de la clave
+        ExportStrategy strategy = format.newStrategy(timeSlotService.getBellSchedule(), imageOptions);
+        return exportCache.getOrRender(Scope.COURSE, courseId, format, strategy,
+            () -> exportByCourse(courseId, newStrategy(format)));
+    }
+
+    /**
+     * Documento del profesor desde la caché de exportaciones; solo se genera si cambió su versión
+     */
+    public ExportArtifact exportTeacherArtifact(Integer teacherId, ExportFormat format) throws Exception {
+        ExportStrategy strategy = format.newStrategy(timeSlotService.getBellSchedule(), imageOptions);
+        return exportCache.getOrRender(Scope.TEACHER, teacherId, format, strategy,
+            () -> exportByTeacher(teacherId, newStrategy(format)));
+    }
+
+    /**
+     * ETag vigente del documento del curso o profesor, para responder 304 sin generarlo
+     */
+    public String currentEtag(Scope scope, Integer id, ExportFormat format) {
+        return exportCache.currentEtag(scope, id, format);
+    }
+
+    /**
+     * Genera de antemano los documentos de los cursos y profesores modificados en los formatos
+     * configurados, para que las descargas posteriores ya encuentren la caché caliente
+     */
+    public void prewarm(Collection<Integer> courseIds, Collection<Integer> teacherIds) {
+        for (String value : prewarmFormats) {
+            ExportFormat format;
+            try {
+                format = ExportFormat.fromString(value);
+            } catch (IllegalArgumentException e) {
+                log.warn("Formato de precalentamiento ignorado: {}", value);
+                continue;
+            }
+            for (Integer courseId : courseIds) {
+                prewarmOne(() -> exportCourseArtifact(courseId, format), "curso", courseId);
+            }
+            for (Integer teacherId : teacherIds) {
+                prewarmOne(() -> exportTeacherArtifact(teacherId, format), "profesor", teacherId);
+            }
+        }
+    }
 
-        String title = "👨‍🏫 Horario del Profesor: " + teacherName;
-        return strategy.export(schedules, title);
+    private void prewarmOne(ArtifactLoader loader, String scope, Integer id) {
+        try {
+            loader.load();
+        } catch (Exception e) {
+            log.warn("No se pudo precalentar la exportación del {} {}: {}", scope, id, e.getMessage());
+        }
     }
 
     /**
@@ -65,9 +180,17 @@ public class ScheduleExportServiceRefactored {
      * @return Array de bytes con el contenido exportado
      */
     public byte[] exportAllSchedules(ExportStrategy strategy) throws Exception {
-        List<schedule> schedules = scheduleRepository.findAll();
-        String title = "📚 HORARIO GENERAL - TODOS LOS CURSOS";
-        return strategy.export(schedules, title);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportAllSchedules(strategy, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Exporta todos los horarios escribiendo directamente en el stream de salida,
+     * con una sección por curso (una página en PDF, una hoja en Excel) renderizadas en paralelo.
+     */
+    public void exportAllSchedules(ExportStrategy strategy, OutputStream out) throws Exception {
+        strategy.exportSections(sectionsByCourse(), ALL_COURSES_TITLE, out, renderExecutor);
     }
 
     /**
@@ -77,9 +200,139 @@ public class ScheduleExportServiceRefactored {
      * @return Array de bytes con el contenido exportado
      */
     public byte[] exportAllTeachersSchedules(ExportStrategy strategy) throws Exception {
-        List<schedule> schedules = scheduleRepository.findAll();
-        String title = "👨‍🏫 HORARIO GENERAL - TODOS LOS PROFESORES";
-        return strategy.export(schedules, title);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportAllTeachersSchedules(strategy, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Exporta todos los horarios de profesores escribiendo directamente en el stream de salida.
+     */
+    public void exportAllTeachersSchedules(ExportStrategy strategy, OutputStream out) throws Exception {
+        strategy.exportSections(sectionsByTeacher(), ALL_TEACHERS_TITLE, out, renderExecutor);
+    }
+
+    /**
+     * ZIP con un archivo por curso y otro por profesor en cada formato pedido, para repartir
+     * los horarios de todo el colegio en una sola descarga. Los archivos se renderizan en paralelo
+     * y cada uno se escribe en el ZIP en cuanto le llega el turno, así el ZIP nunca está completo en memoria.
+     * No cierra el stream.
+     */
+    public void exportBundle(Collection<ExportFormat> formats, boolean courses, boolean teachers,
+                             OutputStream out) throws Exception {
+        List<schedule> schedules = allSchedules();
+        List<ScheduleSection> courseSections = courses ? sectionsByCourse(schedules) : List.of();
+        List<ScheduleSection> teacherSections = teachers ? sectionsByTeacher(schedules) : List.of();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PDF, XLSX y PNG ya vienen comprimidos: comprimir más solo gasta CPU
+        zip.setLevel(Deflater.BEST_SPEED);
+        int window = Runtime.getRuntime().availableProcessors() * BUNDLE_ENTRIES_PER_THREAD;
+        for (ExportFormat format : formats) {
+            ExportStrategy strategy = newStrategy(format);
+            OrderedSectionRenderer.render(courseSections, renderExecutor, window,
+                section -> strategy.export(section.getSchedules(), COURSE_TITLE),
+                (section, content) -> writeZipEntry(zip,
+                    bundleEntryName("cursos", section, section.getSchedules().get(0).getCourseId().getId(), strategy),
+                    content));
+            OrderedSectionRenderer.render(teacherSections, renderExecutor, window,
+                section -> strategy.export(section.getSchedules(), teacherTitle(section.getSchedules())),
+                (section, content) -> writeZipEntry(zip,
+                    bundleEntryName("profesores", section, section.getSchedules().get(0).getTeacherId().getId(), strategy),
+                    content));
+        }
+        zip.finish();
+    }
+
+    private static void writeZipEntry(ZipOutputStream zip, String name, byte[] content) throws Exception {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    /**
+     * Ruta dentro del ZIP, p. ej. "cursos/Curso_10A_3.pdf". El ID evita que dos homónimos se pisen.
+     */
+    private static String bundleEntryName(String folder, ScheduleSection section, Integer id, ExportStrategy strategy) {
+        String name = section.getTitle().substring(section.getTitle().indexOf(':') + 1).trim()
+            .replaceAll("[^\\p{L}\\p{N}._-]+", "_");
+        return folder + "/" + name + "_" + id + "." + strategy.getFileExtension();
+    }
+
+    /**
+     * Horarios de todo el colegio agrupados por curso
+     */
+    public List<ScheduleSection> sectionsByCourse() {
+        return sectionsByCourse(allSchedules());
+    }
+
+    /**
+     * Horarios de todo el colegio agrupados por profesor
+     */
+    public List<ScheduleSection> sectionsByTeacher() {
+        return sectionsByTeacher(allSchedules());
+    }
+
+    /**
+     * Las exportaciones leen la proyección ScheduleRowDTO (un SELECT con los nombres unidos)
+     * y la convierten en entidades desconectadas, así las estrategias no cambian
+     */
+    private List<schedule> courseSchedules(Integer courseId) {
+        return detached(scheduleRepository.findRowsByCourseId(courseId));
+    }
+
+    private List<schedule> teacherSchedules(Integer teacherId) {
+        return detached(scheduleRepository.findRowsByTeacherId(teacherId));
+    }
+
+    private List<schedule> allSchedules() {
+        return detached(scheduleRepository.findAllRows());
+    }
+
+    private static List<schedule> detached(List<ScheduleRowDTO> rows) {
+        List<schedule> schedules = new ArrayList<>(rows.size());
+        rows.forEach(row -> schedules.add(row.toSchedule()));
+        return schedules;
+    }
+
+    private List<ScheduleSection> sectionsByCourse(List<schedule> schedules) {
+        return groupSections(schedules,
+            s -> s.getCourseId() != null ? s.getCourseId().getId() : null,
+            s -> "Curso: " + s.getCourseId().getCourseName());
+    }
+
+    private List<ScheduleSection> sectionsByTeacher(List<schedule> schedules) {
+        return groupSections(schedules,
+            s -> s.getTeacherId() != null ? s.getTeacherId().getId() : null,
+            s -> "Profesor: " + s.getTeacherId().getTeacherName());
+    }
+
+    /**
+     * Agrupa los horarios por curso o profesor (por ID, para no mezclar homónimos), en orden alfabético
+     */
+    private List<ScheduleSection> groupSections(List<schedule> schedules, Function<schedule, Integer> idOf,
+                                                Function<schedule, String> titleOf) {
+        Map<Integer, List<schedule>> groups = new LinkedHashMap<>();
+        schedules.stream()
+            .filter(s -> idOf.apply(s) != null)
+            .sorted(Comparator.comparing(titleOf).thenComparing(idOf))
+            .forEach(s -> groups.computeIfAbsent(idOf.apply(s), id -> new ArrayList<>()).add(s));
+
+        List<ScheduleSection> sections = new ArrayList<>(groups.size());
+        groups.values().forEach(group -> sections.add(new ScheduleSection(titleOf.apply(group.get(0)), group)));
+        return sections;
+    }
+
+    /**
+     * Título con el nombre del profesor de los horarios
+     */
+    private String teacherTitle(List<schedule> schedules) {
+        String teacherName = schedules.stream()
+            .filter(s -> s.getTeacherId() != null)
+            .map(s -> s.getTeacherId().getTeacherName())
+            .findFirst()
+            .orElse("Profesor");
+        return "👨‍🏫 Horario del Profesor: " + teacherName;
     }
 
     // Métodos de conveniencia para formatos específicos
@@ -88,22 +341,27 @@ public class ScheduleExportServiceRefactored {
      * Exporta a PDF usando la estrategia correspondiente.
      */
     public byte[] exportToPdfByCourse(Integer courseId) throws Exception {
-        return exportByCourse(courseId, new PdfExportStrategy());
+        return exportCourseArtifact(courseId, ExportFormat.PDF).getContent();
     }
 
     /**
      * Exporta a Excel usando la estrategia correspondiente.
      */
     public byte[] exportToExcelByCourse(Integer courseId) throws Exception {
-        return exportByCourse(courseId, new ExcelExportStrategy());
+        return exportCourseArtifact(courseId, ExportFormat.EXCEL).getContent();
     }
 
     /**
      * Exporta a imagen usando la estrategia correspondiente.
      */
     public byte[] exportToImageByCourse(Integer courseId) throws Exception {
-        return exportByCourse(courseId, new ImageExportStrategy());
+        return exportCourseArtifact(courseId, ExportFormat.IMAGE).getContent();
     }
 
     // Más métodos de conveniencia pueden agregarse aquí según sea necesario
+
+    @FunctionalInterface
+    private interface ArtifactLoader {
+        ExportArtifact load() throws Exception;
+    }
 }
\ No newline at end of file
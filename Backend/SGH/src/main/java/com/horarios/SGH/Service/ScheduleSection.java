@@ -0,0 +1,18 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.schedule;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Parte de una exportación masiva: los horarios de un curso o de un profesor con su título
+ */
+@Getter
+@AllArgsConstructor
+public class ScheduleSection {
+
+    private final String title;
+    private final List<schedule> schedules;
+}
@@ -1,6 +1,7 @@
 package com.horarios.SGH.Service;
 
 import com.horarios.SGH.DTO.ScheduleDTO;
+import com.horarios.SGH.DTO.ScheduleRowDTO;
 import com.horarios.SGH.Model.Days;
 import com.horarios.SGH.Model.TeacherAvailability;
 import com.horarios.SGH.Model.schedule;
@@ -16,12 +17,9 @@ import com.horarios.SGH.Repository.Iteachers;
 import com.horarios.SGH.Repository.Isubjects;
 import com.horarios.SGH.Repository.Iusers;
 import com.horarios.SGH.Repository.TeacherSubjectRepository;
-import com.horarios.SGH.DTO.NotificationDTO;
-import com.horarios.SGH.Model.NotificationType;
-import com.horarios.SGH.DTO.InAppNotificationDTO;
-import com.horarios.SGH.Model.NotificationPriority;
+import com.horarios.SGH.Events.ScheduleChangedEvent;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -41,15 +39,10 @@ public class ScheduleService {
     private final Isubjects subjectRepo;
     private final Iusers userRepo;
     private final TeacherSubjectRepository teacherSubjectRepo;
-
-    @Autowired
-    private NotificationService notificationService;
-
-    @Autowired
-    private InAppNotificationService inAppNotificationService;
-
-    @Autowired
-    private usersService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduleExportCache exportCache;
+    private final TimetableSnapshotService timetableSnapshot;
+    private final StudentCourseCache studentCourses;
 
     private boolean isTeacherAvailable(Integer teacherId, String day, LocalTime start, LocalTime end) {
         try {
@@ -122,46 +115,46 @@ public class ScheduleService {
 
         scheduleRepo.saveAll(entities);
 
-        // Enviar notificaciones después de crear los horarios
-        try {
-            sendScheduleNotifications(entities, "CREATED");
-        } catch (Exception e) {
-            // No fallar la creación si las notificaciones fallan
-            System.err.println("Error enviando notificaciones de creación de horarios: " + e.getMessage());
-        }
+        exportCache.invalidateSchedules(entities);
+        timetableSnapshot.schedulesChanged(entities);
+
+        // Las notificaciones se envían después del commit (ver Events/*EventHandler)
+        eventPublisher.publishEvent(ScheduleChangedEvent.of(ScheduleChangedEvent.Action.CREATED, entities, executedBy));
 
         return entities.stream().map(this::toDTO).collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    // Los listados leen la proyección ScheduleRowDTO: una sola consulta, sin relaciones EAGER en cascada
+
     public List<ScheduleDTO> getByName(String scheduleName) {
-        return scheduleRepo.findByScheduleName(scheduleName)
-                .stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(scheduleRepo.findRowsByScheduleName(scheduleName));
     }
 
+    // Por curso, profesor y el listado completo se sirven desde la instantánea en memoria (ver TimetableSnapshotService).
+    // La lista devuelta es una copia, pero los ScheduleDTO se comparten con la instantánea: no modificarlos.
+
     public List<ScheduleDTO> getByCourse(Integer courseId) {
-        return scheduleRepo.findByCourseId(courseId).stream().map(this::toDTO).collect(Collectors.toList());
+        return new ArrayList<>(timetableSnapshot.byCourse(courseId));
     }
 
     public List<ScheduleDTO> getByTeacher(Integer teacherId) {
-        return scheduleRepo.findByTeacherId(teacherId).stream().map(this::toDTO).collect(Collectors.toList());
+        return new ArrayList<>(timetableSnapshot.byTeacher(teacherId));
     }
 
     public List<ScheduleDTO> getAll() {
-        return scheduleRepo.findAll().stream().map(this::toDTO).collect(Collectors.toList());
+        return new ArrayList<>(timetableSnapshot.all());
     }
 
     public List<ScheduleDTO> getByStudentEmail(String email) {
-        users student = userRepo.findByUserName(email)
-            .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        if (student.getCourse() == null) {
-            throw new RuntimeException("El estudiante no tiene un curso asignado");
-        }
+        return getByCourse(getCourseIdByStudentEmail(email));
+    }
 
-        return getByCourse(student.getCourse().getId());
+    /**
+     * Curso del estudiante autenticado, desde StudentCourseCache (una consulta o ninguna);
+     * sus horarios se leen luego de la instantánea
+     */
+    public Integer getCourseIdByStudentEmail(String email) {
+        return studentCourses.courseIdOf(email);
     }
 
     public users getUserByEmail(String email) {
@@ -215,6 +208,10 @@ public class ScheduleService {
             throw new RuntimeException("El profesor " + teacher.getTeacherName() + " no está disponible el " + dto.getDay());
         }
 
+        // El curso y profesor anteriores también cambian su exportación
+        exportCache.invalidateSchedules(List.of(existing));
+        timetableSnapshot.schedulesChanged(List.of(existing));
+
         // Actualizar la entidad existente
         existing.setCourseId(course);
         existing.setTeacherId(teacher);
@@ -226,33 +223,39 @@ public class ScheduleService {
 
         schedule saved = scheduleRepo.save(existing);
 
-        // Enviar notificaciones después de actualizar el horario
-        try {
-            sendScheduleNotifications(List.of(saved), "UPDATED");
-        } catch (Exception e) {
-            // No fallar la actualización si las notificaciones fallan
-            System.err.println("Error enviando notificaciones de actualización de horario: " + e.getMessage());
-        }
+        exportCache.invalidateSchedules(List.of(saved));
+        timetableSnapshot.schedulesChanged(List.of(saved));
+
+        // Las notificaciones se envían después del commit (ver Events/*EventHandler)
+        eventPublisher.publishEvent(ScheduleChangedEvent.of(ScheduleChangedEvent.Action.UPDATED, List.of(saved), executedBy));
 
         return toDTO(saved);
     }
 
     @Transactional
     public void deleteSchedule(Integer id, String executedBy) {
-        if (!scheduleRepo.existsById(id)) {
-            throw new RuntimeException("Horario no encontrado");
-        }
-        scheduleRepo.deleteById(id);
+        schedule existing = scheduleRepo.findById(id)
+            .orElseThrow(() -> new RuntimeException("Horario no encontrado"));
+        scheduleRepo.delete(existing);
+        exportCache.invalidateSchedules(List.of(existing));
+        timetableSnapshot.schedulesChanged(List.of(existing));
+        eventPublisher.publishEvent(ScheduleChangedEvent.of(ScheduleChangedEvent.Action.DELETED, List.of(existing), executedBy));
     }
 
     @Transactional
     public void deleteByDay(String day) {
         scheduleRepo.deleteByDay(day);
+        exportCache.invalidateAll();
+        timetableSnapshot.refreshAll();
+        eventPublisher.publishEvent(ScheduleChangedEvent.bulkDeleted(null));
     }
 
     @Transactional
     public void deleteAllSchedules() {
         scheduleRepo.deleteAll();
+        exportCache.invalidateAll();
+        timetableSnapshot.refreshAll();
+        eventPublisher.publishEvent(ScheduleChangedEvent.bulkDeleted(null));
     }
 
     private schedule toEntity(ScheduleDTO dto) {
@@ -268,6 +271,10 @@ public class ScheduleService {
         return s;
     }
 
+    private List<ScheduleDTO> toDTOs(List<ScheduleRowDTO> rows) {
+        return rows.stream().map(ScheduleRowDTO::toScheduleDTO).collect(Collectors.toList());
+    }
+
     private ScheduleDTO toDTO(schedule s) {
         ScheduleDTO dto = new ScheduleDTO();
         dto.setId(s.getId());
@@ -283,188 +290,4 @@ public class ScheduleService {
 
         return dto;
     }
-
-    /**
-     * Envía notificaciones relacionadas con cambios en horarios
-     */
-    private void sendScheduleNotifications(List<schedule> schedules, String action) {
-        for (schedule s : schedules) {
-            try {
-                // Notificar al profesor sobre la asignación
-                sendTeacherScheduleNotification(s, action);
-
-                // Notificar a los estudiantes del curso sobre el cambio
-                sendStudentsScheduleNotification(s, action);
-
-            } catch (Exception e) {
-                System.err.println("Error enviando notificación para horario " + s.getId() + ": " + e.getMessage());
-            }
-        }
-    }
-
-    /**
-     * Envía notificación al profesor sobre cambios en su horario
-     */
-    private void sendTeacherScheduleNotification(schedule s, String action) {
-        try {
-            // Asumir que teacher.getId() es el userId
-            Integer teacherUserId = s.getTeacherId().getId();
-
-            // ===========================================
-            // 1. ENVIAR NOTIFICACIÓN IN-APP
-            // ===========================================
-            InAppNotificationDTO inAppNotification = new InAppNotificationDTO();
-            inAppNotification.setUserId(teacherUserId);
-            inAppNotification.setNotificationType(NotificationType.TEACHER_SCHEDULE_ASSIGNED.name());
-            inAppNotification.setPriority(NotificationPriority.MEDIUM.name());
-            inAppNotification.setCategory("SCHEDULE");
-
-            String title;
-            String message;
-
-            if ("CREATED".equals(action)) {
-                title = "Nuevo Horario Asignado";
-                message = String.format(
-                    "Se te ha asignado un horario de clase.\n\n" +
-                    "Materia: %s\n" +
-                    "Curso: %s\n" +
-                    "Día: %s\n" +
-                    "Horario: %s - %s",
-                    s.getSubjectId().getSubjectName(),
-                    s.getCourseId().getCourseName(),
-                    s.getDay(),
-                    s.getStartTime().toString(),
-                    s.getEndTime().toString()
-                );
-            } else {
-                title = "Horario Modificado";
-                message = String.format(
-                    "Se ha modificado tu horario de clase.\n\n" +
-                    "Materia: %s\n" +
-                    "Curso: %s\n" +
-                    "Día: %s\n" +
-                    "Horario: %s - %s",
-                    s.getSubjectId().getSubjectName(),
-                    s.getCourseId().getCourseName(),
-                    s.getDay(),
-                    s.getStartTime().toString(),
-                    s.getEndTime().toString()
-                );
-            }
-
-            inAppNotification.setTitle(title);
-            inAppNotification.setMessage(message);
-            inAppNotification.setIcon("📚");
-
-            inAppNotificationService.sendInAppNotificationAsync(inAppNotification);
-
-            // ===========================================
-            // 2. ENVIAR NOTIFICACIÓN POR EMAIL
-            // ===========================================
-            NotificationDTO emailNotification = new NotificationDTO();
-            emailNotification.setRecipientEmail("profesor" + teacherUserId + "@sgh.edu"); // Placeholder - debería ser email real
-            emailNotification.setRecipientName(s.getTeacherId().getTeacherName());
-            emailNotification.setRecipientRole("MAESTRO");
-            emailNotification.setNotificationType(NotificationType.TEACHER_SCHEDULE_ASSIGNED.name());
-            emailNotification.setSubject(title);
-            emailNotification.setContent(message);
-            emailNotification.setSenderName("Sistema SGH");
-            emailNotification.setIsHtml(true);
-
-            notificationService.validateAndPrepareNotification(emailNotification);
-            notificationService.sendNotificationAsync(emailNotification);
-
-        } catch (Exception e) {
-            System.err.println("Error enviando notificación al profesor: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Envía notificación a los coordinadores sobre cambios en el horario
-     */
-    private void sendStudentsScheduleNotification(schedule s, String action) {
-        try {
-            // Enviar notificación al coordinador sobre el cambio de horario
-            List<users> coordinators = userService.findUsersByRole("COORDINADOR");
-
-            if (coordinators.isEmpty()) {
-                System.err.println("No se encontraron coordinadores para enviar notificación");
-                return;
-            }
-
-            // Enviar a todos los coordinadores
-            for (users coordinator : coordinators) {
-                // ===========================================
-                // 1. ENVIAR NOTIFICACIÓN IN-APP
-                // ===========================================
-                InAppNotificationDTO inAppNotification = new InAppNotificationDTO();
-                inAppNotification.setUserId(coordinator.getUserId());
-                inAppNotification.setNotificationType(NotificationType.SYSTEM_NOTIFICATION.name());
-                inAppNotification.setPriority(NotificationPriority.MEDIUM.name());
-                inAppNotification.setCategory("SCHEDULE");
-
-                String title;
-                String message;
-
-                if ("CREATED".equals(action)) {
-                    title = "Nuevo Horario Registrado";
-                    message = String.format(
-                        "Se ha registrado un nuevo horario en el sistema.\n\n" +
-                        "Profesor: %s\n" +
-                        "Materia: %s\n" +
-                        "Curso: %s\n" +
-                        "Día: %s\n" +
-                        "Horario: %s - %s",
-                        s.getTeacherId().getTeacherName(),
-                        s.getSubjectId().getSubjectName(),
-                        s.getCourseId().getCourseName(),
-                        s.getDay(),
-                        s.getStartTime().toString(),
-                        s.getEndTime().toString()
-                    );
-                } else {
-                    title = "Horario Modificado";
-                    message = String.format(
-                        "Se ha modificado un horario en el sistema.\n\n" +
-                        "Profesor: %s\n" +
-                        "Materia: %s\n" +
-                        "Curso: %s\n" +
-                        "Día: %s\n" +
-                        "Horario: %s - %s",
-                        s.getTeacherId().getTeacherName(),
-                        s.getSubjectId().getSubjectName(),
-                        s.getCourseId().getCourseName(),
-                        s.getDay(),
-                        s.getStartTime().toString(),
-                        s.getEndTime().toString()
-                    );
-                }
-
-                inAppNotification.setTitle(title);
-                inAppNotification.setMessage(message);
-                inAppNotification.setIcon("⚙️");
-
-                inAppNotificationService.sendInAppNotificationAsync(inAppNotification);
-
-                // ===========================================
-                // 2. ENVIAR NOTIFICACIÓN POR EMAIL
-                // ===========================================
-                NotificationDTO emailNotification = new NotificationDTO();
-                emailNotification.setRecipientEmail(coordinator.getPerson().getEmail()); // Email real del coordinador
-                emailNotification.setRecipientName(coordinator.getPerson().getFullName());
-                emailNotification.setRecipientRole("COORDINADOR");
-                emailNotification.setNotificationType(NotificationType.SYSTEM_NOTIFICATION.name());
-                emailNotification.setSubject(title);
-                emailNotification.setContent(message);
-                emailNotification.setSenderName("Sistema SGH");
-                emailNotification.setIsHtml(true);
-
-                notificationService.validateAndPrepareNotification(emailNotification);
-                notificationService.sendNotificationAsync(emailNotification);
-            }
-
-        } catch (Exception e) {
-            System.err.println("Error enviando notificación a coordinadores: " + e.getMessage());
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.horarios.SGH.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker para el servidor SMTP.
+ * Tras varios fallos consecutivos se abre y pausa los reintentos durante un tiempo;
+ * luego deja pasar un único intento de prueba (HALF_OPEN) antes de cerrarse de nuevo.
+ * Si la prueba no llega a usarse (releaseProbe) o no informa resultado dentro de open-duration,
+ * se concede otra: el circuito nunca queda bloqueado en HALF_OPEN.
+ */
+@Slf4j
+@Component
+public class SmtpCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${app.notification.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.notification.circuit.open-duration:120000}")
+    private long openDurationMs;
+
+    // Reloj en milisegundos; reemplazable en pruebas
+    LongSupplier clock = System::currentTimeMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    // Inicio de la prueba en curso en HALF_OPEN; 0 si no hay ninguna
+    private long probeStartedAt = 0;
+
+    /**
+     * Indica si se permite intentar un envío en este momento.
+     * En HALF_OPEN solo se concede un intento a la vez.
+     */
+    public synchronized boolean allowRequest() {
+        long now = clock.getAsLong();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now - openedAt < openDurationMs) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                log.info("Circuit breaker SMTP en HALF_OPEN, probando conexión");
+                probeStartedAt = now;
+                return true;
+            default:
+                if (probeStartedAt != 0 && now - probeStartedAt < openDurationMs) {
+                    return false;
+                }
+                probeStartedAt = now;
+                return true;
+        }
+    }
+
+    /**
+     * Devuelve la prueba concedida en HALF_OPEN sin haberla usado (no había nada que enviar)
+     */
+    public synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN) {
+            probeStartedAt = 0;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Servidor SMTP disponible de nuevo, circuit breaker CLOSED");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeStartedAt = 0;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Circuit breaker SMTP OPEN tras {} fallos consecutivos, reintentos pausados {} ms",
+                        consecutiveFailures, openDurationMs);
+            }
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            probeStartedAt = 0;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,77 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Repository.Iusers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Curso de cada estudiante por correo, mantenido en memoria. Junto con la instantánea de horarios
+ * deja "mi horario" sin consultas a la base de datos; un fallo de caché cuesta una sola consulta
+ * (findCourseIdByEmail) en lugar de cargar el usuario con persona, rol y curso.
+ * Las entradas caducan por TTL, lo que acota el desfase entre nodos; en el nodo local se descartan
+ * al cambiar el correo, eliminar el usuario o eliminar un curso.
+ */
+@Component
+public class StudentCourseCache {
+
+    @Autowired
+    private Iusers usersRepository;
+
+    @Value("${app.timetable.student-course.ttl:300000}")
+    private long ttlMillis;
+
+    @Value("${app.timetable.student-course.max-entries:20000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Id del curso del estudiante; lanza excepción si el usuario no existe o no tiene curso asignado
+     */
+    public int courseIdOf(String email) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(email);
+        if (entry != null && now - entry.loadedAt < ttlMillis) {
+            return entry.courseId;
+        }
+
+        Integer courseId = usersRepository.findCourseIdByEmail(email)
+            .orElseThrow(() -> new RuntimeException("El estudiante no tiene un curso asignado"));
+        if (entries.size() >= maxEntries) {
+            // Tope de memoria: se vacía y se vuelve a llenar con los estudiantes activos
+            entries.clear();
+        }
+        entries.put(email, new Entry(courseId, now));
+        return courseId;
+    }
+
+    /**
+     * Descarta la entrada de un correo tras el commit (cambio de correo o eliminación del usuario)
+     */
+    public void evict(String email) {
+        if (email != null) {
+            TransactionHooks.afterCommit(() -> entries.remove(email));
+        }
+    }
+
+    /**
+     * Descarta todas las entradas tras el commit (eliminación de cursos)
+     */
+    public void clear() {
+        TransactionHooks.afterCommit(entries::clear);
+    }
+
+    private static final class Entry {
+        private final int courseId;
+        private final long loadedAt;
+
+        private Entry(int courseId, long loadedAt) {
+            this.courseId = courseId;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -16,6 +16,8 @@ public class SubjectService {
 
     private final Isubjects repo;
     private final IScheduleRepository scheduleRepo;
+    private final ScheduleExportCache exportCache;
+    private final TimetableSnapshotService timetableSnapshot;
 
     public SubjectDTO create(SubjectDTO dto) {
         subjects entity = new subjects();
@@ -48,6 +50,9 @@ public class SubjectService {
         if (entity == null) return null;
         entity.setSubjectName(dto.getSubjectName());
         subjects updated = repo.save(entity);
+        // El nombre aparece en los documentos exportados y en la instantánea de horarios
+        exportCache.invalidateAll();
+        timetableSnapshot.refreshAll();
         dto.setSubjectId(updated.getId());
         return dto;
     }
@@ -16,10 +16,12 @@ import com.horarios.SGH.Repository.Iteachers;
 import com.horarios.SGH.Repository.TeacherSubjectRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +35,8 @@ public class TeacherService {
     private final IScheduleRepository scheduleRepo;
     private final Icourses courseRepo;
     private final FileStorageService fileStorageService;
+    private final ScheduleExportCache exportCache;
+    private final TimetableSnapshotService timetableSnapshot;
 
     /**
      * Crea un docente. Si se envía subjectId, crea también la relación TeacherSubject.
@@ -61,7 +65,14 @@ public class TeacherService {
     /**
      * Lista todos los docentes. Si tienen relaciones TeacherSubject, devuelve el primer subjectId encontrado.
      */
+    @Transactional(readOnly = true)
     public List<TeacherDTO> getAll() {
+        // Tres consultas en total en vez de dos por docente
+        Map<Integer, List<TeacherSubject>> subjectsByTeacher = teacherSubjectRepo.findAllWithDetails().stream()
+            .collect(Collectors.groupingBy(ts -> ts.getTeacher().getId()));
+        Map<Integer, List<TeacherAvailability>> availabilityByTeacher = availabilityRepo.findAllWithTeacher().stream()
+            .collect(Collectors.groupingBy(a -> a.getTeacher().getId()));
+
         return teacherRepo.findAll().stream().map(t -> {
             TeacherDTO dto = new TeacherDTO();
             dto.setTeacherId(t.getId());
@@ -71,7 +82,7 @@ public class TeacherService {
             dto.setPhotoFileName(t.getPhotoFileName());
 
             // Compatibilidad: si existe relación TeacherSubject, usamos el primer subjectId
-            List<TeacherSubject> tsList = teacherSubjectRepo.findByTeacher_Id(t.getId());
+            List<TeacherSubject> tsList = subjectsByTeacher.getOrDefault(t.getId(), List.of());
             if (!tsList.isEmpty()) {
                 dto.setSubjectId(tsList.get(0).getSubject().getId());
             } else {
@@ -79,7 +90,7 @@ public class TeacherService {
             }
 
             // Resumen de disponibilidad
-            List<TeacherAvailability> availabilities = availabilityRepo.findByTeacher_Id(t.getId());
+            List<TeacherAvailability> availabilities = availabilityByTeacher.getOrDefault(t.getId(), List.of());
             if (!availabilities.isEmpty()) {
                 String days = availabilities.stream()
                     .filter(a -> a.hasValidSchedule())
@@ -138,6 +149,9 @@ public class TeacherService {
 
         teacher.setTeacherName(dto.getTeacherName());
         teachers updatedTeacher = teacherRepo.save(teacher);
+        // El nombre aparece en los documentos exportados y en la instantánea de horarios
+        exportCache.invalidateAll();
+        timetableSnapshot.refreshAll();
 
         // Actualizar relación TeacherSubject
         if (dto.getSubjectId() > 0) {
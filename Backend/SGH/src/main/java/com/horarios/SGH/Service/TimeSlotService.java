@@ -0,0 +1,148 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.DTO.TimeSlotDTO;
+import com.horarios.SGH.Model.TimeSlot;
+import com.horarios.SGH.Repository.ITimeSlotRepository;
+import com.horarios.SGH.Service.BellSchedule.Slot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Jornada escolar configurable, persistida en time_slots y cacheada como BellSchedule inmutable.
+ * Mientras la tabla esté vacía se usa BellSchedule.DEFAULT.
+ * La caché se renueva al reemplazar las franjas o cada cierto tiempo (otros nodos); las exportaciones
+ * la recargan además en cuanto la versión global de exportación supera la que tenía al cargarse.
+ */
+@Slf4j
+@Service
+public class TimeSlotService {
+
+    private static final DateTimeFormatter HH_MM = DateTimeFormatter.ofPattern("HH:mm");
+    // Acepta "7:00" y "07:00", como la validación del DTO
+    private static final DateTimeFormatter H_MM = DateTimeFormatter.ofPattern("H:mm");
+
+    @Autowired
+    private ITimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private ScheduleExportCache exportCache;
+
+    @Value("${app.timeslots.cache-ttl:60000}")
+    private long cacheTtlMillis;
+
+    private volatile CachedSchedule cached;
+
+    /**
+     * Jornada vigente; solo consulta la base de datos si la caché expiró
+     */
+    public BellSchedule getBellSchedule() {
+        return getBellSchedule(0);
+    }
+
+    /**
+     * Jornada que refleja al menos la versión global de exportación indicada: si otro nodo reemplazó
+     * las franjas (y subió esa versión) se recarga aunque la caché no haya expirado
+     */
+    public BellSchedule getBellSchedule(long minVersion) {
+        CachedSchedule current = cached;
+        if (current != null && current.isFresh(minVersion)) {
+            return current.schedule;
+        }
+        return reload(minVersion);
+    }
+
+    public List<TimeSlotDTO> getAll() {
+        return toDTOs(getBellSchedule());
+    }
+
+    /**
+     * Reemplaza todas las franjas de la jornada. Las exportaciones en caché se invalidan tras el commit.
+     *
+     * @throws IllegalArgumentException si alguna franja es inválida o se solapa con otra
+     */
+    @Transactional
+    public List<TimeSlotDTO> replaceAll(List<TimeSlotDTO> dtos) {
+        List<Slot> slots = new ArrayList<>(dtos.size());
+        for (TimeSlotDTO dto : dtos) {
+            if (dto.getStartTime() == null || dto.getEndTime() == null) {
+                throw new IllegalArgumentException("Cada franja debe tener hora de inicio y de fin");
+            }
+            LocalTime start = LocalTime.parse(dto.getStartTime(), H_MM);
+            LocalTime end = LocalTime.parse(dto.getEndTime(), H_MM);
+            String breakLabel = dto.getBreakLabel() == null || dto.getBreakLabel().isBlank() ? null : dto.getBreakLabel().trim();
+            slots.add(breakLabel != null ? Slot.breakSlot(start, end, breakLabel) : Slot.classSlot(start, end));
+        }
+        // Valida orden y solapamientos antes de tocar la tabla
+        BellSchedule bellSchedule = new BellSchedule(slots);
+
+        timeSlotRepository.deleteAllInBatch();
+        timeSlotRepository.saveAll(bellSchedule.getSlots().stream().map(slot -> {
+            TimeSlot entity = new TimeSlot();
+            entity.setStartTime(slot.getStart());
+            entity.setEndTime(slot.getEnd());
+            entity.setBreakLabel(slot.getBreakLabel());
+            return entity;
+        }).collect(Collectors.toList()));
+
+        exportCache.invalidateAll();
+        long version = exportCache.currentGlobalVersion();
+        TransactionHooks.afterCommit(() -> cached = new CachedSchedule(bellSchedule, version));
+        log.info("Jornada escolar actualizada: {} franjas", slots.size());
+        return toDTOs(bellSchedule);
+    }
+
+    private synchronized BellSchedule reload(long minVersion) {
+        // Otro hilo pudo recargarla mientras este esperaba el monitor
+        CachedSchedule current = cached;
+        if (current != null && current.isFresh(minVersion)) {
+            return current.schedule;
+        }
+        // La versión se lee antes que las franjas: la jornada cargada es al menos tan nueva como ella
+        long version = exportCache.currentGlobalVersion();
+        List<TimeSlot> rows = timeSlotRepository.findAllByOrderByStartTimeAsc();
+        BellSchedule loaded = BellSchedule.DEFAULT;
+        if (!rows.isEmpty()) {
+            try {
+                loaded = new BellSchedule(rows.stream()
+                    .map(row -> row.getBreakLabel() != null
+                        ? Slot.breakSlot(row.getStartTime(), row.getEndTime(), row.getBreakLabel())
+                        : Slot.classSlot(row.getStartTime(), row.getEndTime()))
+                    .collect(Collectors.toList()));
+            } catch (IllegalArgumentException e) {
+                log.error("Franjas horarias inválidas en la base de datos, se usa la jornada predeterminada: {}", e.getMessage());
+            }
+        }
+        cached = new CachedSchedule(loaded, version);
+        return loaded;
+    }
+
+    private List<TimeSlotDTO> toDTOs(BellSchedule bellSchedule) {
+        return bellSchedule.getSlots().stream()
+            .map(slot -> new TimeSlotDTO(HH_MM.format(slot.getStart()), HH_MM.format(slot.getEnd()), slot.getBreakLabel()))
+            .collect(Collectors.toList());
+    }
+
+    private final class CachedSchedule {
+        private final BellSchedule schedule;
+        private final long version;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private CachedSchedule(BellSchedule schedule, long version) {
+            this.schedule = schedule;
+            this.version = version;
+        }
+
+        private boolean isFresh(long minVersion) {
+            return version >= minVersion && System.currentTimeMillis() - loadedAt < cacheTtlMillis;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Service.BellSchedule.Slot;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cuadrícula franja × día de un horario, compartida por todas las estrategias de exportación.
+ * Los horarios se indexan una sola vez en un arreglo [franja][día]: cada celda se lee en O(1)
+ * en lugar de recorrer la lista completa por cada celda.
+ */
+public final class TimetableGrid {
+
+    public static final String[] DAYS = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes"};
+
+    private static final Map<String, Integer> DAY_INDEX = Map.of(
+        "Lunes", 0, "Martes", 1, "Miércoles", 2, "Jueves", 3, "Viernes", 4);
+
+    private final BellSchedule bellSchedule;
+    private final schedule[][] cells;
+
+    private TimetableGrid(BellSchedule bellSchedule, schedule[][] cells) {
+        this.bellSchedule = bellSchedule;
+        this.cells = cells;
+    }
+
+    /**
+     * Indexa los horarios en la jornada predeterminada
+     */
+    public static TimetableGrid of(List<schedule> schedules) {
+        return of(schedules, BellSchedule.DEFAULT);
+    }
+
+    /**
+     * Indexa los horarios en la jornada dada. Cada horario va a la franja que contiene su hora de inicio;
+     * los que caen fuera de la jornada agregan su propia fila. Si dos caen en la misma celda
+     * se conserva el primero de la lista.
+     */
+    public static TimetableGrid of(List<schedule> schedules, BellSchedule bellSchedule) {
+        BellSchedule rows = bellSchedule.coveringAll(schedules);
+        schedule[][] cells = new schedule[rows.size()][DAYS.length];
+        for (schedule s : schedules) {
+            Integer day = s.getDay() != null ? DAY_INDEX.get(s.getDay()) : null;
+            int slot = rows.indexOf(s.getStartTime());
+            if (day != null && slot >= 0 && cells[slot][day] == null) {
+                cells[slot][day] = s;
+            }
+        }
+        return new TimetableGrid(rows, cells);
+    }
+
+    public int getSlotCount() {
+        return bellSchedule.size();
+    }
+
+    public List<Slot> getSlots() {
+        return bellSchedule.getSlots();
+    }
+
+    public Slot getSlot(int slot) {
+        return bellSchedule.getSlot(slot);
+    }
+
+    public schedule get(int slot, int day) {
+        return cells[slot][day];
+    }
+
+    public boolean isBreak(int slot) {
+        return bellSchedule.getSlot(slot).isBreak();
+    }
+
+    /**
+     * Texto de la celda: la etiqueta de la franja si es descanso, "docente/materia" si hay clase
+     */
+    public String cellText(int slot, int day) {
+        Slot s = bellSchedule.getSlot(slot);
+        if (s.isBreak()) {
+            return s.getBreakLabel();
+        }
+        schedule cell = cells[slot][day];
+        if (cell == null) {
+            return "";
+        }
+        String docente = cell.getTeacherId() != null ? cell.getTeacherId().getTeacherName() : "";
+        String materia = cell.getSubjectId() != null ? cell.getSubjectId().getSubjectName() : "";
+        return docente + "/" + materia;
+    }
+}
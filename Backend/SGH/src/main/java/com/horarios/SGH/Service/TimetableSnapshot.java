@@ -0,0 +1,168 @@
+package com.horarios.SGH.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.horarios.SGH.DTO.ScheduleDTO;
+import com.horarios.SGH.DTO.ScheduleRowDTO;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Foto inmutable de todos los horarios, indexada por curso, profesor y día, con el JSON de cada
+ * curso y profesor ya serializado. Nunca se modifica: TimetableSnapshotService construye una nueva
+ * a partir de la anterior y la publica con un intercambio atómico, así las lecturas no necesitan locks.
+ * Los ScheduleDTO son compartidos entre lecturas y no deben modificarse.
+ */
+public final class TimetableSnapshot {
+
+    private static final byte[] EMPTY_JSON = "[]".getBytes(StandardCharsets.UTF_8);
+
+    @Getter
+    private final long version;
+    private final Map<Integer, ScheduleRowDTO> rows;
+    private final List<ScheduleDTO> all;
+    private final Map<Integer, List<ScheduleDTO>> byCourse;
+    private final Map<Integer, List<ScheduleDTO>> byTeacher;
+    private final Map<String, List<ScheduleDTO>> byDay;
+    private final Map<Integer, byte[]> courseJson;
+    private final Map<Integer, byte[]> teacherJson;
+    private final byte[] allJson;
+
+    private TimetableSnapshot(long version, Map<Integer, ScheduleRowDTO> rows, List<ScheduleDTO> all,
+                              Map<Integer, List<ScheduleDTO>> byCourse, Map<Integer, List<ScheduleDTO>> byTeacher,
+                              Map<String, List<ScheduleDTO>> byDay, Map<Integer, byte[]> courseJson,
+                              Map<Integer, byte[]> teacherJson, byte[] allJson) {
+        this.version = version;
+        this.rows = rows;
+        this.all = all;
+        this.byCourse = byCourse;
+        this.byTeacher = byTeacher;
+        this.byDay = byDay;
+        this.courseJson = courseJson;
+        this.teacherJson = teacherJson;
+        this.allJson = allJson;
+    }
+
+    /**
+     * Construye la foto completa desde cero
+     */
+    static TimetableSnapshot build(long version, List<ScheduleRowDTO> rows, ObjectMapper mapper) {
+        Map<Integer, ScheduleRowDTO> byId = new LinkedHashMap<>();
+        rows.forEach(row -> byId.put(row.getId(), row));
+        return assemble(version, byId, null, null, null, mapper);
+    }
+
+    /**
+     * Nueva foto con los horarios de los cursos y profesores indicados reemplazados por los recargados.
+     * El JSON del resto de cursos y profesores se reutiliza tal cual.
+     */
+    TimetableSnapshot withChanges(long newVersion, Set<Integer> courseIds, Set<Integer> teacherIds,
+                                  Collection<ScheduleRowDTO> reloaded, ObjectMapper mapper) {
+        Map<Integer, ScheduleRowDTO> next = new LinkedHashMap<>();
+        Set<Integer> dirtyCourses = new HashSet<>(courseIds);
+        Set<Integer> dirtyTeachers = new HashSet<>(teacherIds);
+        rows.values().forEach(row -> {
+            if (courseIds.contains(row.getCourseId()) || teacherIds.contains(row.getTeacherId())) {
+                // El horario se recarga o desapareció: su curso y profesor deben volver a serializarse
+                dirtyCourses.add(row.getCourseId());
+                dirtyTeachers.add(row.getTeacherId());
+            } else {
+                next.put(row.getId(), row);
+            }
+        });
+        reloaded.forEach(row -> {
+            next.put(row.getId(), row);
+            dirtyCourses.add(row.getCourseId());
+            dirtyTeachers.add(row.getTeacherId());
+        });
+        return assemble(newVersion, next, this, dirtyCourses, dirtyTeachers, mapper);
+    }
+
+    public List<ScheduleDTO> getAll() {
+        return all;
+    }
+
+    public List<ScheduleDTO> getByCourse(int courseId) {
+        return byCourse.getOrDefault(courseId, List.of());
+    }
+
+    public List<ScheduleDTO> getByTeacher(int teacherId) {
+        return byTeacher.getOrDefault(teacherId, List.of());
+    }
+
+    public List<ScheduleDTO> getByDay(String day) {
+        return byDay.getOrDefault(day, List.of());
+    }
+
+    public byte[] getAllJson() {
+        return allJson;
+    }
+
+    public byte[] getCourseJson(int courseId) {
+        return courseJson.getOrDefault(courseId, EMPTY_JSON);
+    }
+
+    public byte[] getTeacherJson(int teacherId) {
+        return teacherJson.getOrDefault(teacherId, EMPTY_JSON);
+    }
+
+    private static TimetableSnapshot assemble(long version, Map<Integer, ScheduleRowDTO> rows, TimetableSnapshot previous,
+                                              Set<Integer> dirtyCourses, Set<Integer> dirtyTeachers, ObjectMapper mapper) {
+        List<ScheduleDTO> all = new ArrayList<>(rows.size());
+        rows.values().stream()
+            .sorted(Comparator.comparing(ScheduleRowDTO::getId))
+            .forEach(row -> all.add(row.toScheduleDTO()));
+
+        Map<Integer, List<ScheduleDTO>> byCourse = group(all, ScheduleDTO::getCourseId);
+        Map<Integer, List<ScheduleDTO>> byTeacher = group(all, ScheduleDTO::getTeacherId);
+        Map<String, List<ScheduleDTO>> byDay = group(all, ScheduleDTO::getDay);
+
+        return new TimetableSnapshot(version, Collections.unmodifiableMap(rows), Collections.unmodifiableList(all),
+            byCourse, byTeacher, byDay,
+            serialize(byCourse, previous != null ? previous.courseJson : null, dirtyCourses, mapper),
+            serialize(byTeacher, previous != null ? previous.teacherJson : null, dirtyTeachers, mapper),
+            toJson(all, mapper));
+    }
+
+    private static <K> Map<K, List<ScheduleDTO>> group(List<ScheduleDTO> all, Function<ScheduleDTO, K> keyOf) {
+        Map<K, List<ScheduleDTO>> groups = new HashMap<>();
+        for (ScheduleDTO dto : all) {
+            groups.computeIfAbsent(keyOf.apply(dto), key -> new ArrayList<>()).add(dto);
+        }
+        groups.replaceAll((key, list) -> Collections.unmodifiableList(list));
+        return Collections.unmodifiableMap(groups);
+    }
+
+    /**
+     * Serializa solo los grupos modificados; los demás conservan el JSON de la foto anterior
+     */
+    private static Map<Integer, byte[]> serialize(Map<Integer, List<ScheduleDTO>> groups, Map<Integer, byte[]> previous,
+                                                  Set<Integer> dirty, ObjectMapper mapper) {
+        Map<Integer, byte[]> json = new HashMap<>();
+        groups.forEach((id, list) -> {
+            byte[] reused = previous != null && !dirty.contains(id) ? previous.get(id) : null;
+            json.put(id, reused != null ? reused : toJson(list, mapper));
+        });
+        return Collections.unmodifiableMap(json);
+    }
+
+    private static byte[] toJson(List<ScheduleDTO> list, ObjectMapper mapper) {
+        try {
+            return mapper.writeValueAsBytes(list);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el horario", e);
+        }
+    }
+}
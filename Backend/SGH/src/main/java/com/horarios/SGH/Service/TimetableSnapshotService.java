@@ -0,0 +1,166 @@
+package com.horarios.SGH.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.horarios.SGH.DTO.ScheduleDTO;
+import com.horarios.SGH.DTO.ScheduleRowDTO;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Repository.IScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sirve las consultas de horarios desde una TimetableSnapshot en memoria. Las lecturas solo leen
+ * la referencia actual (sin locks ni base de datos); las escrituras de ScheduleService avisan tras
+ * el commit y se publica una foto nueva que recarga únicamente los cursos y profesores afectados.
+ * La foto es local a cada nodo: una recarga completa periódica recoge cambios hechos en otros nodos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimetableSnapshotService {
+
+    private final IScheduleRepository scheduleRepo;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<TimetableSnapshot> current = new AtomicReference<>();
+    // Serializa las reconstrucciones para que ninguna publique una foto más vieja que otra
+    private final Object rebuildLock = new Object();
+
+    /**
+     * Foto vigente; la primera llamada la construye si el arranque aún no lo hizo
+     */
+    public TimetableSnapshot current() {
+        TimetableSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (rebuildLock) {
+            snapshot = current.get();
+            return snapshot != null ? snapshot : rebuild();
+        }
+    }
+
+    public byte[] courseJson(int courseId) {
+        return current().getCourseJson(courseId);
+    }
+
+    public byte[] teacherJson(int teacherId) {
+        return current().getTeacherJson(teacherId);
+    }
+
+    public byte[] allJson() {
+        return current().getAllJson();
+    }
+
+    public List<ScheduleDTO> byCourse(int courseId) {
+        return current().getByCourse(courseId);
+    }
+
+    public List<ScheduleDTO> byTeacher(int teacherId) {
+        return current().getByTeacher(teacherId);
+    }
+
+    public List<ScheduleDTO> all() {
+        return current().getAll();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            current();
+        } catch (Exception e) {
+            // Sin foto se construirá en la primera consulta
+            log.warn("No se pudo precargar la instantánea de horarios: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registra horarios creados, modificados o eliminados. Los ids se toman ahora (antes de que la
+     * entidad cambie de curso o profesor) y la foto se actualiza tras el commit.
+     */
+    public void schedulesChanged(Collection<schedule> schedules) {
+        Set<Integer> courseIds = new HashSet<>();
+        Set<Integer> teacherIds = new HashSet<>();
+        for (schedule s : schedules) {
+            if (s.getCourseId() != null) {
+                courseIds.add(s.getCourseId().getId());
+            }
+            if (s.getTeacherId() != null) {
+                teacherIds.add(s.getTeacherId().getId());
+            }
+        }
+        if (courseIds.isEmpty() && teacherIds.isEmpty()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> update(courseIds, teacherIds));
+    }
+
+    /**
+     * Reconstruye toda la foto tras el commit (borrados masivos, cambios de nombres)
+     */
+    public void refreshAll() {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (rebuildLock) {
+                rebuild();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.timetable.snapshot.refresh-interval:60000}",
+               initialDelayString = "${app.timetable.snapshot.refresh-interval:60000}")
+    public void periodicRefresh() {
+        if (current.get() == null) {
+            return;
+        }
+        try {
+            synchronized (rebuildLock) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            // Se sigue sirviendo la foto anterior
+            log.warn("No se pudo recargar la instantánea de horarios: {}", e.getMessage());
+        }
+    }
+
+    private void update(Set<Integer> courseIds, Set<Integer> teacherIds) {
+        synchronized (rebuildLock) {
+            TimetableSnapshot previous = current.get();
+            if (previous == null) {
+                // Aún no se ha construido: la primera lectura la cargará completa
+                return;
+            }
+            try {
+                Map<Integer, ScheduleRowDTO> reloaded = new LinkedHashMap<>();
+                courseIds.forEach(id -> scheduleRepo.findRowsByCourseId(id).forEach(row -> reloaded.put(row.getId(), row)));
+                teacherIds.forEach(id -> scheduleRepo.findRowsByTeacherId(id).forEach(row -> reloaded.put(row.getId(), row)));
+                current.set(previous.withChanges(previous.getVersion() + 1, courseIds, teacherIds,
+                    new ArrayList<>(reloaded.values()), objectMapper));
+            } catch (Exception e) {
+                // Mejor descartar la foto que servir datos viejos: la próxima lectura la reconstruye
+                log.warn("No se pudo actualizar la instantánea de horarios: {}", e.getMessage());
+                current.set(null);
+            }
+        }
+    }
+
+    private TimetableSnapshot rebuild() {
+        TimetableSnapshot previous = current.get();
+        long version = previous == null ? 1 : previous.getVersion() + 1;
+        TimetableSnapshot snapshot = TimetableSnapshot.build(version, scheduleRepo.findAllRows(), objectMapper);
+        current.set(snapshot);
+        return snapshot;
+    }
+}
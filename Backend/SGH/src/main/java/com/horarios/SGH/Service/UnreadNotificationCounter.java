@@ -0,0 +1,277 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Repository.IInAppNotificationRepository;
+import com.horarios.SGH.Repository.IInAppNotificationRepository.UnreadSummary;
+import com.horarios.SGH.Repository.Iusers;
+import com.horarios.SGH.Service.BroadcastNotificationService.UnreadBroadcasts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * Contadores de notificaciones In-App no leídas por usuario, mantenidos en memoria.
+ * Se cargan desde la base de datos la primera vez que se consultan, se actualizan de forma
+ * incremental en cada envío o lectura y se reconcilian periódicamente contra la tabla.
+ * Cada contador guarda además la próxima expiración entre sus no leídas: al vencer, se recarga.
+ * El conteo incluye las difusiones sin leer dirigidas al rol o curso del usuario.
+ * Los cambios se aplican tras el commit para no contar filas que terminan en rollback.
+ * Una carga o reconciliación solo se guarda si no se aplicó ningún cambio al usuario mientras
+ * leía la base de datos; si lo hubo, se descarta y el contador se recarga en la siguiente consulta.
+ */
+@Slf4j
+@Component
+public class UnreadNotificationCounter {
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+    private static final int CHANGE_STRIPES = 1024;
+
+    @Autowired
+    private IInAppNotificationRepository inAppNotificationRepository;
+
+    @Autowired
+    private Iusers usersRepository;
+
+    @Autowired
+    private BroadcastNotificationService broadcastService;
+
+    @Value("${app.notification.unread.max-users:50000}")
+    private int maxUsers;
+
+    // ConcurrentHashMap bloquea por bin, así que las actualizaciones de distintos usuarios no compiten
+    private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+    // Cambios aplicados por franja de usuarios y a todos; sirven para detectar cargas desactualizadas
+    private final AtomicLongArray changes = new AtomicLongArray(CHANGE_STRIPES);
+    private final AtomicLong globalChanges = new AtomicLong();
+
+    /**
+     * Conteo de no leídas de un usuario. Solo consulta la base de datos si el contador
+     * no está cargado o si alguna de sus notificaciones ya expiró.
+     */
+    public long get(Integer userId) {
+        LocalDateTime now = LocalDateTime.now();
+        Counter counter = counters.get(userId);
+        if (counter != null && !counter.isStale(now)) {
+            return counter.count;
+        }
+        return load(userId, now).count;
+    }
+
+    /**
+     * Suma una notificación no leída al contador del usuario (si está cargado)
+     */
+    public void increment(Integer userId, LocalDateTime expiresAt) {
+        TransactionHooks.afterCommit(() -> apply(userId, counter -> counter.plus(expiresAt)));
+    }
+
+    /**
+     * Resta una notificación leída del contador del usuario (si está cargado)
+     */
+    public void decrement(Integer userId) {
+        TransactionHooks.afterCommit(() -> apply(userId, Counter::minusOne));
+    }
+
+    /**
+     * Deja el contador del usuario en cero (marcar todas como leídas)
+     */
+    public void reset(Integer userId) {
+        TransactionHooks.afterCommit(() -> apply(userId, counter -> new Counter(0, null)));
+    }
+
+    /**
+     * Suma una difusión a los contadores cargados de su audiencia (rol y/o curso; ambos null: todos).
+     * Solo consulta los IDs de la audiencia si hay contadores cargados y la difusión no es para todos.
+     */
+    public void incrementAudience(String targetRole, Integer targetCourseId, LocalDateTime expiresAt) {
+        if (targetRole == null && targetCourseId == null) {
+            TransactionHooks.afterCommit(() -> {
+                globalChanges.incrementAndGet();
+                counters.replaceAll((id, counter) -> counter.plus(expiresAt));
+            });
+            return;
+        }
+        if (counters.isEmpty()) {
+            // Una carga en curso podría no ver la difusión: se descartan todas
+            TransactionHooks.afterCommit(globalChanges::incrementAndGet);
+            return;
+        }
+        List<Integer> audience = usersRepository.findIdsByAudience(targetRole, targetCourseId);
+        TransactionHooks.afterCommit(() -> audience.forEach(userId -> apply(userId, counter -> counter.plus(expiresAt))));
+    }
+
+    /**
+     * Descarta los contadores de los usuarios indicados tras el commit; se recargan bajo demanda
+     */
+    public void invalidate(Collection<Integer> userIds) {
+        if (!userIds.isEmpty()) {
+            TransactionHooks.afterCommit(() -> userIds.forEach(userId -> {
+                changes.incrementAndGet(stripe(userId));
+                counters.remove(userId);
+            }));
+        }
+    }
+
+    /**
+     * Descarta todos los contadores; se recargan bajo demanda (archivado o purga masiva)
+     */
+    public void invalidateAll() {
+        TransactionHooks.afterCommit(() -> {
+            globalChanges.incrementAndGet();
+            counters.clear();
+        });
+    }
+
+    /**
+     * Recalcula los contadores cargados contra la base de datos para corregir cualquier desvío
+     */
+    @Scheduled(fixedDelayString = "${app.notification.unread.reconcile-interval:300000}",
+               initialDelayString = "${app.notification.unread.reconcile-interval:300000}")
+    public void reconcile() {
+        List<Integer> userIds = new ArrayList<>(counters.keySet());
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int corrected = 0;
+        try {
+            for (int from = 0; from < userIds.size(); from += RECONCILE_BATCH_SIZE) {
+                List<Integer> batch = userIds.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, userIds.size()));
+                Map<Integer, Long> stamps = new HashMap<>();
+                batch.forEach(userId -> stamps.put(userId, changeStamp(userId)));
+                Map<Integer, Counter> fresh = new HashMap<>();
+                for (UnreadSummary summary : inAppNotificationRepository.summarizeUnreadByUserIds(batch, now)) {
+                    fresh.put(summary.getUserId(), new Counter(summary.getUnreadCount(), summary.getNextExpiry()));
+                }
+                Map<Integer, UnreadBroadcasts> broadcasts =
+                    broadcastService.unreadFor(usersRepository.findAllByIdWithDetails(batch));
+                for (Integer userId : batch) {
+                    Counter expected = fresh.getOrDefault(userId, new Counter(0, null))
+                        .plus(broadcasts.getOrDefault(userId, UnreadBroadcasts.NONE));
+                    Counter previous = counters.get(userId);
+                    if (previous != null && storeIfUnchanged(userId, stamps.get(userId), expected, true)
+                        && previous.count != expected.count) {
+                        corrected++;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error reconciliando contadores de no leídas: {}", e.getMessage(), e);
+            return;
+        }
+
+        if (corrected > 0) {
+            log.info("Reconciliación de no leídas: {} contadores corregidos de {}", corrected, userIds.size());
+        }
+    }
+
+    private Counter load(Integer userId, LocalDateTime now) {
+        long stamp = changeStamp(userId);
+        List<UnreadSummary> summaries = inAppNotificationRepository
+            .summarizeUnreadByUserIds(Collections.singletonList(userId), now);
+        Counter counter = summaries.isEmpty()
+            ? new Counter(0, null)
+            : new Counter(summaries.get(0).getUnreadCount(), summaries.get(0).getNextExpiry());
+        users user = usersRepository.findById(userId).orElse(null);
+        if (user != null) {
+            counter = counter.plus(broadcastService.unreadFor(user));
+        }
+
+        if (counters.size() >= maxUsers && !counters.containsKey(userId)) {
+            // Sin espacio: se responde con el valor leído sin cachearlo
+            return counter;
+        }
+        storeIfUnchanged(userId, stamp, counter, false);
+        return counter;
+    }
+
+    /**
+     * Aplica un cambio al contador del usuario (si está cargado) y lo registra para las cargas en curso
+     */
+    private void apply(Integer userId, UnaryOperator<Counter> change) {
+        changes.incrementAndGet(stripe(userId));
+        counters.computeIfPresent(userId, (id, counter) -> change.apply(counter));
+    }
+
+    /**
+     * Guarda un contador leído de la base de datos solo si no se aplicaron cambios desde stamp.
+     * La comprobación ocurre dentro de compute: un cambio posterior se aplica sobre el valor guardado.
+     *
+     * @return true si se guardó
+     */
+    private boolean storeIfUnchanged(Integer userId, long stamp, Counter loaded, boolean onlyIfPresent) {
+        boolean[] stored = new boolean[1];
+        counters.compute(userId, (id, current) -> {
+            if ((onlyIfPresent && current == null) || changeStamp(id) != stamp) {
+                return current;
+            }
+            stored[0] = true;
+            return loaded;
+        });
+        return stored[0];
+    }
+
+    private long changeStamp(Integer userId) {
+        return globalChanges.get() + changes.get(stripe(userId));
+    }
+
+    private static int stripe(Integer userId) {
+        return Math.floorMod(userId.hashCode(), CHANGE_STRIPES);
+    }
+
+    /**
+     * Valor inmutable de un contador; se reemplaza completo en cada cambio
+     */
+    private static final class Counter {
+        private final long count;
+        private final LocalDateTime nextExpiry;
+
+        private Counter(long count, LocalDateTime nextExpiry) {
+            this.count = count;
+            this.nextExpiry = nextExpiry;
+        }
+
+        private boolean isStale(LocalDateTime now) {
+            return nextExpiry != null && !nextExpiry.isAfter(now);
+        }
+
+        private Counter plus(LocalDateTime expiresAt) {
+            LocalDateTime next = nextExpiry;
+            if (expiresAt != null && (next == null || expiresAt.isBefore(next))) {
+                next = expiresAt;
+            }
+            return new Counter(count + 1, next);
+        }
+
+        private Counter plus(UnreadBroadcasts broadcasts) {
+            if (broadcasts.getCount() == 0) {
+                return this;
+            }
+            LocalDateTime next = nextExpiry;
+            LocalDateTime expiresAt = broadcasts.getNextExpiry();
+            if (expiresAt != null && (next == null || expiresAt.isBefore(next))) {
+                next = expiresAt;
+            }
+            return new Counter(count + broadcasts.getCount(), next);
+        }
+
+        private Counter minusOne() {
+            return new Counter(Math.max(0, count - 1), nextExpiry);
+        }
+    }
+}
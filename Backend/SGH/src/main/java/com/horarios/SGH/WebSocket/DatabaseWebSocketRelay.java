@@ -0,0 +1,156 @@
+package com.horarios.SGH.WebSocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.horarios.SGH.Model.WebSocketRelayMessage;
+import com.horarios.SGH.Repository.IWebSocketRelayMessageRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Relay entre nodos usando una tabla compartida.
+ * Publicar entrega de inmediato a las sesiones locales y deja una fila para los demás nodos,
+ * que la leen en su siguiente sondeo. Cada nodo lee por ID a partir del mayor ya visto; como los
+ * IDs IDENTITY pueden confirmarse fuera de orden, los huecos que deja el salto se vuelven a buscar
+ * durante la ventana de relectura (lookback) y después se dan por perdidos (transacción revertida).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.websocket.relay", havingValue = "database")
+public class DatabaseWebSocketRelay implements WebSocketRelay {
+
+    private static final int POLL_BATCH_SIZE = 500;
+    private static final int MAX_PENDING_GAPS = 1000;
+
+    @Autowired
+    private IWebSocketRelayMessageRepository relayMessageRepository;
+
+    @Autowired
+    private WebSocketPresenceRegistry presenceRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.websocket.relay.lookback:10000}")
+    private long lookbackMillis;
+
+    @Value("${app.websocket.relay.message-ttl:300000}")
+    private long messageTtlMillis;
+
+    private volatile ToIntFunction<RelayEnvelope> localDelivery = envelope -> 0;
+
+    // Transacción propia: publish suele llamarse desde afterCommit, cuando la transacción del llamador ya terminó
+    private TransactionTemplate requiresNew;
+
+    // Mayor ID leído; null hasta el primer sondeo
+    private Long highWaterMark;
+
+    // IDs por debajo de highWaterMark que aún no se habían confirmado, con el momento en que se detectaron
+    private final Map<Long, Long> pendingGaps = new LinkedHashMap<>();
+
+    @PostConstruct
+    void init() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public int publish(RelayEnvelope envelope) {
+        int queued = localDelivery.applyAsInt(envelope);
+        try {
+            WebSocketRelayMessage message = new WebSocketRelayMessage(presenceRegistry.getNodeId(),
+                objectMapper.writeValueAsString(envelope));
+            requiresNew.executeWithoutResult(status -> relayMessageRepository.save(message));
+        } catch (Exception e) {
+            log.warn("Error publicando mensaje WebSocket para otros nodos: {}", e.getMessage());
+        }
+        return queued;
+    }
+
+    @Override
+    public void subscribe(ToIntFunction<RelayEnvelope> localDelivery) {
+        this.localDelivery = localDelivery;
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.relay.poll-interval:1000}")
+    public synchronized void poll() {
+        try {
+            if (highWaterMark == null) {
+                // Al arrancar solo interesa lo que se publique desde ahora
+                Long max = relayMessageRepository.findMaxMessageId();
+                highWaterMark = max != null ? max : 0L;
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (!pendingGaps.isEmpty()) {
+                for (WebSocketRelayMessage message : relayMessageRepository.findAllById(new ArrayList<>(pendingGaps.keySet()))) {
+                    pendingGaps.remove(message.getMessageId());
+                    deliver(message);
+                }
+                pendingGaps.values().removeIf(noticedAt -> now - noticedAt > lookbackMillis);
+            }
+
+            List<WebSocketRelayMessage> messages;
+            do {
+                messages = relayMessageRepository.findAfterId(highWaterMark, PageRequest.of(0, POLL_BATCH_SIZE));
+                for (WebSocketRelayMessage message : messages) {
+                    long id = message.getMessageId();
+                    for (long missing = highWaterMark + 1; missing < id && pendingGaps.size() < MAX_PENDING_GAPS; missing++) {
+                        pendingGaps.put(missing, now);
+                    }
+                    highWaterMark = id;
+                    deliver(message);
+                }
+            } while (messages.size() == POLL_BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Error leyendo mensajes WebSocket de otros nodos: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.relay.cleanup-interval:60000}")
+    public void cleanup() {
+        try {
+            relayMessageRepository.deleteOlderThan(LocalDateTime.now().minus(Duration.ofMillis(messageTtlMillis)));
+        } catch (Exception e) {
+            log.warn("Error limpiando mensajes del relay WebSocket: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Entrega un mensaje de otro nodo; los propios ya se entregaron al publicarlos
+     */
+    private void deliver(WebSocketRelayMessage message) {
+        if (presenceRegistry.getNodeId().equals(message.getOriginNode())) {
+            return;
+        }
+        try {
+            localDelivery.applyAsInt(objectMapper.readValue(message.getEnvelope(), RelayEnvelope.class));
+        } catch (Exception e) {
+            log.warn("Mensaje {} del relay WebSocket descartado: {}", message.getMessageId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.horarios.SGH.WebSocket;
+
+import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Repository.Iusers;
+import com.horarios.SGH.Service.TokenRevocationService;
+import com.horarios.SGH.jwt.JwtTokenProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Autentica el handshake WebSocket con el mismo JWT que usa la API REST.
+ * El token llega en la cabecera Authorization o, desde navegadores (que no permiten
+ * cabeceras en WebSocket), en el parámetro de consulta "token".
+ */
+@Slf4j
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+    public static final String ROLE_ATTRIBUTE = "roleName";
+    public static final String COURSE_ID_ATTRIBUTE = "courseId";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Iusers userRepository;
+
+    public JwtHandshakeInterceptor(JwtTokenProvider jwtTokenProvider,
+                                   UserDetailsService userDetailsService,
+                                   TokenRevocationService tokenRevocationService,
+                                   Iusers userRepository) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = resolveToken(request);
+        if (token == null || tokenRevocationService.isTokenRevoked(token)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        try {
+            String username = jwtTokenProvider.getUsernameFromToken(token);
+            if (username == null) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (!jwtTokenProvider.validateToken(token, userDetails)) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+
+            Optional<users> user = userRepository.findByUserName(username);
+            if (user.isEmpty()) {
+                // Usuarios sin registro en BD (p. ej. el master) no reciben notificaciones In-App
+                response.setStatusCode(HttpStatus.FORBIDDEN);
+                return false;
+            }
+
+            // Rol y curso quedan en la sesión para poder difundir por audiencia sin consultar la BD
+            attributes.put(USER_ID_ATTRIBUTE, String.valueOf(user.get().getUserId()));
+            attributes.put(ROLE_ATTRIBUTE, user.get().getRole().getRoleName());
+            if (user.get().getCourse() != null) {
+                attributes.put(COURSE_ID_ATTRIBUTE, user.get().getCourse().getId());
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Handshake WebSocket rechazado: {}", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private String resolveToken(ServerHttpRequest request) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            String token = jwtTokenProvider.resolveToken(servletRequest.getServletRequest());
+            if (token != null) {
+                return token;
+            }
+            String queryToken = servletRequest.getServletRequest().getParameter("token");
+            if (queryToken != null && !queryToken.isBlank()) {
+                return queryToken;
+            }
+        }
+        return null;
+    }
+}
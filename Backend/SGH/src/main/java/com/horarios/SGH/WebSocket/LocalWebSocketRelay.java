@@ -0,0 +1,26 @@
+package com.horarios.SGH.WebSocket;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Relay para un solo nodo: entrega directamente a las sesiones locales
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.relay", havingValue = "local", matchIfMissing = true)
+public class LocalWebSocketRelay implements WebSocketRelay {
+
+    private volatile ToIntFunction<RelayEnvelope> localDelivery = envelope -> 0;
+
+    @Override
+    public int publish(RelayEnvelope envelope) {
+        return localDelivery.applyAsInt(envelope);
+    }
+
+    @Override
+    public void subscribe(ToIntFunction<RelayEnvelope> localDelivery) {
+        this.localDelivery = localDelivery;
+    }
+}
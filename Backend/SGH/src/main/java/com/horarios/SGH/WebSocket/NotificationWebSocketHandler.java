@@ -0,0 +1,52 @@
+package com.horarios.SGH.WebSocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * Handler del canal de notificaciones. Registra cada sesión autenticada en
+ * NotificationWebSocketService, que le asigna su propia cola de salida.
+ * El canal es de servidor a cliente: los mensajes entrantes se ignoran.
+ */
+@Slf4j
+@Component
+public class NotificationWebSocketHandler extends TextWebSocketHandler {
+
+    private final NotificationWebSocketService webSocketService;
+
+    public NotificationWebSocketHandler(NotificationWebSocketService webSocketService) {
+        this.webSocketService = webSocketService;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        String userId = (String) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE);
+        if (userId == null) {
+            closeQuietly(session, CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+        webSocketService.registerUserSession(userId, session);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("Error de transporte WebSocket en sesión {}: {}", session.getId(), exception.getMessage());
+        webSocketService.removeSessionById(session.getId());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        webSocketService.removeSessionById(session.getId());
+    }
+
+    private void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            log.debug("Error cerrando sesión WebSocket {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.horarios.SGH.WebSocket;
 
-import com.horarios.SGH.DTO.InAppNotificationDTO;
+import com.horarios.SGH.DTO.InAppNotificationResponseDTO;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 
 /**
  * Servicio WebSocket para notificaciones en tiempo real
@@ -22,29 +31,48 @@ public class NotificationWebSocketService {
     @Autowired
     private ObjectMapper objectMapper;
     
-    // Mapa de sesiones activas por usuario (userId -> WebSocketSession)
-    private final Map<String, WebSocketSession> userSessions = new ConcurrentHashMap<>();
+    @Autowired
+    @Qualifier("webSocketWriterExecutor")
+    private Executor writerExecutor;
+    
+    @Autowired
+    @Qualifier("connectionCloseExecutor")
+    private Executor closeExecutor;
+    
+    @Value("${app.websocket.send-time-limit:10000}")
+    private long sendTimeLimit;
+    
+    @Value("${app.websocket.max-queued-messages:256}")
+    private int maxQueuedMessages;
+    
+    @Autowired
+    private WebSocketRelay relay;
+    
+    @Autowired
+    private WebSocketPresenceRegistry presenceRegistry;
+    
+    @Autowired
+    private SseNotificationService sseService;
     
-    // Mapa de usuarios por sesión (sessionId -> userId)
-    private final Map<String, String> sessionUsers = new ConcurrentHashMap<>();
+    // Sesiones activas por usuario (userId -> colas de salida); un usuario puede tener web y móvil abiertos a la vez
+    private final Map<String, Set<SessionOutbox>> userSessions = new ConcurrentHashMap<>();
+    
+    // Cola de salida por sesión (sessionId -> outbox)
+    private final Map<String, SessionOutbox> sessionOutboxes = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void subscribeToRelay() {
+        relay.subscribe(this::deliverLocally);
+    }
     
     /**
      * Envía notificación a un usuario específico
      */
-    public void sendNotificationToUser(String userId, InAppNotificationDTO notification) {
-        WebSocketSession session = userSessions.get(userId);
-        if (session != null && session.isOpen()) {
-            try {
-                String message = createWebSocketMessage("new_notification", notification);
-                session.sendMessage(new TextMessage(message));
-                log.debug("Notificación enviada en tiempo real a usuario {}: {}", userId, notification.getTitle());
-            } catch (IOException e) {
-                log.warn("Error enviando notificación WebSocket a usuario {}: {}", userId, e.getMessage());
-                // Remover sesión cerrada
-                removeUserSession(userId);
-            }
+    public void sendNotificationToUser(String userId, InAppNotificationResponseDTO notification) {
+        if (sendToUser(userId, createWebSocketMessage("new_notification", notification), null) > 0) {
+            log.debug("Notificación encolada en tiempo real para usuario {}: {}", userId, notification.getTitle());
         } else {
-            log.debug("Usuario {} no tiene sesión WebSocket activa, notificación no enviada en tiempo real", userId);
+            log.debug("Usuario {} sin sesión WebSocket en este nodo; la notificación sigue por el relay", userId);
         }
     }
     
@@ -52,17 +80,9 @@ public class NotificationWebSocketService {
      * Marca una notificación como leída para un usuario
      */
     public void sendReadStatusToUser(String userId, Long notificationId, boolean isRead) {
-        WebSocketSession session = userSessions.get(userId);
-        if (session != null && session.isOpen()) {
-            try {
-                ReadStatusUpdate update = new ReadStatusUpdate(notificationId, isRead);
-                String message = createWebSocketMessage("read_status_update", update);
-                session.sendMessage(new TextMessage(message));
-                log.debug("Estado de lectura enviado a usuario {}: notification {} = {}", userId, notificationId, isRead);
-            } catch (IOException e) {
-                log.warn("Error enviando estado de lectura WebSocket a usuario {}: {}", userId, e.getMessage());
-                removeUserSession(userId);
-            }
+        ReadStatusUpdate update = new ReadStatusUpdate(notificationId, isRead);
+        if (sendToUser(userId, createWebSocketMessage("read_status_update", update), null) > 0) {
+            log.debug("Estado de lectura encolado para usuario {}: notification {} = {}", userId, notificationId, isRead);
         }
     }
     
@@ -70,96 +90,250 @@ public class NotificationWebSocketService {
      * Marca todas las notificaciones como leídas para un usuario
      */
     public void sendBulkReadStatusToUser(String userId) {
-        WebSocketSession session = userSessions.get(userId);
-        if (session != null && session.isOpen()) {
-            try {
-                String message = createWebSocketMessage("bulk_read_update", Map.of("success", true));
-                session.sendMessage(new TextMessage(message));
-                log.debug("Actualización masiva de lectura enviada a usuario {}", userId);
-            } catch (IOException e) {
-                log.warn("Error enviando actualización masiva WebSocket a usuario {}: {}", userId, e.getMessage());
-                removeUserSession(userId);
+        if (sendToUser(userId, createWebSocketMessage("bulk_read_update", Map.of("success", true)), null) > 0) {
+            log.debug("Actualización masiva de lectura encolada para usuario {}", userId);
+        }
+    }
+    
+    /**
+     * Envía el conteo actual de no leídas (badge). Si aún hay uno pendiente de enviar,
+     * se reemplaza: al cliente solo le importa el último valor.
+     */
+    public void sendUnreadCountToUser(String userId, long unreadCount) {
+        sendToUser(userId, createWebSocketMessage("unread_count", Map.of("count", unreadCount)), "unread_count");
+    }
+    
+    /**
+     * Envía un evento genérico (tipo + datos) a un usuario conectado
+     */
+    public void sendEventToUser(String userId, String type, Object data) {
+        if (sendToUser(userId, createWebSocketMessage(type, data), null) > 0) {
+            log.debug("Evento {} encolado para usuario {}", type, userId);
+        }
+    }
+    
+    /**
+     * Difunde un mensaje a un conjunto de usuarios
+     *
+     * @return número de sesiones en las que se encoló
+     */
+    public int broadcastToUsers(Collection<String> userIds, String type, Object data) {
+        return broadcastToAudience(userIds, null, null, type, data);
+    }
+    
+    /**
+     * Difunde un mensaje a todos los usuarios conectados con un rol
+     */
+    public int broadcastToRole(String roleName, String type, Object data) {
+        return broadcastToAudience(null, Set.of(roleName), null, type, data);
+    }
+    
+    /**
+     * Difunde un mensaje a todos los usuarios conectados de un curso
+     */
+    public int broadcastToCourse(Integer courseId, String type, Object data) {
+        return broadcastToAudience(null, null, Set.of(courseId), type, data);
+    }
+    
+    /**
+     * Difunde un mensaje a todos los usuarios conectados
+     */
+    public int broadcastToAll(String type, Object data) {
+        return relay.publish(RelayEnvelope.toAll(createWebSocketMessage(type, data)));
+    }
+    
+    /**
+     * Difunde un mensaje a la unión de usuarios, roles y cursos indicados (los null se ignoran).
+     * El payload se serializa una sola vez y viaja por el relay a todos los nodos; en cada nodo
+     * el mismo TextMessage inmutable se encola en cada sesión, y una sesión que pertenece
+     * a varias audiencias lo recibe una sola vez.
+     */
+    public int broadcastToAudience(Collection<String> userIds, Collection<String> roleNames,
+                                   Collection<Integer> courseIds, String type, Object data) {
+        Set<String> users = userIds == null ? Set.of() : new HashSet<>(userIds);
+        Set<String> roles = roleNames == null ? Set.of() : new HashSet<>(roleNames);
+        Set<Integer> courses = courseIds == null ? Set.of() : new HashSet<>(courseIds);
+        if (users.isEmpty() && roles.isEmpty() && courses.isEmpty()) {
+            return 0;
+        }
+        
+        int queued = relay.publish(RelayEnvelope.toAudience(users, roles, courses, createWebSocketMessage(type, data)));
+        log.debug("Difusión {} encolada en {} sesiones locales", type, queued);
+        return queued;
+    }
+    
+    /**
+     * Entrega un mensaje del relay a las sesiones WebSocket y a las conexiones SSE de este nodo
+     *
+     * @return número de conexiones locales en las que se encoló
+     */
+    int deliverLocally(RelayEnvelope envelope) {
+        return deliverToSessions(envelope) + sseService.deliver(envelope);
+    }
+    
+    private int deliverToSessions(RelayEnvelope envelope) {
+        TextMessage message = new TextMessage(envelope.getMessage());
+        if (envelope.isBroadcastAll()) {
+            return broadcast(outbox -> true, message, envelope.getCoalesceKey());
+        }
+        
+        Set<String> users = envelope.getUserIds() == null ? Set.of() : envelope.getUserIds();
+        Set<String> roles = envelope.getRoleNames() == null ? Set.of() : envelope.getRoleNames();
+        Set<Integer> courses = envelope.getCourseIds() == null ? Set.of() : envelope.getCourseIds();
+        if (roles.isEmpty() && courses.isEmpty()) {
+            // Camino rápido: solo usuarios, sin recorrer todas las sesiones
+            int queued = 0;
+            for (String userId : users) {
+                queued += enqueueForUser(userId, message, envelope.getCoalesceKey());
             }
+            return queued;
+        }
+        
+        Predicate<SessionOutbox> inAudience =
+            outbox -> envelope.reaches(outbox.getUserId(), outbox.getRoleName(), outbox.getCourseId());
+        return broadcast(inAudience, message, envelope.getCoalesceKey());
+    }
+    
+    /**
+     * Latido periódico a las sesiones de este nodo: un solo mensaje serializado, coalescido si el anterior
+     * sigue pendiente. Mantiene vivas las conexiones tras proxies y detecta sesiones atascadas.
+     */
+    @Scheduled(fixedRateString = "${app.websocket.heartbeat-interval:25000}")
+    public void sendHeartbeat() {
+        if (sessionOutboxes.isEmpty()) {
+            return;
         }
+        TextMessage ping = new TextMessage(createWebSocketMessage("ping", Map.of("timestamp", System.currentTimeMillis())));
+        broadcast(outbox -> true, ping, "ping");
     }
     
     /**
-     * Envía ping de conexión a un usuario
+     * Cierra las sesiones cuyo envío en curso superó el tiempo límite, aunque no llegue ningún
+     * mensaje nuevo: así un cliente que dejó de leer no retiene un hilo de escritura.
+     * Solo las marca y las retira; el cierre en sí corre en connectionCloseExecutor, así que esta tarea no bloquea.
      */
-    public void sendConnectionPing(String userId) {
-        WebSocketSession session = userSessions.get(userId);
-        if (session != null && session.isOpen()) {
-            try {
-                String message = createWebSocketMessage("ping", Map.of("timestamp", System.currentTimeMillis()));
-                session.sendMessage(new TextMessage(message));
-            } catch (IOException e) {
-                log.warn("Error enviando ping WebSocket a usuario {}: {}", userId, e.getMessage());
-                removeUserSession(userId);
+    @Scheduled(fixedDelayString = "${app.websocket.stall-check-interval:1000}")
+    public void closeStalledSessions() {
+        for (SessionOutbox outbox : sessionOutboxes.values()) {
+            if (outbox.closeIfStalled()) {
+                removeSessionById(outbox.getSessionId());
             }
         }
     }
     
     /**
-     * Registra una nueva sesión de usuario
+     * Registra una nueva sesión de usuario. Las sesiones previas del mismo usuario se conservan.
      */
     public void registerUserSession(String userId, WebSocketSession session) {
-        removeUserSession(userId); // Remover sesión anterior si existe
-        userSessions.put(userId, session);
-        sessionUsers.put(session.getId(), userId);
-        log.info("Usuario {} conectado por WebSocket", userId);
+        SessionOutbox outbox = new SessionOutbox(userId, session, writerExecutor, closeExecutor,
+            maxQueuedMessages, sendTimeLimit);
+        userSessions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(outbox);
+        sessionOutboxes.put(session.getId(), outbox);
+        presenceRegistry.sessionOpened(userId);
+        log.info("Usuario {} conectado por WebSocket (sesiones activas: {})", userId, userSessions.get(userId).size());
         
         // Confirmar conexión exitosa
-        try {
-            String connectionMessage = createWebSocketMessage("connection_confirmed", 
-                Map.of("userId", userId, "timestamp", System.currentTimeMillis()));
-            session.sendMessage(new TextMessage(connectionMessage));
-        } catch (IOException e) {
-            log.warn("Error confirmando conexión WebSocket para usuario {}: {}", userId, e.getMessage());
-        }
+        String connectionMessage = createWebSocketMessage("connection_confirmed",
+            Map.of("userId", userId, "timestamp", System.currentTimeMillis()));
+        outbox.enqueue(new TextMessage(connectionMessage), null);
     }
     
     /**
-     * Remueve la sesión de un usuario
+     * Remueve y cierra todas las sesiones de un usuario
      */
     public void removeUserSession(String userId) {
-        WebSocketSession session = userSessions.get(userId);
-        if (session != null) {
-            sessionUsers.remove(session.getId());
-            userSessions.remove(userId);
-            try {
-                session.close();
-            } catch (Exception e) {
-                log.warn("Error cerrando sesión WebSocket para usuario {}: {}", userId, e.getMessage());
+        Set<SessionOutbox> outboxes = userSessions.remove(userId);
+        if (outboxes != null) {
+            for (SessionOutbox outbox : outboxes) {
+                if (sessionOutboxes.remove(outbox.getSessionId()) != null) {
+                    presenceRegistry.sessionClosed(userId);
+                }
+                outbox.close(CloseStatus.NORMAL);
             }
             log.info("Usuario {} desconectado de WebSocket", userId);
         }
     }
     
     /**
-     * Remueve sesión por ID de sesión
+     * Remueve sesión por ID de sesión, sin afectar las demás sesiones del usuario
      */
     public void removeSessionById(String sessionId) {
-        String userId = sessionUsers.get(sessionId);
-        if (userId != null) {
-            removeUserSession(userId);
-        } else {
-            sessionUsers.remove(sessionId);
+        SessionOutbox outbox = sessionOutboxes.remove(sessionId);
+        if (outbox == null) {
+            return;
         }
+        presenceRegistry.sessionClosed(outbox.getUserId());
+        userSessions.computeIfPresent(outbox.getUserId(), (id, outboxes) -> {
+            outboxes.remove(outbox);
+            return outboxes.isEmpty() ? null : outboxes;
+        });
+        log.debug("Sesión WebSocket {} de usuario {} cerrada", sessionId, outbox.getUserId());
     }
     
     /**
-     * Obtiene el número de usuarios conectados
+     * Obtiene el número de usuarios conectados en el clúster
      */
     public int getConnectedUsersCount() {
-        return (int) userSessions.values().stream().filter(WebSocketSession::isOpen).count();
+        return presenceRegistry.onlineUserCount();
     }
     
     /**
-     * Verifica si un usuario está conectado
+     * Verifica si un usuario está conectado en algún nodo
      */
     public boolean isUserConnected(String userId) {
-        WebSocketSession session = userSessions.get(userId);
-        return session != null && session.isOpen();
+        return presenceRegistry.isOnline(userId);
+    }
+    
+    /**
+     * Indica si conviene publicar para el usuario: siempre con un relay compartido (cada nodo filtra
+     * por sus sesiones), o solo si está conectado cuando hay un único nodo
+     */
+    public boolean mayReachUser(String userId) {
+        return relay.isShared() || presenceRegistry.isOnline(userId);
+    }
+    
+    private int broadcast(Predicate<SessionOutbox> filter, TextMessage message, String coalesceKey) {
+        int queued = 0;
+        for (SessionOutbox outbox : sessionOutboxes.values()) {
+            if (!filter.test(outbox)) {
+                continue;
+            }
+            if (outbox.enqueue(message, coalesceKey)) {
+                queued++;
+            } else if (!outbox.isOpen()) {
+                removeSessionById(outbox.getSessionId());
+            }
+        }
+        return queued;
+    }
+    
+    /**
+     * Publica un mensaje ya serializado para todas las sesiones del usuario, en cualquier nodo
+     *
+     * @return número de sesiones locales en las que se encoló
+     */
+    private int sendToUser(String userId, String payload, String coalesceKey) {
+        return relay.publish(RelayEnvelope.toUser(userId, payload, coalesceKey));
+    }
+    
+    /**
+     * Encola un mensaje en todas las sesiones abiertas del usuario en este nodo. No bloquea:
+     * el envío lo hace el executor de escritura, y una sesión saturada se cierra sin afectar a las demás.
+     */
+    private int enqueueForUser(String userId, TextMessage message, String coalesceKey) {
+        Set<SessionOutbox> outboxes = userSessions.get(userId);
+        if (outboxes == null || outboxes.isEmpty()) {
+            return 0;
+        }
+        int queued = 0;
+        for (SessionOutbox outbox : outboxes) {
+            if (outbox.enqueue(message, coalesceKey)) {
+                queued++;
+            } else if (!outbox.isOpen()) {
+                removeSessionById(outbox.getSessionId());
+            }
+        }
+        return queued;
     }
     
     /**
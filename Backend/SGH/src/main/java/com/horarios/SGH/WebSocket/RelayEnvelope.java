@@ -0,0 +1,46 @@
+package com.horarios.SGH.WebSocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Mensaje WebSocket ya serializado junto con su audiencia, tal como viaja entre nodos.
+ * Si broadcastAll es true se ignoran los conjuntos de usuarios, roles y cursos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelayEnvelope {
+
+    private Set<String> userIds;
+    private Set<String> roleNames;
+    private Set<Integer> courseIds;
+    private boolean broadcastAll;
+    private String message;
+    private String coalesceKey;
+
+    public static RelayEnvelope toUser(String userId, String message, String coalesceKey) {
+        return new RelayEnvelope(Set.of(userId), Set.of(), Set.of(), false, message, coalesceKey);
+    }
+
+    public static RelayEnvelope toAudience(Set<String> userIds, Set<String> roleNames, Set<Integer> courseIds, String message) {
+        return new RelayEnvelope(userIds, roleNames, courseIds, false, message, null);
+    }
+
+    public static RelayEnvelope toAll(String message) {
+        return new RelayEnvelope(Set.of(), Set.of(), Set.of(), true, message, null);
+    }
+
+    /**
+     * Indica si una conexión con ese usuario, rol y curso pertenece a la audiencia
+     */
+    public boolean reaches(String userId, String roleName, Integer courseId) {
+        return broadcastAll
+            || (userIds != null && userIds.contains(userId))
+            || (roleName != null && roleNames != null && roleNames.contains(roleName))
+            || (courseId != null && courseIds != null && courseIds.contains(courseId));
+    }
+}
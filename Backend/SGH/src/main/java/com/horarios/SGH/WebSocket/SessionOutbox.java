@@ -0,0 +1,256 @@
+package com.horarios.SGH.WebSocket;
+
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cola de salida acotada de una sesión WebSocket.
+ * Quien publica solo encola y regresa; el envío real lo hace un hilo del executor de escritura,
+ * con un único drenado activo por sesión para conservar el orden y no enviar en paralelo.
+ * Los mensajes con clave de coalescencia (p. ej. el badge de no leídas) reemplazan al pendiente
+ * de la misma clave. Si la cola se llena o un envío supera el tiempo límite, la sesión se cierra
+ * y el cliente se resincroniza al reconectar.
+ * El límite se aplica del lado del escritor: la escritura bloqueante del contenedor (Tomcat) expira
+ * a los sendTimeLimit ms y NotificationWebSocketService cierra periódicamente las sesiones atascadas,
+ * así un cliente que no lee no retiene un hilo de escritura indefinidamente.
+ * Cerrar una sesión atascada también puede bloquear, por eso esos cierres se hacen en closeExecutor
+ * y nunca en el hilo del planificador, de quien publica ni del escritor.
+ */
+@Slf4j
+class SessionOutbox {
+
+    private static final int MAX_MESSAGES_PER_DRAIN = 32;
+    // Tiempo máximo (ms) de una escritura bloqueante en el WebSocket de Tomcat
+    static final String BLOCKING_SEND_TIMEOUT_PROPERTY = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final String userId;
+    private final String roleName;
+    private final Integer courseId;
+    private final WebSocketSession session;
+    private final Executor writerExecutor;
+    private final Executor closeExecutor;
+    private final int maxQueuedMessages;
+    private final long sendTimeLimit;
+
+    private final Deque<OutboundMessage> queue = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private volatile long sendStartedAt;
+    private volatile boolean closed;
+
+    SessionOutbox(String userId, WebSocketSession session, Executor writerExecutor, Executor closeExecutor,
+                  int maxQueuedMessages, long sendTimeLimit) {
+        this.userId = userId;
+        this.roleName = (String) session.getAttributes().get(JwtHandshakeInterceptor.ROLE_ATTRIBUTE);
+        this.courseId = (Integer) session.getAttributes().get(JwtHandshakeInterceptor.COURSE_ID_ATTRIBUTE);
+        this.session = session;
+        this.writerExecutor = writerExecutor;
+        this.closeExecutor = closeExecutor;
+        this.maxQueuedMessages = maxQueuedMessages;
+        this.sendTimeLimit = sendTimeLimit;
+        limitBlockingSend(session, sendTimeLimit);
+    }
+
+    String getUserId() {
+        return userId;
+    }
+
+    String getRoleName() {
+        return roleName;
+    }
+
+    Integer getCourseId() {
+        return courseId;
+    }
+
+    String getSessionId() {
+        return session.getId();
+    }
+
+    boolean isOpen() {
+        return !closed && session.isOpen();
+    }
+
+    /**
+     * Encola un mensaje sin bloquear
+     *
+     * @param coalesceKey si no es null, reemplaza un mensaje pendiente con la misma clave
+     * @return false si la sesión está cerrada o se cerró por saturación
+     */
+    boolean enqueue(TextMessage message, String coalesceKey) {
+        if (!isOpen()) {
+            return false;
+        }
+        if (closeIfStalled()) {
+            return false;
+        }
+
+        synchronized (queue) {
+            if (coalesceKey != null && replacePending(coalesceKey, message)) {
+                return true;
+            }
+            if (queue.size() >= maxQueuedMessages) {
+                log.warn("Cola WebSocket llena para usuario {} (sesión {}), se cierra la sesión",
+                         userId, session.getId());
+                queue.clear();
+                closeInBackground(CloseStatus.SESSION_NOT_RELIABLE);
+                return false;
+            }
+            queue.addLast(new OutboundMessage(message, coalesceKey));
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * Cierra la sesión si el envío en curso lleva más de sendTimeLimit ms
+     *
+     * @return true si la sesión estaba atascada y se cerró
+     */
+    boolean closeIfStalled() {
+        if (closed || !isSendStalled()) {
+            return false;
+        }
+        log.warn("Sesión WebSocket {} de usuario {} superó el tiempo de envío de {} ms",
+                 session.getId(), userId, sendTimeLimit);
+        closeInBackground(CloseStatus.SESSION_NOT_RELIABLE);
+        return true;
+    }
+
+    /**
+     * Cierra la sesión subyacente y descarta lo pendiente
+     */
+    void close(CloseStatus status) {
+        if (markClosed()) {
+            closeSession(status);
+        }
+    }
+
+    /**
+     * Igual que close, pero el cierre de la sesión subyacente se hace en closeExecutor
+     */
+    private void closeInBackground(CloseStatus status) {
+        if (markClosed()) {
+            closeExecutor.execute(() -> closeSession(status));
+        }
+    }
+
+    /**
+     * @return false si ya estaba cerrada
+     */
+    private boolean markClosed() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        synchronized (queue) {
+            queue.clear();
+        }
+        return true;
+    }
+
+    private void closeSession(CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            log.debug("Error cerrando sesión WebSocket {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private boolean replacePending(String coalesceKey, TextMessage message) {
+        Iterator<OutboundMessage> it = queue.iterator();
+        while (it.hasNext()) {
+            OutboundMessage pending = it.next();
+            if (coalesceKey.equals(pending.coalesceKey)) {
+                pending.message = message;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Acota la escritura bloqueante de la sesión nativa: al expirar, sendMessage lanza excepción
+     * y el drenado cierra la sesión, liberando el hilo
+     */
+    private static void limitBlockingSend(WebSocketSession session, long timeoutMillis) {
+        if (session instanceof NativeWebSocketSession) {
+            Session container = ((NativeWebSocketSession) session).getNativeSession(Session.class);
+            if (container != null) {
+                container.getUserProperties().put(BLOCKING_SEND_TIMEOUT_PROPERTY, timeoutMillis);
+            }
+        }
+    }
+
+    private boolean isSendStalled() {
+        long startedAt = sendStartedAt;
+        return startedAt > 0 && System.currentTimeMillis() - startedAt > sendTimeLimit;
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writerExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // El próximo mensaje encolado vuelve a intentar programar el drenado
+            draining.set(false);
+            log.warn("Executor de escritura WebSocket saturado, envío diferido para usuario {}", userId);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int sent = 0; sent < MAX_MESSAGES_PER_DRAIN && isOpen(); sent++) {
+                OutboundMessage next;
+                synchronized (queue) {
+                    next = queue.pollFirst();
+                }
+                if (next == null) {
+                    break;
+                }
+                sendStartedAt = System.currentTimeMillis();
+                try {
+                    session.sendMessage(next.message);
+                } finally {
+                    sendStartedAt = 0;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Error enviando mensaje WebSocket a usuario {} (sesión {}): {}", userId, session.getId(), e.getMessage());
+            closeInBackground(CloseStatus.SESSION_NOT_RELIABLE);
+        } finally {
+            draining.set(false);
+        }
+
+        // Cede el hilo tras un lote para que otras sesiones avancen; si quedó trabajo, se reprograma
+        boolean pending;
+        synchronized (queue) {
+            pending = !queue.isEmpty();
+        }
+        if (pending && isOpen()) {
+            scheduleDrain();
+        }
+    }
+
+    private static final class OutboundMessage {
+        private TextMessage message;
+        private final String coalesceKey;
+
+        private OutboundMessage(TextMessage message, String coalesceKey) {
+            this.message = message;
+            this.coalesceKey = coalesceKey;
+        }
+    }
+}
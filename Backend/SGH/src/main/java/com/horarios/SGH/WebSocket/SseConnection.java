@@ -0,0 +1,230 @@
+package com.horarios.SGH.WebSocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Conexión Server-Sent Events con su cola de salida acotada.
+ * Funciona igual que SessionOutbox: quien publica solo encola y un hilo del executor
+ * de escritura SSE (separado del de WebSocket) envía en orden; si la cola se llena o un envío
+ * supera sendTimeLimit la conexión se cierra y el cliente reconecta con Last-Event-ID.
+ * Completar el emisor espera a que termine el envío en curso, así que los cierres corren en closeExecutor.
+ */
+@Slf4j
+class SseConnection {
+
+    private static final int MAX_EVENTS_PER_DRAIN = 32;
+
+    private final String id = UUID.randomUUID().toString();
+    private final String userId;
+    private final String roleName;
+    private final Integer courseId;
+    private final SseEmitter emitter;
+    private final Executor writerExecutor;
+    private final Executor closeExecutor;
+    private final int maxQueuedEvents;
+    private final long sendTimeLimit;
+
+    private final Deque<OutboundEvent> queue = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private volatile long sendStartedAt;
+    private volatile boolean closed;
+
+    SseConnection(String userId, String roleName, Integer courseId, SseEmitter emitter,
+                  Executor writerExecutor, Executor closeExecutor, int maxQueuedEvents, long sendTimeLimit) {
+        this.userId = userId;
+        this.roleName = roleName;
+        this.courseId = courseId;
+        this.emitter = emitter;
+        this.writerExecutor = writerExecutor;
+        this.closeExecutor = closeExecutor;
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.sendTimeLimit = sendTimeLimit;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getUserId() {
+        return userId;
+    }
+
+    boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Indica si la conexión pertenece a la audiencia del mensaje
+     */
+    boolean isReachedBy(RelayEnvelope envelope) {
+        return envelope.reaches(userId, roleName, courseId);
+    }
+
+    /**
+     * Encola un evento sin bloquear
+     *
+     * @param eventId ID para Last-Event-ID, o null si el evento no es reanudable
+     * @param coalesceKey si no es null, reemplaza un evento pendiente con la misma clave
+     * @return false si la conexión está cerrada o se cerró por saturación
+     */
+    boolean enqueue(String eventId, String data, String coalesceKey) {
+        return enqueue(new OutboundEvent(eventId, data, coalesceKey, false));
+    }
+
+    /**
+     * Encola un comentario SSE (latido); los clientes lo ignoran pero mantiene viva la conexión
+     */
+    boolean enqueueComment(String comment) {
+        return enqueue(new OutboundEvent(null, comment, "comment:" + comment, true));
+    }
+
+    private boolean enqueue(OutboundEvent event) {
+        if (closed || closeIfStalled()) {
+            return false;
+        }
+        synchronized (queue) {
+            if (event.coalesceKey != null && replacePending(event)) {
+                return true;
+            }
+            if (queue.size() >= maxQueuedEvents) {
+                log.warn("Cola SSE llena para usuario {} (conexión {}), se cierra la conexión", userId, id);
+                queue.clear();
+                close();
+                return false;
+            }
+            queue.addLast(event);
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * Cierra la conexión si el envío en curso lleva más de sendTimeLimit ms
+     *
+     * @return true si la conexión estaba atascada y se cerró
+     */
+    boolean closeIfStalled() {
+        long startedAt = sendStartedAt;
+        if (closed || startedAt == 0 || System.currentTimeMillis() - startedAt <= sendTimeLimit) {
+            return false;
+        }
+        log.warn("Conexión SSE {} de usuario {} superó el tiempo de envío de {} ms", id, userId, sendTimeLimit);
+        close();
+        return true;
+    }
+
+    /**
+     * Cierra la conexión y descarta lo pendiente; el emisor se completa en closeExecutor
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        markClosed();
+        closeExecutor.execute(() -> {
+            try {
+                emitter.complete();
+            } catch (Exception e) {
+                log.debug("Error cerrando conexión SSE {}: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Marca la conexión como cerrada cuando el contenedor ya la terminó (timeout, error o cliente)
+     */
+    void markClosed() {
+        closed = true;
+        synchronized (queue) {
+            queue.clear();
+        }
+    }
+
+    private boolean replacePending(OutboundEvent event) {
+        Iterator<OutboundEvent> it = queue.iterator();
+        while (it.hasNext()) {
+            OutboundEvent pending = it.next();
+            if (event.coalesceKey.equals(pending.coalesceKey)) {
+                pending.eventId = event.eventId;
+                pending.data = event.data;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writerExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            log.warn("Executor de escritura saturado, envío SSE diferido para usuario {}", userId);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int sent = 0; sent < MAX_EVENTS_PER_DRAIN && !closed; sent++) {
+                OutboundEvent next;
+                synchronized (queue) {
+                    next = queue.pollFirst();
+                }
+                if (next == null) {
+                    break;
+                }
+                sendStartedAt = System.currentTimeMillis();
+                try {
+                    if (next.comment) {
+                        emitter.send(SseEmitter.event().comment(next.data));
+                    } else if (next.eventId == null) {
+                        emitter.send(SseEmitter.event().data(next.data));
+                    } else {
+                        emitter.send(SseEmitter.event().id(next.eventId).data(next.data));
+                    }
+                } finally {
+                    sendStartedAt = 0;
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Error enviando evento SSE a usuario {} (conexión {}): {}", userId, id, e.getMessage());
+            markClosed();
+            emitter.completeWithError(e);
+        } finally {
+            draining.set(false);
+        }
+
+        boolean pending;
+        synchronized (queue) {
+            pending = !queue.isEmpty();
+        }
+        if (pending && !closed) {
+            scheduleDrain();
+        }
+    }
+
+    private static final class OutboundEvent {
+        private String eventId;
+        private String data;
+        private final String coalesceKey;
+        private final boolean comment;
+
+        private OutboundEvent(String eventId, String data, String coalesceKey, boolean comment) {
+            this.eventId = eventId;
+            this.data = data;
+            this.coalesceKey = coalesceKey;
+            this.comment = comment;
+        }
+    }
+}
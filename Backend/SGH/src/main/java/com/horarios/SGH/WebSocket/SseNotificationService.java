@@ -0,0 +1,218 @@
+package com.horarios.SGH.WebSocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Canal Server-Sent Events para clientes detrás de proxies que no soportan WebSocket.
+ * Recibe exactamente los mismos mensajes del relay que las sesiones WebSocket, con el mismo JSON.
+ * Cada mensaje recibe un ID "nodo-secuencia" y se guarda en un buffer circular acotado, de modo que
+ * un cliente que reconecta con Last-Event-ID recibe lo que se perdió; si el ID ya salió del buffer
+ * o es de otro nodo, recibe un evento "resync" para recargar por REST.
+ */
+@Slf4j
+@Service
+public class SseNotificationService {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("sseWriterExecutor")
+    private Executor writerExecutor;
+
+    @Autowired
+    @Qualifier("connectionCloseExecutor")
+    private Executor closeExecutor;
+
+    @Autowired
+    private WebSocketPresenceRegistry presenceRegistry;
+
+    @Value("${app.sse.timeout:1800000}")
+    private long timeout;
+
+    @Value("${app.sse.max-queued-events:256}")
+    private int maxQueuedEvents;
+
+    @Value("${app.sse.send-time-limit:10000}")
+    private long sendTimeLimit;
+
+    @Value("${app.sse.replay-size:1000}")
+    private int replaySize;
+
+    private final Map<String, SseConnection> connections = new ConcurrentHashMap<>();
+
+    // Protegido por su propio monitor; también ordena registro, reenvío y entrega en vivo
+    private final Deque<ReplayEntry> replay = new ArrayDeque<>();
+    private long sequence;
+
+    /**
+     * Abre una conexión SSE para el usuario, reenviando lo perdido desde lastEventId si es posible
+     */
+    public SseEmitter open(String userId, String roleName, Integer courseId, String lastEventId, long unreadCount) {
+        SseEmitter emitter = createEmitter();
+        SseConnection connection = new SseConnection(userId, roleName, courseId, emitter,
+            writerExecutor, closeExecutor, maxQueuedEvents, sendTimeLimit);
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(() -> unregister(connection));
+        emitter.onError(e -> unregister(connection));
+
+        presenceRegistry.sessionOpened(userId);
+        connection.enqueue(null, createMessage("connection_confirmed",
+            Map.of("userId", userId, "timestamp", System.currentTimeMillis())), null);
+
+        boolean resumed = false;
+        synchronized (replay) {
+            Long resumeFrom = parseLastEventId(lastEventId);
+            if (resumeFrom != null && canResumeFrom(resumeFrom)) {
+                for (ReplayEntry entry : replay) {
+                    if (entry.sequence > resumeFrom && connection.isReachedBy(entry.envelope)) {
+                        connection.enqueue(eventId(entry.sequence), entry.envelope.getMessage(), entry.envelope.getCoalesceKey());
+                    }
+                }
+                resumed = true;
+            }
+            connections.put(connection.getId(), connection);
+        }
+
+        if (lastEventId != null && !lastEventId.isBlank() && !resumed) {
+            connection.enqueue(null, createMessage("resync", Map.of("reason", "last_event_id_unavailable")), null);
+        }
+        connection.enqueue(null, createMessage("unread_count", Map.of("count", unreadCount)), "unread_count");
+        log.info("Usuario {} conectado por SSE (reanudado: {})", userId, resumed);
+        return emitter;
+    }
+
+    /**
+     * Entrega un mensaje del relay a las conexiones SSE de este nodo y lo guarda para reanudación
+     *
+     * @return número de conexiones en las que se encoló
+     */
+    int deliver(RelayEnvelope envelope) {
+        int queued = 0;
+        synchronized (replay) {
+            long eventSequence = ++sequence;
+            replay.addLast(new ReplayEntry(eventSequence, envelope));
+            while (replay.size() > replaySize) {
+                replay.pollFirst();
+            }
+            if (connections.isEmpty()) {
+                return 0;
+            }
+
+            String eventId = eventId(eventSequence);
+            for (SseConnection connection : connections.values()) {
+                if (!connection.isReachedBy(envelope)) {
+                    continue;
+                }
+                if (connection.enqueue(eventId, envelope.getMessage(), envelope.getCoalesceKey())) {
+                    queued++;
+                } else if (!connection.isOpen()) {
+                    unregister(connection);
+                }
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Latido como comentario SSE: mantiene la conexión viva a través de proxies con timeout de inactividad
+     */
+    @Scheduled(fixedRateString = "${app.websocket.heartbeat-interval:25000}")
+    public void sendHeartbeat() {
+        for (SseConnection connection : connections.values()) {
+            if (!connection.enqueueComment("ping") && !connection.isOpen()) {
+                unregister(connection);
+            }
+        }
+    }
+
+    /**
+     * Cierra las conexiones cuyo envío en curso superó app.sse.send-time-limit,
+     * aunque no llegue ningún mensaje nuevo que lo detecte al encolar
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.stall-check-interval:1000}")
+    public void closeStalledConnections() {
+        for (SseConnection connection : connections.values()) {
+            if (connection.closeIfStalled()) {
+                unregister(connection);
+            }
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeout);
+    }
+
+    private void unregister(SseConnection connection) {
+        connection.markClosed();
+        if (connections.remove(connection.getId()) != null) {
+            presenceRegistry.sessionClosed(connection.getUserId());
+            log.debug("Conexión SSE {} de usuario {} cerrada", connection.getId(), connection.getUserId());
+        }
+    }
+
+    private boolean canResumeFrom(long resumeFrom) {
+        // Se puede reanudar si no se perdió ningún evento entre el último recibido y el más antiguo guardado
+        long oldest = replay.isEmpty() ? sequence + 1 : replay.peekFirst().sequence;
+        return resumeFrom <= sequence && resumeFrom >= oldest - 1;
+    }
+
+    private String eventId(long eventSequence) {
+        return presenceRegistry.getNodeId() + "-" + eventSequence;
+    }
+
+    /**
+     * Secuencia de un Last-Event-ID emitido por este nodo, o null si no aplica
+     */
+    private Long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        String prefix = presenceRegistry.getNodeId() + "-";
+        if (!lastEventId.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String createMessage(String type, Object data) {
+        try {
+            return objectMapper.writeValueAsString(
+                new NotificationWebSocketService.WebSocketMessage(type, data, System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.warn("Error serializando mensaje SSE: {}", e.getMessage());
+            return "{\"type\":\"error\",\"data\":{\"message\":\"Error serializando mensaje\"}}";
+        }
+    }
+
+    private static final class ReplayEntry {
+        private final long sequence;
+        private final RelayEnvelope envelope;
+
+        private ReplayEntry(long sequence, RelayEnvelope envelope) {
+            this.sequence = sequence;
+            this.envelope = envelope;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.horarios.SGH.WebSocket;
+
+import com.horarios.SGH.Model.WebSocketPresence;
+import com.horarios.SGH.Repository.IWebSocketPresenceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de presencia WebSocket: qué nodo mantiene sesiones de qué usuario.
+ * La presencia local se lleva en memoria; con el relay por base de datos, cada nodo publica
+ * periódicamente la suya en websocket_presence y lee la de los demás, de modo que
+ * isOnline responda para todo el clúster sin consultar la base de datos en cada envío.
+ */
+@Slf4j
+@Component
+public class WebSocketPresenceRegistry {
+
+    @Autowired
+    private IWebSocketPresenceRepository presenceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.websocket.relay:local}")
+    private String relayMode;
+
+    @Value("${app.websocket.presence.ttl:60000}")
+    private long presenceTtlMillis;
+
+    private final String nodeId;
+
+    // Sesiones abiertas en este nodo por usuario
+    private final Map<String, Integer> localSessions = new ConcurrentHashMap<>();
+
+    // Nodos remotos con sesiones de cada usuario, según la última sincronización
+    private volatile Map<String, Set<String>> remoteNodesByUser = Collections.emptyMap();
+
+    public WebSocketPresenceRegistry(@Value("${app.websocket.node-id:}") String configuredNodeId) {
+        this.nodeId = configuredNodeId.isBlank() ? generateNodeId() : configuredNodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void sessionOpened(String userId) {
+        localSessions.merge(userId, 1, Integer::sum);
+    }
+
+    public void sessionClosed(String userId) {
+        localSessions.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Verifica si el usuario tiene alguna sesión abierta en cualquier nodo
+     */
+    public boolean isOnline(String userId) {
+        return localSessions.containsKey(userId) || remoteNodesByUser.containsKey(userId);
+    }
+
+    /**
+     * Número de usuarios con sesión abierta en el clúster
+     */
+    public int onlineUserCount() {
+        if (remoteNodesByUser.isEmpty()) {
+            return localSessions.size();
+        }
+        Set<String> users = new HashSet<>(localSessions.keySet());
+        users.addAll(remoteNodesByUser.keySet());
+        return users.size();
+    }
+
+    /**
+     * Nodos que mantienen sesiones de cada usuario (para monitoreo)
+     */
+    public Map<String, Set<String>> nodesByUser() {
+        Map<String, Set<String>> result = new HashMap<>();
+        remoteNodesByUser.forEach((userId, nodes) -> result.put(userId, new HashSet<>(nodes)));
+        localSessions.keySet().forEach(userId -> result.computeIfAbsent(userId, id -> new HashSet<>()).add(nodeId));
+        return result;
+    }
+
+    /**
+     * Publica la presencia local y lee la de los demás nodos. Solo aplica en modo clúster.
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.presence.sync-interval:15000}")
+    public void sync() {
+        if (!isClustered()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<WebSocketPresence> alive = transactionTemplate.execute(status -> {
+                presenceRepository.deleteByNodeId(nodeId);
+                List<WebSocketPresence> rows = new ArrayList<>();
+                localSessions.forEach((userId, count) -> rows.add(new WebSocketPresence(nodeId, userId, count, now)));
+                presenceRepository.saveAll(rows);
+                presenceRepository.deleteStale(now.minus(Duration.ofMillis(presenceTtlMillis)));
+                return presenceRepository.findAliveSince(now.minus(Duration.ofMillis(presenceTtlMillis)));
+            });
+
+            Map<String, Set<String>> remote = new HashMap<>();
+            for (WebSocketPresence presence : alive) {
+                if (!nodeId.equals(presence.getNodeId())) {
+                    remote.computeIfAbsent(presence.getUserId(), id -> new HashSet<>()).add(presence.getNodeId());
+                }
+            }
+            remoteNodesByUser = remote;
+        } catch (Exception e) {
+            log.warn("Error sincronizando presencia WebSocket del nodo {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!isClustered()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> presenceRepository.deleteByNodeId(nodeId));
+        } catch (Exception e) {
+            log.warn("Error retirando presencia WebSocket del nodo {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private boolean isClustered() {
+        return "database".equalsIgnoreCase(relayMode);
+    }
+
+    private static String generateNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,31 @@
+package com.horarios.SGH.WebSocket;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Canal de difusión de mensajes WebSocket entre nodos.
+ * Cada nodo se suscribe con su entrega local; publicar hace llegar el mensaje
+ * a las sesiones de todos los nodos, incluido el propio.
+ */
+public interface WebSocketRelay {
+
+    /**
+     * Publica un mensaje para todos los nodos
+     *
+     * @return número de sesiones locales en las que se encoló
+     */
+    int publish(RelayEnvelope envelope);
+
+    /**
+     * Registra la entrega a las sesiones locales de este nodo
+     */
+    void subscribe(ToIntFunction<RelayEnvelope> localDelivery);
+
+    /**
+     * Indica si el relay llega a otros nodos. En ese caso la presencia remota se conoce con retraso,
+     * así que conviene publicar aunque el usuario no aparezca conectado y dejar que cada nodo filtre
+     */
+    default boolean isShared() {
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.horarios.SGH.Config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias del executor de precalentamiento: saturado descarta sin lanzar ni correr en quien publica
+ */
+class AsyncConfigTest {
+
+    @Test
+    void saturatedPrewarmExecutorDiscardsWithoutThrowing() throws Exception {
+        // Given: un hilo ocupado y la cola (de 1) llena
+        Executor executor = new AsyncConfig().exportPrewarmExecutor(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(2);
+        AtomicInteger ran = new AtomicInteger();
+        executor.execute(() -> {
+            running.countDown();
+            awaitQuietly(release);
+            ran.incrementAndGet();
+            finished.countDown();
+        });
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+        executor.execute(() -> {
+            ran.incrementAndGet();
+            finished.countDown();
+        });
+        Thread caller = Thread.currentThread();
+        AtomicInteger ranOnCaller = new AtomicInteger();
+
+        // When
+        assertDoesNotThrow(() -> executor.execute(() -> {
+            if (Thread.currentThread() == caller) {
+                ranOnCaller.incrementAndGet();
+            }
+            ran.incrementAndGet();
+        }));
+
+        // Then: solo corren la tarea activa y la encolada
+        release.countDown();
+        assertTrue(finished.await(1, TimeUnit.SECONDS));
+        ((ThreadPoolTaskExecutor) executor).shutdown();
+        assertEquals(2, ran.get());
+        assertEquals(0, ranOnCaller.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
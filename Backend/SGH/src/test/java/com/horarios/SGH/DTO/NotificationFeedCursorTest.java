@@ -0,0 +1,86 @@
+package com.horarios.SGH.DTO;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias del cursor de paginación del feed de notificaciones
+ */
+class NotificationFeedCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 11, 12, 21, 15, 0, 123_000_000);
+
+    @Test
+    void encodedCursorParsesBackToSameKey() {
+        // Given
+        String encoded = NotificationFeedCursor.of(CREATED_AT, 456L);
+
+        // When
+        NotificationFeedCursor cursor = NotificationFeedCursor.parse(encoded);
+
+        // Then
+        assertEquals(CREATED_AT, cursor.getCreatedAt());
+        assertEquals(456L, cursor.getNotificationId());
+        assertEquals(encoded, cursor.toString());
+    }
+
+    @Test
+    void roundTripKeepsFullPrecisionAndWholeMinutes() {
+        LocalDateTime nanos = LocalDateTime.of(2025, 1, 2, 3, 4, 5, 123_456_789);
+        LocalDateTime wholeMinute = LocalDateTime.of(2025, 1, 2, 3, 4);
+
+        assertEquals(nanos, NotificationFeedCursor.parse(NotificationFeedCursor.of(nanos, 1L)).getCreatedAt());
+        assertEquals(wholeMinute, NotificationFeedCursor.parse(NotificationFeedCursor.of(wholeMinute, 1L)).getCreatedAt());
+    }
+
+    @Test
+    void nullOrBlankMeansFirstPage() {
+        assertNull(NotificationFeedCursor.parse(null));
+        assertNull(NotificationFeedCursor.parse(""));
+        assertNull(NotificationFeedCursor.parse("   "));
+    }
+
+    @Test
+    void toleratesSpacesAroundParts() {
+        NotificationFeedCursor cursor = NotificationFeedCursor.parse(" 2025-11-12T21:15:00.123 , 456 ");
+
+        assertEquals(CREATED_AT, cursor.getCreatedAt());
+        assertEquals(456L, cursor.getNotificationId());
+    }
+
+    @Test
+    void tamperedCursorsAreRejected() {
+        String[] tampered = {
+            "456",
+            ",456",
+            "2025-11-12T21:15:00.123,",
+            "2025-11-12T21:15:00.123,abc",
+            "2025-11-12T21:15:00.123,4.5",
+            "2025-13-12T21:15:00.123,456",
+            "ayer,456",
+            "2025-11-12 21:15:00,456",
+            "2025-11-12T21:15:00.123,99999999999999999999"
+        };
+
+        for (String value : tampered) {
+            assertThrows(IllegalArgumentException.class, () -> NotificationFeedCursor.parse(value),
+                "Debería rechazar el cursor: " + value);
+        }
+    }
+
+    @Test
+    void isAfterFollowsFeedOrder() {
+        // Given: orden createdAt DESC, id DESC
+        NotificationFeedCursor cursor = new NotificationFeedCursor(CREATED_AT, 456L);
+
+        // Then
+        assertTrue(cursor.isAfter(CREATED_AT.minusNanos(1), 999L));
+        assertTrue(cursor.isAfter(CREATED_AT, 455L));
+        assertFalse(cursor.isAfter(CREATED_AT, 456L));
+        assertFalse(cursor.isAfter(CREATED_AT, 457L));
+        assertFalse(cursor.isAfter(CREATED_AT.plusNanos(1), 1L));
+    }
+}
@@ -0,0 +1,134 @@
+package com.horarios.SGH.Repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.horarios.SGH.Service.TransactionHooks;
+import com.horarios.SGH.WebSocket.DatabaseWebSocketRelay;
+import com.horarios.SGH.WebSocket.RelayEnvelope;
+import com.horarios.SGH.WebSocket.WebSocketPresenceRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * El relay por base de datos guarda su fila en una transacción propia, así que publicar desde
+ * un afterCommit (como hacen las notificaciones) llega a los demás nodos
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:sgh-ws-relay;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=DAY",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "app.websocket.relay=database"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DatabaseWebSocketRelay.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatabaseWebSocketRelayTest {
+
+    @Autowired
+    private IWebSocketRelayMessageRepository relayMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DatabaseWebSocketRelay nodeA;
+
+    @MockBean
+    private WebSocketPresenceRegistry presenceRegistry;
+
+    @BeforeEach
+    void setUp() {
+        relayMessageRepository.deleteAll();
+        when(presenceRegistry.getNodeId()).thenReturn("nodo-a");
+    }
+
+    private DatabaseWebSocketRelay otherNode(List<RelayEnvelope> received) {
+        WebSocketPresenceRegistry presenceB = mock(WebSocketPresenceRegistry.class);
+        when(presenceB.getNodeId()).thenReturn("nodo-b");
+        DatabaseWebSocketRelay nodeB = new DatabaseWebSocketRelay();
+        ReflectionTestUtils.setField(nodeB, "relayMessageRepository", relayMessageRepository);
+        ReflectionTestUtils.setField(nodeB, "presenceRegistry", presenceB);
+        ReflectionTestUtils.setField(nodeB, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(nodeB, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(nodeB, "lookbackMillis", 10000L);
+        ReflectionTestUtils.invokeMethod(nodeB, "init");
+        nodeB.subscribe(envelope -> {
+            received.add(envelope);
+            return 1;
+        });
+        return nodeB;
+    }
+
+    @Test
+    void publishFromAfterCommitHookPersistsRow() {
+        // Given
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // When: igual que InAppNotificationService.pushAfterCommit
+        transaction.executeWithoutResult(status ->
+            TransactionHooks.afterCommit(() -> nodeA.publish(RelayEnvelope.toUser("7", "{\"type\":\"x\"}", null))));
+
+        // Then
+        assertEquals(1, relayMessageRepository.count());
+        assertEquals("nodo-a", relayMessageRepository.findAll().get(0).getOriginNode());
+    }
+
+    @Test
+    void otherNodeReceivesEachMessageOnce() {
+        // Given
+        List<RelayEnvelope> received = new ArrayList<>();
+        DatabaseWebSocketRelay nodeB = otherNode(received);
+        nodeB.poll();
+
+        // When
+        nodeA.publish(RelayEnvelope.toUser("7", "\"uno\"", null));
+        nodeA.publish(RelayEnvelope.toUser("8", "\"dos\"", null));
+        nodeB.poll();
+        nodeB.poll();
+
+        // Then
+        assertEquals(2, received.size());
+        assertEquals("\"uno\"", received.get(0).getMessage());
+        assertEquals("\"dos\"", received.get(1).getMessage());
+    }
+
+    @Test
+    void publishingNodeDoesNotRedeliverItsOwnMessages() {
+        // Given
+        List<RelayEnvelope> delivered = new ArrayList<>();
+        nodeA.subscribe(envelope -> {
+            delivered.add(envelope);
+            return 1;
+        });
+        nodeA.poll();
+
+        // When
+        nodeA.publish(RelayEnvelope.toAll("\"hola\""));
+        nodeA.poll();
+
+        // Then: solo la entrega local al publicar
+        assertEquals(1, delivered.size());
+    }
+}
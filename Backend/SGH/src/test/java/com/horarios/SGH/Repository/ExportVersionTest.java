@@ -0,0 +1,99 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.Model.courses;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Model.teachers;
+import com.horarios.SGH.Service.ExportFormat;
+import com.horarios.SGH.Service.ScheduleExportCache;
+import com.horarios.SGH.Service.ScheduleExportCache.Scope;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las versiones de exportación se guardan en base de datos: dos nodos (dos instancias de la caché)
+ * calculan el mismo ETag, y una escritura hecha en uno cambia el ETag del otro.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:sgh-export-versions;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=DAY",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ScheduleExportCache.class)
+class ExportVersionTest {
+
+    @Autowired
+    private IExportVersionRepository versionRepository;
+
+    @Autowired
+    private ScheduleExportCache nodeA;
+
+    private ScheduleExportCache otherNode() {
+        ScheduleExportCache nodeB = new ScheduleExportCache();
+        ReflectionTestUtils.setField(nodeB, "versionRepository", versionRepository);
+        return nodeB;
+    }
+
+    private static schedule scheduleOf(int courseId, int teacherId) {
+        schedule s = new schedule();
+        s.setCourseId(new courses(courseId, "Curso " + courseId));
+        s.setTeacherId(new teachers(teacherId, "Docente " + teacherId));
+        return s;
+    }
+
+    @Test
+    void bumpCreatesAndIncrementsVersion() {
+        versionRepository.bump("course-1");
+        versionRepository.bump("course-1");
+
+        assertEquals(2, versionRepository.findById("course-1").orElseThrow().getVersion());
+    }
+
+    @Test
+    void nodesAgreeOnEtagBeforeAndAfterWrite() {
+        ScheduleExportCache nodeB = otherNode();
+        String before = nodeA.currentEtag(Scope.COURSE, 1, ExportFormat.PDF);
+        String teacherBefore = nodeA.currentEtag(Scope.TEACHER, 2, ExportFormat.PDF);
+        assertEquals(before, nodeB.currentEtag(Scope.COURSE, 1, ExportFormat.PDF));
+
+        // La escritura ocurre en el nodo A; el nodo B no recibe ningún aviso
+        nodeA.invalidateSchedules(List.of(scheduleOf(1, 2)));
+
+        String after = nodeB.currentEtag(Scope.COURSE, 1, ExportFormat.PDF);
+        assertNotEquals(before, after);
+        assertEquals(nodeA.currentEtag(Scope.COURSE, 1, ExportFormat.PDF), after);
+        assertNotEquals(teacherBefore, nodeB.currentEtag(Scope.TEACHER, 2, ExportFormat.PDF));
+    }
+
+    @Test
+    void writeOnlyChangesAffectedScopes() {
+        String otherCourse = nodeA.currentEtag(Scope.COURSE, 5, ExportFormat.PDF);
+
+        nodeA.invalidateSchedules(List.of(scheduleOf(1, 2)));
+
+        assertEquals(otherCourse, otherNode().currentEtag(Scope.COURSE, 5, ExportFormat.PDF));
+    }
+
+    @Test
+    void invalidateAllChangesEveryEtag() {
+        String course = nodeA.currentEtag(Scope.COURSE, 5, ExportFormat.EXCEL);
+        String teacher = nodeA.currentEtag(Scope.TEACHER, 7, ExportFormat.PDF);
+
+        nodeA.invalidateAll();
+
+        ScheduleExportCache nodeB = otherNode();
+        assertNotEquals(course, nodeB.currentEtag(Scope.COURSE, 5, ExportFormat.EXCEL));
+        assertNotEquals(teacher, nodeB.currentEtag(Scope.TEACHER, 7, ExportFormat.PDF));
+    }
+}
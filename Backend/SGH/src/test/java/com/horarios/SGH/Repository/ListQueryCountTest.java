@@ -0,0 +1,197 @@
+package com.horarios.SGH.Repository;
+
+import com.horarios.SGH.DTO.ScheduleRowDTO;
+import com.horarios.SGH.DTO.TeacherDTO;
+import com.horarios.SGH.Model.Days;
+import com.horarios.SGH.Model.People;
+import com.horarios.SGH.Model.Roles;
+import com.horarios.SGH.Model.TeacherAvailability;
+import com.horarios.SGH.Model.TeacherSubject;
+import com.horarios.SGH.Model.courses;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Model.subjects;
+import com.horarios.SGH.Model.teachers;
+import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Service.FileStorageService;
+import com.horarios.SGH.Service.ScheduleExportCache;
+import com.horarios.SGH.Service.TeacherService;
+import com.horarios.SGH.Service.TimetableSnapshotService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regresión de consultas: los listados y exportaciones deben ejecutar un número fijo de sentencias SQL,
+ * sin importar cuántos cursos, profesores o materias haya (antes, una o más por cada relación EAGER).
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:sgh-queries;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=DAY",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TeacherService.class, ScheduleExportCache.class})
+class ListQueryCountTest {
+
+    private static final int COURSES = 6;
+    private static final int TEACHERS = 5;
+    private static final String STUDENT_EMAIL = "estudiante@sgh.test";
+    private static final String[] DAYS = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes"};
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private IScheduleRepository scheduleRepository;
+
+    @Autowired
+    private Icourses courseRepository;
+
+    @Autowired
+    private Iusers usersRepository;
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @MockBean
+    private FileStorageService fileStorageService;
+
+    @MockBean
+    private TimetableSnapshotService timetableSnapshotService;
+
+    private Statistics statistics;
+    private int firstCourseId;
+    private int firstTeacherId;
+
+    @BeforeEach
+    void seed() {
+        subjects[] subjectList = {
+            em.persist(new subjects(0, "Matematicas")),
+            em.persist(new subjects(0, "Ciencias")),
+            em.persist(new subjects(0, "Historia"))
+        };
+        teachers[] teacherList = new teachers[TEACHERS];
+        TeacherSubject[] teacherSubjects = new TeacherSubject[TEACHERS];
+        for (int i = 0; i < TEACHERS; i++) {
+            teacherList[i] = em.persist(new teachers(0, "Docente " + (char) ('A' + i)));
+            TeacherSubject ts = new TeacherSubject();
+            ts.setTeacher(teacherList[i]);
+            ts.setSubject(subjectList[i % subjectList.length]);
+            teacherSubjects[i] = em.persist(ts);
+
+            TeacherAvailability availability = new TeacherAvailability();
+            availability.setTeacher(teacherList[i]);
+            availability.setDay(Days.values()[0]);
+            availability.setAmStart(LocalTime.of(6, 0));
+            availability.setAmEnd(LocalTime.of(12, 0));
+            em.persist(availability);
+        }
+        for (int c = 0; c < COURSES; c++) {
+            // Cada curso con sus relaciones EAGER pobladas, que son las que disparaban consultas extra
+            courses course = new courses(0, (c + 1) + "A");
+            course.setTeacherSubject(teacherSubjects[c % TEACHERS]);
+            course.setGradeDirector(teacherList[(c + 1) % TEACHERS]);
+            course = em.persist(course);
+            if (c == 0) {
+                firstCourseId = course.getId();
+                firstTeacherId = teacherList[0].getId();
+
+                users student = new users(em.persist(new People("Estudiante", STUDENT_EMAIL)),
+                    em.persist(new Roles("ESTUDIANTE")), "hash");
+                student.setCourse(course);
+                em.persist(student);
+            }
+            for (int d = 0; d < DAYS.length; d++) {
+                schedule s = new schedule();
+                s.setCourseId(course);
+                s.setTeacherId(teacherList[(c + d) % TEACHERS]);
+                s.setSubjectId(subjectList[d % subjectList.length]);
+                s.setDay(DAYS[d]);
+                s.setStartTime(LocalTime.of(7, 0));
+                s.setEndTime(LocalTime.of(8, 0));
+                em.persist(s);
+            }
+        }
+        em.flush();
+        em.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void allSchedulesRowsUseOneStatement() {
+        List<ScheduleRowDTO> rows = scheduleRepository.findAllRows();
+
+        assertEquals(COURSES * DAYS.length, rows.size());
+        rows.forEach(row -> row.toSchedule().getTeacherId().getTeacherName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void courseAndTeacherRowsUseOneStatementEach() {
+        assertEquals(DAYS.length, scheduleRepository.findRowsByCourseId(firstCourseId).size());
+        scheduleRepository.findRowsByTeacherId(firstTeacherId);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void studentCourseIdUsesOneStatement() {
+        assertEquals(firstCourseId, usersRepository.findCourseIdByEmail(STUDENT_EMAIL).orElseThrow());
+        assertTrue(usersRepository.findCourseIdByEmail("nadie@sgh.test").isEmpty());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void broadcastAudienceIdsUseOneStatementPerAudience() {
+        assertEquals(1, usersRepository.findIdsByAudience("ESTUDIANTE", firstCourseId).size());
+        assertEquals(1, usersRepository.findIdsByAudience("ESTUDIANTE", null).size());
+        assertTrue(usersRepository.findIdsByAudience("MAESTRO", null).isEmpty());
+        assertTrue(usersRepository.findIdsByAudience(null, firstCourseId + 1).isEmpty());
+
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void courseListFetchesEagerRelationsInOneStatement() {
+        List<courses> list = courseRepository.findAllWithDetails();
+
+        assertEquals(COURSES, list.size());
+        list.forEach(c -> {
+            c.getGradeDirector().getTeacherName();
+            c.getTeacherSubject().getSubject().getSubjectName();
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void teacherListUsesThreeStatementsRegardlessOfTeacherCount() {
+        List<TeacherDTO> list = teacherService.getAll();
+
+        assertEquals(TEACHERS, list.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.horarios.SGH.Controller.ScheduleCrudController;
 import com.horarios.SGH.DTO.ScheduleDTO;
 import com.horarios.SGH.Service.ScheduleService;
+import com.horarios.SGH.Service.TimetableSnapshotService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -31,6 +32,9 @@ public class ScheduleCrudControllerTest extends BaseControllerTest {
     @MockBean
     private ScheduleService scheduleService;
 
+    @MockBean
+    private TimetableSnapshotService timetableSnapshot;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -82,7 +86,7 @@ public class ScheduleCrudControllerTest extends BaseControllerTest {
 
         List<ScheduleDTO> result = Arrays.asList(dto);
 
-        when(scheduleService.getByCourse(1)).thenReturn(result);
+        when(timetableSnapshot.courseJson(1)).thenReturn(objectMapper.writeValueAsBytes(result));
 
         mockMvc.perform(get("/schedules-crud/by-course/1"))
                 .andExpect(status().isOk())
@@ -97,7 +101,7 @@ public class ScheduleCrudControllerTest extends BaseControllerTest {
 
         List<ScheduleDTO> result = Arrays.asList(dto);
 
-        when(scheduleService.getByTeacher(2)).thenReturn(result);
+        when(timetableSnapshot.teacherJson(2)).thenReturn(objectMapper.writeValueAsBytes(result));
 
         mockMvc.perform(get("/schedules-crud/by-teacher/2"))
                 .andExpect(status().isOk())
@@ -111,7 +115,7 @@ public class ScheduleCrudControllerTest extends BaseControllerTest {
 
         List<ScheduleDTO> result = Arrays.asList(dto);
 
-        when(scheduleService.getAll()).thenReturn(result);
+        when(timetableSnapshot.allJson()).thenReturn(objectMapper.writeValueAsBytes(result));
 
         mockMvc.perform(get("/schedules-crud"))
                 .andExpect(status().isOk())
@@ -0,0 +1,141 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Service.BellSchedule.Slot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias de la búsqueda de franja por minuto en los límites de cada franja
+ */
+class BellScheduleTest {
+
+    private static final BellSchedule BELLS = new BellSchedule(List.of(
+        Slot.classSlot(LocalTime.of(10, 0), LocalTime.of(11, 0)),
+        Slot.classSlot(LocalTime.of(8, 0), LocalTime.of(9, 0)),
+        Slot.breakSlot(LocalTime.of(9, 0), LocalTime.of(9, 30), "Descanso")
+        // Hueco entre 9:30 y 10:00
+    ));
+
+    private static schedule startingAt(LocalTime start, LocalTime end) {
+        schedule s = new schedule();
+        s.setStartTime(start);
+        s.setEndTime(end);
+        return s;
+    }
+
+    @Test
+    void slotsAreSortedByStart() {
+        assertEquals(LocalTime.of(8, 0), BELLS.getSlot(0).getStart());
+        assertEquals(LocalTime.of(9, 0), BELLS.getSlot(1).getStart());
+        assertEquals(LocalTime.of(10, 0), BELLS.getSlot(2).getStart());
+    }
+
+    @Test
+    void startIsInclusiveAndEndIsExclusive() {
+        assertEquals(-1, BELLS.indexOf(LocalTime.of(7, 59)));
+        assertEquals(0, BELLS.indexOf(LocalTime.of(8, 0)));
+        assertEquals(0, BELLS.indexOf(LocalTime.of(8, 59)));
+        // Franjas contiguas: el fin de una es el inicio de la siguiente
+        assertEquals(1, BELLS.indexOf(LocalTime.of(9, 0)));
+        assertEquals(1, BELLS.indexOf(LocalTime.of(9, 29)));
+        assertEquals(-1, BELLS.indexOf(LocalTime.of(9, 30)));
+        assertEquals(-1, BELLS.indexOf(LocalTime.of(9, 59)));
+        assertEquals(2, BELLS.indexOf(LocalTime.of(10, 0)));
+        assertEquals(2, BELLS.indexOf(LocalTime.of(10, 59)));
+        assertEquals(-1, BELLS.indexOf(LocalTime.of(11, 0)));
+    }
+
+    @Test
+    void secondsWithinAMinuteUseThatMinute() {
+        assertEquals(0, BELLS.indexOf(LocalTime.of(8, 59, 59)));
+        assertEquals(-1, BELLS.indexOf(LocalTime.of(9, 30, 1)));
+    }
+
+    @Test
+    void nullAndDayEdgesAreOutside() {
+        assertEquals(-1, BELLS.indexOf(null));
+        assertEquals(-1, BELLS.indexOf(LocalTime.MIDNIGHT));
+        assertEquals(-1, BELLS.indexOf(LocalTime.MAX));
+    }
+
+    @Test
+    void slotEndingAtLastSecondCoversLastMinute() {
+        BellSchedule late = new BellSchedule(List.of(Slot.classSlot(LocalTime.of(23, 0), LocalTime.MAX)));
+
+        assertEquals(0, late.indexOf(LocalTime.of(23, 59)));
+        assertEquals(0, late.indexOf(LocalTime.MAX));
+    }
+
+    @Test
+    void partialMinuteEndCoversThatMinute() {
+        BellSchedule partial = new BellSchedule(List.of(Slot.classSlot(LocalTime.of(8, 0), LocalTime.of(8, 45, 30))));
+
+        assertEquals(0, partial.indexOf(LocalTime.of(8, 45)));
+        assertEquals(-1, partial.indexOf(LocalTime.of(8, 46)));
+    }
+
+    @Test
+    void overlappingOrInvertedSlotsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BellSchedule(List.of(
+            Slot.classSlot(LocalTime.of(8, 0), LocalTime.of(9, 0)),
+            Slot.classSlot(LocalTime.of(8, 59), LocalTime.of(10, 0)))));
+        assertThrows(IllegalArgumentException.class, () -> new BellSchedule(List.of(
+            Slot.classSlot(LocalTime.of(9, 0), LocalTime.of(9, 0)))));
+        assertThrows(IllegalArgumentException.class, () -> new BellSchedule(List.of(
+            Slot.classSlot(LocalTime.of(10, 0), LocalTime.of(9, 0)))));
+    }
+
+    @Test
+    void labelsUseTwelveHourFormat() {
+        assertEquals("8:00 AM - 9:00 AM", BELLS.getSlot(0).getLabel());
+        assertEquals("Descanso", BELLS.getSlot(1).getBreakLabel());
+        assertNull(BELLS.getSlot(0).getBreakLabel());
+    }
+
+    @Test
+    void coveringAllReturnsSameInstanceWhenEverythingFits() {
+        List<schedule> schedules = List.of(startingAt(LocalTime.of(8, 0), LocalTime.of(9, 0)));
+
+        assertSame(BELLS, BELLS.coveringAll(schedules));
+    }
+
+    @Test
+    void coveringAllFillsGapUpToNextSlot() {
+        // Given: empieza en el hueco y terminaría dentro de la franja de las 10:00
+        List<schedule> schedules = List.of(startingAt(LocalTime.of(9, 30), LocalTime.of(10, 30)));
+
+        // When
+        BellSchedule covered = BELLS.coveringAll(schedules);
+
+        // Then
+        assertEquals(4, covered.size());
+        int added = covered.indexOf(LocalTime.of(9, 30));
+        assertEquals(LocalTime.of(10, 0), covered.getSlot(added).getEnd());
+        assertFalse(covered.getSlot(added).isBreak());
+        assertEquals(added + 1, covered.indexOf(LocalTime.of(10, 0)));
+    }
+
+    @Test
+    void coveringAllTrimsAddedSlotsAtNextAddedStart() {
+        // Given
+        List<schedule> schedules = List.of(
+            startingAt(LocalTime.of(6, 0), LocalTime.of(7, 30)),
+            startingAt(LocalTime.of(7, 0, 30), null));
+
+        // When
+        BellSchedule covered = BELLS.coveringAll(schedules);
+
+        // Then
+        assertEquals(5, covered.size());
+        assertEquals(LocalTime.of(7, 0), covered.getSlot(0).getEnd());
+        assertEquals(LocalTime.of(7, 0), covered.getSlot(1).getStart());
+        assertEquals(LocalTime.of(8, 0), covered.getSlot(1).getEnd());
+        assertEquals(0, covered.indexOf(LocalTime.of(6, 59)));
+        assertEquals(1, covered.indexOf(LocalTime.of(7, 0)));
+    }
+}
@@ -0,0 +1,159 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.courses;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Model.subjects;
+import com.horarios.SGH.Model.teachers;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias de la exportación a Excel con SXSSF: una hoja por sección
+ */
+class ExcelExportStrategyTest {
+
+    private final ExcelExportStrategy strategy = new ExcelExportStrategy();
+
+    private static schedule scheduleOf(String course, String teacher, String subject, String day, LocalTime start) {
+        schedule s = new schedule();
+        s.setCourseId(new courses(1, course));
+        s.setTeacherId(new teachers(1, teacher));
+        s.setSubjectId(new subjects(1, subject));
+        s.setDay(day);
+        s.setStartTime(start);
+        s.setEndTime(start.plusHours(1));
+        return s;
+    }
+
+    private Workbook exportSections(List<ScheduleSection> sections) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        strategy.exportSections(sections, "Horarios", out);
+        return new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    /**
+     * Fila de la tabla cuya primera celda es la etiqueta de la franja
+     */
+    private static Row rowForSlot(Sheet sheet, String label) {
+        for (Row row : sheet) {
+            if (row.getCell(0) != null && label.equals(row.getCell(0).getStringCellValue())) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void writesOneSheetPerSectionInOrder() throws Exception {
+        // Given
+        List<ScheduleSection> sections = List.of(
+            new ScheduleSection("1A", List.of(scheduleOf("1A", "Ana", "Matemáticas", "Lunes", LocalTime.of(9, 30)))),
+            new ScheduleSection("2B", List.of(scheduleOf("2B", "Luis", "Química", "Martes", LocalTime.of(13, 0)))));
+
+        // When
+        try (Workbook workbook = exportSections(sections)) {
+            // Then
+            assertEquals(2, workbook.getNumberOfSheets());
+            assertEquals("1A", workbook.getSheetName(0));
+            assertEquals("2B", workbook.getSheetName(1));
+
+            Sheet first = workbook.getSheetAt(0);
+            assertEquals("Horarios", first.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("1A", first.getRow(1).getCell(0).getStringCellValue());
+            Row slot = rowForSlot(first, "9:30 AM - 10:30 AM");
+            assertNotNull(slot);
+            assertEquals("Ana/Matemáticas", slot.getCell(1).getStringCellValue());
+            assertEquals("", slot.getCell(2).getStringCellValue());
+
+            Row other = rowForSlot(workbook.getSheetAt(1), "1:00 PM - 2:00 PM");
+            assertEquals("Luis/Química", other.getCell(2).getStringCellValue());
+        }
+    }
+
+    @Test
+    void sectionsDoNotLeakIntoOtherSheets() throws Exception {
+        // Given
+        List<ScheduleSection> sections = List.of(
+            new ScheduleSection("1A", List.of(scheduleOf("1A", "Ana", "Matemáticas", "Lunes", LocalTime.of(9, 30)))),
+            new ScheduleSection("2B", List.of()));
+
+        // When
+        try (Workbook workbook = exportSections(sections)) {
+            // Then
+            Row slot = rowForSlot(workbook.getSheetAt(1), "9:30 AM - 10:30 AM");
+            assertEquals("", slot.getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    void breakRowsShowTheirLabel() throws Exception {
+        try (Workbook workbook = exportSections(List.of(new ScheduleSection("1A", List.of())))) {
+            Row lunch = rowForSlot(workbook.getSheetAt(0), "12:00 PM - 1:00 PM");
+
+            for (int day = 1; day <= TimetableGrid.DAYS.length; day++) {
+                assertEquals("Almuerzo", lunch.getCell(day).getStringCellValue());
+            }
+        }
+    }
+
+    @Test
+    void sheetNamesAreSanitizedAndUnique() throws Exception {
+        // Given: nombres repetidos (sin distinguir mayúsculas), largos o con caracteres prohibidos
+        String longName = "Profesor con un nombre demasiado largo para Excel";
+        List<ScheduleSection> sections = List.of(
+            new ScheduleSection("Ana", List.of()),
+            new ScheduleSection("ANA", List.of()),
+            new ScheduleSection("a/b:c", List.of()),
+            new ScheduleSection(longName, List.of()),
+            new ScheduleSection(longName, List.of()),
+            new ScheduleSection(null, List.of()));
+
+        // When
+        try (Workbook workbook = exportSections(sections)) {
+            // Then
+            assertEquals(6, workbook.getNumberOfSheets());
+            assertEquals("Ana", workbook.getSheetName(0));
+            assertEquals("ANA (2)", workbook.getSheetName(1));
+            assertFalse(workbook.getSheetName(2).contains("/"));
+            assertFalse(workbook.getSheetName(2).contains(":"));
+            assertEquals(longName.substring(0, 31), workbook.getSheetName(3));
+            assertEquals(31, workbook.getSheetName(4).length());
+            assertTrue(workbook.getSheetName(4).endsWith(" (2)"));
+            assertEquals("Horario", workbook.getSheetName(5));
+        }
+    }
+
+    @Test
+    void noSectionsStillProducesOneSheet() throws Exception {
+        try (Workbook workbook = exportSections(List.of())) {
+            assertEquals(1, workbook.getNumberOfSheets());
+            assertEquals("Horario", workbook.getSheetName(0));
+        }
+    }
+
+    @Test
+    void singleExportUsesOneSheetWithoutSectionTitle() throws Exception {
+        // When
+        byte[] bytes = strategy.export(
+            List.of(scheduleOf("1A", "Ana", "Matemáticas", "Viernes", LocalTime.of(16, 0))), "Curso 1A");
+
+        // Then
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            assertEquals(1, workbook.getNumberOfSheets());
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("Curso 1A", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertNull(sheet.getRow(1));
+            assertEquals("Ana/Matemáticas", rowForSlot(sheet, "4:00 PM - 5:00 PM").getCell(5).getStringCellValue());
+        }
+    }
+}
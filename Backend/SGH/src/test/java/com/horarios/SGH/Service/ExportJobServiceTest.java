@@ -0,0 +1,179 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Repository.Iusers;
+import com.horarios.SGH.Service.ExportJob.Scope;
+import com.horarios.SGH.Service.ExportJob.Status;
+import com.horarios.SGH.WebSocket.NotificationWebSocketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de la cola de exportaciones: el token de descarga sirve una sola vez
+ * y cada usuario tiene un máximo de trabajos activos.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExportJobServiceTest {
+
+    private static final byte[] CONTENT = "BEGIN:VCALENDAR".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private ScheduleExportServiceRefactored exportService;
+
+    @Mock
+    private NotificationWebSocketService webSocketService;
+
+    @Mock
+    private Iusers usersRepository;
+
+    @InjectMocks
+    private ExportJobService service;
+
+    @TempDir
+    Path jobsDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(service, "jobsDir", jobsDir.toString());
+        ReflectionTestUtils.setField(service, "maxActivePerUser", 2);
+        ReflectionTestUtils.setField(service, "resultTtlMillis", 900000L);
+        useExecutor(Runnable::run);
+        service.init();
+
+        when(exportService.newStrategy(any())).thenReturn(ExportFormat.ICS.newStrategy());
+        when(exportService.exportCourseArtifact(any(), any())).thenReturn(
+            new ExportArtifact("\"etag\"", "text/calendar", "ics", CONTENT, Instant.now()));
+    }
+
+    private void useExecutor(Executor executor) {
+        ReflectionTestUtils.setField(service, "jobExecutor", executor);
+    }
+
+    private ExportJob completedJob() {
+        ExportJob job = service.submit("ana", Scope.COURSE, 10, ExportFormat.ICS);
+        assertEquals(Status.COMPLETED, job.getStatus());
+        return job;
+    }
+
+    @Test
+    void downloadTokenCanBeUsedOnlyOnce() throws Exception {
+        // Given
+        ExportJob job = completedJob();
+        String token = job.getDownloadToken();
+        assertNotNull(token);
+
+        // When
+        ExportJob first = service.consumeDownload(job.getId(), token);
+        ExportJob second = service.consumeDownload(job.getId(), token);
+
+        // Then
+        assertSame(job, first);
+        assertNull(second);
+        assertTrue(job.isDownloaded());
+        assertNull(job.getDownloadToken());
+        assertArrayEquals(CONTENT, Files.readAllBytes(first.getFile()));
+    }
+
+    @Test
+    void wrongTokenDoesNotConsumeTheDownload() {
+        // Given
+        ExportJob job = completedJob();
+        String token = job.getDownloadToken();
+
+        // When / Then
+        assertNull(service.consumeDownload(job.getId(), "otro-token"));
+        assertNull(service.consumeDownload(job.getId(), null));
+        assertNull(service.consumeDownload("otro-trabajo", token));
+        assertFalse(job.isDownloaded());
+        assertSame(job, service.consumeDownload(job.getId(), token));
+    }
+
+    @Test
+    void releaseDeletesTheDownloadedFile() {
+        // Given
+        ExportJob job = completedJob();
+        ExportJob downloaded = service.consumeDownload(job.getId(), job.getDownloadToken());
+        assertTrue(Files.exists(downloaded.getFile()));
+
+        // When
+        service.release(downloaded);
+
+        // Then
+        assertFalse(Files.exists(downloaded.getFile()));
+    }
+
+    @Test
+    void unfinishedJobHasNoDownloadToken() {
+        // Given: el executor nunca ejecuta, el trabajo se queda en cola
+        useExecutor(task -> { });
+
+        // When
+        ExportJob job = service.submit("ana", Scope.COURSE, 10, ExportFormat.ICS);
+
+        // Then
+        assertEquals(Status.QUEUED, job.getStatus());
+        assertNull(job.getDownloadToken());
+        assertNull(service.consumeDownload(job.getId(), "cualquiera"));
+    }
+
+    @Test
+    void activeJobsPerUserAreLimited() {
+        // Given
+        useExecutor(task -> { });
+        ExportJob first = service.submit("ana", Scope.ALL_COURSES, null, ExportFormat.PDF);
+        service.submit("ana", Scope.ALL_TEACHERS, null, ExportFormat.PDF);
+
+        // When / Then: el tercero se rechaza, pero otro usuario sí puede exportar
+        assertThrows(IllegalStateException.class,
+            () -> service.submit("ana", Scope.COURSE, 10, ExportFormat.PDF));
+        assertEquals(2, service.listFor("ana").size());
+        assertNotNull(service.submit("luis", Scope.COURSE, 10, ExportFormat.PDF));
+
+        // Al cancelar uno queda hueco para otro
+        assertTrue(service.cancel(first.getId(), "ana"));
+        assertNotNull(service.submit("ana", Scope.COURSE, 10, ExportFormat.PDF));
+    }
+
+    @Test
+    void finishedJobsDoNotCountTowardsTheLimit() {
+        // Given
+        completedJob();
+        completedJob();
+
+        // When / Then
+        assertEquals(Status.COMPLETED, completedJob().getStatus());
+        assertEquals(3, service.listFor("ana").size());
+    }
+
+    @Test
+    void rejectedSubmissionIsNotRegistered() {
+        // Given
+        useExecutor(task -> {
+            throw new RejectedExecutionException("cola llena");
+        });
+
+        // When / Then
+        assertThrows(RejectedExecutionException.class,
+            () -> service.submit("ana", Scope.COURSE, 10, ExportFormat.PDF));
+        assertTrue(service.listFor("ana").isEmpty());
+    }
+}
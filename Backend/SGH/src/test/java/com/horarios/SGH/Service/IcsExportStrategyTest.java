@@ -0,0 +1,208 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.courses;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Model.subjects;
+import com.horarios.SGH.Model.teachers;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias de la exportación iCalendar: plegado de líneas, escapado y UID estables
+ */
+class IcsExportStrategyTest {
+
+    // 2025-01-01 es miércoles: los eventos se anclan al lunes 2024-12-30
+    private final IcsExportStrategy strategy = new IcsExportStrategy(LocalDate.of(2025, 1, 1));
+
+    private static schedule scheduleOf(int id, String subject, String teacher, String course, String day) {
+        schedule s = new schedule();
+        s.setId(id);
+        s.setSubjectId(new subjects(1, subject));
+        s.setTeacherId(new teachers(1, teacher));
+        s.setCourseId(new courses(1, course));
+        s.setDay(day);
+        s.setStartTime(LocalTime.of(9, 30));
+        s.setEndTime(LocalTime.of(10, 30));
+        return s;
+    }
+
+    private byte[] export(List<schedule> schedules, String title) throws Exception {
+        return strategy.export(schedules, title);
+    }
+
+    /**
+     * Líneas físicas del documento (separadas por CRLF), como bytes
+     */
+    private static List<byte[]> physicalLines(byte[] document) {
+        List<byte[]> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i + 1 < document.length; i++) {
+            if (document[i] == '\r' && document[i + 1] == '\n') {
+                lines.add(Arrays.copyOfRange(document, start, i));
+                start = i + 2;
+                i++;
+            }
+        }
+        assertEquals(document.length, start, "El documento debe terminar en CRLF");
+        return lines;
+    }
+
+    /**
+     * Líneas lógicas tras desplegar (RFC 5545, 3.1)
+     */
+    private static List<String> unfoldedLines(byte[] document) {
+        String text = new String(document, StandardCharsets.UTF_8).replace("\r\n ", "");
+        return Arrays.asList(text.split("\r\n"));
+    }
+
+    private static String property(List<String> lines, String name) {
+        return lines.stream()
+            .filter(line -> line.startsWith(name + ":"))
+            .map(line -> line.substring(name.length() + 1))
+            .findFirst()
+            .orElse(null);
+    }
+
+    @Test
+    void foldsLongLinesAtSeventyFiveOctetsWithoutSplittingCharacters() throws Exception {
+        // Given: título largo con caracteres de 2, 3 y 4 bytes
+        String title = "Horario de Educación Física — Señora Muñoz 📘 ".repeat(6);
+
+        // When
+        byte[] document = export(List.of(), title);
+
+        // Then
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+        List<byte[]> lines = physicalLines(document);
+        for (byte[] line : lines) {
+            assertTrue(line.length <= 75, "Línea de " + line.length + " octetos");
+            try {
+                decoder.decode(ByteBuffer.wrap(line));
+            } catch (CharacterCodingException e) {
+                fail("Una línea plegada partió un carácter UTF-8");
+            }
+        }
+        assertTrue(lines.stream().anyMatch(line -> line.length > 0 && line[0] == ' '), "Debería haber líneas plegadas");
+        assertEquals(title.replace(",", "\\,"), property(unfoldedLines(document), "X-WR-CALNAME"));
+    }
+
+    @Test
+    void lineOfExactlySeventyFiveOctetsIsNotFolded() throws Exception {
+        // "X-WR-CALNAME:" ocupa 13 octetos
+        String title = "a".repeat(75 - 13);
+
+        byte[] document = export(List.of(), title);
+
+        List<byte[]> lines = physicalLines(document);
+        assertTrue(lines.stream().anyMatch(line -> line.length == 75));
+        assertTrue(lines.stream().noneMatch(line -> line.length > 0 && line[0] == ' '));
+    }
+
+    @Test
+    void escapesTextValues() throws Exception {
+        // Given
+        schedule s = scheduleOf(1, "Lengua; Literatura, y \\ más", "Ana", "10A", "Lunes");
+
+        // When
+        List<String> lines = unfoldedLines(export(List.of(s), "Curso, 10A"));
+
+        // Then
+        assertEquals("Curso\\, 10A", property(lines, "X-WR-CALNAME"));
+        assertEquals("Lengua\\; Literatura\\, y \\\\ más", property(lines, "SUMMARY"));
+        // El salto de línea de la descripción se escapa y no parte la línea lógica
+        assertEquals("Docente: Ana\\nCurso: 10A", property(lines, "DESCRIPTION"));
+    }
+
+    @Test
+    void uidDependsOnlyOnScheduleId() throws Exception {
+        // Given
+        schedule monday = scheduleOf(42, "Química", "Ana", "10A", "Lunes");
+        schedule tuesday = scheduleOf(7, "Física", "Luis", "9B", "Martes");
+        IcsExportStrategy otherYear = new IcsExportStrategy(LocalDate.of(2026, 1, 1));
+
+        // When
+        byte[] first = export(List.of(monday, tuesday), "Horario");
+        byte[] reordered = export(List.of(tuesday, monday), "Otro título");
+        monday.setSubjectId(new subjects(2, "Biología"));
+        byte[] renamed = otherYear.export(List.of(monday), "Horario");
+
+        // Then
+        assertEquals(List.of("schedule-42@sgh", "schedule-7@sgh"), uids(first));
+        assertEquals(List.of("schedule-7@sgh", "schedule-42@sgh"), uids(reordered));
+        assertEquals(List.of("schedule-42@sgh"), uids(renamed));
+    }
+
+    private static List<String> uids(byte[] document) {
+        return unfoldedLines(document).stream()
+            .filter(line -> line.startsWith("UID:"))
+            .map(line -> line.substring(4))
+            .toList();
+    }
+
+    @Test
+    void documentIsStableBetweenExportsExceptForStamp() throws Exception {
+        List<schedule> schedules = List.of(scheduleOf(1, "Química", "Ana", "10A", "Jueves"));
+
+        List<String> first = unfoldedLines(export(schedules, "Horario"));
+        List<String> second = unfoldedLines(export(schedules, "Horario"));
+
+        assertEquals(withoutStamp(first), withoutStamp(second));
+    }
+
+    private static List<String> withoutStamp(List<String> lines) {
+        return lines.stream().filter(line -> !line.startsWith("DTSTAMP:")).toList();
+    }
+
+    @Test
+    void eventsRecurWeeklyFromTheAnchorWeek() throws Exception {
+        // When
+        List<String> lines = unfoldedLines(export(List.of(scheduleOf(1, "Arte", "Ana", "10A", "Miércoles")), "Horario"));
+
+        // Then
+        assertEquals("20250101T093000", property(lines, "DTSTART"));
+        assertEquals("20250101T103000", property(lines, "DTEND"));
+        assertEquals("FREQ=WEEKLY;BYDAY=WE", property(lines, "RRULE"));
+        assertTrue(property(lines, "DTSTAMP").matches("\\d{8}T\\d{6}Z"));
+    }
+
+    @Test
+    void skipsSchedulesWithoutValidDayOrTimes() throws Exception {
+        // Given
+        schedule unknownDay = scheduleOf(1, "Arte", "Ana", "10A", "Lunes ");
+        schedule noStart = scheduleOf(2, "Arte", "Ana", "10A", "Lunes");
+        noStart.setStartTime(null);
+        schedule valid = scheduleOf(3, "Arte", "Ana", "10A", "Viernes");
+
+        // When
+        byte[] document = export(List.of(unknownDay, noStart, valid), "Horario");
+
+        // Then
+        assertEquals(List.of("schedule-3@sgh"), uids(document));
+    }
+
+    @Test
+    void endBeforeStartIsClampedToStart() throws Exception {
+        schedule s = scheduleOf(1, "Arte", "Ana", "10A", "Lunes");
+        s.setEndTime(LocalTime.of(9, 0));
+
+        List<String> lines = unfoldedLines(export(List.of(s), "Horario"));
+
+        assertEquals("20241230T093000", property(lines, "DTSTART"));
+        assertEquals("20241230T093000", property(lines, "DTEND"));
+    }
+}
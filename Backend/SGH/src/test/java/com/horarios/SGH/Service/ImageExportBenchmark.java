@@ -0,0 +1,110 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.courses;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Model.subjects;
+import com.horarios.SGH.Model.teachers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el render PNG de un curso con la implementación anterior (lienzo fijo de 1400 px,
+ * fuentes nuevas en cada llamada, ImageIO.write con caché en disco) contra ImageExportStrategy.
+ * Con -prof gc se ve además la memoria reservada por render (gc.alloc.rate.norm).
+ *
+ * Ejecutar: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.horarios.SGH.Service.ImageExportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ImageExportBenchmark {
+
+    private static final String TITLE = "Horario del Curso";
+
+    @Param({"0", "4", "9"})
+    private int pngCompressionLevel;
+
+    private List<schedule> data;
+    private ImageExportStrategy strategy;
+
+    @Setup
+    public void setup() {
+        List<BellSchedule.Slot> classSlots = BellSchedule.DEFAULT.getSlots().stream()
+            .filter(slot -> !slot.isBreak())
+            .toList();
+        data = new ArrayList<>();
+        for (int i = 0; i < classSlots.size() * TimetableGrid.DAYS.length; i++) {
+            schedule s = new schedule();
+            s.setCourseId(new courses(1, "Curso 1"));
+            s.setTeacherId(new teachers(i % 8, "Docente " + (i % 8)));
+            s.setSubjectId(new subjects(i % 12, "Materia " + (i % 12)));
+            s.setDay(TimetableGrid.DAYS[i % TimetableGrid.DAYS.length]);
+            BellSchedule.Slot slot = classSlots.get(i / TimetableGrid.DAYS.length);
+            s.setStartTime(slot.getStart());
+            s.setEndTime(slot.getEnd());
+            data.add(s);
+        }
+        strategy = new ImageExportStrategy(BellSchedule.DEFAULT, new ImageRenderOptions("png", pngCompressionLevel, 0.85f));
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) throws Exception {
+        TimetableGrid grid = TimetableGrid.of(data);
+        int height = 40 + (grid.getSlotCount() + 2) * 25;
+        BufferedImage image = new BufferedImage(1400, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 1400, height);
+        g.setColor(new Color(30, 30, 30));
+        g.setFont(new Font("Arial", Font.BOLD, 18));
+        g.drawString(TITLE, 20, 40);
+        int[] x = {20, 150, 350, 550, 650, 750, 850, 950};
+        int y = 65;
+        g.setFont(new Font("Arial", Font.BOLD, 12));
+        g.drawString("Tiempo", x[0], y);
+        for (int i = 0; i < TimetableGrid.DAYS.length; i++) {
+            g.drawString(TimetableGrid.DAYS[i], x[i + 1], y);
+        }
+        y += 25;
+        g.setFont(new Font("Arial", Font.PLAIN, 11));
+        for (int slot = 0; slot < grid.getSlotCount(); slot++) {
+            g.drawString(grid.getSlot(slot).getLabel(), x[0], y);
+            for (int i = 0; i < TimetableGrid.DAYS.length; i++) {
+                g.drawString(grid.cellText(slot, i), x[i + 1], y);
+            }
+            y += 25;
+        }
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        bh.consume(out.size());
+    }
+
+    @Benchmark
+    public void optimized(Blackhole bh) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        strategy.export(data, TITLE, out);
+        bh.consume(out.size());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(ImageExportBenchmark.class.getSimpleName())
+            .addProfiler("gc")
+            .build()).run();
+    }
+}
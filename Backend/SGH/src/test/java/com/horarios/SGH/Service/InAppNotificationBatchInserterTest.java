@@ -0,0 +1,131 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.InAppNotification;
+import com.horarios.SGH.Model.NotificationPriority;
+import com.horarios.SGH.Model.NotificationType;
+import com.horarios.SGH.Repository.IInAppNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * La inserción por JDBC batch debe escribir las mismas columnas que el mapeo JPA:
+ * lo insertado se lee con la entidad, incluida la prioridad guardada por ordinal.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:sgh-inapp-batch;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=DAY",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(InAppNotificationBatchInserter.class)
+class InAppNotificationBatchInserterTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 3, 2, 8, 30);
+
+    @Autowired
+    private InAppNotificationBatchInserter inserter;
+
+    @Autowired
+    private IInAppNotificationRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // Lotes de 2 para que tres filas viajen en dos lotes
+        ReflectionTestUtils.setField(inserter, "batchSize", 2);
+    }
+
+    private static InAppNotification notification(int userId, NotificationPriority priority, LocalDateTime expiresAt) {
+        InAppNotification n = new InAppNotification(userId, "user" + userId + "@sgh.edu", "Usuario " + userId,
+            "ESTUDIANTE", NotificationType.SCHEDULE_ASSIGNED, "Título " + userId, "Mensaje " + userId);
+        n.setActionUrl("/horarios/" + userId);
+        n.setActionText("Ver");
+        n.setIcon("calendar");
+        n.setPriority(priority);
+        n.setCategory("schedule");
+        n.setExpiresAt(expiresAt);
+        n.setCreatedAt(CREATED_AT);
+        return n;
+    }
+
+    @Test
+    void insertedRowsReadBackThroughEntityMapping() {
+        // Given
+        LocalDateTime expiresAt = CREATED_AT.plusDays(7);
+        List<InAppNotification> notifications = List.of(
+            notification(1, NotificationPriority.LOW, null),
+            notification(2, NotificationPriority.HIGH, expiresAt),
+            notification(3, NotificationPriority.CRITICAL, null));
+
+        // When
+        int inserted = inserter.insertAll(notifications);
+
+        // Then
+        assertEquals(3, inserted);
+        List<InAppNotification> rows = repository.findAll().stream()
+            .sorted(Comparator.comparing(InAppNotification::getUserId))
+            .collect(Collectors.toList());
+        assertEquals(3, rows.size());
+        assertEquals(List.of(NotificationPriority.LOW, NotificationPriority.HIGH, NotificationPriority.CRITICAL),
+            rows.stream().map(InAppNotification::getPriority).collect(Collectors.toList()));
+
+        InAppNotification second = rows.get(1);
+        assertNotNull(second.getNotificationId());
+        assertEquals(2, second.getUserId());
+        assertEquals("user2@sgh.edu", second.getUserEmail());
+        assertEquals("Usuario 2", second.getUserName());
+        assertEquals("ESTUDIANTE", second.getUserRole());
+        assertEquals(NotificationType.SCHEDULE_ASSIGNED, second.getNotificationType());
+        assertEquals("Título 2", second.getTitle());
+        assertEquals("Mensaje 2", second.getMessage());
+        assertEquals("/horarios/2", second.getActionUrl());
+        assertEquals("Ver", second.getActionText());
+        assertEquals("calendar", second.getIcon());
+        assertEquals("schedule", second.getCategory());
+        assertFalse(second.isRead());
+        assertFalse(second.isArchived());
+        assertEquals(expiresAt, second.getExpiresAt());
+        assertEquals(CREATED_AT, second.getCreatedAt());
+        assertEquals(CREATED_AT, second.getUpdatedAt());
+        assertNull(second.getReadAt());
+        assertNull(rows.get(0).getExpiresAt());
+    }
+
+    @Test
+    void everyPriorityRoundTripsByOrdinal() {
+        // Given
+        List<InAppNotification> notifications = List.of(NotificationPriority.values()).stream()
+            .map(priority -> notification(priority.ordinal() + 1, priority, null))
+            .collect(Collectors.toList());
+
+        // When
+        inserter.insertAll(notifications);
+
+        // Then
+        List<NotificationPriority> stored = repository.findAll().stream()
+            .sorted(Comparator.comparing(InAppNotification::getUserId))
+            .map(InAppNotification::getPriority)
+            .collect(Collectors.toList());
+        assertEquals(List.of(NotificationPriority.values()), stored);
+    }
+
+    @Test
+    void emptyListInsertsNothing() {
+        assertEquals(0, inserter.insertAll(List.of()));
+        assertEquals(0, repository.count());
+    }
+}
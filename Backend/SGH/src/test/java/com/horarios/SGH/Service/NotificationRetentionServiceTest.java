@@ -0,0 +1,83 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Repository.IInAppNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del archivado por lotes de notificaciones In-App
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationRetentionServiceTest {
+
+    @Mock
+    private IInAppNotificationRepository inAppNotificationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private UnreadNotificationCounter unreadCounter;
+
+    @Mock
+    private Executor maintenanceExecutor;
+
+    @InjectMocks
+    private NotificationRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retentionService, "chunkSize", 2);
+        ReflectionTestUtils.setField(retentionService, "maxChunksPerRun", 10);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void archiveInvalidatesOnlyUsersWithUnreadRowsPerChunk() {
+        // Given: dos lotes, el segundo incompleto
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        when(inAppNotificationRepository.findIdsToArchive(eq(cutoff), any()))
+            .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(inAppNotificationRepository.findUnreadUserIdsByIds(List.of(1L, 2L))).thenReturn(List.of(7));
+        when(inAppNotificationRepository.findUnreadUserIdsByIds(List.of(3L))).thenReturn(List.of());
+        when(inAppNotificationRepository.archiveByIds(anyList())).thenAnswer(inv -> inv.<List<?>>getArgument(0).size());
+
+        // When
+        int archived = retentionService.archiveOldInApp(cutoff);
+
+        // Then
+        assertEquals(3, archived);
+        verify(unreadCounter).invalidate(List.of(7));
+        verify(unreadCounter).invalidate(List.of());
+        verify(unreadCounter, never()).invalidateAll();
+    }
+
+    @Test
+    void scheduledRunHandsWorkToMaintenanceExecutor() {
+        // Given
+        ReflectionTestUtils.setField(retentionService, "enabled", true);
+
+        // When
+        retentionService.scheduledRun();
+
+        // Then: el hilo del planificador no toca la base de datos
+        verify(maintenanceExecutor).execute(any(Runnable.class));
+        verifyNoInteractions(inAppNotificationRepository, transactionTemplate);
+    }
+}
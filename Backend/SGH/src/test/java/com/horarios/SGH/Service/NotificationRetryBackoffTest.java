@@ -0,0 +1,60 @@
+package com.horarios.SGH.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias del backoff exponencial con jitter de los reintentos de correo
+ */
+class NotificationRetryBackoffTest {
+
+    private static final long BASE = 30_000;
+    private static final long MAX = 1_800_000;
+
+    @Test
+    void delayStaysBetweenHalfAndFullExponentialValue() {
+        Random random = new Random(42);
+        for (int attempts = 1; attempts <= 5; attempts++) {
+            long expected = BASE << (attempts - 1);
+            for (int i = 0; i < 200; i++) {
+                long delay = NotificationService.retryDelayMillis(attempts, BASE, MAX, random);
+                assertTrue(delay >= expected / 2 && delay <= expected,
+                    "intento " + attempts + ": " + delay + " fuera de [" + expected / 2 + ", " + expected + "]");
+            }
+        }
+    }
+
+    @Test
+    void delayIsCappedAtMaximum() {
+        Random random = new Random(7);
+        for (int attempts = 7; attempts <= 40; attempts++) {
+            long delay = NotificationService.retryDelayMillis(attempts, BASE, MAX, random);
+            assertTrue(delay >= MAX / 2 && delay <= MAX);
+        }
+    }
+
+    @Test
+    void jitterSpreadsSimultaneousFailures() {
+        Random random = new Random(1);
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            delays.add(NotificationService.retryDelayMillis(3, BASE, MAX, random));
+        }
+
+        assertTrue(delays.size() > 40, "Los reintentos deberían repartirse, hubo " + delays.size() + " distintos");
+    }
+
+    @Test
+    void zeroOrNegativeAttemptsUseBaseDelay() {
+        Random random = new Random(3);
+
+        long delay = NotificationService.retryDelayMillis(0, BASE, MAX, random);
+
+        assertTrue(delay >= BASE / 2 && delay <= BASE);
+    }
+}
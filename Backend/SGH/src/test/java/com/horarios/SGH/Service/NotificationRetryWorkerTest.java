@@ -0,0 +1,59 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Repository.INotificationLogRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del worker de reintentos: la ejecución programada no bloquea el planificador
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationRetryWorkerTest {
+
+    @Mock
+    private INotificationLogRepository notificationLogRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private SmtpCircuitBreaker circuitBreaker;
+
+    @InjectMocks
+    private NotificationRetryWorker worker;
+
+    @Test
+    void scheduledRunOnlyQueuesTheWork() {
+        // Given
+        Executor maintenanceExecutor = mock(Executor.class);
+        ReflectionTestUtils.setField(worker, "maintenanceExecutor", maintenanceExecutor);
+        ReflectionTestUtils.setField(worker, "maxChunksPerRun", 1);
+        ReflectionTestUtils.setField(worker, "chunkSize", 10);
+
+        // When
+        worker.scheduledRun();
+
+        // Then
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(maintenanceExecutor).execute(task.capture());
+        verifyNoInteractions(notificationLogRepository, circuitBreaker);
+
+        // Y la tarea encolada es la pasada de reintentos
+        when(circuitBreaker.allowRequest()).thenReturn(true);
+        when(circuitBreaker.getState()).thenReturn(SmtpCircuitBreaker.State.CLOSED);
+        when(notificationLogRepository.findDueForRetry(any(), any(), any())).thenReturn(List.of());
+        task.getValue().run();
+        verify(notificationLogRepository).findDueForRetry(any(), any(), any());
+    }
+}
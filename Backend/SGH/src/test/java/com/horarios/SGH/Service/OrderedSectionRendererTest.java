@@ -0,0 +1,156 @@
+package com.horarios.SGH.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias del renderizado por secciones: las partes se escriben en el orden original
+ * aunque terminen desordenadas, y tras un fallo las secciones pendientes no llegan a renderizarse.
+ */
+class OrderedSectionRendererTest {
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static List<ScheduleSection> sections(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> new ScheduleSection("S" + i, List.of()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Ejecuta la primera tarea en el hilo que llama y guarda las demás para lanzarlas a mano
+     */
+    private static final class DeferringExecutor implements Executor {
+        private final Deque<Runnable> queued = new ArrayDeque<>();
+        private boolean first = true;
+
+        @Override
+        public void execute(Runnable task) {
+            if (first) {
+                first = false;
+                task.run();
+            } else {
+                queued.add(task);
+            }
+        }
+
+        int runQueued() {
+            int count = queued.size();
+            queued.forEach(Runnable::run);
+            queued.clear();
+            return count;
+        }
+    }
+
+    @Test
+    void partsAreWrittenInOriginalOrderEvenIfRenderedOutOfOrder() throws Exception {
+        // Given: la primera sección no termina hasta que las dos siguientes ya se renderizaron
+        CountDownLatch laterSectionsRendered = new CountDownLatch(2);
+        List<String> written = new ArrayList<>();
+
+        // When
+        OrderedSectionRenderer.render(sections(5), pool, 3, section -> {
+            if (section.getTitle().equals("S0")) {
+                assertTrue(laterSectionsRendered.await(5, TimeUnit.SECONDS));
+            } else if (!section.getTitle().equals("S3") && !section.getTitle().equals("S4")) {
+                laterSectionsRendered.countDown();
+            }
+            return "parte-" + section.getTitle();
+        }, (section, part) -> written.add(section.getTitle() + "=" + part));
+
+        // Then
+        assertEquals(List.of("S0=parte-S0", "S1=parte-S1", "S2=parte-S2", "S3=parte-S3", "S4=parte-S4"), written);
+    }
+
+    @Test
+    void neverMoreSectionsInFlightThanTheWindow() throws Exception {
+        // Given
+        AtomicInteger started = new AtomicInteger();
+        List<Integer> startedWhenWriting = new ArrayList<>();
+
+        // When
+        OrderedSectionRenderer.render(sections(8), pool, 2, section -> {
+            started.incrementAndGet();
+            return section.getTitle();
+        }, (section, part) -> startedWhenWriting.add(started.get()));
+
+        // Then: al escribir la parte i se han iniciado como mucho las secciones i .. i + 1
+        assertEquals(8, startedWhenWriting.size());
+        for (int i = 0; i < startedWhenWriting.size(); i++) {
+            assertTrue(startedWhenWriting.get(i) <= i + 2, "parte " + i + ": " + startedWhenWriting.get(i));
+        }
+    }
+
+    @Test
+    void renderFailureCancelsPendingSectionsAndPropagatesCause() {
+        // Given
+        DeferringExecutor executor = new DeferringExecutor();
+        List<String> rendered = Collections.synchronizedList(new ArrayList<>());
+        List<String> written = new ArrayList<>();
+
+        // When
+        IOException error = assertThrows(IOException.class, () ->
+            OrderedSectionRenderer.render(sections(3), executor, 3, section -> {
+                rendered.add(section.getTitle());
+                if (section.getTitle().equals("S0")) {
+                    throw new IOException("fallo al renderizar");
+                }
+                return section.getTitle();
+            }, (section, part) -> written.add(section.getTitle())));
+
+        // Then: las secciones en vuelo se cancelaron antes de arrancar
+        assertEquals("fallo al renderizar", error.getMessage());
+        assertEquals(2, executor.runQueued());
+        assertEquals(List.of("S0"), rendered);
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void writerFailureStopsRenderingRemainingSections() {
+        // Given
+        DeferringExecutor executor = new DeferringExecutor();
+        List<String> rendered = Collections.synchronizedList(new ArrayList<>());
+
+        // When
+        IOException error = assertThrows(IOException.class, () ->
+            OrderedSectionRenderer.render(sections(3), executor, 3, section -> {
+                rendered.add(section.getTitle());
+                return section.getTitle();
+            }, (section, part) -> {
+                throw new IOException("cliente desconectado");
+            }));
+
+        // Then
+        assertEquals("cliente desconectado", error.getMessage());
+        executor.runQueued();
+        assertEquals(List.of("S0"), rendered);
+    }
+}
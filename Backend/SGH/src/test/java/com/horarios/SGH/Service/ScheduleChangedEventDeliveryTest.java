@@ -0,0 +1,141 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Events.ExportCacheEventHandler;
+import com.horarios.SGH.Events.ScheduleChangedEvent;
+import com.horarios.SGH.Events.ScheduleChangedEvent.Action;
+import com.horarios.SGH.Events.ScheduleSnapshot;
+import com.horarios.SGH.Events.UserRegisteredEvent;
+import com.horarios.SGH.Events.WebSocketNotificationEventHandler;
+import com.horarios.SGH.Model.users;
+import com.horarios.SGH.WebSocket.NotificationWebSocketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de integración de la entrega de eventos de dominio: los manejadores solo se ejecutan
+ * tras el commit y nunca si la transacción hace rollback.
+ * Sin @EnableAsync, @Async se ignora y los manejadores corren en el hilo que confirma.
+ */
+@SpringJUnitConfig(ScheduleChangedEventDeliveryTest.Config.class)
+class ScheduleChangedEventDeliveryTest {
+
+    @Configuration
+    @EnableTransactionManagement
+    @Import({WebSocketNotificationEventHandler.class, ExportCacheEventHandler.class})
+    static class Config {
+
+        @Bean
+        DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+    }
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private NotificationWebSocketService webSocketService;
+
+    @MockBean
+    private ScheduleExportServiceRefactored exportService;
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        when(webSocketService.getConnectedUsersCount()).thenReturn(1);
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    private static ScheduleChangedEvent created() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(1, 10, "10A", 20, "Ana", 30, "Matemáticas",
+            "Lunes", LocalTime.of(7, 0), LocalTime.of(8, 0));
+        return new ScheduleChangedEvent(Action.CREATED, List.of(snapshot), "coordinador");
+    }
+
+    private static UserRegisteredEvent registered() {
+        users user = mock(users.class);
+        when(user.getUserId()).thenReturn(5);
+        return new UserRegisteredEvent(user);
+    }
+
+    @Test
+    void handlersRunOnlyAfterCommit() {
+        // When
+        transaction.executeWithoutResult(status -> {
+            publisher.publishEvent(created());
+
+            // Then: dentro de la transacción aún no se notificó nada
+            verifyNoInteractions(webSocketService, exportService);
+        });
+
+        // Then
+        verify(webSocketService).broadcastToAudience(eq(Set.of("20")), eq(Set.of("COORDINADOR")), eq(Set.of(10)),
+            eq("schedule_changed"), anyMap());
+        verify(exportService).prewarm(Set.of(10), Set.of(20));
+    }
+
+    @Test
+    void handlersNeverRunOnRollback() {
+        // When
+        transaction.executeWithoutResult(status -> {
+            publisher.publishEvent(created());
+            publisher.publishEvent(registered());
+            status.setRollbackOnly();
+        });
+
+        // Then
+        verifyNoInteractions(webSocketService, exportService);
+    }
+
+    @Test
+    void eventOutsideTransactionIsDeliveredImmediately() {
+        // When: fallbackExecution permite publicar fuera de una transacción
+        publisher.publishEvent(registered());
+
+        // Then
+        verify(webSocketService).broadcastToRole(eq("COORDINADOR"), eq("pending_users_changed"), anyMap());
+    }
+
+    @Test
+    void exceptionAfterPublishRollsBackAndSuppressesHandlers() {
+        // When
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            publisher.publishEvent(created());
+            throw new IllegalStateException("fallo al guardar");
+        }));
+
+        // Then
+        verifyNoInteractions(webSocketService, exportService);
+    }
+}
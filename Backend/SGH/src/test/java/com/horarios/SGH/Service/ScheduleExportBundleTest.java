@@ -0,0 +1,134 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.DTO.ScheduleRowDTO;
+import com.horarios.SGH.Repository.IScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de los nombres de archivo dentro del ZIP de horarios
+ */
+@ExtendWith(MockitoExtension.class)
+class ScheduleExportBundleTest {
+
+    @Mock
+    private IScheduleRepository scheduleRepository;
+
+    @Mock
+    private ScheduleExportCache exportCache;
+
+    @Mock
+    private TimeSlotService timeSlotService;
+
+    @InjectMocks
+    private ScheduleExportServiceRefactored exportService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exportService, "renderExecutor", (Executor) Runnable::run);
+        when(timeSlotService.getBellSchedule(anyLong())).thenReturn(BellSchedule.DEFAULT);
+    }
+
+    private static ScheduleRowDTO row(int id, int courseId, String courseName, int teacherId, String teacherName) {
+        return new ScheduleRowDTO(id, "Lunes", LocalTime.of(9, 30), LocalTime.of(10, 30), null,
+            courseId, courseName, teacherId, teacherName, 1, "Matemáticas");
+    }
+
+    private List<String> bundleEntries(List<ExportFormat> formats, boolean courses, boolean teachers) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportBundle(formats, courses, teachers, out);
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+
+    @Test
+    void namesEntriesByFolderNameIdAndExtension() throws Exception {
+        // Given
+        when(scheduleRepository.findAllRows()).thenReturn(List.of(
+            row(1, 3, "10A", 7, "Ana Pérez"),
+            row(2, 4, "9B", 7, "Ana Pérez")));
+
+        // When
+        List<String> names = bundleEntries(List.of(ExportFormat.ICS), true, true);
+
+        // Then: secciones en orden alfabético, sin el prefijo "Curso:"/"Profesor:"
+        assertEquals(List.of(
+            "cursos/10A_3.ics",
+            "cursos/9B_4.ics",
+            "profesores/Ana_Pérez_7.ics"), names);
+    }
+
+    @Test
+    void homonymsGetDistinctEntries() throws Exception {
+        // Given
+        when(scheduleRepository.findAllRows()).thenReturn(List.of(
+            row(1, 3, "10A", 7, "Ana Pérez"),
+            row(2, 3, "10A", 8, "Ana Pérez")));
+
+        // When
+        List<String> names = bundleEntries(List.of(ExportFormat.ICS), false, true);
+
+        // Then
+        assertEquals(List.of("profesores/Ana_Pérez_7.ics", "profesores/Ana_Pérez_8.ics"), names);
+    }
+
+    @Test
+    void unsafeCharactersAreReplaced() throws Exception {
+        // Given: separadores de ruta y caracteres reservados no deben crear carpetas ni salir del ZIP
+        when(scheduleRepository.findAllRows()).thenReturn(List.of(
+            row(1, 3, "10A", 5, "../Otro: Nombre\\raro*?")));
+
+        // When
+        List<String> names = bundleEntries(List.of(ExportFormat.ICS), false, true);
+
+        // Then
+        assertEquals(List.of("profesores/.._Otro_Nombre_raro__5.ics"), names);
+        assertEquals(1, names.get(0).chars().filter(c -> c == '/').count());
+    }
+
+    @Test
+    void oneEntryPerSectionAndFormat() throws Exception {
+        // Given
+        when(scheduleRepository.findAllRows()).thenReturn(List.of(row(1, 3, "10A", 7, "Ana")));
+
+        // When
+        List<String> names = bundleEntries(List.of(ExportFormat.EXCEL, ExportFormat.ICS), true, true);
+
+        // Then
+        assertEquals(List.of(
+            "cursos/10A_3.xlsx",
+            "profesores/Ana_7.xlsx",
+            "cursos/10A_3.ics",
+            "profesores/Ana_7.ics"), names);
+    }
+
+    @Test
+    void emptySchoolProducesEmptyZip() throws Exception {
+        when(scheduleRepository.findAllRows()).thenReturn(List.of());
+
+        assertTrue(bundleEntries(List.of(ExportFormat.ICS), true, true).isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+package com.horarios.SGH.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias de las transiciones del circuit breaker SMTP
+ */
+class SmtpCircuitBreakerTest {
+
+    private static final long OPEN_DURATION = 1000;
+
+    private SmtpCircuitBreaker breaker;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new SmtpCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+        ReflectionTestUtils.setField(breaker, "openDurationMs", OPEN_DURATION);
+        now = 10_000;
+        breaker.clock = () -> now;
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+
+        assertEquals(SmtpCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void grantsSingleProbeAfterOpenDuration() {
+        open();
+        now += OPEN_DURATION;
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(SmtpCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // Solo una prueba en curso a la vez
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void successfulProbeCloses() {
+        open();
+        now += OPEN_DURATION;
+        breaker.allowRequest();
+
+        breaker.recordSuccess();
+
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void failedProbeReopens() {
+        open();
+        now += OPEN_DURATION;
+        breaker.allowRequest();
+
+        breaker.recordFailure();
+
+        assertEquals(SmtpCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        now += OPEN_DURATION;
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void releasedProbeCanBeGrantedAgain() {
+        open();
+        now += OPEN_DURATION;
+        assertTrue(breaker.allowRequest());
+
+        // No había correos vencidos: la prueba no se usó
+        breaker.releaseProbe();
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(SmtpCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void abandonedProbeExpiresAfterOpenDuration() {
+        open();
+        now += OPEN_DURATION;
+        assertTrue(breaker.allowRequest());
+
+        now += OPEN_DURATION - 1;
+        assertFalse(breaker.allowRequest());
+        now += 1;
+        assertTrue(breaker.allowRequest());
+    }
+}
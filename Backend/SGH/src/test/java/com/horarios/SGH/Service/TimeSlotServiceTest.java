@@ -0,0 +1,95 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.DTO.TimeSlotDTO;
+import com.horarios.SGH.Model.TimeSlot;
+import com.horarios.SGH.Repository.ITimeSlotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de la caché de la jornada escolar frente a la versión global de exportación
+ */
+@ExtendWith(MockitoExtension.class)
+class TimeSlotServiceTest {
+
+    @Mock
+    private ITimeSlotRepository timeSlotRepository;
+
+    @Mock
+    private ScheduleExportCache exportCache;
+
+    @InjectMocks
+    private TimeSlotService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "cacheTtlMillis", 60000L);
+    }
+
+    private static TimeSlot row(int startHour, int endHour) {
+        TimeSlot slot = new TimeSlot();
+        slot.setStartTime(LocalTime.of(startHour, 0));
+        slot.setEndTime(LocalTime.of(endHour, 0));
+        return slot;
+    }
+
+    @Test
+    void cachedScheduleIsReusedWhileGlobalVersionIsUnchanged() {
+        // Given
+        when(exportCache.currentGlobalVersion()).thenReturn(3L);
+        when(timeSlotRepository.findAllByOrderByStartTimeAsc()).thenReturn(List.of(row(7, 8)));
+
+        // When
+        BellSchedule first = service.getBellSchedule(3);
+        BellSchedule second = service.getBellSchedule(3);
+
+        // Then
+        assertSame(first, second);
+        verify(timeSlotRepository, times(1)).findAllByOrderByStartTimeAsc();
+    }
+
+    @Test
+    void newerGlobalVersionReloadsBeforeTtlExpires() {
+        // Given: este nodo cargó la jornada en la versión 3
+        when(exportCache.currentGlobalVersion()).thenReturn(3L, 4L);
+        when(timeSlotRepository.findAllByOrderByStartTimeAsc())
+            .thenReturn(List.of(row(7, 8)))
+            .thenReturn(List.of(row(6, 7), row(7, 8)));
+        assertEquals(1, service.getBellSchedule(3).size());
+
+        // When: otro nodo reemplazó las franjas y subió la versión a 4
+        BellSchedule reloaded = service.getBellSchedule(4);
+
+        // Then
+        assertEquals(2, reloaded.size());
+        assertEquals(LocalTime.of(6, 0), reloaded.getSlot(0).getStart());
+        verify(timeSlotRepository, times(2)).findAllByOrderByStartTimeAsc();
+    }
+
+    @Test
+    void replaceAllCachesScheduleUnderBumpedVersion() {
+        // Given: sin transacción activa, el hook de commit corre de inmediato
+        when(exportCache.currentGlobalVersion()).thenReturn(5L);
+
+        // When
+        service.replaceAll(List.of(new TimeSlotDTO("7:00", "8:00", null), new TimeSlotDTO("08:00", "08:30", "Descanso")));
+        BellSchedule current = service.getBellSchedule(5);
+
+        // Then: la exportación ve la jornada nueva sin volver a leer la tabla
+        verify(exportCache).invalidateAll();
+        verify(timeSlotRepository, never()).findAllByOrderByStartTimeAsc();
+        assertEquals(2, current.size());
+        assertTrue(current.getSlot(1).isBreak());
+    }
+}
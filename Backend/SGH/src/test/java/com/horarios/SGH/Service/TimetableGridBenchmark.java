@@ -0,0 +1,86 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.courses;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Model.subjects;
+import com.horarios.SGH.Model.teachers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el llenado de la tabla de exportación recorriendo la lista por celda (implementación anterior)
+ * contra la cuadrícula indexada. "schedules" = 35 es un curso; 2100 es un colegio de 60 cursos en una sola tabla.
+ *
+ * Ejecutar: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.horarios.SGH.Service.TimetableGridBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimetableGridBenchmark {
+
+    @Param({"35", "2100"})
+    private int schedules;
+
+    private List<schedule> data;
+
+    @Setup
+    public void setup() {
+        List<BellSchedule.Slot> classSlots = BellSchedule.DEFAULT.getSlots().stream()
+            .filter(slot -> !slot.isBreak())
+            .toList();
+        data = new ArrayList<>(schedules);
+        for (int i = 0; i < schedules; i++) {
+            int perCourse = classSlots.size() * TimetableGrid.DAYS.length;
+            int inCourse = i % perCourse;
+            schedule s = new schedule();
+            s.setCourseId(new courses(i / perCourse, "Curso " + (i / perCourse)));
+            s.setTeacherId(new teachers(i % 40, "Docente " + (i % 40)));
+            s.setSubjectId(new subjects(i % 12, "Materia " + (i % 12)));
+            s.setDay(TimetableGrid.DAYS[inCourse % TimetableGrid.DAYS.length]);
+            BellSchedule.Slot slot = classSlots.get(inCourse / TimetableGrid.DAYS.length);
+            s.setStartTime(slot.getStart());
+            s.setEndTime(slot.getEnd());
+            data.add(s);
+        }
+    }
+
+    @Benchmark
+    public void scanPerCell(Blackhole bh) {
+        for (BellSchedule.Slot slot : BellSchedule.DEFAULT.getSlots()) {
+            String time = slot.getLabel();
+            for (String day : TimetableGrid.DAYS) {
+                schedule s = data.stream()
+                    .filter(x -> x.getDay().equals(day) &&
+                            time.contains(x.getStartTime().format(DateTimeFormatter.ofPattern("h:mm a"))))
+                    .findFirst()
+                    .orElse(null);
+                bh.consume(s);
+            }
+        }
+    }
+
+    @Benchmark
+    public void indexedGrid(Blackhole bh) {
+        TimetableGrid grid = TimetableGrid.of(data);
+        for (int slot = 0; slot < grid.getSlotCount(); slot++) {
+            for (int day = 0; day < TimetableGrid.DAYS.length; day++) {
+                bh.consume(grid.get(slot, day));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TimetableGridBenchmark.class.getSimpleName()).build()).run();
+    }
+}
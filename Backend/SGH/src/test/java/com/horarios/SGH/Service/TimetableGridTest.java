@@ -0,0 +1,141 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Model.subjects;
+import com.horarios.SGH.Model.teachers;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias de la indexación de horarios en la cuadrícula franja × día
+ */
+class TimetableGridTest {
+
+    private static final BellSchedule BELLS = BellSchedule.DEFAULT;
+
+    private static schedule scheduleOf(String teacher, String subject, String day, LocalTime start) {
+        schedule s = new schedule();
+        s.setTeacherId(teacher != null ? new teachers(1, teacher) : null);
+        s.setSubjectId(subject != null ? new subjects(1, subject) : null);
+        s.setDay(day);
+        s.setStartTime(start);
+        s.setEndTime(start != null ? start.plusHours(1) : null);
+        return s;
+    }
+
+    @Test
+    void placesEachScheduleInItsSlotAndDay() {
+        // Given
+        schedule monday = scheduleOf("Ana", "Matemáticas", "Lunes", LocalTime.of(9, 30));
+        schedule friday = scheduleOf("Luis", "Química", "Viernes", LocalTime.of(16, 0));
+
+        // When
+        TimetableGrid grid = TimetableGrid.of(List.of(monday, friday), BELLS);
+
+        // Then
+        assertEquals(BELLS.size(), grid.getSlotCount());
+        assertSame(monday, grid.get(BELLS.indexOf(LocalTime.of(9, 30)), 0));
+        assertSame(friday, grid.get(BELLS.indexOf(LocalTime.of(16, 0)), 4));
+        assertEquals("Ana/Matemáticas", grid.cellText(BELLS.indexOf(LocalTime.of(9, 30)), 0));
+        assertEquals("", grid.cellText(BELLS.indexOf(LocalTime.of(9, 30)), 1));
+    }
+
+    @Test
+    void startInsideSlotUsesThatSlot() {
+        // Given: empieza a mitad de la franja 10:30-11:30
+        schedule s = scheduleOf("Ana", "Física", "Martes", LocalTime.of(10, 45));
+
+        // When
+        TimetableGrid grid = TimetableGrid.of(List.of(s), BELLS);
+
+        // Then
+        assertSame(s, grid.get(BELLS.indexOf(LocalTime.of(10, 30)), 1));
+        assertEquals(BELLS.size(), grid.getSlotCount());
+    }
+
+    @Test
+    void accentedDayIsIndexed() {
+        schedule s = scheduleOf("Ana", "Arte", "Miércoles", LocalTime.of(13, 0));
+
+        TimetableGrid grid = TimetableGrid.of(List.of(s), BELLS);
+
+        assertSame(s, grid.get(BELLS.indexOf(LocalTime.of(13, 0)), 2));
+    }
+
+    @Test
+    void firstScheduleWinsWhenCellIsTaken() {
+        // Given
+        schedule first = scheduleOf("Ana", "Matemáticas", "Jueves", LocalTime.of(14, 0));
+        schedule second = scheduleOf("Luis", "Química", "Jueves", LocalTime.of(14, 30));
+
+        // When
+        TimetableGrid grid = TimetableGrid.of(List.of(first, second), BELLS);
+
+        // Then
+        assertSame(first, grid.get(BELLS.indexOf(LocalTime.of(14, 0)), 3));
+    }
+
+    @Test
+    void unknownOrMissingDayAndTimeAreSkipped() {
+        // Given
+        List<schedule> schedules = List.of(
+            scheduleOf("Ana", "Matemáticas", "Sábado", LocalTime.of(9, 30)),
+            scheduleOf("Ana", "Matemáticas", "lunes", LocalTime.of(9, 30)),
+            scheduleOf("Ana", "Matemáticas", null, LocalTime.of(9, 30)),
+            scheduleOf("Ana", "Matemáticas", "Lunes", null));
+
+        // When
+        TimetableGrid grid = TimetableGrid.of(schedules, BELLS);
+
+        // Then
+        assertEquals(BELLS.size(), grid.getSlotCount());
+        for (int slot = 0; slot < grid.getSlotCount(); slot++) {
+            for (int day = 0; day < TimetableGrid.DAYS.length; day++) {
+                assertNull(grid.get(slot, day));
+            }
+        }
+    }
+
+    @Test
+    void scheduleOutsideTheDayAddsItsOwnRow() {
+        // Given: 7:00 no cae en ninguna franja de la jornada
+        schedule early = scheduleOf("Ana", "Inglés", "Lunes", LocalTime.of(7, 0));
+
+        // When
+        TimetableGrid grid = TimetableGrid.of(List.of(early), BELLS);
+
+        // Then: la franja añadida va primero y termina al fin del horario
+        assertEquals(BELLS.size() + 1, grid.getSlotCount());
+        assertEquals("7:00 AM - 8:00 AM", grid.getSlot(0).getLabel());
+        assertFalse(grid.isBreak(0));
+        assertSame(early, grid.get(0, 0));
+    }
+
+    @Test
+    void breakSlotsShowLabelEvenWithScheduleInside() {
+        // Given
+        schedule duringBreak = scheduleOf("Ana", "Matemáticas", "Lunes", LocalTime.of(12, 15));
+        int lunch = BELLS.indexOf(LocalTime.of(12, 0));
+
+        // When
+        TimetableGrid grid = TimetableGrid.of(List.of(duringBreak), BELLS);
+
+        // Then
+        assertTrue(grid.isBreak(lunch));
+        assertEquals("Almuerzo", grid.cellText(lunch, 0));
+        assertEquals("Almuerzo", grid.cellText(lunch, 4));
+    }
+
+    @Test
+    void missingTeacherOrSubjectLeavesThatSideEmpty() {
+        schedule s = scheduleOf(null, "Música", "Lunes", LocalTime.of(9, 30));
+
+        TimetableGrid grid = TimetableGrid.of(List.of(s), BELLS);
+
+        assertEquals("/Música", grid.cellText(BELLS.indexOf(LocalTime.of(9, 30)), 0));
+    }
+}
@@ -0,0 +1,194 @@
+package com.horarios.SGH.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.horarios.SGH.DTO.ScheduleDTO;
+import com.horarios.SGH.DTO.ScheduleRowDTO;
+import com.horarios.SGH.Model.courses;
+import com.horarios.SGH.Model.schedule;
+import com.horarios.SGH.Model.teachers;
+import com.horarios.SGH.Repository.IScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de la actualización incremental de la instantánea de horarios:
+ * las listas y el JSON en caché deben coincidir con lo que hay en la base de datos tras cada cambio.
+ * Sin transacción activa, los avisos se aplican de inmediato.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TimetableSnapshotServiceTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Mock
+    private IScheduleRepository scheduleRepo;
+
+    private TimetableSnapshotService service;
+
+    // Cursos 10 y 11; profesores 20, 21 y 22
+    private final ScheduleRowDTO row1 = row(1, "Lunes", 10, 20);
+    private final ScheduleRowDTO row2 = row(2, "Martes", 10, 21);
+    private final ScheduleRowDTO row3 = row(3, "Lunes", 11, 22);
+
+    @BeforeEach
+    void setUp() {
+        service = new TimetableSnapshotService(scheduleRepo, JSON);
+        when(scheduleRepo.findAllRows()).thenReturn(List.of(row1, row2, row3));
+        service.current();
+    }
+
+    private static ScheduleRowDTO row(int id, String day, int courseId, int teacherId) {
+        return new ScheduleRowDTO(id, day, LocalTime.of(7, 0), LocalTime.of(8, 0), "Horario " + id,
+            courseId, "Curso " + courseId, teacherId, "Profesor " + teacherId, 1, "Materia");
+    }
+
+    private static schedule entity(int courseId, int teacherId) {
+        schedule s = new schedule();
+        s.setCourseId(new courses(courseId, "Curso " + courseId));
+        s.setTeacherId(new teachers(teacherId, "Profesor " + teacherId));
+        return s;
+    }
+
+    private void stubCourse(int courseId, ScheduleRowDTO... rows) {
+        when(scheduleRepo.findRowsByCourseId(courseId)).thenReturn(List.of(rows));
+    }
+
+    private void stubTeacher(int teacherId, ScheduleRowDTO... rows) {
+        when(scheduleRepo.findRowsByTeacherId(teacherId)).thenReturn(List.of(rows));
+    }
+
+    private static List<Integer> ids(List<ScheduleDTO> dtos) {
+        return dtos.stream().map(ScheduleDTO::getId).collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(byte[] json) throws Exception {
+        List<Integer> result = new ArrayList<>();
+        for (JsonNode node : JSON.readTree(json)) {
+            result.add(node.get("id").asInt());
+        }
+        return result;
+    }
+
+    /**
+     * El JSON en caché de cada curso y profesor es exactamente la serialización de su lista
+     */
+    private void assertJsonMatchesLists(int... courseAndTeacherIds) throws Exception {
+        for (int id : courseAndTeacherIds) {
+            assertArrayEquals(JSON.writeValueAsBytes(service.byCourse(id)), service.courseJson(id), "curso " + id);
+            assertArrayEquals(JSON.writeValueAsBytes(service.byTeacher(id)), service.teacherJson(id), "profesor " + id);
+        }
+        assertArrayEquals(JSON.writeValueAsBytes(service.all()), service.allJson());
+    }
+
+    @Test
+    void createAddsScheduleToCourseTeacherAndAll() throws Exception {
+        // Given
+        ScheduleRowDTO row4 = row(4, "Martes", 11, 22);
+        stubCourse(11, row3, row4);
+        stubTeacher(22, row3, row4);
+        byte[] untouchedCourse = service.courseJson(10);
+        long version = service.current().getVersion();
+
+        // When
+        service.schedulesChanged(List.of(entity(11, 22)));
+
+        // Then
+        assertEquals(version + 1, service.current().getVersion());
+        assertEquals(List.of(3, 4), ids(service.byCourse(11)));
+        assertEquals(List.of(3, 4), ids(service.byTeacher(22)));
+        assertEquals(List.of(1, 2, 3, 4), ids(service.all()));
+        assertEquals(List.of(3, 4), ids(service.courseJson(11)));
+        assertEquals(List.of(3, 4), ids(service.teacherJson(22)));
+        assertEquals(List.of(1, 2, 3, 4), ids(service.allJson()));
+        assertEquals(List.of(1, 3), ids(service.current().getByDay("Lunes")));
+        assertSame(untouchedCourse, service.courseJson(10), "El JSON de un curso sin cambios se reutiliza");
+        assertJsonMatchesLists(10, 11, 20, 21, 22);
+    }
+
+    @Test
+    void updateMovingCourseAndTeacherRefreshesOldAndNewOwners() throws Exception {
+        // Given: el horario 2 pasa del curso 10 / profesor 21 al curso 11 / profesor 22, y al miércoles
+        ScheduleRowDTO moved = row(2, "Miércoles", 11, 22);
+        stubCourse(10, row1);
+        stubCourse(11, moved, row3);
+        stubTeacher(21);
+        stubTeacher(22, moved, row3);
+        byte[] untouchedTeacher = service.teacherJson(20);
+
+        // When: ScheduleService avisa con el estado anterior y con el guardado
+        service.schedulesChanged(List.of(entity(10, 21)));
+        service.schedulesChanged(List.of(entity(11, 22)));
+
+        // Then
+        assertEquals(List.of(1), ids(service.byCourse(10)));
+        assertEquals(List.of(2, 3), ids(service.byCourse(11)));
+        assertTrue(service.byTeacher(21).isEmpty());
+        assertEquals(List.of(2, 3), ids(service.byTeacher(22)));
+        assertEquals("Miércoles", service.byCourse(11).get(0).getDay());
+        assertEquals(List.of(2), ids(service.current().getByDay("Miércoles")));
+        assertTrue(service.current().getByDay("Martes").isEmpty());
+        assertEquals(List.of(1), ids(service.courseJson(10)));
+        assertEquals(List.of(2, 3), ids(service.courseJson(11)));
+        assertEquals("[]", new String(service.teacherJson(21)));
+        assertEquals(List.of(2, 3), ids(service.teacherJson(22)));
+        assertArrayEquals(untouchedTeacher, service.teacherJson(20));
+        assertJsonMatchesLists(10, 11, 20, 21, 22);
+    }
+
+    @Test
+    void deleteRemovesScheduleEverywhere() throws Exception {
+        // Given
+        stubCourse(11);
+        stubTeacher(22);
+
+        // When
+        service.schedulesChanged(List.of(entity(11, 22)));
+
+        // Then
+        assertTrue(service.byCourse(11).isEmpty());
+        assertTrue(service.byTeacher(22).isEmpty());
+        assertEquals(List.of(1, 2), ids(service.all()));
+        assertEquals(List.of(1), ids(service.current().getByDay("Lunes")));
+        assertEquals("[]", new String(service.courseJson(11)));
+        assertEquals("[]", new String(service.teacherJson(22)));
+        assertEquals(List.of(1, 2), ids(service.allJson()));
+        assertJsonMatchesLists(10, 11, 20, 21, 22);
+    }
+
+    @Test
+    void refreshAllRebuildsFromDatabase() throws Exception {
+        // Given: otro proceso borró los horarios del lunes
+        when(scheduleRepo.findAllRows()).thenReturn(List.of(row2));
+        long version = service.current().getVersion();
+
+        // When
+        service.refreshAll();
+
+        // Then
+        assertEquals(version + 1, service.current().getVersion());
+        assertEquals(List.of(2), ids(service.all()));
+        assertTrue(service.current().getByDay("Lunes").isEmpty());
+        assertTrue(service.byCourse(11).isEmpty());
+        assertEquals(List.of(2), ids(service.byCourse(10)));
+        assertEquals(List.of(2), ids(service.courseJson(10)));
+        assertEquals("[]", new String(service.courseJson(11)));
+        assertEquals(List.of(2), ids(service.allJson()));
+        assertJsonMatchesLists(10, 11, 20, 21, 22);
+        verify(scheduleRepo, times(2)).findAllRows();
+    }
+}
@@ -0,0 +1,304 @@
+package com.horarios.SGH.Service;
+
+import com.horarios.SGH.Repository.IInAppNotificationRepository;
+import com.horarios.SGH.Repository.IInAppNotificationRepository.UnreadSummary;
+import com.horarios.SGH.Repository.Iusers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de los contadores de no leídas en memoria.
+ * Sin transacción activa, TransactionHooks aplica los cambios de inmediato.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UnreadNotificationCounterTest {
+
+    @Mock
+    private IInAppNotificationRepository inAppNotificationRepository;
+
+    @Mock
+    private Iusers usersRepository;
+
+    @Mock
+    private BroadcastNotificationService broadcastService;
+
+    @InjectMocks
+    private UnreadNotificationCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(counter, "maxUsers", 100);
+        when(usersRepository.findById(anyInt())).thenReturn(Optional.empty());
+        stubUnread(1, 3);
+        stubUnread(2, 1);
+        stubUnread(3, 0);
+    }
+
+    private void stubUnread(int userId, long count) {
+        List<UnreadSummary> summaries = count == 0 ? List.of() : List.of(summary(userId, count));
+        when(inAppNotificationRepository.summarizeUnreadByUserIds(eq(List.of(userId)), any()))
+            .thenReturn(summaries);
+    }
+
+    private static UnreadSummary summary(int userId, long count) {
+        return new UnreadSummary() {
+            public Integer getUserId() {
+                return userId;
+            }
+
+            public Long getUnreadCount() {
+                return count;
+            }
+
+            public LocalDateTime getNextExpiry() {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    void broadcastToAudienceIncrementsOnlyLoadedTargets() {
+        // Given
+        counter.get(1);
+        counter.get(2);
+        when(usersRepository.findIdsByAudience("ESTUDIANTE", 5)).thenReturn(List.of(1, 3));
+
+        // When
+        counter.incrementAudience("ESTUDIANTE", 5, null);
+
+        // Then
+        assertEquals(4, counter.get(1));
+        assertEquals(1, counter.get(2));
+        // El 3 no estaba cargado: se lee de la base de datos al pedirlo
+        assertEquals(0, counter.get(3));
+        verify(inAppNotificationRepository, times(1)).summarizeUnreadByUserIds(eq(List.of(1)), any());
+        verify(inAppNotificationRepository, times(1)).summarizeUnreadByUserIds(eq(List.of(2)), any());
+    }
+
+    @Test
+    void broadcastToEveryoneIncrementsAllLoadedCountersWithoutQueries() {
+        // Given
+        counter.get(1);
+        counter.get(2);
+
+        // When
+        counter.incrementAudience(null, null, null);
+
+        // Then
+        assertEquals(4, counter.get(1));
+        assertEquals(2, counter.get(2));
+        verify(usersRepository, never()).findIdsByAudience(any(), any());
+        verify(inAppNotificationRepository, times(2)).summarizeUnreadByUserIds(anyList(), any());
+    }
+
+    @Test
+    void broadcastWithNoLoadedCountersSkipsAudienceQuery() {
+        // When
+        counter.incrementAudience("MAESTRO", null, null);
+
+        // Then
+        verify(usersRepository, never()).findIdsByAudience(any(), any());
+    }
+
+    @Test
+    void expiringBroadcastReloadsCounterOnceExpired() {
+        // Given
+        counter.get(1);
+
+        // When
+        counter.incrementAudience(null, null, LocalDateTime.now().minusSeconds(1));
+
+        // Then: ya venció, el contador se recarga
+        assertEquals(3, counter.get(1));
+        verify(inAppNotificationRepository, times(2)).summarizeUnreadByUserIds(eq(List.of(1)), any());
+    }
+
+    @Test
+    void invalidateDropsOnlyGivenCounters() {
+        // Given
+        counter.get(1);
+        counter.get(2);
+
+        // When
+        counter.invalidate(List.of(1));
+        counter.get(1);
+        counter.get(2);
+
+        // Then: solo el 1 vuelve a la base de datos
+        verify(inAppNotificationRepository, times(2)).summarizeUnreadByUserIds(eq(List.of(1)), any());
+        verify(inAppNotificationRepository, times(1)).summarizeUnreadByUserIds(eq(List.of(2)), any());
+    }
+
+    @Test
+    void firstReadLoadsFromDatabaseAndLaterReadsUseMemory() {
+        // When
+        long first = counter.get(1);
+        long second = counter.get(1);
+
+        // Then
+        assertEquals(3, first);
+        assertEquals(3, second);
+        verify(inAppNotificationRepository, times(1)).summarizeUnreadByUserIds(eq(List.of(1)), any());
+    }
+
+    @Test
+    void incrementAndDecrementAdjustLoadedCounter() {
+        // Given
+        counter.get(1);
+
+        // When
+        counter.increment(1, null);
+        counter.increment(1, null);
+        counter.decrement(1);
+
+        // Then
+        assertEquals(4, counter.get(1));
+        verify(inAppNotificationRepository, times(1)).summarizeUnreadByUserIds(eq(List.of(1)), any());
+    }
+
+    @Test
+    void decrementNeverGoesBelowZero() {
+        // Given
+        counter.get(3);
+
+        // When
+        counter.decrement(3);
+
+        // Then
+        assertEquals(0, counter.get(3));
+    }
+
+    @Test
+    void resetLeavesCounterAtZero() {
+        // Given
+        counter.get(1);
+
+        // When
+        counter.reset(1);
+
+        // Then
+        assertEquals(0, counter.get(1));
+    }
+
+    @Test
+    void changesToUnloadedCountersAreIgnored() {
+        // When: el usuario 2 no está cargado
+        counter.increment(2, null);
+        counter.decrement(2);
+        counter.reset(2);
+
+        // Then: se lee el valor real de la base de datos
+        assertEquals(1, counter.get(2));
+    }
+
+    @Test
+    void incrementWithPastExpiryForcesReload() {
+        // Given
+        counter.get(1);
+
+        // When: la nueva notificación ya venció
+        counter.increment(1, LocalDateTime.now().minusSeconds(1));
+
+        // Then
+        assertEquals(3, counter.get(1));
+        verify(inAppNotificationRepository, times(2)).summarizeUnreadByUserIds(eq(List.of(1)), any());
+    }
+
+    @Test
+    void countersAreNotCachedBeyondMaxUsers() {
+        // Given
+        ReflectionTestUtils.setField(counter, "maxUsers", 1);
+        counter.get(1);
+
+        // When
+        counter.get(2);
+        counter.get(2);
+
+        // Then: el 2 no cabe y se consulta cada vez
+        verify(inAppNotificationRepository, times(2)).summarizeUnreadByUserIds(eq(List.of(2)), any());
+    }
+
+    @Test
+    void incrementDuringLoadDiscardsTheStaleLoad() {
+        // Given: llega una notificación mientras se lee la base de datos (la lectura no la incluye)
+        when(inAppNotificationRepository.summarizeUnreadByUserIds(eq(List.of(4)), any()))
+            .thenAnswer(inv -> {
+                counter.increment(4, null);
+                return List.of(summary(4, 5));
+            })
+            .thenReturn(List.of(summary(4, 6)));
+
+        // When
+        long first = counter.get(4);
+        long second = counter.get(4);
+
+        // Then: la carga vieja no se guardó y la siguiente consulta ve la notificación
+        assertEquals(5, first);
+        assertEquals(6, second);
+        verify(inAppNotificationRepository, times(2)).summarizeUnreadByUserIds(eq(List.of(4)), any());
+    }
+
+    @Test
+    void broadcastDuringLoadDiscardsTheStaleLoad() {
+        // Given
+        when(inAppNotificationRepository.summarizeUnreadByUserIds(eq(List.of(4)), any()))
+            .thenAnswer(inv -> {
+                counter.incrementAudience("ESTUDIANTE", null, null);
+                return List.of(summary(4, 2));
+            })
+            .thenReturn(List.of(summary(4, 3)));
+
+        // When
+        counter.get(4);
+
+        // Then
+        assertEquals(3, counter.get(4));
+    }
+
+    @Test
+    void reconcileDoesNotOverwriteIncrementAppliedDuringItsQuery() {
+        // Given: contador cargado en 3; la reconciliación lee 3 justo antes de que llegue otra notificación
+        counter.get(1);
+        when(inAppNotificationRepository.summarizeUnreadByUserIds(eq(List.of(1)), any()))
+            .thenAnswer(inv -> {
+                counter.increment(1, null);
+                return List.of(summary(1, 3));
+            });
+
+        // When
+        counter.reconcile();
+
+        // Then: se conserva el incremento en lugar del valor leído
+        assertEquals(4, counter.get(1));
+    }
+
+    @Test
+    void reconcileCorrectsDriftWhenNothingChanged() {
+        // Given
+        counter.get(1);
+        counter.increment(1, null);
+        stubUnread(1, 3);
+
+        // When
+        counter.reconcile();
+
+        // Then
+        assertEquals(3, counter.get(1));
+    }
+}
@@ -3,6 +3,7 @@ package com.horarios.SGH;
 import com.horarios.SGH.Controller.usersController;
 import com.horarios.SGH.Model.users;
 import com.horarios.SGH.Repository.Iusers;
+import com.horarios.SGH.Service.StudentCourseCache;
 import com.horarios.SGH.Service.usersService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +31,9 @@ public class UsersControllerTest {
     @MockBean
     private Iusers usersRepository;
 
+    @MockBean
+    private StudentCourseCache studentCourseCache;
+
     @Test
     public void testGetUserByIdSuccess() throws Exception {
         users user = new users();
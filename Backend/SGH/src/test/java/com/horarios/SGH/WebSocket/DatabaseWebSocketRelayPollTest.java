@@ -0,0 +1,138 @@
+package com.horarios.SGH.WebSocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.horarios.SGH.Model.WebSocketRelayMessage;
+import com.horarios.SGH.Repository.IWebSocketRelayMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del sondeo del relay por base de datos: marca de agua por ID y huecos
+ * de IDs que se confirman fuera de orden
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DatabaseWebSocketRelayPollTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Mock
+    private IWebSocketRelayMessageRepository relayMessageRepository;
+
+    @Mock
+    private WebSocketPresenceRegistry presenceRegistry;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private DatabaseWebSocketRelay relay;
+
+    private final List<String> delivered = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(relay, "lookbackMillis", 10000L);
+        when(presenceRegistry.getNodeId()).thenReturn("nodo-b");
+        when(relayMessageRepository.findMaxMessageId()).thenReturn(10L);
+        when(relayMessageRepository.findAfterId(anyLong(), any())).thenReturn(List.of());
+        when(relayMessageRepository.findAllById(any())).thenReturn(List.of());
+        relay.subscribe(envelope -> {
+            delivered.add(envelope.getMessage());
+            return 1;
+        });
+        // El primer sondeo solo fija la marca de agua
+        relay.poll();
+    }
+
+    private static WebSocketRelayMessage message(long id, String node) throws Exception {
+        WebSocketRelayMessage message = new WebSocketRelayMessage(node,
+            JSON.writeValueAsString(RelayEnvelope.toAll("m" + id)));
+        message.setMessageId(id);
+        return message;
+    }
+
+    @Test
+    void firstPollSkipsExistingMessages() {
+        assertTrue(delivered.isEmpty());
+        verify(relayMessageRepository, never()).findAfterId(anyLong(), any());
+    }
+
+    @Test
+    void readsOnlyAboveHighWaterMark() throws Exception {
+        // Given
+        when(relayMessageRepository.findAfterId(eq(10L), any())).thenReturn(List.of(message(11, "nodo-a")));
+
+        // When
+        relay.poll();
+        relay.poll();
+
+        // Then
+        assertEquals(List.of("m11"), delivered);
+        verify(relayMessageRepository).findAfterId(eq(11L), any());
+    }
+
+    @Test
+    void skipsOwnMessagesButAdvancesPastThem() throws Exception {
+        // Given
+        when(relayMessageRepository.findAfterId(eq(10L), any()))
+            .thenReturn(List.of(message(11, "nodo-b"), message(12, "nodo-a")));
+
+        // When
+        relay.poll();
+        relay.poll();
+
+        // Then
+        assertEquals(List.of("m12"), delivered);
+        verify(relayMessageRepository).findAfterId(eq(12L), any());
+        verify(relayMessageRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void gapCommittedLaterIsDeliveredOnce() throws Exception {
+        // Given: el 12 aún no estaba confirmado cuando se leyó el 13
+        when(relayMessageRepository.findAfterId(eq(10L), any()))
+            .thenReturn(List.of(message(11, "nodo-a"), message(13, "nodo-a")));
+        relay.poll();
+        when(relayMessageRepository.findAllById(List.of(12L))).thenReturn(List.of(message(12, "nodo-a")));
+
+        // When
+        relay.poll();
+        relay.poll();
+
+        // Then
+        assertEquals(List.of("m11", "m13", "m12"), delivered);
+        verify(relayMessageRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void gapIsForgottenAfterLookback() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(relay, "lookbackMillis", 1L);
+        when(relayMessageRepository.findAfterId(eq(10L), any())).thenReturn(List.of(message(12, "nodo-a")));
+        relay.poll();
+        Thread.sleep(5);
+
+        // When: el 11 nunca aparece (transacción revertida)
+        relay.poll();
+        relay.poll();
+
+        // Then
+        verify(relayMessageRepository, times(1)).findAllById(List.of(11L));
+    }
+}
@@ -0,0 +1,203 @@
+package com.horarios.SGH.WebSocket;
+
+import com.horarios.SGH.Model.Roles;
+import com.horarios.SGH.Model.courses;
+import com.horarios.SGH.Model.users;
+import com.horarios.SGH.Repository.Iusers;
+import com.horarios.SGH.Service.TokenRevocationService;
+import com.horarios.SGH.jwt.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del handshake WebSocket: origen del token y datos de audiencia guardados en la sesión
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JwtHandshakeInterceptorTest {
+
+    private static final String TOKEN = "token-valido";
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private Iusers userRepository;
+
+    @InjectMocks
+    private JwtHandshakeInterceptor interceptor;
+
+    private final UserDetails userDetails = mock(UserDetails.class);
+    private final Map<String, Object> attributes = new HashMap<>();
+    private MockHttpServletResponse servletResponse;
+    private ServerHttpResponse response;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtTokenProvider.resolveToken(any())).thenCallRealMethod();
+        when(jwtTokenProvider.getUsernameFromToken(TOKEN)).thenReturn("ana");
+        when(jwtTokenProvider.validateToken(TOKEN, userDetails)).thenReturn(true);
+        when(userDetailsService.loadUserByUsername("ana")).thenReturn(userDetails);
+        servletResponse = new MockHttpServletResponse();
+        response = new ServletServerHttpResponse(servletResponse);
+    }
+
+    private static users user(int userId, String roleName, Integer courseId) {
+        Roles role = new Roles();
+        role.setRoleName(roleName);
+        users user = new users();
+        user.setUserId(userId);
+        user.setRole(role);
+        if (courseId != null) {
+            user.setCourse(new courses(courseId, "Curso " + courseId));
+        }
+        return user;
+    }
+
+    private boolean handshake(MockHttpServletRequest request) {
+        return interceptor.beforeHandshake(new ServletServerHttpRequest(request), response,
+            mock(WebSocketHandler.class), attributes);
+    }
+
+    private static MockHttpServletRequest withHeader(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static MockHttpServletRequest withQuery(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("token", token);
+        return request;
+    }
+
+    @Test
+    void headerTokenStoresUserRoleAndCourse() {
+        // Given
+        when(userRepository.findByUserName("ana")).thenReturn(Optional.of(user(7, "ESTUDIANTE", 12)));
+
+        // When
+        boolean accepted = handshake(withHeader(TOKEN));
+
+        // Then
+        assertTrue(accepted);
+        assertEquals("7", attributes.get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE));
+        assertEquals("ESTUDIANTE", attributes.get(JwtHandshakeInterceptor.ROLE_ATTRIBUTE));
+        assertEquals(12, attributes.get(JwtHandshakeInterceptor.COURSE_ID_ATTRIBUTE));
+    }
+
+    @Test
+    void queryTokenIsAcceptedForBrowsers() {
+        // Given
+        when(userRepository.findByUserName("ana")).thenReturn(Optional.of(user(7, "MAESTRO", null)));
+
+        // When
+        boolean accepted = handshake(withQuery(TOKEN));
+
+        // Then: sin curso no se guarda el atributo
+        assertTrue(accepted);
+        assertEquals("MAESTRO", attributes.get(JwtHandshakeInterceptor.ROLE_ATTRIBUTE));
+        assertFalse(attributes.containsKey(JwtHandshakeInterceptor.COURSE_ID_ATTRIBUTE));
+    }
+
+    @Test
+    void headerTakesPrecedenceOverQueryParameter() {
+        // Given
+        when(userRepository.findByUserName("ana")).thenReturn(Optional.of(user(7, "COORDINADOR", null)));
+        MockHttpServletRequest request = withHeader(TOKEN);
+        request.setParameter("token", "otro-token");
+
+        // When
+        boolean accepted = handshake(request);
+
+        // Then
+        assertTrue(accepted);
+        verify(jwtTokenProvider).getUsernameFromToken(TOKEN);
+        verify(jwtTokenProvider, never()).getUsernameFromToken("otro-token");
+    }
+
+    @Test
+    void missingTokenIsUnauthorized() {
+        assertFalse(handshake(new MockHttpServletRequest()));
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), servletResponse.getStatus());
+        assertTrue(attributes.isEmpty());
+    }
+
+    @Test
+    void blankQueryTokenIsUnauthorized() {
+        assertFalse(handshake(withQuery("  ")));
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), servletResponse.getStatus());
+    }
+
+    @Test
+    void revokedTokenIsUnauthorized() {
+        // Given
+        when(tokenRevocationService.isTokenRevoked(TOKEN)).thenReturn(true);
+
+        // When / Then
+        assertFalse(handshake(withHeader(TOKEN)));
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), servletResponse.getStatus());
+        verifyNoInteractions(userDetailsService, userRepository);
+    }
+
+    @Test
+    void invalidTokenIsUnauthorized() {
+        // Given
+        when(jwtTokenProvider.validateToken(TOKEN, userDetails)).thenReturn(false);
+
+        // When / Then
+        assertFalse(handshake(withHeader(TOKEN)));
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), servletResponse.getStatus());
+        assertTrue(attributes.isEmpty());
+    }
+
+    @Test
+    void malformedTokenIsUnauthorized() {
+        // Given
+        when(jwtTokenProvider.getUsernameFromToken(TOKEN)).thenThrow(new IllegalArgumentException("JWT mal formado"));
+
+        // When / Then
+        assertFalse(handshake(withHeader(TOKEN)));
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), servletResponse.getStatus());
+    }
+
+    @Test
+    void userWithoutDatabaseRecordIsForbidden() {
+        // Given
+        when(userRepository.findByUserName("ana")).thenReturn(Optional.empty());
+
+        // When / Then
+        assertFalse(handshake(withHeader(TOKEN)));
+        assertEquals(HttpStatus.FORBIDDEN.value(), servletResponse.getStatus());
+        assertTrue(attributes.isEmpty());
+    }
+}
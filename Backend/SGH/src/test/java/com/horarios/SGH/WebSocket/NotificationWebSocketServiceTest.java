@@ -0,0 +1,165 @@
+package com.horarios.SGH.WebSocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de la difusión WebSocket: el payload se serializa una sola vez y cada sesión
+ * de la audiencia recibe el mismo mensaje, una sola vez aunque pertenezca a varias audiencias.
+ * Relay local y executors en el mismo hilo, así cada mensaje se envía al encolarlo.
+ */
+class NotificationWebSocketServiceTest {
+
+    private NotificationWebSocketService service;
+    private ObjectMapper objectMapper;
+
+    // Sesiones: estudiante del curso 10, estudiante del curso 11, docente, coordinador
+    private WebSocketSession student10;
+    private WebSocketSession student11;
+    private WebSocketSession teacher;
+    private WebSocketSession coordinator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = spy(new ObjectMapper());
+        SseNotificationService sseService = mock(SseNotificationService.class);
+
+        service = new NotificationWebSocketService();
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "writerExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(service, "closeExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(service, "sendTimeLimit", 10000L);
+        ReflectionTestUtils.setField(service, "maxQueuedMessages", 16);
+        ReflectionTestUtils.setField(service, "relay", new LocalWebSocketRelay());
+        ReflectionTestUtils.setField(service, "presenceRegistry", mock(WebSocketPresenceRegistry.class));
+        ReflectionTestUtils.setField(service, "sseService", sseService);
+        service.subscribeToRelay();
+
+        student10 = connect("1", "s1", "ESTUDIANTE", 10);
+        student11 = connect("2", "s2", "ESTUDIANTE", 11);
+        teacher = connect("3", "s3", "MAESTRO", null);
+        coordinator = connect("4", "s4", "COORDINADOR", null);
+        // Descarta la confirmación de conexión y su serialización
+        clearInvocations(objectMapper, student10, student11, teacher, coordinator);
+    }
+
+    private WebSocketSession connect(String userId, String sessionId, String roleName, Integer courseId) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(JwtHandshakeInterceptor.ROLE_ATTRIBUTE, roleName);
+        if (courseId != null) {
+            attributes.put(JwtHandshakeInterceptor.COURSE_ID_ATTRIBUTE, courseId);
+        }
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(sessionId);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.isOpen()).thenReturn(true);
+        service.registerUserSession(userId, session);
+        return session;
+    }
+
+    private static List<TextMessage> sent(WebSocketSession session) throws Exception {
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeast(0)).sendMessage(captor.capture());
+        return new ArrayList<>(captor.getAllValues());
+    }
+
+    @Test
+    void audienceBroadcastSerializesOnceAndSharesTheMessage() throws Exception {
+        // When: docente por id, coordinadores por rol y el curso 10
+        int queued = service.broadcastToAudience(Set.of("3"), Set.of("COORDINADOR"), Set.of(10),
+            "schedule_changed", Map.of("courseIds", List.of(10)));
+
+        // Then
+        assertEquals(3, queued);
+        verify(objectMapper, times(1)).writeValueAsString(any());
+        TextMessage message = sent(teacher).get(0);
+        assertSame(message, sent(coordinator).get(0));
+        assertSame(message, sent(student10).get(0));
+        assertTrue(message.getPayload().contains("\"type\":\"schedule_changed\""));
+        assertTrue(sent(student11).isEmpty());
+    }
+
+    @Test
+    void sessionInSeveralAudiencesReceivesMessageOnce() throws Exception {
+        // When: el estudiante coincide por id, por rol y por curso
+        int queued = service.broadcastToAudience(Set.of("1"), Set.of("ESTUDIANTE"), Set.of(10), "aviso", Map.of());
+
+        // Then
+        assertEquals(2, queued);
+        assertEquals(1, sent(student10).size());
+        assertEquals(1, sent(student11).size());
+        assertTrue(sent(teacher).isEmpty());
+        assertTrue(sent(coordinator).isEmpty());
+    }
+
+    @Test
+    void roleBroadcastReachesOnlyThatRole() throws Exception {
+        assertEquals(1, service.broadcastToRole("COORDINADOR", "pending_users_changed", Map.of("userId", 9)));
+
+        assertEquals(1, sent(coordinator).size());
+        assertTrue(sent(student10).isEmpty());
+        assertTrue(sent(student11).isEmpty());
+        assertTrue(sent(teacher).isEmpty());
+    }
+
+    @Test
+    void courseBroadcastReachesOnlyThatCourse() throws Exception {
+        assertEquals(1, service.broadcastToCourse(11, "aviso", Map.of()));
+
+        assertEquals(1, sent(student11).size());
+        assertTrue(sent(student10).isEmpty());
+        assertTrue(sent(teacher).isEmpty());
+        assertTrue(sent(coordinator).isEmpty());
+    }
+
+    @Test
+    void userBroadcastReachesEveryOpenSessionOfThoseUsers() throws Exception {
+        // Given: el docente también tiene abierta la app móvil
+        WebSocketSession teacherMobile = connect("3", "s3-movil", "MAESTRO", null);
+        clearInvocations(objectMapper, teacherMobile);
+
+        // When
+        int queued = service.broadcastToUsers(List.of("3"), "aviso", Map.of());
+
+        // Then
+        assertEquals(2, queued);
+        assertSame(sent(teacher).get(0), sent(teacherMobile).get(0));
+        assertTrue(sent(coordinator).isEmpty());
+        verify(objectMapper, times(1)).writeValueAsString(any());
+    }
+
+    @Test
+    void broadcastToAllReachesEverySessionWithOneSerialization() throws Exception {
+        assertEquals(4, service.broadcastToAll("mantenimiento", Map.of()));
+
+        TextMessage message = sent(student10).get(0);
+        assertSame(message, sent(student11).get(0));
+        assertSame(message, sent(teacher).get(0));
+        assertSame(message, sent(coordinator).get(0));
+        verify(objectMapper, times(1)).writeValueAsString(any());
+    }
+
+    @Test
+    void emptyAudienceSkipsSerialization() throws Exception {
+        assertEquals(0, service.broadcastToAudience(null, Set.of(), null, "aviso", Map.of()));
+
+        verify(objectMapper, never()).writeValueAsString(any());
+        assertTrue(sent(student10).isEmpty());
+    }
+}
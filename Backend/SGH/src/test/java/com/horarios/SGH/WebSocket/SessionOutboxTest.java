@@ -0,0 +1,171 @@
+package com.horarios.SGH.WebSocket;
+
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del límite de tiempo de envío de SessionOutbox, aplicado del lado del escritor
+ */
+class SessionOutboxTest {
+
+    private static final long SEND_TIME_LIMIT = 100;
+
+    // Un solo hilo de escritura: una sesión atascada bastaría para frenar a todas
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    private final ExecutorService closer = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdownNow();
+        closer.shutdownNow();
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    @Test
+    void stalledSessionIsClosedWithoutNewMessagesAndFreesTheWriter() throws Exception {
+        // Given: un cliente que no lee; el contenedor aborta la escritura al cerrar la sesión
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch sending = new CountDownLatch(1);
+        WebSocketSession slow = session("lenta");
+        doAnswer(inv -> {
+            sending.countDown();
+            released.await(5, TimeUnit.SECONDS);
+            throw new IOException("escritura abortada");
+        }).when(slow).sendMessage(any());
+        doAnswer(inv -> {
+            released.countDown();
+            return null;
+        }).when(slow).close(any(CloseStatus.class));
+
+        CountDownLatch delivered = new CountDownLatch(1);
+        WebSocketSession fast = session("rapida");
+        doAnswer(inv -> {
+            delivered.countDown();
+            return null;
+        }).when(fast).sendMessage(any());
+
+        SessionOutbox slowOutbox = new SessionOutbox("1", slow, writer, closer, 16, SEND_TIME_LIMIT);
+        SessionOutbox fastOutbox = new SessionOutbox("2", fast, writer, closer, 16, SEND_TIME_LIMIT);
+
+        // When
+        slowOutbox.enqueue(new TextMessage("a"), null);
+        assertTrue(sending.await(1, TimeUnit.SECONDS));
+        fastOutbox.enqueue(new TextMessage("b"), null);
+        assertFalse(slowOutbox.closeIfStalled(), "Aún no supera el límite");
+        Thread.sleep(SEND_TIME_LIMIT + 50);
+
+        // Then: el vigilante cierra la sesión atascada y el hilo queda libre para la otra
+        assertTrue(slowOutbox.closeIfStalled());
+        verify(slow, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertTrue(delivered.await(1, TimeUnit.SECONDS));
+        assertFalse(slowOutbox.isOpen());
+        assertFalse(slowOutbox.enqueue(new TextMessage("c"), null));
+    }
+
+    @Test
+    void idleSessionIsNotConsideredStalled() {
+        SessionOutbox outbox = new SessionOutbox("1", session("s"), writer, closer, 16, SEND_TIME_LIMIT);
+
+        assertFalse(outbox.closeIfStalled());
+        assertTrue(outbox.isOpen());
+    }
+
+    @Test
+    void nativeSessionGetsBlockingSendTimeout() {
+        // Given
+        Map<String, Object> userProperties = new HashMap<>();
+        Session container = mock(Session.class);
+        when(container.getUserProperties()).thenReturn(userProperties);
+        WebSocketSession session = mock(WebSocketSession.class, withSettings().extraInterfaces(NativeWebSocketSession.class));
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        when(((NativeWebSocketSession) session).getNativeSession(Session.class)).thenReturn(container);
+
+        // When
+        new SessionOutbox("1", session, writer, closer, 16, SEND_TIME_LIMIT);
+
+        // Then
+        assertEquals(SEND_TIME_LIMIT, userProperties.get(SessionOutbox.BLOCKING_SEND_TIMEOUT_PROPERTY));
+    }
+
+    @Test
+    void closingStalledSessionDoesNotBlockCaller() throws Exception {
+        // Given: un envío atascado y un cierre que también se bloquea
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession stuck = session("atascada");
+        doAnswer(inv -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(stuck).sendMessage(any());
+        doAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(stuck).close(any(CloseStatus.class));
+        SessionOutbox outbox = new SessionOutbox("1", stuck, writer, closer, 16, SEND_TIME_LIMIT);
+        outbox.enqueue(new TextMessage("a"), null);
+        assertTrue(sending.await(1, TimeUnit.SECONDS));
+        Thread.sleep(SEND_TIME_LIMIT + 50);
+
+        // When
+        long start = System.currentTimeMillis();
+        boolean closed = outbox.closeIfStalled();
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Then: el vigilante retorna de inmediato; el cierre sigue en el executor de cierre
+        assertTrue(closed);
+        assertTrue(elapsed < 500, "closeIfStalled tardó " + elapsed + " ms");
+        verify(stuck, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        release.countDown();
+    }
+
+    @Test
+    void fullQueueClosesWithoutBlockingPublisher() throws Exception {
+        // Given: el escritor nunca corre, así la cola se llena
+        Executor idleWriter = task -> { };
+        WebSocketSession session = session("llena");
+        doAnswer(inv -> {
+            Thread.sleep(5000);
+            return null;
+        }).when(session).close(any(CloseStatus.class));
+        SessionOutbox outbox = new SessionOutbox("1", session, idleWriter, closer, 2, SEND_TIME_LIMIT);
+        outbox.enqueue(new TextMessage("a"), null);
+        outbox.enqueue(new TextMessage("b"), null);
+
+        // When
+        long start = System.currentTimeMillis();
+        boolean accepted = outbox.enqueue(new TextMessage("c"), null);
+
+        // Then
+        assertFalse(accepted);
+        assertTrue(System.currentTimeMillis() - start < 500);
+        assertFalse(outbox.isOpen());
+        verify(session, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+}
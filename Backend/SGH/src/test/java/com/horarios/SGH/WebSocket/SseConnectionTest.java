@@ -0,0 +1,118 @@
+package com.horarios.SGH.WebSocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del límite de tiempo de envío de SseConnection
+ */
+class SseConnectionTest {
+
+    private static final long SEND_TIME_LIMIT = 100;
+
+    // Un solo hilo de escritura: una conexión atascada bastaría para frenar a todas
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    private final ExecutorService closer = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdownNow();
+        closer.shutdownNow();
+    }
+
+    private SseConnection connection(String userId, SseEmitter emitter, Executor writerExecutor, int maxQueued) {
+        return new SseConnection(userId, "ESTUDIANTE", null, emitter, writerExecutor, closer, maxQueued, SEND_TIME_LIMIT);
+    }
+
+    @Test
+    void stalledConnectionIsClosedOffTheCallerAndFreesTheWriter() throws Exception {
+        // Given: un cliente que no lee; completar el emisor espera al envío en curso y luego lo aborta
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        SseEmitter slow = mock(SseEmitter.class);
+        doAnswer(inv -> {
+            sending.countDown();
+            released.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("envío abortado");
+        }).when(slow).send(any(SseEventBuilder.class));
+        doAnswer(inv -> {
+            released.countDown();
+            return null;
+        }).when(slow).complete();
+
+        CountDownLatch delivered = new CountDownLatch(1);
+        SseEmitter fast = mock(SseEmitter.class);
+        doAnswer(inv -> {
+            delivered.countDown();
+            return null;
+        }).when(fast).send(any(SseEventBuilder.class));
+
+        SseConnection slowConnection = connection("1", slow, writer, 16);
+        SseConnection fastConnection = connection("2", fast, writer, 16);
+
+        // When
+        slowConnection.enqueue("nodo1-1", "\"a\"", null);
+        assertTrue(sending.await(1, TimeUnit.SECONDS));
+        fastConnection.enqueue("nodo1-2", "\"b\"", null);
+        assertFalse(slowConnection.closeIfStalled(), "Aún no supera el límite");
+        Thread.sleep(SEND_TIME_LIMIT + 50);
+
+        long start = System.currentTimeMillis();
+        boolean closed = slowConnection.closeIfStalled();
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Then: el vigilante retorna de inmediato y el hilo de escritura queda libre para la otra conexión
+        assertTrue(closed);
+        assertTrue(elapsed < 500, "closeIfStalled tardó " + elapsed + " ms");
+        assertTrue(released.await(1, TimeUnit.SECONDS), "El emisor atascado se completa en closeExecutor");
+        assertTrue(delivered.await(1, TimeUnit.SECONDS));
+        assertFalse(slowConnection.isOpen());
+        assertFalse(slowConnection.enqueue("nodo1-3", "\"c\"", null));
+    }
+
+    @Test
+    void idleConnectionIsNotConsideredStalled() {
+        SseConnection connection = connection("1", mock(SseEmitter.class), writer, 16);
+
+        assertFalse(connection.closeIfStalled());
+        assertTrue(connection.isOpen());
+    }
+
+    @Test
+    void fullQueueClosesWithoutBlockingPublisher() throws Exception {
+        // Given: el escritor nunca corre, así la cola se llena; completar el emisor se bloquea
+        CountDownLatch completing = new CountDownLatch(1);
+        SseEmitter emitter = mock(SseEmitter.class);
+        doAnswer(inv -> {
+            completing.countDown();
+            Thread.sleep(5000);
+            return null;
+        }).when(emitter).complete();
+        SseConnection connection = connection("1", emitter, task -> { }, 2);
+        connection.enqueue("nodo1-1", "\"a\"", null);
+        connection.enqueue("nodo1-2", "\"b\"", null);
+
+        // When
+        long start = System.currentTimeMillis();
+        boolean accepted = connection.enqueue("nodo1-3", "\"c\"", null);
+
+        // Then
+        assertFalse(accepted);
+        assertTrue(System.currentTimeMillis() - start < 500);
+        assertFalse(connection.isOpen());
+        assertTrue(completing.await(1, TimeUnit.SECONDS));
+    }
+}
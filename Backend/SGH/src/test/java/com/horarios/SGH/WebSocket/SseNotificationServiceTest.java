@@ -0,0 +1,213 @@
+package com.horarios.SGH.WebSocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del reenvío por Last-Event-ID del canal SSE.
+ * El executor de escritura corre en el mismo hilo, así los eventos se envían al encolarlos.
+ */
+class SseNotificationServiceTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("(?m)^id:(.*)$");
+    private static final Pattern MESSAGE = Pattern.compile("\"(msg-\\d+)\"");
+
+    private SseNotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        WebSocketPresenceRegistry presenceRegistry = mock(WebSocketPresenceRegistry.class);
+        when(presenceRegistry.getNodeId()).thenReturn("nodo1");
+
+        service = spy(new SseNotificationService());
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "writerExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(service, "closeExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(service, "sendTimeLimit", 10000L);
+        ReflectionTestUtils.setField(service, "presenceRegistry", presenceRegistry);
+        ReflectionTestUtils.setField(service, "maxQueuedEvents", 64);
+        ReflectionTestUtils.setField(service, "replaySize", 3);
+    }
+
+    private static String message(int n) {
+        return "\"msg-" + n + "\"";
+    }
+
+    private void deliverToUser(String userId, int... numbers) {
+        for (int n : numbers) {
+            service.deliver(RelayEnvelope.toUser(userId, message(n), null));
+        }
+    }
+
+    /**
+     * Abre una conexión y devuelve el texto de cada evento enviado
+     */
+    private List<String> openAndCollect(String userId, String lastEventId) throws Exception {
+        SseEmitter emitter = mock(SseEmitter.class);
+        doReturn(emitter).when(service).createEmitter();
+
+        service.open(userId, "ESTUDIANTE", null, lastEventId, 0);
+
+        ArgumentCaptor<SseEventBuilder> sent = ArgumentCaptor.forClass(SseEventBuilder.class);
+        verify(emitter, atLeastOnce()).send(sent.capture());
+        List<String> events = new ArrayList<>();
+        for (SseEventBuilder builder : sent.getAllValues()) {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            events.add(text.toString());
+        }
+        return events;
+    }
+
+    private static List<String> replayedMessages(List<String> events) {
+        List<String> result = new ArrayList<>();
+        for (String event : events) {
+            Matcher matcher = MESSAGE.matcher(event);
+            if (matcher.find()) {
+                result.add(matcher.group(1));
+            }
+        }
+        return result;
+    }
+
+    private static List<String> eventIds(List<String> events) {
+        List<String> result = new ArrayList<>();
+        for (String event : events) {
+            Matcher matcher = EVENT_ID.matcher(event);
+            if (matcher.find()) {
+                result.add(matcher.group(1));
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasResync(List<String> events) {
+        return events.stream().anyMatch(event -> event.contains("\"resync\""));
+    }
+
+    @Test
+    void resumesOnlyEventsAfterLastEventId() throws Exception {
+        // Given
+        deliverToUser("ana", 1, 2, 3);
+
+        // When
+        List<String> events = openAndCollect("ana", "nodo1-1");
+
+        // Then
+        assertEquals(List.of("msg-2", "msg-3"), replayedMessages(events));
+        assertEquals(List.of("nodo1-2", "nodo1-3"), eventIds(events));
+        assertFalse(hasResync(events));
+    }
+
+    @Test
+    void replayFiltersByAudience() throws Exception {
+        // Given
+        deliverToUser("ana", 1);
+        deliverToUser("luis", 2);
+        deliverToUser("ana", 3);
+
+        // When
+        List<String> events = openAndCollect("ana", "nodo1-0");
+
+        // Then
+        assertEquals(List.of("msg-1", "msg-3"), replayedMessages(events));
+    }
+
+    @Test
+    void upToDateClientReceivesNoReplay() throws Exception {
+        // Given
+        deliverToUser("ana", 1, 2);
+
+        // When
+        List<String> events = openAndCollect("ana", "nodo1-2");
+
+        // Then
+        assertTrue(replayedMessages(events).isEmpty());
+        assertFalse(hasResync(events));
+    }
+
+    @Test
+    void eventsEvictedFromBufferRequireResync() throws Exception {
+        // Given: el buffer guarda 3 eventos; el 2 ya salió
+        deliverToUser("ana", 1, 2, 3, 4, 5);
+
+        // When
+        List<String> events = openAndCollect("ana", "nodo1-1");
+
+        // Then
+        assertTrue(replayedMessages(events).isEmpty());
+        assertTrue(hasResync(events));
+    }
+
+    @Test
+    void oldestBufferedEventIsStillResumable() throws Exception {
+        // Given: quedan 3, 4 y 5
+        deliverToUser("ana", 1, 2, 3, 4, 5);
+
+        // When
+        List<String> events = openAndCollect("ana", "nodo1-2");
+
+        // Then
+        assertEquals(List.of("msg-3", "msg-4", "msg-5"), replayedMessages(events));
+        assertFalse(hasResync(events));
+    }
+
+    @Test
+    void foreignOrMalformedIdsRequireResync() throws Exception {
+        deliverToUser("ana", 1);
+
+        for (String lastEventId : new String[] {"nodo2-1", "nodo1-x", "nodo1-99", "basura"}) {
+            List<String> events = openAndCollect("ana", lastEventId);
+
+            assertTrue(replayedMessages(events).isEmpty(), lastEventId);
+            assertTrue(hasResync(events), lastEventId);
+        }
+    }
+
+    @Test
+    void firstConnectionWithoutLastEventIdGetsNoResync() throws Exception {
+        // Given
+        deliverToUser("ana", 1);
+
+        // When
+        List<String> events = openAndCollect("ana", null);
+
+        // Then
+        assertTrue(replayedMessages(events).isEmpty());
+        assertFalse(hasResync(events));
+    }
+
+    @Test
+    void liveEventsContinueNumberingAfterReplay() throws Exception {
+        // Given
+        deliverToUser("ana", 1);
+        SseEmitter emitter = mock(SseEmitter.class);
+        doReturn(emitter).when(service).createEmitter();
+        service.open("ana", "ESTUDIANTE", null, "nodo1-1", 0);
+
+        // When
+        int queued = service.deliver(RelayEnvelope.toUser("ana", message(2), null));
+
+        // Then
+        assertEquals(1, queued);
+        ArgumentCaptor<SseEventBuilder> sent = ArgumentCaptor.forClass(SseEventBuilder.class);
+        verify(emitter, atLeastOnce()).send(sent.capture());
+        StringBuilder last = new StringBuilder();
+        sent.getValue().build().forEach(part -> last.append(part.getData()));
+        assertEquals(List.of("nodo1-2"), eventIds(List.of(last.toString())));
+    }
+}